@@ -1,4 +1,6 @@
+import domain.AdjacencyIndex;
 import domain.Address;
+import domain.CommunityIndex;
 import domain.Credential;
 import domain.User;
 import domain.Friendship;
@@ -8,10 +10,21 @@ import validation.AddressValidator;
 import validation.CredentialValidator;
 import validation.UserValidator;
 import validation.FriendshipValidator;
+import infrastructure.IIdGenerator;
 import infrastructure.IRepository;
+import infrastructure.CachingRepository;
+import infrastructure.CachingUserRepository;
+import infrastructure.memory.AtomicIdGenerator;
 import infrastructure.memory.InMemoryRepo;
+import infrastructure.memory.UniqueKeys;
 import infrastructure.file.UserFileRepo;
 import infrastructure.file.FriendshipFileRepo;
+import infrastructure.file.FileIdGenerator;
+import infrastructure.file.UserBinaryFileRepo;
+import infrastructure.file.FriendshipBinaryFileRepo;
+import infrastructure.file.CsvToBinaryConverter;
+import infrastructure.db.ConnectionPool;
+import infrastructure.db.DbIdGenerator;
 import infrastructure.db.UserDbRepository;
 import infrastructure.db.FriendshipDbRepository;
 import business.UserService;
@@ -25,6 +38,8 @@ import test.ApplicationTester;
 import java.io.File;
 import java.util.Scanner;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) {
@@ -45,9 +60,12 @@ public class Main {
         System.out.println("[1] - in memory (in RAM - Random Access Memory)");
         System.out.println("[2] - in text files (in CSV - Comma Separated Values files)");
         System.out.println("[3] - in database (in SQL - Structured Query Language database)");
+        System.out.println("[4] - in binary files (memory-mapped files, converted from the CSV files at first use)");
 
-        IRepository<Long, User> userRepo = new InMemoryRepo<>();
-        IRepository<Long, Friendship> friendshipRepo = new InMemoryRepo<>();
+        IRepository<Long, User> userRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        IRepository<Long, Friendship> friendshipRepo = new InMemoryRepo<>(UniqueKeys.forFriendships());
+        IIdGenerator userIdGenerator = new AtomicIdGenerator(1L);
+        IIdGenerator friendshipIdGenerator = new AtomicIdGenerator(1L);
 
         Scanner scanner = new Scanner(System.in);
         boolean keepRunning = true;
@@ -60,8 +78,20 @@ public class Main {
                     break;
                 case "2":
                     try {
-                        userRepo = new UserFileRepo(Constants.USER_TEXT_FILE_PATH);
-                        friendshipRepo = new FriendshipFileRepo(Constants.FRIENDSHIP_TEXT_FILE_PATH, userRepo);
+                        UserFileRepo userFileRepo = new UserFileRepo(Constants.USER_TEXT_FILE_PATH);
+                        FriendshipFileRepo friendshipFileRepo = new FriendshipFileRepo(Constants.FRIENDSHIP_TEXT_FILE_PATH, userFileRepo);
+                        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                            try {
+                                friendshipFileRepo.close();
+                                userFileRepo.close();
+                            } catch (RepoException ex) {
+                                ex.printStackTrace();
+                            }
+                        }));
+                        userRepo = userFileRepo;
+                        friendshipRepo = friendshipFileRepo;
+                        userIdGenerator = new FileIdGenerator(Constants.USER_ID_FILE_PATH, userRepo);
+                        friendshipIdGenerator = new FileIdGenerator(Constants.FRIENDSHIP_ID_FILE_PATH, friendshipRepo);
                     } catch (RepoException | IOException ex) {
                         System.out.println("Current directory/folder is: " + new File(".").getAbsoluteFile());
                         ex.printStackTrace();
@@ -69,8 +99,32 @@ public class Main {
                     }
                     break;
                 case "3":
-                    userRepo = new UserDbRepository(Constants.DATABASE_URL, Constants.DATABASE_USER, Constants.DATABASE_PASSWORD);
-                    friendshipRepo = new FriendshipDbRepository(Constants.DATABASE_URL, Constants.DATABASE_USER, Constants.DATABASE_PASSWORD, userRepo);
+                    ConnectionPool connectionPool = new ConnectionPool(Constants.DATABASE_URL, Constants.DATABASE_USER, Constants.DATABASE_PASSWORD);
+                    Runtime.getRuntime().addShutdownHook(new Thread(connectionPool::close));
+                    userRepo = CachingUserRepository.of(new UserDbRepository(connectionPool), Constants.REPOSITORY_CACHE_SIZE);
+                    friendshipRepo = new CachingRepository<>(new FriendshipDbRepository(connectionPool), Constants.REPOSITORY_CACHE_SIZE, Friendship::copy);
+                    try {
+                        userIdGenerator = DbIdGenerator.startingAfterMaximumId(connectionPool, "users");
+                        friendshipIdGenerator = DbIdGenerator.startingAfterMaximumId(connectionPool, "friendships");
+                    } catch (RepoException ex) {
+                        ex.printStackTrace();
+                        System.exit(1);
+                    }
+                    break;
+                case "4":
+                    try {
+                        if (!Files.exists(Paths.get(Constants.USER_BINARY_FILE_PATH))) {
+                            CsvToBinaryConverter.convert(Constants.USER_TEXT_FILE_PATH, Constants.FRIENDSHIP_TEXT_FILE_PATH, Constants.USER_BINARY_FILE_PATH, Constants.FRIENDSHIP_BINARY_FILE_PATH);
+                        }
+                        userRepo = new UserBinaryFileRepo(Constants.USER_BINARY_FILE_PATH);
+                        friendshipRepo = new FriendshipBinaryFileRepo(Constants.FRIENDSHIP_BINARY_FILE_PATH, userRepo);
+                        userIdGenerator = new FileIdGenerator(Constants.USER_BINARY_ID_FILE_PATH, userRepo);
+                        friendshipIdGenerator = new FileIdGenerator(Constants.FRIENDSHIP_BINARY_ID_FILE_PATH, friendshipRepo);
+                    } catch (RepoException | IOException ex) {
+                        System.out.println("Current directory/folder is: " + new File(".").getAbsoluteFile());
+                        ex.printStackTrace();
+                        System.exit(1);
+                    }
                     break;
                 default:
                     System.out.print(ConsoleColors.RED + "[!]Invalid option!" + ConsoleColors.RESET);
@@ -82,10 +136,12 @@ public class Main {
         IValidator<Address> addressValidator = new AddressValidator();
         IValidator<Credential> credentialValidator = new CredentialValidator();
         IValidator<User> userValidator = new UserValidator(addressValidator, credentialValidator);
-        UserService userService = new UserService(userValidator, userRepo, friendshipRepo);
+        AdjacencyIndex adjacencyIndex = new AdjacencyIndex();
+        CommunityIndex communityIndex = new CommunityIndex(adjacencyIndex);
+        UserService userService = new UserService(userValidator, userRepo, friendshipRepo, communityIndex, adjacencyIndex, userIdGenerator);
 
         IValidator<Friendship> friendshipValidator = new FriendshipValidator();
-        FriendshipService friendshipService = new FriendshipService(friendshipValidator, friendshipRepo, userRepo);
+        FriendshipService friendshipService = new FriendshipService(friendshipValidator, friendshipRepo, userRepo, communityIndex, adjacencyIndex, friendshipIdGenerator);
 
         SuperService superService = new SuperService(userService, friendshipService);
         UI ui = new UI(superService);
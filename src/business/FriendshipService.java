@@ -1,17 +1,27 @@
 package business;
 
-import domain.SocialNetworkGraph;
+import domain.AdjacencyIndex;
+import domain.Address;
+import domain.CommunityIndex;
 import domain.User;
 import domain.Friendship;
 import exception.ValidationException;
 import exception.RepoException;
 import exception.ServiceException;
 import validation.IValidator;
+import infrastructure.IIdGenerator;
 import infrastructure.IRepository;
+import utils.Constants;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -19,63 +29,144 @@ public class FriendshipService {
     private final IValidator<Friendship> validator;
     private final IRepository<Long, User> userRepo;
     private final IRepository<Long, Friendship> friendshipRepo;
-    private Long availableId;
+    private final CommunityIndex communityIndex;
+    private final AdjacencyIndex adjacencyIndex;
+    private final Map<Long, CachedRecommendations> recommendationCache;
+    private final Map<Long, CachedRecommendations> weightedRecommendationCache;
+    private long recommendationCacheVersion;
+    private final IIdGenerator idGenerator;
 
     /**
-     * Metoda privata de tip operand/rezultat care returneaza identificatorul cel mai mare al unei prietenii (o prietenie este un obiect de clasa Friendship) din repozitoriu (atributul privat friendshipRepo)
-     * @return obiect de clasa Long (valoare numerica intreaga cu semn (signed)) ce semnifica id-ul maxim al unei prietenii din reteaua de socializare
+     * Metoda privata de tip void (procedura) care incarca toate prieteniile (obiecte de clasa Friendship) din repozitoriu in indexul de comunitati (atributul privat communityIndex) si in indexul de adiacenta (atributul privat adjacencyIndex)<br>
+     * Metoda se apeleaza o singura data (la crearea service-ului), ulterior indecsii sunt actualizati incremental de metodele add, remove si modify
      */
-    private Long maximumFriendshipId() {
-        long maxFriendshipId = 0L;
+    private void loadCommunityIndex() {
+        friendshipRepo.stream().forEach(friendship -> {
+            bindFriends(friendship, true);
+            communityIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId());
+            adjacencyIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId(), friendship.getId());
+            adjacencyIndex.bind(friendship.getFirstFriend(), this::resolveUser);
+            adjacencyIndex.bind(friendship.getSecondFriend(), this::resolveUser);
+        });
+    }
 
+    /**
+     * Metoda privata care rezolva id-ul unui prieten (citit din indexul de adiacenta) la utilizatorul (obiect de clasa User) curent din repozitoriu
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return obiect de clasa User reprezentand utilizatorul cu id-ul userId
+     * @throws IllegalStateException daca indexul de adiacenta refera un utilizator care nu mai exista in repozitoriu
+     */
+    private User resolveUser(long userId) throws IllegalStateException {
         try {
-            Iterable<Friendship> friendships = friendshipRepo.getAll();
-            for(Friendship friendship : friendships) {
-                maxFriendshipId = Math.max(maxFriendshipId, friendship.getId());
+            return userRepo.search(userId);
+        } catch(RepoException ex) {
+            throw new IllegalStateException("[!]Adjacency index refers to an user which does not exist (there is no user with " + userId + " id)!\n");
+        }
+    }
+
+    /**
+     * Metoda privata care cauta utilizatorul cu id-ul userId in repozitoriu, intorcand null daca acesta nu exista (functia de legare a prieteniilor, vezi Friendship.bind)
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return obiect de clasa User reprezentand utilizatorul cu id-ul userId sau null daca utilizatorul a fost sters
+     */
+    private User findUser(long userId) {
+        try {
+            return userRepo.search(userId);
+        } catch(RepoException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Metoda privata care leaga prietenia friendship de repozitoriul de utilizatori si de versiunea indexului de comunitati (vezi Friendship.bind): prietenii ei sunt rezolvati dupa id cel mult o data dupa fiecare modificare a retelei, astfel incat o modificare a unui utilizator nu trebuie propagata in prieteniile acestuia
+     * @param friendship obiect de clasa Friendship (poate fi null)
+     * @param upToDate true daca prietenii memorati in friendship sunt cei curenti (prietenie abia citita din repozitoriu sau abia creata), false daca pot fi vechi (de exemplu o copie din cache)
+     * @return chiar prietenia friendship
+     */
+    private Friendship bindFriends(Friendship friendship, boolean upToDate) {
+        if(friendship != null) {
+            friendship.bind(this::findUser, communityIndex::getVersion, upToDate);
+        }
+        return friendship;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care goleste complet cache-ul de recomandari daca indexul de comunitati a fost modificat din afara acestui service (adaugare/stergere/modificare de utilizatori, vezi CommunityIndex.markUserModified)<br>
+     * Se apeleaza inainte de orice interogare si inainte de orice modificare a prieteniilor, astfel incat invalidarea tintita din invalidateRecommendations sa porneasca mereu de la un cache consistent
+     */
+    private void synchronizeRecommendationCache() {
+        if(recommendationCacheVersion != communityIndex.getVersion()) {
+            recommendationCache.clear();
+            weightedRecommendationCache.clear();
+            recommendationCacheVersion = communityIndex.getVersion();
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care invalideaza recomandarile afectate de adaugarea/stergerea prieteniei dintre firstUser si secondUser<br>
+     * O prietenie intre doi utilizatori schimba doar recomandarile celor doi si ale prietenilor lor (numarul de prieteni comuni se modifica doar pe drumurile de lungime 2 care trec prin muchia respectiva), restul cache-ului ramane valid
+     * @param firstUser obiect de clasa User reprezentand primul prieten din relatia de prietenie
+     * @param secondUser obiect de clasa User reprezentand al doilea prieten din relatia de prietenie
+     */
+    private void invalidateRecommendations(@NotNull User firstUser, @NotNull User secondUser) {
+        for(User user : Arrays.asList(firstUser, secondUser)) {
+            recommendationCache.remove(user.getId());
+            weightedRecommendationCache.remove(user.getId());
+            for(long friendId : adjacencyIndex.friendIdsOf(user.getId())) {
+                recommendationCache.remove(friendId);
+                weightedRecommendationCache.remove(friendId);
             }
-        } catch(RepoException ignored) {}
+        }
+        recommendationCacheVersion = communityIndex.getVersion();
+    }
 
-        return maxFriendshipId;
+    /**
+     * Metoda privata de tip double care calculeaza bonusul de localizare dintre doi utilizatori pentru recomandarile de prietenie<br>
+     * Bonusul este Constants.RECOMMENDATION_SAME_CITY_BONUS daca utilizatorii locuiesc in acelasi oras (si judet), Constants.RECOMMENDATION_SAME_COUNTY_BONUS daca locuiesc doar in acelasi judet si 0 in rest
+     * @param address obiect de clasa Address reprezentand adresa utilizatorului pentru care se fac recomandarile
+     * @param candidateId obiect de clasa Long reprezentand id-ul candidatului
+     * @return valoare numerica reala reprezentand bonusul candidatului
+     */
+    private double locationBonus(Address address, Long candidateId) {
+        try {
+            Address candidateAddress = userRepo.search(candidateId).getAddress();
+            if(address == null || candidateAddress == null || !Objects.equals(address.getCounty(), candidateAddress.getCounty())) {
+                return 0.0;
+            }
+            return Objects.equals(address.getCity(), candidateAddress.getCity()) ? Constants.RECOMMENDATION_SAME_CITY_BONUS : Constants.RECOMMENDATION_SAME_COUNTY_BONUS;
+        } catch(RepoException ex) {
+            return 0.0;
+        }
     }
 
     /**
      * Metoda privata de tip void (functie procedurala) care adauga bidirectional (in ambele sensuri) un user/utilizator (obiect de clasa User) in lista de prieteni ai unui alt user/utilizator (obiect de clasa User)<br>
-     * Metoda face doua adaugari ci anume:<br>
-     * - adauga utilizatorul (obiect de clasa User) secondFriend in lista de prieteni (atributul/campul privat friendList ce reprezinta o lista de obiecte de tipul User) ai utilizatorului (obiect de clasa User) firstFriend<br>
-     * - adauga utilizatorul (obiect de clasa User) firstFriend in lista de prieteni (atributul/campul privat friendList ce reprezinta o lista de obiecte de tipul User) ai utilizatorului (obiect de clasa User) secondFriend
+     * Listele de prieteni sunt vederi asupra indexului de adiacenta, deci adaugarea se face in O(1) direct in index (fara copierea listelor):<br>
+     * - adauga id-ul utilizatorului secondFriend in multimea de prieteni ai utilizatorului firstFriend<br>
+     * - adauga id-ul utilizatorului firstFriend in multimea de prieteni ai utilizatorului secondFriend
      * @param firstUser obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand primul prieten din relatia de prietenie
      * @param secondUser obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand al doilea prieten din relatia de prietenie
+     * @param friendshipId valoare numerica intreaga reprezentand id-ul prieteniei (memorat in indexul utilizator - prietenii)
      */
-    private void addFriendToUser(@NotNull User firstUser, @NotNull User secondUser) {
-        List<User> firstUserFriendList = firstUser.getFriendList();
-        List<User> firstUserFriendListUpdated = new ArrayList<>(firstUserFriendList);
-        firstUserFriendListUpdated.add(secondUser);
-        firstUser.setFriendList(firstUserFriendListUpdated);
-
-        List<User> secondUserFriendList = secondUser.getFriendList();
-        List<User> secondUserFriendListUpdated = new ArrayList<>(secondUserFriendList);
-        secondUserFriendListUpdated.add(firstUser);
-        secondUser.setFriendList(secondUserFriendListUpdated);
+    private void addFriendToUser(@NotNull User firstUser, @NotNull User secondUser, long friendshipId) {
+        adjacencyIndex.addFriendship(firstUser.getId(), secondUser.getId(), friendshipId);
+        adjacencyIndex.bind(firstUser, this::resolveUser);
+        adjacencyIndex.bind(secondUser, this::resolveUser);
     }
 
     /**
      * Metoda privata de tip void (functie procedurala) care sterge bidirectional (in ambele sensuri) un user/utilizator (obiect de clasa User) din lista de prieteni ai unui alt user/utilizator (obiect de clasa User)<br>
-     * Metoda face doua stergeri/eliminari ci anume:<br>
-     * - sterge/elimina utilizatorul (obiect de clasa User) secondFriend din lista de prieteni (atributul/campul privat friendList ce reprezinta o lista de obiecte de tipul User) ai utilizatorului (obiect de clasa User) firstFriend<br>
-     * - sterge/elimina utilizatorul (obiect de clasa User) firstFriend din lista de prieteni (atributul/campul privat friendList ce reprezinta o lista de obiecte de tipul User) ai utilizatorului (obiect de clasa User) secondFriend
+     * Listele de prieteni sunt vederi asupra indexului de adiacenta, deci stergerea se face in O(1) direct in index (fara filtrarea listelor):<br>
+     * - sterge id-ul utilizatorului secondFriend din multimea de prieteni ai utilizatorului firstFriend<br>
+     * - sterge id-ul utilizatorului firstFriend din multimea de prieteni ai utilizatorului secondFriend
      * @param firstUser obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand primul prieten din relatia de prietenie
      * @param secondUser obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand al doilea prieten din relatia de prietenie
+     * @param friendshipId valoare numerica intreaga reprezentand id-ul prieteniei (sters din indexul utilizator - prietenii)
      */
-    private void deleteFriendFromUser(@NotNull User firstUser, @NotNull User secondUser) {
-        List<User> firstUserFriendList = firstUser.getFriendList();
-        List<User> filteredFirstUserFriendList = new ArrayList<>();
-        filteredFirstUserFriendList = firstUserFriendList.stream().filter(user -> !user.equals(secondUser)).toList();
-        firstUser.setFriendList(filteredFirstUserFriendList);
-
-        List<User> secondUserFriendList = secondUser.getFriendList();
-        List<User> filteredSecondUserFriendList = new ArrayList<>();
-        filteredSecondUserFriendList = secondUserFriendList.stream().filter(user -> !user.equals(firstUser)).toList();
-        secondUser.setFriendList(filteredSecondUserFriendList);
+    private void deleteFriendFromUser(@NotNull User firstUser, @NotNull User secondUser, long friendshipId) {
+        adjacencyIndex.removeFriendship(firstUser.getId(), secondUser.getId(), friendshipId);
+        adjacencyIndex.bind(firstUser, this::resolveUser);
+        adjacencyIndex.bind(secondUser, this::resolveUser);
     }
 
     /**
@@ -94,16 +185,26 @@ public class FriendshipService {
     }
 
     /**
-     * Constructorul public al unui obiect de clasa FriendshipService care primeste trei parametri de intrare (parametri formali/simbolici): validator, repo si userRepo
+     * Constructorul public al unui obiect de clasa FriendshipService care primeste trei parametri de intrare (parametri formali/simbolici): validator, repo si userRepo<br>
+     * La fel ca UserService, service-ul trebuie folosit dintr-un singur fir de executie (sau cu sincronizare externa): indexul de comunitati, indexul de adiacenta si cache-ul de recomandari nu sunt sincronizate
      * @param validator obiect de clasa IValidator (interfaca de tip template care are Friendship ca si parametru) folosit pentru validarea relatiilor de prietenie (obiectelor de clasa Friendship)
      * @param repo obiect de clasa IRepository (interfata de tip template care are Long si Friendship ca si parametri) folosit pentru stocarea relatiilor de prietenie (obiectelor de clasa Friendship) in memorie (repozitoriu)
      * @param userRepo obiect de clasa IRepository (interfata de tip template care are Long si User ca si parametri) folosit pentru stocarea utilizatorilor (obiectelor de clasa User) in memorie (repozitoriu)
+     * @param communityIndex obiect de clasa CommunityIndex (partajat cu service-ul de utilizatori) care memoreaza comunitatile din retea si este actualizat incremental
+     * @param adjacencyIndex obiect de clasa AdjacencyIndex (partajat cu service-ul de utilizatori) care memoreaza id-urile prietenilor fiecarui utilizator si asupra caruia sunt construite listele de prieteni
+     * @param idGenerator obiect de clasa IIdGenerator care rezerva id-urile prieteniilor noi, astfel incat crearea service-ului nu parcurge prieteniile pentru a afla id-ul maxim
      */
-    public FriendshipService(IValidator<Friendship> validator, @NotNull IRepository<Long, Friendship> repo, IRepository<Long, User> userRepo) {
+    public FriendshipService(IValidator<Friendship> validator, @NotNull IRepository<Long, Friendship> repo, IRepository<Long, User> userRepo, @NotNull CommunityIndex communityIndex, @NotNull AdjacencyIndex adjacencyIndex, @NotNull IIdGenerator idGenerator) {
         this.validator = validator;
         this.friendshipRepo = repo;
         this.userRepo = userRepo;
-        this.availableId = maximumFriendshipId() + 1;
+        this.communityIndex = communityIndex;
+        this.adjacencyIndex = adjacencyIndex;
+        this.recommendationCache = new HashMap<>();
+        this.weightedRecommendationCache = new HashMap<>();
+        this.idGenerator = idGenerator;
+        loadCommunityIndex();
+        this.recommendationCacheVersion = communityIndex.getVersion();
     }
 
     /**
@@ -138,16 +239,94 @@ public class FriendshipService {
             newFriendship = new Friendship(secondFriend, firstFriend);
         }
 
-        newFriendship.setId(availableId++);
+        long friendshipId = idGenerator.nextId();
+        newFriendship.setId(friendshipId);
         try{
             validator.validate(newFriendship);
         } catch(ValidationException ex) {
-            --availableId;
+            idGenerator.release(new long[]{friendshipId});
             throw new ValidationException(ex.getMessage());
         }
 
+        synchronizeRecommendationCache();
+        bindFriends(newFriendship, true);
         friendshipRepo.add(newFriendship);
-        addFriendToUser(firstFriend, secondFriend);
+        addFriendToUser(firstFriend, secondFriend, friendshipId);
+        communityIndex.addFriendship(firstFriendId, secondFriendId);
+        invalidateRecommendations(firstFriend, secondFriend);
+    }
+
+    /**
+     * Metoda publica de tip void care adauga in masa prieteniile date prin perechile de id-uri friendPairs (incarcarea unei retele mari)<br>
+     * Toate perechile sunt validate inainte de prima adaugare (fiecare utilizator este cautat o singura data), id-urile prieteniilor sunt rezervate dintr-un singur pas, adaugarea in repozitoriu se face printr-un singur apel addAll, iar listele de prieteni sunt actualizate prin indexul de adiacenta (O(1) pe prietenie)
+     * @param friendPairs obiect iterabil cu perechi (liste de doua elemente) de id-uri de utilizatori
+     * @throws ValidationException daca cel putin o prietenie nu este valida
+     * @throws RepoException daca un utilizator nu exista sau daca cel putin o prietenie exista deja in retea (sau apare de doua ori in colectie); in acest caz nu se adauga nicio prietenie, nici in repozitoriu, nici in indecsi (repozitoriile adauga colectia atomic, vezi IRepository.addAll)
+     * @throws ServiceException daca nu exista utilizatori in retea, daca o pereche nu are exact doua id-uri valide sau daca un utilizator apare de doua ori in aceeasi pereche
+     * @throws IllegalArgumentException daca colectia este null
+     */
+    public void addAll(Iterable<List<Long>> friendPairs) throws ValidationException, RepoException, ServiceException, IllegalArgumentException {
+        if(friendPairs == null) {
+            throw new IllegalArgumentException("[!]Invalid friend pairs (friend pairs must not be null)!\n");
+        }
+        if(userRepo.len() == 0) {
+            throw new ServiceException("[!]There are no users in the social network!\n");
+        }
+
+        Map<Long, User> friends = new HashMap<>();
+        List<Friendship> newFriendships = new ArrayList<>();
+        for(List<Long> friendPair : friendPairs) {
+            if(friendPair == null || friendPair.size() != 2) {
+                throw new ServiceException("[!]Invalid friend pair (a friendship must contain exactly two users)!\n");
+            }
+            Long firstFriendId = friendPair.get(0);
+            Long secondFriendId = friendPair.get(1);
+            validateId(firstFriendId);
+            validateId(secondFriendId);
+            if(firstFriendId.equals(secondFriendId)) {
+                throw new ServiceException("[!]A user cannot befriend himself!\n");
+            }
+
+            User firstFriend = friends.get(firstFriendId);
+            if(firstFriend == null) {
+                firstFriend = userRepo.search(firstFriendId);
+                friends.put(firstFriendId, firstFriend);
+            }
+            User secondFriend = friends.get(secondFriendId);
+            if(secondFriend == null) {
+                secondFriend = userRepo.search(secondFriendId);
+                friends.put(secondFriendId, secondFriend);
+            }
+            newFriendships.add(firstFriendId <= secondFriendId ? new Friendship(firstFriend, secondFriend) : new Friendship(secondFriend, firstFriend));
+        }
+
+        long[] friendshipIds = idGenerator.nextIds(newFriendships.size());
+        for(int position = 0; position < newFriendships.size(); ++position) {
+            newFriendships.get(position).setId(friendshipIds[position]);
+        }
+        try {
+            for(Friendship friendship : newFriendships) {
+                validator.validate(friendship);
+            }
+        } catch(ValidationException ex) {
+            idGenerator.release(friendshipIds);
+            throw new ValidationException(ex.getMessage());
+        }
+
+        newFriendships.forEach(friendship -> bindFriends(friendship, true));
+        friendshipRepo.addAll(newFriendships);
+
+        for(Friendship friendship : newFriendships) {
+            communityIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId());
+            adjacencyIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId(), friendship.getId());
+        }
+        for(User friend : friends.values()) {
+            adjacencyIndex.bind(friend, this::resolveUser);
+        }
+
+        recommendationCache.clear();
+        weightedRecommendationCache.clear();
+        recommendationCacheVersion = communityIndex.getVersion();
     }
 
     /**
@@ -161,8 +340,11 @@ public class FriendshipService {
     public Friendship remove(Long friendshipId) throws RepoException, ServiceException, IllegalArgumentException {
         validateId(friendshipId);
 
-        Friendship removedFriendship = friendshipRepo.remove(friendshipId);
-        deleteFriendFromUser(removedFriendship.getFirstFriend(), removedFriendship.getSecondFriend());
+        synchronizeRecommendationCache();
+        Friendship removedFriendship = bindFriends(friendshipRepo.remove(friendshipId), false);
+        deleteFriendFromUser(removedFriendship.getFirstFriend(), removedFriendship.getSecondFriend(), removedFriendship.getId());
+        communityIndex.removeFriendship(removedFriendship.getFirstFriendId(), removedFriendship.getSecondFriendId());
+        invalidateRecommendations(removedFriendship.getFirstFriend(), removedFriendship.getSecondFriend());
 
         return removedFriendship;
     }
@@ -191,10 +373,16 @@ public class FriendshipService {
 
         validator.validate(friendship);
 
-        Friendship modifiedFriendship = friendshipRepo.modify(friendship);
+        synchronizeRecommendationCache();
+        bindFriends(friendship, false);
+        Friendship modifiedFriendship = bindFriends(friendshipRepo.modify(friendship), false);
         if(!friendship.getFirstFriend().equals(modifiedFriendship.getFirstFriend()) || !friendship.getSecondFriend().equals(modifiedFriendship.getSecondFriend())) {
-            deleteFriendFromUser(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend());
-            addFriendToUser(friendship.getFirstFriend(), friendship.getSecondFriend());
+            invalidateRecommendations(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend());
+            deleteFriendFromUser(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend(), modifiedFriendship.getId());
+            addFriendToUser(friendship.getFirstFriend(), friendship.getSecondFriend(), friendship.getId());
+            communityIndex.removeFriendship(modifiedFriendship.getFirstFriendId(), modifiedFriendship.getSecondFriendId());
+            communityIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId());
+            invalidateRecommendations(friendship.getFirstFriend(), friendship.getSecondFriend());
         }
 
         return modifiedFriendship;
@@ -225,10 +413,16 @@ public class FriendshipService {
 
         validator.validate(friendship);
 
-        Friendship modifiedFriendship = friendshipRepo.modify(friendship);
+        synchronizeRecommendationCache();
+        bindFriends(friendship, false);
+        Friendship modifiedFriendship = bindFriends(friendshipRepo.modify(friendship), false);
         if(!friendship.getFirstFriend().equals(modifiedFriendship.getFirstFriend()) || !friendship.getSecondFriend().equals(modifiedFriendship.getSecondFriend())) {
-            deleteFriendFromUser(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend());
-            addFriendToUser(friendship.getFirstFriend(), friendship.getSecondFriend());
+            invalidateRecommendations(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend());
+            deleteFriendFromUser(modifiedFriendship.getFirstFriend(), modifiedFriendship.getSecondFriend(), modifiedFriendship.getId());
+            addFriendToUser(friendship.getFirstFriend(), friendship.getSecondFriend(), friendship.getId());
+            communityIndex.removeFriendship(modifiedFriendship.getFirstFriendId(), modifiedFriendship.getSecondFriendId());
+            communityIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId());
+            invalidateRecommendations(friendship.getFirstFriend(), friendship.getSecondFriend());
         }
 
         return modifiedFriendship;
@@ -244,7 +438,7 @@ public class FriendshipService {
      */
     public Friendship search(Long friendshipId) throws RepoException, ServiceException, IllegalArgumentException {
         validateId(friendshipId);
-        return friendshipRepo.search(friendshipId);
+        return bindFriends(friendshipRepo.search(friendshipId), false);
     }
 
     /**
@@ -261,31 +455,123 @@ public class FriendshipService {
      * @throws RepoException daca nu exista nicio prietenie in reteaua de socializare
      */
     public Iterable<Friendship> getAll() throws RepoException {
-        return friendshipRepo.getAll();
+        Iterable<Friendship> friendships = friendshipRepo.getAll();
+        friendships.forEach(friendship -> bindFriends(friendship, true));
+        return friendships;
+    }
+
+    /**
+     * Metoda publica care returneaza cel mult limit prietenii cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor (o pagina din lista prieteniilor)
+     * @param afterId obiect de clasa Long reprezentand id-ul ultimei prietenii din pagina anterioara (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de prietenii din pagina
+     * @return lista (eventual vida) cu prieteniile paginii, ordonate crescator dupa id
+     * @throws RepoException daca pagina nu poate fi citita din repozitoriu
+     * @throws ServiceException daca limit nu este strict pozitiv
+     */
+    public List<Friendship> page(Long afterId, int limit) throws RepoException, ServiceException {
+        if(limit <= 0) {
+            throw new ServiceException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+        List<Friendship> friendships = friendshipRepo.page(afterId, limit);
+        friendships.forEach(friendship -> bindFriends(friendship, true));
+        return friendships;
+    }
+
+    /**
+     * Metoda publica care returneaza toate prieteniile din reteaua de socializare sub forma unui flux ordonat crescator dupa id, citit lenes pagina cu pagina (memorie constanta indiferent de dimensiunea retelei)
+     * @return obiect de clasa Stream cu elemente de tipul Friendship (flux vid daca reteaua nu are prietenii)
+     */
+    public Stream<Friendship> stream() {
+        return friendshipRepo.stream().map(friendship -> bindFriends(friendship, true));
     }
 
     /**
      * Metoda publica de tip int (integer = intreg) care returneaza numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din grafului retelei)<br>
-     * Se considera ca si comunitate (componenta conexa) si un singur utilizator (un user fara prieteni), acesta va reprezenta un nod/varf izolot in graful retelei
+     * Se considera ca si comunitate (componenta conexa) si un singur utilizator (un user fara prieteni), acesta va reprezenta un nod/varf izolot in graful retelei<br>
+     * Valoarea este citita din indexul de comunitati (O(1) daca nu exista stergeri in asteptare), fara a reconstrui graful retelei
      * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) reprezentand numarul de comunitati din retea
      */
     public int numberOfCommunities() {
-        Iterable<User> allUsers;
-        try {
-            allUsers = userRepo.getAll();
-        } catch(RepoException repoException) {
-            return 0;
+        return communityIndex.numberOfCommunities();
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca doi utilizatori (obiecte de clasa User) fac parte din aceeasi comunitate a retelei de socializare
+     * @param firstUserId obiect de clasa Long reprezentand id-ul primului utilizator
+     * @param secondUserId obiect de clasa Long reprezentand id-ul celui de al doilea utilizator
+     * @return true daca cei doi utilizatori fac parte din aceeasi comunitate, false in caz contrar
+     * @throws ServiceException daca cel putin unul dintre cele doua id-uri este invalid (este null sau este o valoare numerica intreaga strict negativa)
+     */
+    public boolean sameCommunity(Long firstUserId, Long secondUserId) throws ServiceException {
+        validateId(firstUserId);
+        validateId(secondUserId);
+        return communityIndex.sameCommunity(firstUserId, secondUserId);
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care returneaza cel mai scurt drum de prietenii dintre doi utilizatori ai retelei de socializare (gradele de separare dintre cei doi)<br>
+     * Daca utilizatorii nu fac parte din aceeasi comunitate raspunsul este dat direct de indexul de comunitati, altfel se face o cautare in latime bidirectionala in indexul de adiacenta (limitata la maxDepth prietenii); indexul este actualizat incremental, deci interogarile facute dupa adaugarea/stergerea de prietenii nu reconstruiesc nimic
+     * @param firstUserId obiect de clasa Long reprezentand id-ul utilizatorului de la care porneste drumul
+     * @param secondUserId obiect de clasa Long reprezentand id-ul utilizatorului la care se termina drumul
+     * @param maxDepth valoare numerica intreaga reprezentand lungimea maxima a drumului (numarul maxim de prietenii de pe drum)
+     * @return lista de obiecte de clasa Long cu id-urile utilizatorilor de pe drum (de la firstUserId la secondUserId; lungimea drumului este size() - 1) sau lista vida daca nu exista niciun drum de lungime cel mult maxDepth
+     * @throws RepoException daca cel putin unul dintre cei doi utilizatori nu exista in reteaua de socializare
+     * @throws ServiceException daca cel putin unul dintre cele doua id-uri este invalid (este null sau este o valoare numerica intreaga strict negativa) sau daca maxDepth este negativ
+     */
+    public List<Long> shortestPath(Long firstUserId, Long secondUserId, int maxDepth) throws RepoException, ServiceException {
+        validateId(firstUserId);
+        validateId(secondUserId);
+        if(maxDepth < 0) {
+            throw new ServiceException("[!]Invalid maximum depth (maximum depth must be greater or equal with 0)!\n");
         }
 
-        Iterable<Friendship> allFriendships;
-        try {
-            allFriendships = friendshipRepo.getAll();
-        } catch(RepoException repoException) {
-            return userRepo.len();
+        userRepo.search(firstUserId);
+        userRepo.search(secondUserId);
+
+        if(firstUserId.equals(secondUserId)) {
+            return Collections.singletonList(firstUserId);
+        }
+        if(!communityIndex.sameCommunity(firstUserId, secondUserId)) {
+            return Collections.emptyList();
+        }
+        return adjacencyIndex.shortestPath(firstUserId, secondUserId, maxDepth);
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care returneaza recomandarile de prietenie ("persoane pe care ai putea sa le cunosti") pentru un utilizator din reteaua de socializare<br>
+     * Candidatii sunt prietenii prietenilor utilizatorului (care nu ii sunt deja prieteni), ordonati descrescator dupa numarul de prieteni comuni; daca weightByLocation este true, candidatii din acelasi oras/judet primesc un bonus de scor<br>
+     * Candidatii sunt numarati direct din indexul de adiacenta (actualizat incremental), deci o recomandare costa cat vecinatatea de ordin 2 a utilizatorului, nu cat intreaga retea; rezultatele sunt memorate intr-un cache per utilizator, iar adaugarea/stergerea unei prietenii invalideaza doar intrarile utilizatorilor afectati (cei doi prieteni si prietenii lor)
+     * @param userId obiect de clasa Long reprezentand id-ul utilizatorului pentru care se fac recomandarile
+     * @param k valoare numerica intreaga reprezentand numarul maxim de recomandari
+     * @param weightByLocation true daca scorul tine cont si de orasul/judetul utilizatorilor, false daca scorul este doar numarul de prieteni comuni
+     * @return lista de obiecte de clasa User (cel mult k utilizatori) reprezentand recomandarile, in ordinea descrescatoare a scorului
+     * @throws RepoException daca utilizatorul cu id-ul userId nu exista in reteaua de socializare
+     * @throws ServiceException daca userId este invalid (este null sau este o valoare numerica intreaga strict negativa) sau daca k nu este strict pozitiv
+     */
+    public List<User> recommendFriends(Long userId, int k, boolean weightByLocation) throws RepoException, ServiceException {
+        validateId(userId);
+        if(k <= 0) {
+            throw new ServiceException("[!]Invalid number of recommendations (it must be greater than 0)!\n");
         }
 
-        SocialNetworkGraph graph = new SocialNetworkGraph(allUsers, allFriendships, userRepo);
-        return graph.numberOfCommunities();
+        User user = userRepo.search(userId);
+        synchronizeRecommendationCache();
+
+        Map<Long, CachedRecommendations> cache = weightByLocation ? weightedRecommendationCache : recommendationCache;
+        CachedRecommendations cachedRecommendations = cache.get(userId);
+        if(cachedRecommendations != null && (cachedRecommendations.k >= k || cachedRecommendations.users.size() < cachedRecommendations.k)) {
+            return cachedRecommendations.users.subList(0, Math.min(k, cachedRecommendations.users.size()));
+        }
+
+        Address address = user.getAddress();
+        List<Long> recommendedIds = adjacencyIndex.recommendFriends(userId, k, weightByLocation ? candidateId -> locationBonus(address, candidateId) : null);
+        List<User> recommendations = new ArrayList<>(recommendedIds.size());
+        for(Long recommendedId : recommendedIds) {
+            recommendations.add(userRepo.search(recommendedId));
+        }
+
+        cache.put(userId, new CachedRecommendations(k, Collections.unmodifiableList(recommendations)));
+        return Collections.unmodifiableList(recommendations);
     }
 
     /**
@@ -295,7 +581,23 @@ public class FriendshipService {
      * @throws RepoException daca nu exista utilizatori (obiecte de clasa User) in reteaua de socializare
      */
     public List<List<Long>> getAllCommunities() throws RepoException {
-        SocialNetworkGraph graph = new SocialNetworkGraph(userRepo.getAll(), friendshipRepo.getAll(), userRepo);
-        return graph.getAllCommunities();
+        List<List<Long>> communities = communityIndex.getAllCommunities();
+        if(communities.isEmpty()) {
+            throw new RepoException("[!]There are no users in the social network!\n");
+        }
+        return communities;
+    }
+
+    /**
+     * Clasa privata statica care reprezinta o intrare din cache-ul de recomandari: primele k recomandari calculate pentru un utilizator (daca lista are mai putin de k elemente, ea contine toti candidatii)
+     */
+    private static class CachedRecommendations {
+        private final int k;
+        private final List<User> users;
+
+        CachedRecommendations(int k, List<User> users) {
+            this.k = k;
+            this.users = users;
+        }
     }
 }
@@ -9,6 +9,7 @@ import exception.ServiceException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class SuperService {
     private final UserService userService;
@@ -43,6 +44,17 @@ public class SuperService {
         userService.add(firstName, lastName, birthday, email, homeAddress, country, county, city, username, password);
     }
 
+    /**
+     * Metoda publica de tip void care adauga in masa utilizatorii din colectia users (vezi UserService.addAll)
+     * @param users obiect iterabil cu utilizatorii (fara id) pe care dorim sa ii adaugam in retea
+     * @throws ValidationException daca cel putin un utilizator nu este valid (caz in care nu se adauga niciun utilizator)
+     * @throws RepoException daca cel putin un utilizator exista deja in retea (caz in care nu se adauga niciun utilizator, nici in repozitoriu, nici in indecsi: repozitoriile adauga colectia atomic, vezi IRepository.addAll)
+     * @throws IllegalArgumentException daca colectia sau cel putin un utilizator este null
+     */
+    public void addAllUsers(Iterable<User> users) throws ValidationException, RepoException, IllegalArgumentException {
+        userService.addAll(users);
+    }
+
     /**
      * Metoda publica de tip operand/rezultat care sterge/elimina un utilizator (obiect de clasa User) din reteaua de socializare<br>
      * Metoda se asigura ca toate prieteniile ce contin utilizatorul cu id-ul userId sunt sterse/eliminate din retea
@@ -98,6 +110,18 @@ public class SuperService {
         return userService.searchUserAfterName(name);
     }
 
+    /**
+     * Metoda publica de tip operand/rezultat care cauta (fara a tine cont de majuscule) cel mult limit utilizatori care contin sirul name in prenume sau in numele de familie
+     * @param name obiect de clasa String ce reprezinta sirul cautat
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori intorsi
+     * @return lista cu cel mult limit utilizatori care contin sirul name in nume sau in prenume
+     * @throws RepoException daca nu exista utilizatori in retea
+     * @throws ServiceException daca parametrul name este null sau vid, sau daca limit nu este strict pozitiv
+     */
+    public List<User> searchUserAfterName(String name, int limit) throws RepoException, ServiceException {
+        return userService.searchUserAfterName(name, limit);
+    }
+
     /**
      * Metoda publica de tip operand/rezultat care returneaza/intoarce numarul total al utilizatorilor (obiectelor de clasa User) din reteaua de socializare
      * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) ce reprezinta numarul de utilizatori din retea
@@ -116,6 +140,26 @@ public class SuperService {
         return userService.getAll();
     }
 
+    /**
+     * Metoda publica care returneaza cel mult limit utilizatori cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor (o pagina din lista utilizatorilor)
+     * @param afterId obiect de clasa Long reprezentand id-ul ultimului utilizator din pagina anterioara (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori din pagina
+     * @return lista (eventual vida) cu utilizatorii paginii, ordonati crescator dupa id
+     * @throws RepoException daca pagina nu poate fi citita
+     * @throws ServiceException daca limit nu este strict pozitiv
+     */
+    public List<User> getUsersPage(Long afterId, int limit) throws RepoException, ServiceException {
+        return userService.page(afterId, limit);
+    }
+
+    /**
+     * Metoda publica care returneaza toti utilizatorii din reteaua de socializare sub forma unui flux ordonat crescator dupa id, citit pagina cu pagina
+     * @return obiect de clasa Stream cu elemente de tipul User (flux vid daca reteaua nu are utilizatori)
+     */
+    public Stream<User> streamUsers() {
+        return userService.stream();
+    }
+
     /**
      * Metoda publica de tip operand/rezultat care returneaza/intoarce o lista cu toti prietenii unui utilizator (obiect de clasa User) din reteaua de socializare
      * @param userId obiect de clasa Long (valoare numerica intreaga cu semn (signed)) ce reprezinta id-ul userului pentru care vrem sa obtinem lista de prieteni
@@ -141,6 +185,18 @@ public class SuperService {
         friendshipService.add(firstFriendId, secondFriendId);
     }
 
+    /**
+     * Metoda publica de tip void care adauga in masa prieteniile date prin perechile de id-uri friendPairs (vezi FriendshipService.addAll)
+     * @param friendPairs obiect iterabil cu perechi (liste de doua elemente) de id-uri de utilizatori
+     * @throws ValidationException daca cel putin o prietenie nu este valida
+     * @throws RepoException daca un utilizator nu exista sau daca cel putin o prietenie exista deja in retea
+     * @throws ServiceException daca nu exista utilizatori in retea sau daca o pereche de id-uri este invalida
+     * @throws IllegalArgumentException daca colectia este null
+     */
+    public void addAllFriendships(Iterable<List<Long>> friendPairs) throws ValidationException, RepoException, ServiceException, IllegalArgumentException {
+        friendshipService.addAll(friendPairs);
+    }
+
     /**
      * Metoda publica de tip operand/rezultat care sterge/elimina o relatie de prietenie (obiect de clasa Friendship) din reteaua de socializare
      * @param friendshipId obiect de clasa Long ce reprezinta id-ul (identificatorul unic) prieteniei pe care dorim sa o stergem/eliminam
@@ -211,6 +267,26 @@ public class SuperService {
         return friendshipService.getAll();
     }
 
+    /**
+     * Metoda publica care returneaza cel mult limit prietenii cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor (o pagina din lista prieteniilor)
+     * @param afterId obiect de clasa Long reprezentand id-ul ultimei prietenii din pagina anterioara (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de prietenii din pagina
+     * @return lista (eventual vida) cu prieteniile paginii, ordonate crescator dupa id
+     * @throws RepoException daca pagina nu poate fi citita
+     * @throws ServiceException daca limit nu este strict pozitiv
+     */
+    public List<Friendship> getFriendshipsPage(Long afterId, int limit) throws RepoException, ServiceException {
+        return friendshipService.page(afterId, limit);
+    }
+
+    /**
+     * Metoda publica care returneaza toate prieteniile din reteaua de socializare sub forma unui flux ordonat crescator dupa id, citit pagina cu pagina
+     * @return obiect de clasa Stream cu elemente de tipul Friendship (flux vid daca reteaua nu are prietenii)
+     */
+    public Stream<Friendship> streamFriendships() {
+        return friendshipService.stream();
+    }
+
     /**
      * Metoda publica de tip int (integer = intreg) care returneaza numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din grafului retelei)<br>
      * Se considera ca si comunitate (componenta conexa) si un singur utilizator (un user fara prieteni), acesta va reprezenta un nod/varf izolot in graful retelei
@@ -220,6 +296,43 @@ public class SuperService {
         return friendshipService.numberOfCommunities();
     }
 
+    /**
+     * Metoda publica de tip boolean care verifica daca doi utilizatori (obiecte de clasa User) fac parte din aceeasi comunitate a retelei de socializare
+     * @param firstUserId obiect de clasa Long reprezentand id-ul primului utilizator
+     * @param secondUserId obiect de clasa Long reprezentand id-ul celui de al doilea utilizator
+     * @return true daca cei doi utilizatori fac parte din aceeasi comunitate, false in caz contrar
+     * @throws ServiceException daca cel putin unul dintre cele doua id-uri este invalid (este null sau este o valoare numerica intreaga strict negativa)
+     */
+    public boolean sameCommunity(Long firstUserId, Long secondUserId) throws ServiceException {
+        return friendshipService.sameCommunity(firstUserId, secondUserId);
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care returneaza cel mai scurt drum de prietenii dintre doi utilizatori ai retelei de socializare (gradele de separare dintre cei doi)
+     * @param firstUserId obiect de clasa Long reprezentand id-ul utilizatorului de la care porneste drumul
+     * @param secondUserId obiect de clasa Long reprezentand id-ul utilizatorului la care se termina drumul
+     * @param maxDepth valoare numerica intreaga reprezentand lungimea maxima a drumului (numarul maxim de prietenii de pe drum)
+     * @return lista de obiecte de clasa Long cu id-urile utilizatorilor de pe drum (lungimea drumului este size() - 1) sau lista vida daca nu exista niciun drum de lungime cel mult maxDepth
+     * @throws RepoException daca cel putin unul dintre cei doi utilizatori nu exista in reteaua de socializare
+     * @throws ServiceException daca cel putin unul dintre cele doua id-uri este invalid sau daca maxDepth este negativ
+     */
+    public List<Long> shortestPath(Long firstUserId, Long secondUserId, int maxDepth) throws RepoException, ServiceException {
+        return friendshipService.shortestPath(firstUserId, secondUserId, maxDepth);
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care returneaza recomandarile de prietenie ("persoane pe care ai putea sa le cunosti") pentru un utilizator din reteaua de socializare (prietenii prietenilor sai, ordonati dupa numarul de prieteni comuni)
+     * @param userId obiect de clasa Long reprezentand id-ul utilizatorului pentru care se fac recomandarile
+     * @param k valoare numerica intreaga reprezentand numarul maxim de recomandari
+     * @param weightByLocation true daca scorul tine cont si de orasul/judetul utilizatorilor, false in caz contrar
+     * @return lista de obiecte de clasa User (cel mult k utilizatori) reprezentand recomandarile, in ordinea descrescatoare a scorului
+     * @throws RepoException daca utilizatorul cu id-ul userId nu exista in reteaua de socializare
+     * @throws ServiceException daca userId este invalid sau daca k nu este strict pozitiv
+     */
+    public List<User> recommendFriends(Long userId, int k, boolean weightByLocation) throws RepoException, ServiceException {
+        return friendshipService.recommendFriends(userId, k, weightByLocation);
+    }
+
     /**
      * Metoda publica de tip operand (rezultat) care returneaza/intoarce o lista cu toate comunitatile din reteaua de socializare (o comunitate reprezinta o componenta conexa din graful retelei)<br>
      * Se considera ca si comunitate (componenta conexa) si un singur utilizator (un user fara prieteni), acesta va reprezenta un nod/varf izolot in graful retelei
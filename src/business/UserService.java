@@ -1,20 +1,25 @@
 package business;
 
+import domain.AdjacencyIndex;
 import domain.Address;
+import domain.CommunityIndex;
 import domain.Credential;
 import domain.Friendship;
+import domain.NameIndex;
 import domain.User;
 import exception.ValidationException;
 import exception.RepoException;
 import exception.ServiceException;
 import validation.IValidator;
+import infrastructure.IIdGenerator;
 import infrastructure.IRepository;
+import infrastructure.IUserSearchRepository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -22,70 +27,45 @@ public class UserService {
     private final IValidator<User> validator;
     private final IRepository<Long, User> userRepo;
     private final IRepository<Long, Friendship> friendshipRepo;
-    private Long availableId;
+    private final CommunityIndex communityIndex;
+    private final AdjacencyIndex adjacencyIndex;
+    private final NameIndex nameIndex;
+    private final IIdGenerator idGenerator;
 
     /**
-     * Metoda privata de tip operand/rezultat care returneaza/intoarce prin numele ei (prin numele functiei/metodei) identificatorul cel mai mare al unui user/utilizator (obiect de clasa User) ce exista in repozitoriul reprezentat de atributul privat userRepo
-     * @return obiect de clasa Long (valoare numerica intreaga cu semn (signed)) ce semnifica id-ul maxim al unui utilizator din reteaua de socializare
+     * Metoda privata de tip void (procedura) care incarca toti utilizatorii (obiecte de clasa User) din repozitoriu in indexul de comunitati (atributul privat communityIndex)<br>
+     * Fiecare utilizator formeaza initial o comunitate separata (prieteniile sunt adaugate in index de catre service-ul de prietenii), lista de prieteni a fiecarui utilizator devine o vedere asupra indexului de adiacenta, iar numele utilizatorului este adaugat in indexul de nume
      */
-    private Long maximumUserId() {
-        long maxUserId = 0L;
-
-        try {
-            Iterable<User> users = userRepo.getAll();
-            for(User user : users) {
-                maxUserId = Math.max(maxUserId, user.getId());
-            }
-        } catch(RepoException ignored) {}
-
-        return maxUserId;
-    }
-
-    /**
-     * Metoda privata de tip void (functie procedurala) care sterge toate relatiile de prietenie din reteaua de socializare care au identificatorul unic egal cu unul din identificatorii din lista data ca si parametru de intrare metodiei (este vorba despre parametrul formal/simbolic ids)
-     * @param ids obiect de clasa Iterable (obiect iterabil (care poate sa fie parcurs/iterat)) cu elemente de tipul Long (valoare numerica intreaga cu semn (signed)) ce semnifica lista de id-uri ale prieteniilor (obiecte de clasa Friendship) pe care dorim sa le stergem/eliminam din retea
-     */
-    private void removeAllFriendshipsThatContainsIds(@NotNull Iterable<Long> ids) {
-        ids.forEach(id -> {
-            try {
-                friendshipRepo.remove(id);
-            } catch(RepoException ignored) {}
+    private void loadCommunityIndex() {
+        userRepo.stream().forEach(user -> {
+            communityIndex.addUser(user.getId());
+            adjacencyIndex.bind(user, this::resolveUser);
+            indexName(user);
         });
     }
 
     /**
-     * Metoda privata de tip void (procedura) care sterge toate prieteniile (obiecte de clasa Friendship) care au utilizatorul user (obiect de clasa User) ca unul dintre cei doi prieteni (o prietenie este compusa din doi useri/utilizatori (adica din doua obiecte de clasa User))
-     * @param user obiect de clasa User (utilizator din reteaua de socializare) pe care dorim sa il eliminam din retea (sa stergem toate prieteniile care il contin)
+     * Metoda privata de tip void (procedura) care adauga/reindexeaza numele utilizatorului user in indexul de nume (daca service-ul foloseste un index de nume in memorie)
+     * @param user obiect de clasa User al carui prenume si nume de familie sunt indexate
      */
-    private void removeFriendshipsThatContainsUser(User user) {
-        try{
-            Iterable<Friendship> friendships = friendshipRepo.getAll();
-            List<Long> idsOfUsersToBeRemoved = new ArrayList<>();
-            friendships.forEach(friendship -> {
-                if(friendship.getFirstFriend().equals(user) || friendship.getSecondFriend().equals(user)) {
-                    idsOfUsersToBeRemoved.add(friendship.getId());
-                }
-            });
-            removeAllFriendshipsThatContainsIds(idsOfUsersToBeRemoved);
-        } catch(RepoException ignored) {}
+    private void indexName(@NotNull User user) {
+        if(nameIndex != null) {
+            nameIndex.addUser(user.getId(), user.getFirstName(), user.getLastName());
+        }
     }
 
     /**
-     * Metoda privata de tip void (procedura (functie/metoda care nu intoarce/returneaza/furnizeaza niciun rezultat)) care actualizeaza toate prieteniile (obiecte de clasa Friendship) din reteaua de socializare care contin un anumit utilizator (obiect de clasa User) dat ca si parametru de intrare metodei
-     * @param user obiect de clasa User ce reprezinta unul dintre userii/utilizatorii existenti in reteaua de socializare si pe care vrem sa il actualizam (sa actualizam toate prieteniile care il contin)
+     * Metoda privata care rezolva id-ul unui prieten (citit din indexul de adiacenta) la utilizatorul (obiect de clasa User) curent din repozitoriu
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return obiect de clasa User reprezentand utilizatorul cu id-ul userId
+     * @throws IllegalStateException daca indexul de adiacenta refera un utilizator care nu mai exista in repozitoriu
      */
-    private void updateFriendshipsThatContainsUser(User user) {
-        try{
-            Iterable<Friendship> friendships = friendshipRepo.getAll();
-            friendships.forEach(friendship -> {
-                if(friendship.getFirstFriend().equals(user)) {
-                    friendship.setFirstFriend(user);
-                }
-                else if(friendship.getSecondFriend().equals(user)) {
-                    friendship.setSecondFriend(user);
-                }
-            });
-        } catch(RepoException ignored) {}
+    private User resolveUser(long userId) throws IllegalStateException {
+        try {
+            return userRepo.search(userId);
+        } catch(RepoException ex) {
+            throw new IllegalStateException("[!]Adjacency index refers to an user which does not exist (there is no user with " + userId + " id)!\n");
+        }
     }
 
     /**
@@ -104,16 +84,24 @@ public class UserService {
     }
 
     /**
-     * Constructor public al unui obiect de clasa UserService care primeste doi parametri de intrare: validator si repo
+     * Constructor public al unui obiect de clasa UserService care primeste doi parametri de intrare: validator si repo<br>
+     * Service-ul nu este sigur pentru apeluri concurente, chiar daca repozitoriul este (de exemplu ConcurrentInMemoryRepo): indecsii partajati cu service-ul de prietenii (comunitati, adiacenta) si indexul de nume sunt actualizati fara sincronizare dupa fiecare scriere in repozitoriu, deci apelurile din mai multe fire de executie trebuie serializate de apelant
      * @param validator obiect de clasa IValidator (interfata de tip template care are User ca si parametru) folosit pentru validarea utilizatorilor (obiectelor de clasa User)
      * @param userRepo obiect de clasa IRepository (interfata de tip IRepository care are Long si User ca si parametri) folosit pentru stocarea utilizatorilor (obiectelor de clasa User) in memorie (repozitoriu)
      * @param friendshipRepo obiect de clasa IRepository (interfata de tip IRepository care are Long si Friendship ca si parametri) folosit pentru stocarea relatiilor de prietenie (obiectelor de clasa Friendship) in repozitoriu
+     * @param communityIndex obiect de clasa CommunityIndex (partajat cu service-ul de prietenii) care memoreaza comunitatile din retea si este actualizat incremental
+     * @param adjacencyIndex obiect de clasa AdjacencyIndex (partajat cu service-ul de prietenii) care memoreaza id-urile prietenilor fiecarui utilizator si asupra caruia sunt construite listele de prieteni
+     * @param idGenerator obiect de clasa IIdGenerator care rezerva id-urile utilizatorilor noi (contor atomic in memorie, fisier auxiliar pentru CSV, secventa/MAX(id) pentru baza de date), astfel incat crearea service-ului nu parcurge utilizatorii pentru a afla id-ul maxim
      */
-    public UserService(IValidator<User> validator, @NotNull IRepository<Long, User> userRepo, IRepository<Long, Friendship> friendshipRepo) {
+    public UserService(IValidator<User> validator, @NotNull IRepository<Long, User> userRepo, IRepository<Long, Friendship> friendshipRepo, @NotNull CommunityIndex communityIndex, @NotNull AdjacencyIndex adjacencyIndex, @NotNull IIdGenerator idGenerator) {
         this.validator = validator;
         this.userRepo = userRepo;
         this.friendshipRepo = friendshipRepo;
-        this.availableId = maximumUserId() + 1;
+        this.communityIndex = communityIndex;
+        this.adjacencyIndex = adjacencyIndex;
+        this.nameIndex = userRepo instanceof IUserSearchRepository ? null : new NameIndex();
+        this.idGenerator = idGenerator;
+        loadCommunityIndex();
     }
 
     /**
@@ -135,21 +123,67 @@ public class UserService {
         Address address = new Address(homeAddress, country, county, city);
         Credential credential = new Credential(username, password);
         User user = new User(firstName, lastName, birthday, email, address, credential);
-        user.setId(availableId++);
+        long userId = idGenerator.nextId();
+        user.setId(userId);
 
         try{
             validator.validate(user);
         } catch(ValidationException ex) {
-            --availableId;
+            idGenerator.release(new long[]{userId});
             throw new ValidationException(ex.getMessage());
         }
 
         userRepo.add(user);
+        communityIndex.addUser(user.getId());
+        adjacencyIndex.bind(user, this::resolveUser);
+        indexName(user);
+    }
+
+    /**
+     * Metoda publica de tip void care adauga in masa utilizatorii din colectia users (incarcarea unei retele mari)<br>
+     * Toti utilizatorii sunt validati inainte de prima adaugare; id-urile lor sunt rezervate dintr-un singur pas (un singur apel al generatorului de id-uri), iar adaugarea in repozitoriu se face printr-un singur apel addAll
+     * @param users obiect iterabil cu utilizatorii (fara id) pe care dorim sa ii adaugam in retea
+     * @throws ValidationException daca cel putin un utilizator nu este valid (caz in care nu se adauga niciun utilizator)
+     * @throws RepoException daca cel putin un utilizator exista deja in retea (caz in care nu se adauga niciun utilizator, nici in repozitoriu, nici in indecsi: repozitoriile adauga colectia atomic, vezi IRepository.addAll)
+     * @throws IllegalArgumentException daca colectia sau cel putin un utilizator este null
+     */
+    public void addAll(Iterable<User> users) throws ValidationException, RepoException, IllegalArgumentException {
+        if(users == null) {
+            throw new IllegalArgumentException("[!]Invalid users (users must not be null)!\n");
+        }
+
+        List<User> newUsers = new ArrayList<>();
+        for(User user : users) {
+            if(user == null) {
+                throw new IllegalArgumentException("[!]Invalid user (user must not be null)!\n");
+            }
+            newUsers.add(user);
+        }
+
+        long[] userIds = idGenerator.nextIds(newUsers.size());
+        for(int position = 0; position < newUsers.size(); ++position) {
+            newUsers.get(position).setId(userIds[position]);
+        }
+        try {
+            for(User user : newUsers) {
+                validator.validate(user);
+            }
+        } catch(ValidationException ex) {
+            idGenerator.release(userIds);
+            throw new ValidationException(ex.getMessage());
+        }
+
+        userRepo.addAll(newUsers);
+        for(User user : newUsers) {
+            communityIndex.addUser(user.getId());
+            adjacencyIndex.bind(user, this::resolveUser);
+            indexName(user);
+        }
     }
 
     /**
      * Metoda publica de tip operand/rezultat care sterge/elimina un utilizator (obiect de clasa User) din reteaua de socializare<br>
-     * Metoda se asigura ca toate prieteniile ce contin utilizatorul cu id-ul userId sunt sterse/eliminate din retea
+     * Metoda se asigura ca toate prieteniile ce contin utilizatorul cu id-ul userId sunt sterse/eliminate din retea: prieteniile sunt gasite prin indexul utilizator - prietenii (fara parcurgerea retelei) si sunt sterse printr-un singur apel removeAll (inaintea utilizatorului, astfel incat nicio prietenie sa nu refere un utilizator inexistent)
      * @param userId identificatorul unic al utilizatorului pe care dorim sa il stergem/eliminam din retea
      * @return obiect de clasa User ce reprezinta utilizatorul cu id-ul userId pe care l-am sters din retea (intoarce utilizatorul sters in cazul in care stergerea s-a realizat cu succes)
      * @throws RepoException daca nu exista niciun utilizator cu id-ul userId in retea
@@ -159,24 +193,28 @@ public class UserService {
     public User remove(Long userId) throws RepoException, ServiceException, IllegalArgumentException {
         validateId(userId);
 
-        User removedUser = userRepo.remove(userId);
-        try {
-            Iterable<User> allUsers = userRepo.getAll();
-            allUsers.forEach(user -> {
-                List<User> friendListOfCurrentUser = user.getFriendList();
-                List<User> filteredFriendListOfCurrentUser = friendListOfCurrentUser.stream().filter(friendOfUser -> !friendOfUser.equals(removedUser)).collect(Collectors.toList());
-                user.setFriendList(filteredFriendListOfCurrentUser);
-            });
-        } catch(RepoException ignored) {}
+        List<Long> friendshipIds = new ArrayList<>();
+        for(long friendshipId : adjacencyIndex.friendshipIdsOf(userId)) {
+            friendshipIds.add(friendshipId);
+        }
+        List<Friendship> removedFriendships = friendshipRepo.removeAll(friendshipIds);
+        for(Friendship friendship : removedFriendships) {
+            adjacencyIndex.removeFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId(), friendship.getId());
+        }
 
-        removeFriendshipsThatContainsUser(removedUser);
+        User removedUser = userRepo.remove(userId);
+        adjacencyIndex.removeUser(userId);
+        communityIndex.removeUser(userId);
+        if(nameIndex != null) {
+            nameIndex.removeUser(userId);
+        }
 
         return removedUser;
     }
 
     /**
      * Metoda publica de tip operand/rezultat care modifica/actualizeaza un utilizator (obiect de clasa User) din reteaua de socializare<br>
-     * Metoda se asigura ca toate relatiile de prietenie ce contin utilizatorul (obiect de clasa User) cu identificatorul unic egal cu parametrul de intrare userId vor fi actualizate
+     * Prieteniile si listele de prieteni ale utilizatorului nu sunt atinse: ambele rezolva prietenii dupa id prin repozitoriul de utilizatori (vezi Friendship.bind si AdjacencyIndex.bind); versiunea indexului de comunitati este incrementata (vezi CommunityIndex.markUserModified), deci prieteniile isi rezolva din nou prietenii o singura data la urmatoarea citire si vad noua versiune a utilizatorului, iar modificarea costa O(1) indiferent de numarul de prietenii
      * @param userId obiect de clasa Long (valoare numerica intreaga cu semn) ce reprezinta identificatorul unic al utilizatorului pe care dorim sa il modificam
      * @param firstName obiect de clasa String (sir de caractere) ce reprezinta prenumele utilizatorului pe care dorim sa il modificam
      * @param lastName obiect de clasa String (sir de caractere) ce reprezinta numele de familie al utilizatorului pe care dorim sa il modificam
@@ -192,34 +230,21 @@ public class UserService {
     public User modify(Long userId, String firstName, String lastName, String homeAddress, String country, String county, String city, String username, String password) throws ValidationException, RepoException, IllegalArgumentException {
         LocalDate birthday = LocalDate.now();
         String email = "";
-        List<User> friendList = new ArrayList<>();
         try {
             User searchedUser = search(userId);
             birthday = searchedUser.getBirthday();
             email = searchedUser.getEmail();
-            friendList = searchedUser.getFriendList();
         } catch (ServiceException ignored) {}
 
         Address address = new Address(homeAddress, country, county, city);
         Credential credential = new Credential(username, password);
         User newUser = new User(userId, firstName, lastName, birthday, email, address, credential);
-        newUser.setFriendList(friendList);
         validator.validate(newUser);
 
         User modifiedUser = userRepo.modify(newUser);
-        Iterable<User> allUsers = userRepo.getAll();
-        allUsers.forEach(user -> {
-            List<User> friendListOfCurrentUser = user.getFriendList();
-            List<User> filteredFriendListOfCurrentUser = friendListOfCurrentUser.stream().filter(friendOfUser -> !friendOfUser.equals(modifiedUser)).collect(Collectors.toList());
-
-            if(!friendListOfCurrentUser.equals(filteredFriendListOfCurrentUser)) {
-                filteredFriendListOfCurrentUser.add(newUser);
-            }
-
-            user.setFriendList(filteredFriendListOfCurrentUser);
-        });
-
-        updateFriendshipsThatContainsUser(newUser);
+        adjacencyIndex.bind(newUser, this::resolveUser);
+        communityIndex.markUserModified(userId);
+        indexName(newUser);
 
         return modifiedUser;
     }
@@ -245,22 +270,40 @@ public class UserService {
      * @throws ServiceException daca parametrul name este null sau lungimea sa este egala cu 0 (name este sirul de caractere vid)
      */
     public List<User> searchUserAfterName(String name) throws RepoException, ServiceException {
+        return searchUserAfterName(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care cauta (fara a tine cont de majuscule) cel mult limit utilizatori care contin sirul name in prenume sau in numele de familie (cautare de tip typeahead)<br>
+     * Cautarea foloseste indexul de trigrame al numelor (actualizat la adaugare, modificare si stergere), deci nu parcurge reteaua; daca repozitoriul stie sa caute singur (IUserSearchRepository, de exemplu baza de date) cautarea este delegata acestuia
+     * @param name obiect de clasa String ce reprezinta sirul cautat
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori intorsi
+     * @return lista cu cel mult limit utilizatori care contin sirul name in nume sau in prenume (ordinea nu este garantata)
+     * @throws RepoException daca nu exista utilizatori in retea
+     * @throws ServiceException daca parametrul name este null sau vid, sau daca limit nu este strict pozitiv
+     */
+    public List<User> searchUserAfterName(String name, int limit) throws RepoException, ServiceException {
         if(name == null) {
             throw new ServiceException("[!]Invalid name (name must not be null)!\n");
         }
         else if(name.length() == 0) {
             throw new ServiceException("[!]Invalid name (name must be non-empty)!\n");
         }
+        if(limit <= 0) {
+            throw new ServiceException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
 
-        List<User> searchedUsers = new ArrayList<>();
-
-        Iterable<User> users = userRepo.getAll();
-        users.forEach(user -> {
-            if(user.getFirstName().toLowerCase().contains(name.toLowerCase()) || user.getLastName().toLowerCase().contains(name.toLowerCase())) {
-                searchedUsers.add(user);
-            }
-        });
+        if(nameIndex == null) {
+            return ((IUserSearchRepository) userRepo).searchByName(name, limit);
+        }
+        if(nameIndex.size() == 0) {
+            throw new RepoException("[!]There are no users in the social network!\n");
+        }
 
+        List<User> searchedUsers = new ArrayList<>();
+        for(Long userId : nameIndex.search(name, limit)) {
+            searchedUsers.add(userRepo.search(userId));
+        }
         return searchedUsers;
     }
 
@@ -283,7 +326,31 @@ public class UserService {
     }
 
     /**
-     * Metoda publica de tip operand/rezultat care returneaza/intoarce o lista cu toti prietenii unui utilizator (obiect de clasa User) din reteaua de socializare
+     * Metoda publica care returneaza cel mult limit utilizatori cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor (o pagina din lista utilizatorilor)
+     * @param afterId obiect de clasa Long reprezentand id-ul ultimului utilizator din pagina anterioara (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori din pagina
+     * @return lista (eventual vida) cu utilizatorii paginii, ordonati crescator dupa id
+     * @throws RepoException daca pagina nu poate fi citita din repozitoriu
+     * @throws ServiceException daca limit nu este strict pozitiv
+     */
+    public List<User> page(Long afterId, int limit) throws RepoException, ServiceException {
+        if(limit <= 0) {
+            throw new ServiceException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+        return userRepo.page(afterId, limit);
+    }
+
+    /**
+     * Metoda publica care returneaza toti utilizatorii din reteaua de socializare sub forma unui flux ordonat crescator dupa id, citit lenes pagina cu pagina (memorie constanta indiferent de dimensiunea retelei)
+     * @return obiect de clasa Stream cu elemente de tipul User (flux vid daca reteaua nu are utilizatori)
+     */
+    public Stream<User> stream() {
+        return userRepo.stream();
+    }
+
+    /**
+     * Metoda publica de tip operand/rezultat care returneaza/intoarce o lista cu toti prietenii unui utilizator (obiect de clasa User) din reteaua de socializare<br>
+     * Lista returnata este o vedere lenesa (read-only) asupra indexului de adiacenta: nu se copiaza nimic, iar prietenii sunt rezolvati la accesare
      * @param userId obiect de clasa Long (valoare numerica intreaga cu semn (signed)) ce reprezinta id-ul userului pentru care vrem sa obtinem lista de prieteni
      * @return un obiect de clasa List (lista) cu elemente de tipul User (utilizatori valizi din reteaua de socializare) ce reprezinta lista de prieteni ai utilizatorului cu id-ul egal cu userId din reteaua de socializare
      * @throws RepoException daca nu exista entitati in retea sau daca nu exista niciun utilizator cu id-ul egal cu userId
@@ -292,6 +359,7 @@ public class UserService {
      */
     public List<User> getFriendsOfUser(Long userId) throws RepoException, ServiceException, IllegalArgumentException {
         validateId(userId);
-        return userRepo.search(userId).getFriendList();
+        userRepo.search(userId);
+        return adjacencyIndex.friendListOf(userId, this::resolveUser);
     }
 }
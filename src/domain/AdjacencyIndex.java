@@ -0,0 +1,568 @@
+package domain;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+
+import org.jetbrains.annotations.NotNull;
+
+public class AdjacencyIndex {
+    private static final long[] NO_FRIENDS = new long[0];
+
+    private final Map<Long, Integer> nodeIndexes;
+    private final Map<Long, LongHashSet> friendshipsOf;
+    private long[] userIds;
+    private LongHashSet[] friendNodes;
+    private int numberOfNodes;
+    private int[] freeNodes;
+    private int numberOfFreeNodes;
+    private int[] forwardQueue, backwardQueue;
+    private int[] forwardParents, backwardParents;
+    private int[] forwardDistances, backwardDistances;
+    private int[] mutualFriends, candidates;
+
+    /**
+     * Clasa interna care reprezinta lista de prieteni a unui utilizator ca o vedere (view) lenesa asupra indexului<br>
+     * Lista nu memoreaza utilizatori: la fiecare acces id-ul prietenului este citit din index si rezolvat (prin resolver) la obiectul de clasa User curent, astfel incat adaugarile/stergerile de prietenii si modificarile de utilizatori sunt vizibile imediat, fara copierea listei
+     */
+    private final class FriendListView extends AbstractList<User> {
+        private final long userId;
+        private final LongFunction<User> resolver;
+
+        private FriendListView(long userId, @NotNull LongFunction<User> resolver) {
+            this.userId = userId;
+            this.resolver = resolver;
+        }
+
+        private AdjacencyIndex owner() {
+            return AdjacencyIndex.this;
+        }
+
+        @Override
+        public User get(int index) {
+            Integer node = nodeIndexes.get(userId);
+            if(node == null) {
+                throw new IndexOutOfBoundsException("[!]Invalid position (the user has no friends)!\n");
+            }
+            return resolver.apply(userIds[(int)friendNodes[node].get(index)]);
+        }
+
+        @Override
+        public int size() {
+            return degree(userId);
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            return obj instanceof User user && user.getId() != null && areFriends(userId, user.getId());
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void (procedura) care sterge valoarea value din multimea utilizatorului cu id-ul userId (multimea vida a utilizatorului este eliminata din harta)
+     * @param sets harta (id utilizator - multime de id-uri) din care se sterge valoarea
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @param value valoare numerica intreaga reprezentand id-ul sters (al unei prietenii)
+     */
+    private static void unlink(Map<Long, LongHashSet> sets, long userId, long value) {
+        LongHashSet values = sets.get(userId);
+        if(values != null && values.remove(value) && values.isEmpty()) {
+            sets.remove(userId);
+        }
+    }
+
+    /**
+     * Metoda privata de tip int care returneaza nodul (indexul dens) utilizatorului cu id-ul userId, alocand un nod nou (refolosit din nodurile eliberate, daca exista) daca utilizatorul nu are inca prieteni in index
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return valoare numerica intreaga reprezentand nodul utilizatorului
+     */
+    private int nodeOf(long userId) {
+        Integer node = nodeIndexes.get(userId);
+        if(node != null) {
+            return node;
+        }
+
+        int newNode;
+        if(numberOfFreeNodes > 0) {
+            newNode = freeNodes[--numberOfFreeNodes];
+        }
+        else {
+            if(numberOfNodes == userIds.length) {
+                userIds = Arrays.copyOf(userIds, numberOfNodes * 2);
+                friendNodes = Arrays.copyOf(friendNodes, numberOfNodes * 2);
+            }
+            newNode = numberOfNodes++;
+        }
+        userIds[newNode] = userId;
+        friendNodes[newNode] = new LongHashSet();
+        nodeIndexes.put(userId, newNode);
+        return newNode;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care elibereaza nodul node al utilizatorului cu id-ul userId (cand acesta nu mai are niciun prieten), astfel incat nodul sa poata fi refolosit
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @param node valoare numerica intreaga reprezentand nodul utilizatorului
+     */
+    private void releaseNode(long userId, int node) {
+        nodeIndexes.remove(userId);
+        friendNodes[node] = null;
+        if(numberOfFreeNodes == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, numberOfFreeNodes * 2);
+        }
+        freeNodes[numberOfFreeNodes++] = node;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care sterge legatura (intr-un singur sens) dintre nodurile node si friendNode, eliberand nodul node daca acesta ramane fara prieteni
+     * @param node valoare numerica intreaga reprezentand nodul din a carui multime se sterge prietenul
+     * @param friendNode valoare numerica intreaga reprezentand nodul prietenului sters
+     */
+    private void unlinkNodes(int node, int friendNode) {
+        if(friendNodes[node].remove(friendNode) && friendNodes[node].isEmpty()) {
+            releaseNode(userIds[node], node);
+        }
+    }
+
+    /**
+     * Constructor public si default (implicit, adica fara parametri) al unui obiect de clasa AdjacencyIndex (index gol, fara prietenii)<br>
+     * Fiecare utilizator cu cel putin un prieten primeste un nod (index dens intre 0 si numarul de noduri), iar multimile de prieteni contin noduri, nu id-uri, astfel incat parcurgerile (drum minim, recomandari) lucreaza doar cu vectori de int refolositi intre interogari, fara harti si fara obiecte alocate pe muchie
+     */
+    public AdjacencyIndex() {
+        nodeIndexes = new HashMap<>();
+        friendshipsOf = new HashMap<>();
+        userIds = new long[16];
+        friendNodes = new LongHashSet[16];
+        freeNodes = new int[16];
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care adauga (in ambele sensuri) prietenia cu id-ul friendshipId dintre utilizatorii cu id-urile firstUserId si secondUserId in O(1) amortizat<br>
+     * Pe langa prieteni, indexul memoreaza pentru fiecare utilizator si id-urile prieteniilor care il contin (indexul utilizator - prietenii folosit la stergerea in cascada)
+     * @param firstUserId valoare numerica intreaga reprezentand id-ul primului prieten
+     * @param secondUserId valoare numerica intreaga reprezentand id-ul celui de al doilea prieten
+     * @param friendshipId valoare numerica intreaga reprezentand id-ul prieteniei
+     */
+    public void addFriendship(long firstUserId, long secondUserId, long friendshipId) {
+        int x = nodeOf(firstUserId);
+        int y = nodeOf(secondUserId);
+        friendNodes[x].add(y);
+        friendNodes[y].add(x);
+        friendshipsOf.computeIfAbsent(firstUserId, id -> new LongHashSet()).add(friendshipId);
+        friendshipsOf.computeIfAbsent(secondUserId, id -> new LongHashSet()).add(friendshipId);
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care sterge (in ambele sensuri) prietenia cu id-ul friendshipId dintre utilizatorii cu id-urile firstUserId si secondUserId in O(1)<br>
+     * Daca prietenia nu exista in index metoda nu are niciun efect
+     * @param firstUserId valoare numerica intreaga reprezentand id-ul primului prieten
+     * @param secondUserId valoare numerica intreaga reprezentand id-ul celui de al doilea prieten
+     * @param friendshipId valoare numerica intreaga reprezentand id-ul prieteniei
+     */
+    public void removeFriendship(long firstUserId, long secondUserId, long friendshipId) {
+        Integer x = nodeIndexes.get(firstUserId);
+        Integer y = nodeIndexes.get(secondUserId);
+        if(x != null && y != null) {
+            unlinkNodes(x, y);
+            unlinkNodes(y, x);
+        }
+        unlink(friendshipsOf, firstUserId, friendshipId);
+        unlink(friendshipsOf, secondUserId, friendshipId);
+    }
+
+    /**
+     * Metoda publica care sterge din index utilizatorul cu id-ul userId impreuna cu toate prieteniile sale (sunt atinse doar multimile prietenilor sai)<br>
+     * Id-urile prieteniilor sterse raman in multimile prietenilor; apelantul le elimina prin removeFriendship (de obicei inainte de apel, cu prieteniile intoarse de repozitoriu)
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului sters
+     * @return vector cu id-urile fostilor prieteni ai utilizatorului (vector vid daca utilizatorul nu avea prieteni)
+     */
+    public long[] removeUser(long userId) {
+        friendshipsOf.remove(userId);
+        Integer node = nodeIndexes.get(userId);
+        if(node == null) {
+            return NO_FRIENDS;
+        }
+
+        LongHashSet friends = friendNodes[node];
+        long[] friendIds = new long[friends.size()];
+        for(int position = 0; position < friendIds.length; ++position) {
+            int friendNode = (int)friends.get(position);
+            friendIds[position] = userIds[friendNode];
+            unlinkNodes(friendNode, node);
+        }
+        releaseNode(userId, node);
+        return friendIds;
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca utilizatorii cu id-urile firstUserId si secondUserId sunt prieteni
+     * @param firstUserId valoare numerica intreaga reprezentand id-ul primului utilizator
+     * @param secondUserId valoare numerica intreaga reprezentand id-ul celui de al doilea utilizator
+     * @return true daca cei doi utilizatori sunt prieteni, false in caz contrar
+     */
+    public boolean areFriends(long firstUserId, long secondUserId) {
+        Integer x = nodeIndexes.get(firstUserId);
+        Integer y = nodeIndexes.get(secondUserId);
+        return x != null && y != null && friendNodes[x].contains(y);
+    }
+
+    /**
+     * Metoda publica de tip int care returneaza numarul de prieteni ai utilizatorului cu id-ul userId
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return valoare numerica intreaga reprezentand gradul utilizatorului (0 daca utilizatorul nu exista in index)
+     */
+    public int degree(long userId) {
+        Integer node = nodeIndexes.get(userId);
+        return node == null ? 0 : friendNodes[node].size();
+    }
+
+    /**
+     * Metoda publica care returneaza id-urile prietenilor utilizatorului cu id-ul userId
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return vector (copie independenta de index) cu id-urile prietenilor utilizatorului
+     */
+    public long[] friendIdsOf(long userId) {
+        Integer node = nodeIndexes.get(userId);
+        if(node == null) {
+            return NO_FRIENDS;
+        }
+
+        LongHashSet friends = friendNodes[node];
+        long[] friendIds = new long[friends.size()];
+        for(int position = 0; position < friendIds.length; ++position) {
+            friendIds[position] = userIds[(int)friends.get(position)];
+        }
+        return friendIds;
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care aplica functia action pe id-ul fiecarui prieten al utilizatorului cu id-ul userId, direct din index (fara copierea multimii de prieteni, vezi friendIdsOf)<br>
+     * Functia action nu trebuie sa modifice indexul de adiacenta
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @param action functie apelata pentru fiecare id de prieten
+     */
+    public void forEachFriendId(long userId, @NotNull LongConsumer action) {
+        Integer node = nodeIndexes.get(userId);
+        if(node == null) {
+            return;
+        }
+
+        LongHashSet friends = friendNodes[node];
+        for(int position = 0; position < friends.size(); ++position) {
+            action.accept(userIds[(int)friends.get(position)]);
+        }
+    }
+
+    /**
+     * Metoda publica care returneaza id-urile prieteniilor (obiecte de clasa Friendship) care contin utilizatorul cu id-ul userId
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @return vector (copie independenta de index) cu id-urile prieteniilor utilizatorului
+     */
+    public long[] friendshipIdsOf(long userId) {
+        LongHashSet friendships = friendshipsOf.get(userId);
+        return friendships == null ? NO_FRIENDS : friendships.toArray();
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care (re)aloca vectorii de lucru ai interogarilor daca numarul de noduri a crescut de la ultima interogare; vectorii sunt refolositi intre interogari
+     */
+    private void ensureQueryBuffers() {
+        int capacity = userIds.length;
+        if(forwardQueue != null && forwardQueue.length == capacity) {
+            return;
+        }
+
+        int previousCapacity = forwardQueue == null ? 0 : forwardQueue.length;
+        forwardQueue = new int[capacity];
+        backwardQueue = new int[capacity];
+        forwardParents = new int[capacity];
+        backwardParents = new int[capacity];
+        forwardDistances = forwardDistances == null ? new int[capacity] : Arrays.copyOf(forwardDistances, capacity);
+        backwardDistances = backwardDistances == null ? new int[capacity] : Arrays.copyOf(backwardDistances, capacity);
+        Arrays.fill(forwardDistances, previousCapacity, capacity, -1);
+        Arrays.fill(backwardDistances, previousCapacity, capacity, -1);
+        mutualFriends = mutualFriends == null ? new int[capacity] : Arrays.copyOf(mutualFriends, capacity);
+        candidates = new int[capacity];
+    }
+
+    /**
+     * Metoda privata de tip int care extinde cu un nivel (toate nodurile aflate la distanta depth de sursa) una dintre cele doua parcurgeri in latime ale cautarii bidirectionale<br>
+     * Pentru fiecare nod nou descoperit se verifica daca a fost deja atins de cealalta parcurgere; dintre toate punctele de intalnire ale nivelului se pastreaza cel cu drumul total minim
+     * @param queue coada parcurgerii extinse
+     * @param head pozitia primului nod din nivelul curent
+     * @param tail prima pozitie libera din coada (sfarsitul nivelului curent)
+     * @param parents parintii nodurilor in parcurgerea extinsa
+     * @param distances distantele nodurilor fata de sursa parcurgerii extinse (-1 pentru nodurile neatinse)
+     * @param otherDistances distantele nodurilor fata de sursa celeilalte parcurgeri
+     * @param meeting vector cu doua elemente: nodul de intalnire cel mai bun gasit si lungimea drumului prin el (actualizat de metoda)
+     * @return prima pozitie libera din coada dupa extinderea nivelului
+     */
+    private int expandLevel(int @NotNull [] queue, int head, int tail, int @NotNull [] parents, int @NotNull [] distances, int @NotNull [] otherDistances, int @NotNull [] meeting) {
+        int newTail = tail;
+        for(int position = head; position < tail; ++position) {
+            int node = queue[position];
+            LongHashSet friends = friendNodes[node];
+            for(int friendPosition = 0; friendPosition < friends.size(); ++friendPosition) {
+                int friend = (int)friends.get(friendPosition);
+                if(distances[friend] < 0) {
+                    distances[friend] = distances[node] + 1;
+                    parents[friend] = node;
+                    queue[newTail++] = friend;
+                    if(otherDistances[friend] >= 0 && distances[friend] + otherDistances[friend] < meeting[1]) {
+                        meeting[0] = friend;
+                        meeting[1] = distances[friend] + otherDistances[friend];
+                    }
+                }
+            }
+        }
+        return newTail;
+    }
+
+    /**
+     * Metoda publica care returneaza cel mai scurt drum de prietenii (gradele de separare) dintre utilizatorii cu id-urile sourceUserId si destinationUserId<br>
+     * Cautarea este bidirectionala (BFS pornit simultan din ambele capete, extinzand de fiecare data frontiera mai mica) si citeste direct multimile de prieteni din index, deci costul depinde doar de vecinatatile celor doi utilizatori (nu de dimensiunea retelei) si nu necesita reconstruirea vreunui graf dupa adaugarea/stergerea de prietenii; cautarea se opreste cand drumul ar depasi maxDepth prietenii<br>
+     * Cozile, parintii si distantele sunt vectori de int indexati dupa nod, alocati o singura data si resetati doar pentru nodurile atinse de cautare
+     * @param sourceUserId valoare numerica intreaga reprezentand id-ul utilizatorului de la care porneste drumul
+     * @param destinationUserId valoare numerica intreaga reprezentand id-ul utilizatorului la care se termina drumul
+     * @param maxDepth valoare numerica intreaga reprezentand lungimea maxima (numarul maxim de prietenii) a drumului cautat
+     * @return lista de obiecte de clasa Long cu id-urile utilizatorilor de pe drum (incepand cu sourceUserId si terminand cu destinationUserId, lungimea drumului fiind size() - 1) sau lista vida daca nu exista niciun drum de lungime cel mult maxDepth
+     */
+    public List<Long> shortestPath(long sourceUserId, long destinationUserId, int maxDepth) {
+        if(maxDepth < 0) {
+            return Collections.emptyList();
+        }
+        if(sourceUserId == destinationUserId) {
+            return Collections.singletonList(sourceUserId);
+        }
+        Integer sourceNode = nodeIndexes.get(sourceUserId);
+        Integer destinationNode = nodeIndexes.get(destinationUserId);
+        if(sourceNode == null || destinationNode == null) {
+            return Collections.emptyList();
+        }
+
+        ensureQueryBuffers();
+        int source = sourceNode, destination = destinationNode;
+        int forwardHead = 0, forwardTail = 0, forwardDepth = 0;
+        int backwardHead = 0, backwardTail = 0, backwardDepth = 0;
+        forwardDistances[source] = 0;
+        forwardQueue[forwardTail++] = source;
+        backwardDistances[destination] = 0;
+        backwardQueue[backwardTail++] = destination;
+
+        int[] meeting = {-1, Integer.MAX_VALUE};
+        while(meeting[0] < 0 && forwardHead < forwardTail && backwardHead < backwardTail && forwardDepth + backwardDepth < maxDepth) {
+            if(forwardTail - forwardHead <= backwardTail - backwardHead) {
+                int levelEnd = forwardTail;
+                forwardTail = expandLevel(forwardQueue, forwardHead, forwardTail, forwardParents, forwardDistances, backwardDistances, meeting);
+                forwardHead = levelEnd;
+                ++forwardDepth;
+            }
+            else {
+                int levelEnd = backwardTail;
+                backwardTail = expandLevel(backwardQueue, backwardHead, backwardTail, backwardParents, backwardDistances, forwardDistances, meeting);
+                backwardHead = levelEnd;
+                ++backwardDepth;
+            }
+        }
+
+        List<Long> path = new ArrayList<>();
+        if(meeting[0] >= 0) {
+            for(int node = meeting[0]; node != source; node = forwardParents[node]) {
+                path.add(userIds[node]);
+            }
+            path.add(userIds[source]);
+            Collections.reverse(path);
+            for(int node = meeting[0]; node != destination; ) {
+                node = backwardParents[node];
+                path.add(userIds[node]);
+            }
+        }
+
+        for(int position = 0; position < forwardTail; ++position) {
+            forwardDistances[forwardQueue[position]] = -1;
+        }
+        for(int position = 0; position < backwardTail; ++position) {
+            backwardDistances[backwardQueue[position]] = -1;
+        }
+
+        return path;
+    }
+
+    /**
+     * Metoda privata de tip boolean care verifica daca un candidat (nodul firstNode cu scorul firstScore) este mai slab decat alt candidat (nodul secondNode cu scorul secondScore)<br>
+     * Un candidat este mai slab daca are scorul mai mic sau, la scoruri egale, daca are id-ul mai mare
+     * @param firstScore scorul primului candidat
+     * @param firstNode nodul primului candidat
+     * @param secondScore scorul celui de al doilea candidat
+     * @param secondNode nodul celui de al doilea candidat
+     * @return true daca primul candidat este mai slab decat al doilea, false in caz contrar
+     */
+    private boolean isWorse(double firstScore, int firstNode, double secondScore, int secondNode) {
+        return firstScore < secondScore || (firstScore == secondScore && userIds[firstNode] > userIds[secondNode]);
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care coboara elementul de pe pozitia position in min-heap-ul (dupa metoda isWorse) format din primele heapSize elemente ale vectorilor heapNodes si heapScores
+     * @param heapNodes nodurile (candidatii) din heap
+     * @param heapScores scorurile candidatilor din heap
+     * @param heapSize numarul de elemente din heap
+     * @param position pozitia elementului coborat
+     */
+    private void siftDown(int @NotNull [] heapNodes, double @NotNull [] heapScores, int heapSize, int position) {
+        while(true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if(left < heapSize && isWorse(heapScores[left], heapNodes[left], heapScores[worst], heapNodes[worst])) {
+                worst = left;
+            }
+            if(right < heapSize && isWorse(heapScores[right], heapNodes[right], heapScores[worst], heapNodes[worst])) {
+                worst = right;
+            }
+            if(worst == position) {
+                return;
+            }
+
+            int auxNode = heapNodes[position];
+            heapNodes[position] = heapNodes[worst];
+            heapNodes[worst] = auxNode;
+            double auxScore = heapScores[position];
+            heapScores[position] = heapScores[worst];
+            heapScores[worst] = auxScore;
+            position = worst;
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care urca elementul de pe pozitia position in min-heap-ul (dupa metoda isWorse) format din vectorii heapNodes si heapScores
+     * @param heapNodes nodurile (candidatii) din heap
+     * @param heapScores scorurile candidatilor din heap
+     * @param position pozitia elementului urcat
+     */
+    private void siftUp(int @NotNull [] heapNodes, double @NotNull [] heapScores, int position) {
+        while(position > 0) {
+            int parentPosition = (position - 1) / 2;
+            if(!isWorse(heapScores[position], heapNodes[position], heapScores[parentPosition], heapNodes[parentPosition])) {
+                return;
+            }
+
+            int auxNode = heapNodes[position];
+            heapNodes[position] = heapNodes[parentPosition];
+            heapNodes[parentPosition] = auxNode;
+            double auxScore = heapScores[position];
+            heapScores[position] = heapScores[parentPosition];
+            heapScores[parentPosition] = auxScore;
+            position = parentPosition;
+        }
+    }
+
+    /**
+     * Metoda publica care returneaza recomandarile de prietenie ("persoane pe care ai putea sa le cunosti") pentru utilizatorul cu id-ul userId<br>
+     * Candidatii sunt prietenii prietenilor utilizatorului care nu ii sunt deja prieteni; scorul unui candidat este numarul de prieteni comuni plus bonusul intors de locationBonus (daca acesta nu este null)<br>
+     * Numararea prietenilor comuni se face intr-un vector de int indexat dupa nod si refolosit intre interogari (resetat doar pentru candidatii atinsi), iar cei mai buni k candidati sunt pastrati intr-un min-heap de dimensiune k (doi vectori primitivi), deci costul este O(numarul de drumuri de lungime 2 * log k), proportional cu vecinatatea de ordin 2 a utilizatorului si independent de dimensiunea retelei
+     * @param userId valoare numerica intreaga reprezentand id-ul utilizatorului pentru care se fac recomandarile
+     * @param k valoare numerica intreaga reprezentand numarul maxim de recomandari intoarse
+     * @param locationBonus functie care primeste id-ul unui candidat si intoarce bonusul adunat la scorul acestuia (de exemplu pentru acelasi oras/judet) sau null daca scorul este doar numarul de prieteni comuni
+     * @return lista de obiecte de clasa Long cu id-urile celor mai buni cel mult k candidati, ordonati descrescator dupa scor (la scoruri egale crescator dupa id) sau lista vida daca utilizatorul nu are prieteni
+     */
+    public List<Long> recommendFriends(long userId, int k, LongToDoubleFunction locationBonus) {
+        Integer userNode = nodeIndexes.get(userId);
+        if(userNode == null || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        ensureQueryBuffers();
+        int user = userNode;
+        LongHashSet friends = friendNodes[user];
+        mutualFriends[user] = -1;
+        for(int position = 0; position < friends.size(); ++position) {
+            mutualFriends[(int)friends.get(position)] = -1;
+        }
+
+        int numberOfCandidates = 0;
+        for(int position = 0; position < friends.size(); ++position) {
+            LongHashSet friendsOfFriend = friendNodes[(int)friends.get(position)];
+            for(int friendPosition = 0; friendPosition < friendsOfFriend.size(); ++friendPosition) {
+                int candidate = (int)friendsOfFriend.get(friendPosition);
+                if(mutualFriends[candidate] == 0) {
+                    candidates[numberOfCandidates++] = candidate;
+                }
+                if(mutualFriends[candidate] >= 0) {
+                    ++mutualFriends[candidate];
+                }
+            }
+        }
+
+        int capacity = Math.min(k, numberOfCandidates);
+        int[] heapNodes = new int[capacity];
+        double[] heapScores = new double[capacity];
+        int heapSize = 0;
+        for(int position = 0; position < numberOfCandidates; ++position) {
+            int candidate = candidates[position];
+            double score = mutualFriends[candidate];
+            if(locationBonus != null) {
+                score += locationBonus.applyAsDouble(userIds[candidate]);
+            }
+
+            if(heapSize < capacity) {
+                heapNodes[heapSize] = candidate;
+                heapScores[heapSize] = score;
+                siftUp(heapNodes, heapScores, heapSize++);
+            }
+            else if(capacity > 0 && isWorse(heapScores[0], heapNodes[0], score, candidate)) {
+                heapNodes[0] = candidate;
+                heapScores[0] = score;
+                siftDown(heapNodes, heapScores, heapSize, 0);
+            }
+        }
+
+        mutualFriends[user] = 0;
+        for(int position = 0; position < friends.size(); ++position) {
+            mutualFriends[(int)friends.get(position)] = 0;
+        }
+        for(int position = 0; position < numberOfCandidates; ++position) {
+            mutualFriends[candidates[position]] = 0;
+        }
+
+        Long[] recommendations = new Long[heapSize];
+        while(heapSize > 0) {
+            recommendations[heapSize - 1] = userIds[heapNodes[0]];
+            heapNodes[0] = heapNodes[heapSize - 1];
+            heapScores[0] = heapScores[heapSize - 1];
+            siftDown(heapNodes, heapScores, --heapSize, 0);
+        }
+
+        return Arrays.asList(recommendations);
+    }
+
+    /**
+     * Metoda publica care returneaza lista de prieteni a utilizatorului cu id-ul userId ca o vedere lenesa (read-only) asupra indexului<br>
+     * Vederea nu copiaza nimic: dimensiunea este citita din index, iar fiecare prieten este rezolvat prin resolver abia la accesare
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @param resolver functie care intoarce utilizatorul (obiect de clasa User) curent cu un id dat
+     * @return obiect de clasa List cu elemente de tipul User reprezentand vederea asupra prietenilor utilizatorului
+     */
+    public List<User> friendListOf(long userId, @NotNull LongFunction<User> resolver) {
+        return new FriendListView(userId, resolver);
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care inlocuieste lista de prieteni a utilizatorului user cu o vedere asupra acestui index<br>
+     * Daca lista utilizatorului este deja o vedere asupra acestui index metoda nu are niciun efect
+     * @param user obiect de clasa User al carui camp friendList este legat de index
+     * @param resolver functie care intoarce utilizatorul (obiect de clasa User) curent cu un id dat
+     */
+    public void bind(@NotNull User user, @NotNull LongFunction<User> resolver) {
+        if(user.getFriendList() instanceof FriendListView view && view.owner() == this && view.userId == user.getId()) {
+            return;
+        }
+        user.setFriendList(friendListOf(user.getId(), resolver));
+    }
+}
@@ -0,0 +1,396 @@
+package domain;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+public class CommunityIndex {
+    private final AdjacencyIndex adjacencyIndex;
+    private final Map<Long, Integer> nodeIndexes;
+    private long[] userIds;
+    private boolean[] alive;
+    private int[] parent;
+    private int[] componentSize;
+    private int[] nextMember;
+    private boolean[] dirty;
+    private int numberOfNodes;
+    private int[] freeNodes;
+    private int numberOfFreeNodes;
+    private int[] pendingRebuilds;
+    private int numberOfPendingRebuilds;
+    private int[] members;
+    private int numberOfCommunities;
+    private long version;
+
+    /**
+     * Metoda privata de tip void (procedura) care mareste capacitatea tuturor vectorilor indexati dupa nod (cel putin pana la valoarea minimumCapacity)
+     * @param minimumCapacity valoare numerica intreaga reprezentand numarul minim de noduri pe care indexul trebuie sa le poata memora
+     */
+    private void ensureCapacity(int minimumCapacity) {
+        if(minimumCapacity <= parent.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(minimumCapacity, parent.length * 2);
+        userIds = Arrays.copyOf(userIds, newCapacity);
+        alive = Arrays.copyOf(alive, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        componentSize = Arrays.copyOf(componentSize, newCapacity);
+        nextMember = Arrays.copyOf(nextMember, newCapacity);
+        dirty = Arrays.copyOf(dirty, newCapacity);
+    }
+
+    /**
+     * Metoda privata de tip int care returneaza/intoarce nodul corespunzator utilizatorului cu id-ul userId (nodul este creat daca utilizatorul nu exista in index)
+     * @param userId obiect de clasa Long reprezentand identificatorul unic al utilizatorului
+     * @return valoare numerica intreaga reprezentand nodul (indexul dens) al utilizatorului
+     */
+    private int nodeOf(@NotNull Long userId) {
+        Integer node = nodeIndexes.get(userId);
+        if(node != null) {
+            return node;
+        }
+
+        int newNode;
+        if(numberOfFreeNodes > 0) {
+            newNode = freeNodes[--numberOfFreeNodes];
+        }
+        else {
+            ensureCapacity(numberOfNodes + 1);
+            newNode = numberOfNodes++;
+        }
+
+        userIds[newNode] = userId;
+        alive[newNode] = true;
+        parent[newNode] = newNode;
+        componentSize[newNode] = 1;
+        nextMember[newNode] = newNode;
+        dirty[newNode] = false;
+        nodeIndexes.put(userId, newNode);
+        ++numberOfCommunities;
+
+        return newNode;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care elibereaza nodul node (acesta va putea fi refolosit pentru un utilizator nou)
+     * @param node valoare numerica intreaga reprezentand nodul eliberat
+     */
+    private void releaseNode(int node) {
+        if(numberOfFreeNodes == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, Math.max(16, numberOfFreeNodes * 2));
+        }
+        freeNodes[numberOfFreeNodes++] = node;
+    }
+
+    /**
+     * Metoda privata de tip int care returneaza/intoarce reprezentantul (radacina) componentei din care face parte nodul node<br>
+     * Metoda aplica compresia drumului (toate nodurile de pe drumul parcurs vor indica direct spre radacina)
+     * @param node valoare numerica intreaga reprezentand nodul pentru care cautam radacina
+     * @return valoare numerica intreaga reprezentand radacina componentei nodului node
+     */
+    private int find(int node) {
+        int root = node;
+        while(parent[root] != root) {
+            root = parent[root];
+        }
+
+        while(parent[node] != root) {
+            int next = parent[node];
+            parent[node] = root;
+            node = next;
+        }
+
+        return root;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care reuneste componentele nodurilor x si y (reuniune dupa dimensiune)<br>
+     * Listele circulare de membri ale celor doua componente sunt concatenate in O(1) prin interschimbarea succesorilor celor doua radacini
+     * @param x valoare numerica intreaga reprezentand primul nod
+     * @param y valoare numerica intreaga reprezentand al doilea nod
+     */
+    private void union(int x, int y) {
+        int rootX = find(x);
+        int rootY = find(y);
+        if(rootX == rootY) {
+            return;
+        }
+
+        if(componentSize[rootX] < componentSize[rootY]) {
+            int aux = rootX;
+            rootX = rootY;
+            rootY = aux;
+        }
+
+        parent[rootY] = rootX;
+        componentSize[rootX] += componentSize[rootY];
+        dirty[rootX] = dirty[rootX] || dirty[rootY];
+
+        int aux = nextMember[rootX];
+        nextMember[rootX] = nextMember[rootY];
+        nextMember[rootY] = aux;
+
+        --numberOfCommunities;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care marcheaza componenta din care face parte nodul node ca fiind invalida (trebuie reconstruita)<br>
+     * Reconstructia nu se face imediat, ci doar la urmatoarea interogare (reconstructie lenesa)
+     * @param node valoare numerica intreaga reprezentand un nod din componenta afectata de o stergere
+     */
+    private void markDirty(int node) {
+        int root = find(node);
+        if(dirty[root]) {
+            return;
+        }
+
+        dirty[root] = true;
+        if(numberOfPendingRebuilds == pendingRebuilds.length) {
+            pendingRebuilds = Arrays.copyOf(pendingRebuilds, Math.max(16, numberOfPendingRebuilds * 2));
+        }
+        pendingRebuilds[numberOfPendingRebuilds++] = root;
+    }
+
+    /**
+     * Metoda privata de tip int care copiaza in vectorul members toti membrii componentei cu radacina root (parcurgand lista circulara de membri)
+     * @param root valoare numerica intreaga reprezentand radacina componentei
+     * @return numarul de membri ai componentei
+     */
+    private int collectMembers(int root) {
+        if(members.length < componentSize[root]) {
+            members = new int[Math.max(componentSize[root], members.length * 2)];
+        }
+
+        int numberOfMembers = 0;
+        int member = root;
+        do {
+            members[numberOfMembers++] = member;
+            member = nextMember[member];
+        } while(member != root);
+
+        return numberOfMembers;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care reconstruieste doar componenta cu radacina root (reconstructie partiala)<br>
+     * Fiecare membru ramas in retea devine o componenta separata, iar apoi se reunesc nodurile folosind prieteniile ramase, citite din indexul de adiacenta (indexul de comunitati nu pastreaza o copie proprie a muchiilor); nodurile sterse sunt eliberate<br>
+     * Costul este proportional cu dimensiunea componentei, nu cu dimensiunea intregii retele
+     * @param root valoare numerica intreaga reprezentand radacina componentei care trebuie reconstruita
+     */
+    private void rebuildComponent(int root) {
+        int numberOfMembers = collectMembers(root);
+        int[] componentMembers = Arrays.copyOf(members, numberOfMembers);
+
+        --numberOfCommunities;
+        for(int member : componentMembers) {
+            parent[member] = member;
+            componentSize[member] = 1;
+            nextMember[member] = member;
+            dirty[member] = false;
+            if(alive[member]) {
+                ++numberOfCommunities;
+            }
+            else {
+                releaseNode(member);
+            }
+        }
+
+        for(int member : componentMembers) {
+            if(alive[member]) {
+                adjacencyIndex.forEachFriendId(userIds[member], friendId -> {
+                    Integer friendNode = nodeIndexes.get(friendId);
+                    if(friendNode != null) {
+                        union(member, friendNode);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care reconstruieste toate componentele marcate ca fiind invalide de stergerile efectuate de la ultima interogare
+     */
+    private void rebuildDirtyComponents() {
+        while(numberOfPendingRebuilds > 0) {
+            int root = find(pendingRebuilds[--numberOfPendingRebuilds]);
+            if(dirty[root]) {
+                rebuildComponent(root);
+            }
+        }
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa CommunityIndex (index gol, fara utilizatori si fara prietenii)<br>
+     * Indexul memoreaza doar comunitatile (padurea de multimi disjuncte); prieteniile sunt citite din indexul de adiacenta adjacencyIndex doar la reconstructia unei comunitati dupa o stergere, deci fiecare prietenie adaugata prin addFriendship trebuie adaugata si in adjacencyIndex (iar fiecare prietenie stearsa trebuie stearsa si de acolo)
+     * @param adjacencyIndex indexul de adiacenta al retelei (sursa prieteniilor)
+     */
+    public CommunityIndex(@NotNull AdjacencyIndex adjacencyIndex) {
+        this.adjacencyIndex = adjacencyIndex;
+        nodeIndexes = new HashMap<>();
+        userIds = new long[16];
+        alive = new boolean[16];
+        parent = new int[16];
+        componentSize = new int[16];
+        nextMember = new int[16];
+        dirty = new boolean[16];
+        freeNodes = new int[16];
+        pendingRebuilds = new int[16];
+        members = new int[16];
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care adauga un utilizator (ca si comunitate formata dintr-un singur membru) in index<br>
+     * Daca utilizatorul exista deja in index metoda nu are niciun efect
+     * @param userId obiect de clasa Long reprezentand identificatorul unic al utilizatorului adaugat
+     */
+    public void addUser(@NotNull Long userId) {
+        nodeOf(userId);
+        ++version;
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care sterge un utilizator din index (impreuna cu toate prieteniile acestuia)<br>
+     * Daca utilizatorul facea parte dintr-o comunitate cu mai multi membri, comunitatea este reconstruita lenes (la urmatoarea interogare)
+     * @param userId obiect de clasa Long reprezentand identificatorul unic al utilizatorului sters
+     */
+    public void removeUser(@NotNull Long userId) {
+        Integer node = nodeIndexes.remove(userId);
+        if(node == null) {
+            return;
+        }
+        ++version;
+        alive[node] = false;
+
+        int root = find(node);
+        if(componentSize[root] == 1) {
+            --numberOfCommunities;
+            releaseNode(node);
+        }
+        else {
+            markDirty(node);
+        }
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care semnaleaza ca datele unui utilizator din index (nume, adresa etc.) au fost modificate<br>
+     * Comunitatile nu se schimba, dar versiunea indexului este incrementata, astfel incat rezultatele derivate din retea si memorate de service-uri (de exemplu recomandarile, care contin utilizatorii si depind de adresa lor) sa fie recalculate
+     * @param userId obiect de clasa Long reprezentand identificatorul unic al utilizatorului modificat
+     */
+    public void markUserModified(@NotNull Long userId) {
+        if(nodeIndexes.containsKey(userId)) {
+            ++version;
+        }
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care adauga o prietenie intre utilizatorii cu id-urile firstUserId si secondUserId<br>
+     * Comunitatile celor doi utilizatori sunt reunite imediat (O(alfa(n)) amortizat)
+     * @param firstUserId obiect de clasa Long reprezentand id-ul primului prieten
+     * @param secondUserId obiect de clasa Long reprezentand id-ul celui de al doilea prieten
+     */
+    public void addFriendship(@NotNull Long firstUserId, @NotNull Long secondUserId) {
+        int x = nodeOf(firstUserId);
+        int y = nodeOf(secondUserId);
+
+        union(x, y);
+        ++version;
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care sterge prietenia dintre utilizatorii cu id-urile firstUserId si secondUserId<br>
+     * Comunitatea celor doi utilizatori este marcata pentru reconstructie partiala (se reconstruieste doar acea comunitate, la urmatoarea interogare)
+     * @param firstUserId obiect de clasa Long reprezentand id-ul primului prieten
+     * @param secondUserId obiect de clasa Long reprezentand id-ul celui de al doilea prieten
+     */
+    public void removeFriendship(@NotNull Long firstUserId, @NotNull Long secondUserId) {
+        Integer x = nodeIndexes.get(firstUserId);
+        Integer y = nodeIndexes.get(secondUserId);
+        if(x == null || y == null) {
+            return;
+        }
+
+        if(find(x) == find(y)) {
+            markDirty(x);
+        }
+        ++version;
+    }
+
+    /**
+     * Metoda publica de tip long care returneaza versiunea curenta a indexului (un contor incrementat la fiecare adaugare/stergere/modificare de utilizator si la fiecare adaugare/stergere de prietenie)<br>
+     * Service-urile o folosesc pentru a sti daca o copie (snapshot) a grafului retelei construita anterior mai este de actualitate
+     * @return valoare numerica intreaga pe 8 bytes/octeti (64 de biti) reprezentand versiunea indexului
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Metoda publica de tip int (integer = intreg) care returneaza numarul de comunitati (componente conexe) din index<br>
+     * Daca de la ultima interogare nu s-au efectuat stergeri, valoarea este intoarsa in O(1)
+     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) reprezentand numarul de comunitati din retea
+     */
+    public int numberOfCommunities() {
+        rebuildDirtyComponents();
+        return numberOfCommunities;
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca doi utilizatori fac parte din aceeasi comunitate (O(alfa(n)) amortizat)
+     * @param firstUserId obiect de clasa Long reprezentand id-ul primului utilizator
+     * @param secondUserId obiect de clasa Long reprezentand id-ul celui de al doilea utilizator
+     * @return true daca ambii utilizatori exista in index si fac parte din aceeasi comunitate, false in caz contrar
+     */
+    public boolean sameCommunity(@NotNull Long firstUserId, @NotNull Long secondUserId) {
+        Integer x = nodeIndexes.get(firstUserId);
+        Integer y = nodeIndexes.get(secondUserId);
+        if(x == null || y == null) {
+            return false;
+        }
+
+        rebuildDirtyComponents();
+        return find(x) == find(y);
+    }
+
+    /**
+     * Metoda publica de tip Long care returneaza/intoarce id-ul utilizatorului reprezentant al comunitatii din care face parte utilizatorul cu id-ul userId (O(alfa(n)) amortizat)
+     * @param userId obiect de clasa Long reprezentand id-ul utilizatorului
+     * @return obiect de clasa Long reprezentand id-ul reprezentantului comunitatii sau null daca utilizatorul nu exista in index
+     */
+    public Long communityOf(@NotNull Long userId) {
+        Integer node = nodeIndexes.get(userId);
+        if(node == null) {
+            return null;
+        }
+
+        rebuildDirtyComponents();
+        return userIds[find(node)];
+    }
+
+    /**
+     * Metoda publica care returneaza/intoarce lista tuturor comunitatilor din index<br>
+     * Fiecare comunitate este obtinuta parcurgand lista circulara de membri a radacinii sale (O(V) in total)
+     * @return lista de liste de obiecte de clasa Long reprezentand id-urile utilizatorilor din fiecare comunitate
+     */
+    public List<List<Long>> getAllCommunities() {
+        rebuildDirtyComponents();
+
+        List<List<Long>> communities = new ArrayList<>(numberOfCommunities);
+        for(int node = 0; node < numberOfNodes; ++node) {
+            if(alive[node] && parent[node] == node) {
+                int numberOfMembers = collectMembers(node);
+                List<Long> community = new ArrayList<>(numberOfMembers);
+                for(int position = 0; position < numberOfMembers; ++position) {
+                    community.add(userIds[members[position]]);
+                }
+                communities.add(community);
+            }
+        }
+
+        return communities;
+    }
+}
@@ -1,15 +1,21 @@
 package domain;
 
+import org.jetbrains.annotations.NotNull;
 import utils.Constants;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
 
 public class Friendship extends Entity<Long> {
     private User firstFriend;
     private User secondFriend;
     private LocalDateTime friendsFrom;
     private Friendship_Status status;
+    private LongFunction<User> userResolver;
+    private LongSupplier userVersion;
+    private long resolvedVersion;
 
     /**
      * Constructor public al unui obiect de clasa Friendship care primeste doi parametri de intrare: firstFriend de tipul User (utilizator din reteaua de socializare) si secondFriend de tipul User (utilizator din reteaua de socializare)
@@ -67,10 +73,72 @@ public class Friendship extends Entity<Long> {
     }
 
     /**
-     * Metoda publica de tip getter care returneaza/intoarce primul prieten al relatiei de prietenie (atributul/campul firstFriend)
+     * Metoda privata care intoarce utilizatorul curent cu acelasi id ca prietenul friend, rezolvat prin functia userResolver; daca utilizatorul nu mai exista, intoarce chiar friend
+     * @param friend obiect de clasa User memorat in prietenie (firstFriend sau secondFriend)
+     * @return obiect de clasa User reprezentand versiunea curenta a prietenului
+     */
+    private User resolve(User friend) {
+        if(friend == null || friend.getId() == null) {
+            return friend;
+        }
+        User resolvedFriend = userResolver.apply(friend.getId());
+        return resolvedFriend == null ? friend : resolvedFriend;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care rezolva din nou cei doi prieteni (vezi resolve) doar daca prietenia este legata si versiunea retelei s-a schimbat de la ultima rezolvare; altfel prietenii memorati sunt pastrati neatinsi
+     */
+    private void refreshFriends() {
+        if(userResolver == null) {
+            return;
+        }
+        long currentVersion = userVersion.getAsLong();
+        if(currentVersion != resolvedVersion) {
+            firstFriend = resolve(firstFriend);
+            secondFriend = resolve(secondFriend);
+            resolvedVersion = currentVersion;
+        }
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care leaga prietenia de functia userResolver (de obicei o cautare dupa id in repozitoriul de utilizatori) si de contorul userVersion (o versiune a retelei, incrementata la orice modificare a unui utilizator)<br>
+     * Dupa legare, getFirstFriend si getSecondFriend rezolva prietenii dupa id cel mult o data pentru fiecare versiune a retelei, deci o modificare a unui utilizator este vazuta de toate prieteniile lui fara ca acestea sa fie actualizate una cate una, iar intre doua modificari nu se face nicio cautare<br>
+     * Daca prietenia este deja legata, versiunea ultimei rezolvari este pastrata; altfel, upToDate spune daca prietenii memorati corespund versiunii curente (de exemplu prietenii cititi chiar acum din baza de date) sau trebuie rezolvati la prima citire
+     * @param userResolver functie care intoarce utilizatorul curent cu un id dat sau null daca acesta nu exista
+     * @param userVersion functie care intoarce versiunea curenta a retelei
+     * @param upToDate true daca prietenii memorati sunt cei curenti, false daca trebuie rezolvati la prima citire
+     */
+    public void bind(@NotNull LongFunction<User> userResolver, @NotNull LongSupplier userVersion, boolean upToDate) {
+        if(this.userResolver == null) {
+            long currentVersion = userVersion.getAsLong();
+            resolvedVersion = upToDate ? currentVersion : currentVersion - 1;
+        }
+        this.userResolver = userResolver;
+        this.userVersion = userVersion;
+    }
+
+    /**
+     * Metoda publica de tip getter care returneaza id-ul primului prieten al relatiei de prietenie (fara a-l rezolva prin functia de legare)
+     * @return obiect de clasa Long reprezentand id-ul primului prieten
+     */
+    public Long getFirstFriendId() {
+        return firstFriend.getId();
+    }
+
+    /**
+     * Metoda publica de tip getter care returneaza id-ul celui de al doilea prieten al relatiei de prietenie (fara a-l rezolva prin functia de legare)
+     * @return obiect de clasa Long reprezentand id-ul celui de al doilea prieten
+     */
+    public Long getSecondFriendId() {
+        return secondFriend.getId();
+    }
+
+    /**
+     * Metoda publica de tip getter care returneaza/intoarce primul prieten al relatiei de prietenie (atributul/campul firstFriend, rezolvat dupa id daca prietenia este legata, vezi bind)
      * @return obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand primul prieten din relatia de prietenie pentru care se apeleaza metoda
      */
     public User getFirstFriend() {
+        refreshFriends();
         return firstFriend;
     }
 
@@ -83,10 +151,11 @@ public class Friendship extends Entity<Long> {
     }
 
     /**
-     * Metoda publica de tip getter care returneaza/intoarce al doilea prieten al relatiei de prietenie (atributul/campul secondFriend)
+     * Metoda publica de tip getter care returneaza/intoarce al doilea prieten al relatiei de prietenie (atributul/campul secondFriend, rezolvat dupa id daca prietenia este legata, vezi bind)
      * @return obiect de clasa User (utilizator valid din reteaua de socializare) reprezentand al doilea prieten din relatia de prietenie pentru care se apeleaza metoda
      */
     public User getSecondFriend() {
+        refreshFriends();
         return secondFriend;
     }
 
@@ -122,6 +191,18 @@ public class Friendship extends Entity<Long> {
         this.friendsFrom = friendsFrom;
     }
 
+    /**
+     * Metoda publica care returneaza o copie independenta a prieteniei (cei doi prieteni sunt si ei copiati, vezi User.copy); copia ramane legata de aceeasi functie de rezolvare a prietenilor, cu aceeasi versiune a ultimei rezolvari
+     * @return obiect de clasa Friendship cu aceleasi date ca prietenia curenta
+     */
+    public Friendship copy() {
+        Friendship copy = new Friendship(getId(), firstFriend == null ? null : firstFriend.copy(), secondFriend == null ? null : secondFriend.copy(), friendsFrom, status);
+        copy.userResolver = userResolver;
+        copy.userVersion = userVersion;
+        copy.resolvedVersion = resolvedVersion;
+        return copy;
+    }
+
     /**
      * Metoda publica de tip String care intoarce/returneaza varianta textuala (forma scrisa) a unui obiect de clasa Friendship (cum sa fie afisat obiectul (instanta clasei Friendship) care apeleaza metoda)
      * @return obiect de clasa String ce reprezinta forma textuala/scrisa pe care o are un obiect de clasa Friendship
@@ -137,7 +218,7 @@ public class Friendship extends Entity<Long> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getFirstFriend().getId(), getSecondFriend().getId());
+        return Objects.hash(getFirstFriendId(), getSecondFriendId());
     }
 
     /**
@@ -154,7 +235,7 @@ public class Friendship extends Entity<Long> {
         if(!(obj instanceof Friendship that)) {
             return false;
         }
-        return (Objects.equals(getFirstFriend().getId(), that.getFirstFriend().getId()) && Objects.equals(getSecondFriend().getId(), that.getSecondFriend().getId())) ||
-                (Objects.equals(getFirstFriend().getId(), that.getSecondFriend().getId()) && Objects.equals(getSecondFriend().getId(), that.getFirstFriend().getId()));
+        return (Objects.equals(getFirstFriendId(), that.getFirstFriendId()) && Objects.equals(getSecondFriendId(), that.getSecondFriendId())) ||
+                (Objects.equals(getFirstFriendId(), that.getSecondFriendId()) && Objects.equals(getSecondFriendId(), that.getFirstFriendId()));
     }
 }
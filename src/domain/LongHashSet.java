@@ -0,0 +1,176 @@
+package domain;
+
+import java.util.Arrays;
+
+public class LongHashSet {
+    private static final int MINIMUM_CAPACITY = 4;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] elements;
+    private int[] slots;
+    private int size;
+
+    /**
+     * Metoda statica privata de tip int care calculeaza dimensiunea tabelei de dispersie (o putere a lui 2) pentru un numar dat de elemente (factorul de incarcare maxim este 1/2)
+     * @param numberOfElements valoare numerica intreaga reprezentand numarul de elemente pe care tabela trebuie sa le poata memora
+     * @return valoare numerica intreaga reprezentand numarul de sloturi al tabelei de dispersie
+     */
+    private static int tableSizeFor(int numberOfElements) {
+        int tableSize = MINIMUM_CAPACITY * 2;
+        while(tableSize < numberOfElements * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    /**
+     * Metoda privata de tip int care returneaza slotul ideal (de pornire a sondarii liniare) al valorii value in tabela de dispersie
+     * @param value valoare numerica intreaga pe 64 de biti
+     * @return valoare numerica intreaga reprezentand slotul ideal al valorii
+     */
+    private int idealSlotOf(long value) {
+        return (int) ((value * HASH_MULTIPLIER) >>> 32) & (slots.length - 1);
+    }
+
+    /**
+     * Metoda privata de tip int care cauta slotul din tabela de dispersie ce refera valoarea value
+     * @param value valoare numerica intreaga pe 64 de biti cautata
+     * @return indexul slotului care refera valoarea sau complementul (~) slotului liber in care valoarea ar trebui inserata
+     */
+    private int findSlot(long value) {
+        int mask = slots.length - 1;
+        int slot = idealSlotOf(value);
+        while(slots[slot] != 0) {
+            if(elements[slots[slot] - 1] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care dubleaza capacitatea multimii si redistribuie elementele in noua tabela de dispersie
+     */
+    private void grow() {
+        elements = Arrays.copyOf(elements, elements.length * 2);
+        slots = new int[tableSizeFor(elements.length)];
+        for(int position = 0; position < size; ++position) {
+            slots[~findSlot(elements[position])] = position + 1;
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care elibereaza slotul freeSlot si muta inapoi elementele din acelasi cluster (stergere fara marcaje, specifica sondarii liniare)
+     * @param freeSlot indexul slotului eliberat
+     */
+    private void shiftBack(int freeSlot) {
+        int mask = slots.length - 1;
+        int slot = (freeSlot + 1) & mask;
+        while(slots[slot] != 0) {
+            int idealSlot = idealSlotOf(elements[slots[slot] - 1]);
+            if(((slot - idealSlot) & mask) >= ((slot - freeSlot) & mask)) {
+                slots[freeSlot] = slots[slot];
+                freeSlot = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[freeSlot] = 0;
+    }
+
+    /**
+     * Constructor public si default (implicit, adica fara parametri) al unui obiect de clasa LongHashSet (multime vida)
+     */
+    public LongHashSet() {
+        elements = new long[MINIMUM_CAPACITY];
+        slots = new int[tableSizeFor(MINIMUM_CAPACITY)];
+    }
+
+    /**
+     * Metoda publica de tip boolean care adauga valoarea value in multime
+     * @param value valoare numerica intreaga pe 64 de biti pe care dorim sa o adaugam
+     * @return true daca valoarea a fost adaugata, false daca valoarea exista deja in multime
+     */
+    public boolean add(long value) {
+        int slot = findSlot(value);
+        if(slot >= 0) {
+            return false;
+        }
+        if(size == elements.length) {
+            grow();
+            slot = findSlot(value);
+        }
+        elements[size] = value;
+        slots[~slot] = ++size;
+        return true;
+    }
+
+    /**
+     * Metoda publica de tip boolean care sterge valoarea value din multime<br>
+     * Ultimul element al vectorului dens este mutat pe pozitia eliberata, astfel incat elementele raman contigue
+     * @param value valoare numerica intreaga pe 64 de biti pe care dorim sa o stergem
+     * @return true daca valoarea a fost stearsa, false daca valoarea nu exista in multime
+     */
+    public boolean remove(long value) {
+        int slot = findSlot(value);
+        if(slot < 0) {
+            return false;
+        }
+
+        int position = slots[slot] - 1;
+        shiftBack(slot);
+        int lastPosition = --size;
+        if(position != lastPosition) {
+            long lastElement = elements[lastPosition];
+            elements[position] = lastElement;
+            slots[findSlot(lastElement)] = position + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca valoarea value exista in multime
+     * @param value valoare numerica intreaga pe 64 de biti cautata
+     * @return true daca valoarea exista in multime, false in caz contrar
+     */
+    public boolean contains(long value) {
+        return findSlot(value) >= 0;
+    }
+
+    /**
+     * Metoda publica de tip long care returneaza elementul de pe pozitia position (ordinea elementelor nu este garantata si se poate schimba dupa o stergere)
+     * @param position valoare numerica intreaga din intervalul [0, size())
+     * @return valoare numerica intreaga pe 64 de biti reprezentand elementul de pe pozitia position
+     * @throws IndexOutOfBoundsException daca pozitia nu se afla in intervalul [0, size())
+     */
+    public long get(int position) throws IndexOutOfBoundsException {
+        if(position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("[!]Invalid position (position must be between 0 and " + (size - 1) + ")!\n");
+        }
+        return elements[position];
+    }
+
+    /**
+     * Metoda publica de tip int care returneaza numarul de elemente din multime
+     * @return valoare numerica intreaga reprezentand cardinalul multimii
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca multimea este vida
+     * @return true daca multimea nu contine niciun element, false in caz contrar
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Metoda publica care returneaza o copie a elementelor multimii
+     * @return vector de valori numerice intregi pe 64 de biti (copie independenta de multime)
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
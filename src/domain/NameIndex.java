@@ -0,0 +1,163 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class NameIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, LongHashSet> postings;
+    private final Map<Long, String[]> names;
+
+    /**
+     * Metoda privata statica care aduce un nume la forma indexata (litere mici, independent de setarile regionale)
+     * @param name obiect de clasa String reprezentand numele (poate fi null)
+     * @return obiect de clasa String reprezentand numele cu litere mici (sirul vid daca name este null)
+     */
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Metoda privata statica de tip long care codifica trigrama (cele trei caractere) care incepe pe pozitia position a textului text
+     * @param text obiect de clasa String (normalizat)
+     * @param position pozitia primului caracter al trigramei
+     * @return valoare numerica intreaga pe 64 de biti care identifica unic trigrama
+     */
+    private static long gramAt(String text, int position) {
+        return ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+    }
+
+    /**
+     * Metoda privata statica care returneaza multimea trigramelor distincte ale numelor names
+     * @param names vector de nume normalizate
+     * @return obiect de clasa LongHashSet cu codurile trigramelor (trigramele nu trec de la un nume la altul)
+     */
+    private static LongHashSet gramsOf(String... names) {
+        LongHashSet grams = new LongHashSet();
+        for(String name : names) {
+            for(int position = 0; position + GRAM_LENGTH <= name.length(); ++position) {
+                grams.add(gramAt(name, position));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Metoda privata statica de tip boolean care verifica daca cel putin unul dintre numele normalizate contine sirul query
+     * @param userNames vector cu prenumele si numele de familie normalizate ale unui utilizator
+     * @param query sirul cautat (normalizat)
+     * @return true daca prenumele sau numele de familie contine sirul query, false in caz contrar
+     */
+    private static boolean matches(String[] userNames, String query) {
+        return userNames[0].contains(query) || userNames[1].contains(query);
+    }
+
+    /**
+     * Constructor public si default (implicit, adica fara parametri) al unui obiect de clasa NameIndex (index gol)
+     */
+    public NameIndex() {
+        postings = new HashMap<>();
+        names = new HashMap<>();
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care adauga (sau reindexeaza, daca exista deja) numele utilizatorului cu id-ul userId
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     * @param firstName obiect de clasa String reprezentand prenumele utilizatorului
+     * @param lastName obiect de clasa String reprezentand numele de familie al utilizatorului
+     */
+    public void addUser(long userId, String firstName, String lastName) {
+        removeUser(userId);
+
+        String[] userNames = {normalize(firstName), normalize(lastName)};
+        names.put(userId, userNames);
+        LongHashSet grams = gramsOf(userNames);
+        for(int position = 0; position < grams.size(); ++position) {
+            postings.computeIfAbsent(grams.get(position), gram -> new LongHashSet()).add(userId);
+        }
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care sterge din index numele utilizatorului cu id-ul userId (daca utilizatorul nu exista in index metoda nu are niciun efect)
+     * @param userId valoare numerica intreaga reprezentand identificatorul unic al utilizatorului
+     */
+    public void removeUser(long userId) {
+        String[] userNames = names.remove(userId);
+        if(userNames == null) {
+            return;
+        }
+
+        LongHashSet grams = gramsOf(userNames);
+        for(int position = 0; position < grams.size(); ++position) {
+            long gram = grams.get(position);
+            LongHashSet users = postings.get(gram);
+            if(users != null && users.remove(userId) && users.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Metoda publica de tip int care returneaza numarul de utilizatori indexati
+     * @return valoare numerica intreaga reprezentand numarul de utilizatori din index
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Metoda publica care cauta (fara a tine cont de majuscule) utilizatorii al caror prenume sau nume de familie contine sirul query<br>
+     * Pentru interogari de cel putin trei caractere se intersecteaza listele de utilizatori ale trigramelor interogarii (pornind de la cea mai scurta), iar candidatii sunt verificati pe numele memorate deja cu litere mici; interogarile mai scurte parcurg numele memorate; in ambele cazuri cautarea se opreste dupa limit rezultate
+     * @param query obiect de clasa String reprezentand sirul cautat (nevid)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de rezultate
+     * @return lista cu id-urile utilizatorilor gasiti (cel mult limit id-uri, ordinea nu este garantata)
+     */
+    public List<Long> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        List<Long> userIds = new ArrayList<>();
+        if(normalizedQuery.length() < GRAM_LENGTH) {
+            for(Map.Entry<Long, String[]> userNames : names.entrySet()) {
+                if(userIds.size() == limit) {
+                    break;
+                }
+                if(matches(userNames.getValue(), normalizedQuery)) {
+                    userIds.add(userNames.getKey());
+                }
+            }
+            return userIds;
+        }
+
+        LongHashSet queryGrams = gramsOf(normalizedQuery);
+        LongHashSet[] gramUsers = new LongHashSet[queryGrams.size()];
+        int shortest = 0;
+        for(int position = 0; position < queryGrams.size(); ++position) {
+            gramUsers[position] = postings.get(queryGrams.get(position));
+            if(gramUsers[position] == null) {
+                return userIds;
+            }
+            if(gramUsers[position].size() < gramUsers[shortest].size()) {
+                shortest = position;
+            }
+        }
+
+        LongHashSet candidates = gramUsers[shortest];
+        for(int position = 0; position < candidates.size() && userIds.size() < limit; ++position) {
+            long userId = candidates.get(position);
+            boolean containsAllGrams = true;
+            for(LongHashSet users : gramUsers) {
+                if(!users.contains(userId)) {
+                    containsAllGrams = false;
+                    break;
+                }
+            }
+            if(containsAllGrams && matches(names.get(userId), normalizedQuery)) {
+                userIds.add(userId);
+            }
+        }
+        return userIds;
+    }
+}
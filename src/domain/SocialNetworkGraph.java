@@ -1,120 +1,155 @@
 package domain;
 
-import exception.RepoException;
-import infrastructure.IRepository;
-
 import java.util.List;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
 
 import org.jetbrains.annotations.NotNull;
 
 public class SocialNetworkGraph {
-    private boolean[][] adjacentMatrix;
     private final int size;
-    boolean[] visitedNodes;
-    IRepository<Long, User> userRepo;
-
-    /**
-     * Metoda privata de tip operand (rezultat) care verifica daca un utilizator (obiect de clasa User) cu identificatorul unic userId (dat ca si parametru de intrare pentru metoda) exista in reteaua de socializare<br>
-     * Metoda intoarce/returneaza o valoare booleana (valoare logica de adevar, adica adevarat (true) sau fals (false))
-     * @param userId obiect de clasa Long care reprezinta identificatorul utilizatorului a carui existenta in retea dorim sa o testam (cu alte cuvinte vrem sa verificam daca in reteaua de socializare exista un utilizator cu id-ul userId)
-     * @return true daca utilizatorul cu id-ul egal cu parametrul formal/simbolic userId exista in reteaua de socializare<br>
-     *         false daca utilizatorul cu id-ul egal cu parametrul formal/simbolic userId nu exista in reteaua de socializare
-     */
-    private boolean userExists(Long userId) {
-        try {
-            userRepo.search(userId);
-            return true;
-        } catch(RepoException ex) {
-            return false;
-        }
-    }
+    private final long[] userIds;
+    private final Map<Long, Integer> userIndexes;
+    private int[] offsets;
+    private int[] neighbours;
+    private final long[] visitedNodes;
+    private final int[] frontier;
 
     /**
-     * Metoda privata de tipul Long care returneaza/intoarce cel mai mare id al unui user/utilizator dintr-o lista de utilizatori (obiecte de clasa User) data ca si parametru de intrare pentru metoda
+     * Metoda privata statica de tip long[] (vector de valori numerice intregi) care returneaza/intoarce id-urile tuturor utilizatorilor (obiecte de clasa User) dintr-o lista de utilizatori data ca si parametru de intrare pentru metoda<br>
+     * Id-urile sunt sortate crescator, astfel incat nodul/varful i din graf sa corespunda celui de al i-lea cel mai mic id din retea
      * @param users obiect iterabil (lista) de obiecte de clasa User (utilizatori valizi din reteaua de socializare)
-     * @return valoare numerica de tip Long reprenzentand id-ul maxim al unui utilizator din lista furnizata metodei in momentul apelului
+     * @return vector de valori numerice de tip long (sortat crescator) reprezentand id-urile utilizatorilor din lista furnizata metodei in momentul apelului
      */
-    private Long getUserMaxId(@NotNull Iterable<User> users) {
-        Long maxId = 0L;
+    private static long @NotNull [] collectUserIds(@NotNull Iterable<User> users) {
+        long[] ids = new long[16];
+        int numberOfIds = 0;
 
         for(User user : users) {
-            Long userId = user.getId();
-            if(userId > maxId) {
-                maxId = userId;
+            if(numberOfIds == ids.length) {
+                ids = Arrays.copyOf(ids, numberOfIds * 2);
             }
+            ids[numberOfIds++] = user.getId();
         }
 
-        return maxId;
+        ids = Arrays.copyOf(ids, numberOfIds);
+        Arrays.sort(ids);
+        return ids;
     }
 
     /**
-     * Metoda privata de tip void (functie procedurala (procedura)) care reseteaza atributul privat adjacentMatrix al obiectului de clasa SocialNetworkGraph pentru care se apeleaza metoda<br>
-     * Metoda zerorizeaza matricea adjacentMatrix (o populeaza cu valori booleene de false)
+     * Metoda privata de tip int care returneaza/intoarce nodul/varful din graf (indexul dens, intre 0 si size - 1) corespunzator utilizatorului cu identificatorul unic userId
+     * @param userId obiect de clasa Long reprezentand id-ul utilizatorului pentru care dorim sa aflam nodul din graf
+     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) reprezentand nodul utilizatorului in graf sau -1 daca utilizatorul nu face parte din graf
      */
-    private void resetAdjacentMatrix() {
-        for(int i = 0; i < size; ++i) {
-            for(int j = i; j < size; ++j) {
-                adjacentMatrix[i][j] = adjacentMatrix[j][i] = false;
-            }
-        }
+    private int indexOf(Long userId) {
+        Integer index = userIndexes.get(userId);
+        return index == null ? -1 : index;
     }
 
     /**
-     * Metoda privata de tip void (nu returneaza/intoarce nicio valoare) care creeaza matricea de adiacenta a grafului retelei de socializare pentru care se apeleaza metoda<br>
-     * Metoda populeaza initial matricea de adiacenta cu valori false iar ulterior marcheaza cu valori true liniile si coloanele corespunzatoare utilizatorilor din reteaua de socializare care sunt prieteni (se regasesc in obiectul iterabil friendships)<br>
-     * Daca doi prieteni cu id-urile x si y sunt prieteni atunci adjacentMatrix[x][y] si adjacentMatrix[y][x] vor avea valoarea true<br>
-     * Daca doi prieteni cu id-urile x si y nu sunt prieteni atunci adjacentMatrix[x][y] si adjacentMatrix[y][x] vor avea valoarea false
+     * Metoda privata de tip void (nu returneaza/intoarce nicio valoare) care creeaza reprezentarea CSR (Compressed Sparse Row) a grafului retelei de socializare pentru care se apeleaza metoda<br>
+     * Vecinii nodului x se afla in vectorul neighbours pe pozitiile offsets[x], offsets[x] + 1, ..., offsets[x + 1] - 1<br>
+     * Daca doi utilizatori corespunzatori nodurilor x si y sunt prieteni atunci y apare printre vecinii lui x si x apare printre vecinii lui y<br>
+     * Memoria folosita este proportionala cu numarul de utilizatori plus numarul de prietenii (O(V + E)), nu cu patratul id-ului maxim
      * @param friendships lista de obiecte de clasa Friendship reprezentand relatiile de prietenie din reteaua de socializare
      */
-    private void computeAdjacentMatrix(@NotNull Iterable<Friendship> friendships) {
-        adjacentMatrix = new boolean[size][size];
-        resetAdjacentMatrix();
+    private void computeAdjacencyLists(@NotNull Iterable<Friendship> friendships) {
+        offsets = new int[size + 1];
+        for(Friendship friendship : friendships) {
+            int x = indexOf(friendship.getFirstFriendId());
+            int y = indexOf(friendship.getSecondFriendId());
+            if(x >= 0 && y >= 0) {
+                ++offsets[x + 1];
+                ++offsets[y + 1];
+            }
+        }
 
-        friendships.forEach(friendship -> {
-            int x = friendship.getFirstFriend().getId().intValue();
-            int y = friendship.getSecondFriend().getId().intValue();
+        for(int node = 0; node < size; ++node) {
+            offsets[node + 1] += offsets[node];
+        }
 
-            adjacentMatrix[x][y] = adjacentMatrix[y][x] = true;
-        });
+        neighbours = new int[offsets[size]];
+        int[] nextFreePosition = Arrays.copyOf(offsets, size);
+        for(Friendship friendship : friendships) {
+            int x = indexOf(friendship.getFirstFriendId());
+            int y = indexOf(friendship.getSecondFriendId());
+            if(x >= 0 && y >= 0) {
+                neighbours[nextFreePosition[x]++] = y;
+                neighbours[nextFreePosition[y]++] = x;
+            }
+        }
     }
 
     /**
      * Metoda privata de tip void (procedura) care initializeaza vectorul visitedNodes care reprezinta nodurile vizitate din graful retelei de socializare<br>
-     * Metoda populeazaz lista de noduri vizitate cu valoarea booleana false (marcheaza fiecare user/utilizator din cadrul retelei ca fiind nevizitat)
+     * Vectorul de biti este refolosit intre interogari (nu se realoca), metoda doar il zerorizeaza (marcheaza fiecare user/utilizator din cadrul retelei ca fiind nevizitat)
      */
     private void initVisitedNodes() {
-        for(int i = 0; i < size; visitedNodes[i++] = false);
+        Arrays.fill(visitedNodes, 0L);
     }
 
     /**
-     * Metoda publica de tip void care parcurge toate nodurile nevizitate accesibile din nodul src (nod sursa reprezentand nodul curent din cadrul parcurgerii) si le marcheaza ca fiind vizitate in lista visitedNodes<br>
-     * Parcurgerea se realizeaza in adancime (DFS - Depth First Search)
-     * @param src valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) reprezentand nodul curent care este parcurs (care a fost decoperit de parcurgerea in adancime)
+     * Metoda privata de tip boolean care verifica daca nodul node a fost vizitat (bitul corespunzator din vectorul visitedNodes este setat)
+     * @param node valoare numerica intreaga reprezentand nodul verificat
+     * @return true daca nodul a fost vizitat, false in caz contrar
      */
-    private void dfsVisit(int src) {
-        visitedNodes[src] = true;
-        for(int node = 0; node < size; ++node) {
-            if(adjacentMatrix[node][src] && !visitedNodes[node]) {
-                dfsVisit(node);
+    private boolean isVisited(int node) {
+        return (visitedNodes[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care marcheaza nodul node ca fiind vizitat (seteaza bitul corespunzator din vectorul visitedNodes)
+     * @param node valoare numerica intreaga reprezentand nodul marcat
+     */
+    private void markVisited(int node) {
+        visitedNodes[node >>> 6] |= 1L << node;
+    }
+
+    /**
+     * Metoda privata de tip int care parcurge toate nodurile nevizitate accesibile din nodul src si le marcheaza ca fiind vizitate in vectorul de biti visitedNodes<br>
+     * Parcurgerea se realizeaza in adancime (DFS - Depth First Search) folosind o stiva explicita (vectorul frontier), deci nu depinde de dimensiunea stivei firului de executie (nu poate arunca StackOverflowError)<br>
+     * Fiecare nod este pus pe stiva o singura data (in momentul in care este marcat ca vizitat), astfel ca stiva are cel mult size elemente si nu se aloca memorie pentru niciun nod vizitat
+     * @param src valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) reprezentand nodul de start al parcurgerii
+     * @return numarul de noduri vizitate (dimensiunea componentei conexe care contine nodul src)
+     */
+    private int dfsVisit(int src) {
+        int stackSize = 0;
+        int numberOfVisitedNodes = 1;
+
+        markVisited(src);
+        frontier[stackSize++] = src;
+
+        while(stackSize > 0) {
+            int node = frontier[--stackSize];
+            for(int position = offsets[node]; position < offsets[node + 1]; ++position) {
+                int neighbour = neighbours[position];
+                if(!isVisited(neighbour)) {
+                    markVisited(neighbour);
+                    frontier[stackSize++] = neighbour;
+                    ++numberOfVisitedNodes;
+                }
             }
         }
+
+        return numberOfVisitedNodes;
     }
 
     /**
      * Metoda privata de tip int (intoarce o valoare numerica intreaga) care returneaza numarul de comunitati dintr-o retea de socializare<br>
      * Metoda apeleaza metoda privata dfsVisit pentru fiecare nod nevizitat din graful retelei (pentru fiecare componenta conexa)
-     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) care este pozitiva (mai mare sau egala cu 0) si care reprezentand numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din graful retelei reprezentat sub forma de matrice de adiacenta prin atributul privat adjacentMatrix)
+     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) care este pozitiva (mai mare sau egala cu 0) si care reprezentand numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din graful retelei reprezentat sub forma CSR prin atributele private offsets si neighbours)
      */
     private int dfs() {
         int numberOfConnectedComponents = 0;
 
-        visitedNodes = new boolean[size];
         initVisitedNodes();
 
         for(int i = 0; i < size; ++i) {
-            if(userExists((long)i) && !visitedNodes[i]) {
+            if(!isVisited(i)) {
                 ++numberOfConnectedComponents;
                 dfsVisit(i);
             }
@@ -124,72 +159,97 @@ public class SocialNetworkGraph {
     }
 
     /**
-     * Constructor public care primeste doi parametri: users (lista de utilizatori valizi din reteaua de socializare) si friendships (lista de prietenii valide din reteaua de socializare)
+     * Constructor public care primeste doi parametri: users (lista de utilizatori valizi din reteaua de socializare) si friendships (lista de prietenii valide din reteaua de socializare)<br>
+     * Fiecare utilizator primeste un nod dens (intre 0 si size - 1); graful nu mai acceseaza repozitoriul de utilizatori nici la constructie, nici in timpul parcurgerilor (toate nodurile din graf sunt utilizatori existenti)
      * @param users lista de obiecte de clasa User reprezentand lista de useri/utilizatori din reteaua de socializare
      * @param friendships lista de obiecte de clasa Friendship reprezentand lista de prietenii din reteaua de socializare
-     * @param userRepo obiect de clasa IRepository reprezentand repozitoriul de utilizatori din cadrul aplicatiei
      */
-    public SocialNetworkGraph(Iterable<User> users, Iterable<Friendship> friendships, IRepository<Long, User> userRepo) {
-        size = getUserMaxId(users).intValue() + 1;
-        computeAdjacentMatrix(friendships);
-        this.userRepo = userRepo;
+    public SocialNetworkGraph(Iterable<User> users, Iterable<Friendship> friendships) {
+        userIds = collectUserIds(users);
+        size = userIds.length;
+        userIndexes = new HashMap<>(size * 2);
+        for(int node = 0; node < size; ++node) {
+            userIndexes.put(userIds[node], node);
+        }
+        computeAdjacencyLists(friendships);
+        visitedNodes = new long[(size + 63) / 64];
+        frontier = new int[size];
     }
 
     /**
      * Metoda publica de tip int (intoarce o valoare numerica intreaga) care returneaza numarul de comunitati dintr-o retea de socializare<br>
      * Metoda apeleaza metoda privata dfs si intoarce/returneaza rezultatul acestei metode
-     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) care este pozitiva (mai mare sau egala cu 0) si care reprezentand numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din graful retelei reprezentat sub forma de matrice de adiacenta)
+     * @return valoare numerica intreaga cu semn (signed) pe 4 bytes/octeti (32 de biti) care este pozitiva (mai mare sau egala cu 0) si care reprezentand numarul de comunitati din reteaua de socializare (adica numarul de componente conexe din graful retelei reprezentat sub forma CSR)
      */
     public int numberOfCommunities() {
         return dfs();
     }
 
     /**
-     * Metoda privata care returneaza/intoarce o lista de valori numerice de tip Long reprezentand componenta conexa din care face parte nodul/varful src (dat ca si parametru de intrare metodei)<br>
-     * Metoda parcurge graful retelei folosind tehnica de cautare in latime (BFS - Breadth First Search)
-     * @param src valoare numerica intreaga care reprezinta nodul sursa (nodul curent din parcurgerea in latime)
-     * @return lista de obiecte de clasa Long (identificatori) reprezentand id-urile prietenilor (obiecte de clasa User) care reprezinta componenta conexa care contine nodul/varful src
+     * Metoda privata de tip int care parcurge componenta conexa din care face parte nodul/varful src si scrie nodurile acesteia in vectorul order, incepand cu pozitia start<br>
+     * Metoda parcurge graful retelei folosind tehnica de cautare in latime (BFS - Breadth First Search); coada este chiar portiunea din vectorul order care incepe la pozitia start (nu se aloca memorie pentru niciun nod vizitat)
+     * @param src valoare numerica intreaga care reprezinta nodul sursa (nodul de start al parcurgerii in latime)
+     * @param order vector de valori numerice intregi in care se scriu nodurile in ordinea in care sunt vizitate
+     * @param start valoare numerica intreaga reprezentand prima pozitie libera din vectorul order
+     * @return prima pozitie libera din vectorul order dupa parcurgerea componentei conexe
      */
-    private @NotNull List<Long> bfsVisit(int src) {
-        List<Long> community = new ArrayList<>();
-        LinkedList<Long> queue = new LinkedList<Long>();
+    private int bfsVisit(int src, int @NotNull [] order, int start) {
+        int head = start;
+        int tail = start;
 
-        visitedNodes[src] = true;
-        queue.add((long)src);
+        markVisited(src);
+        order[tail++] = src;
 
-        while(!queue.isEmpty()) {
-            src = queue.poll().intValue();
-            community.add((long)src);
-
-            for(int node = 0; node < size; ++node) {
-                if(adjacentMatrix[src][node] && !visitedNodes[node]) {
-                    visitedNodes[node] = true;
-                    queue.add((long)node);
+        while(head < tail) {
+            int node = order[head++];
+            for(int position = offsets[node]; position < offsets[node + 1]; ++position) {
+                int neighbour = neighbours[position];
+                if(!isVisited(neighbour)) {
+                    markVisited(neighbour);
+                    order[tail++] = neighbour;
                 }
             }
         }
 
-        return community;
+        return tail;
     }
 
     /**
-     * Metoda privata care parcurge un graf folosind tehnica BFS (se apeleaza metoda privata bfsVisit pentru fiecare nod/varf nevizitat din graful retelei (graf reprezentat sub forma unei matrici de adiacenta))<br>
+     * Metoda privata care parcurge un graf folosind tehnica BFS (se apeleaza metoda privata bfsVisit pentru fiecare nod/varf nevizitat din graful retelei (graf reprezentat sub forma CSR))<br>
      * O lista reprezinta o comunitate (adica toate id-urile utilizatorilor din comunitatea respectiva)<br>
      * O comunitate reprezinta o componenta conexa din graful retelei<br>
-     * Lista de liste reprezinta lista tuturor comunitatilor retelei de socializare
+     * Lista de liste reprezinta lista tuturor comunitatilor retelei de socializare<br>
+     * Parcurgerea lucreaza doar pe vectori de tipuri primitive; id-urile sunt memorate intr-un singur vector long[], iar fiecare comunitate este o vedere (view) asupra unei portiuni din acest vector
      * @return lista de liste de obiecte de clasa Long reprezentand lista tuturor comunitatilor din reteaua de socializare (adica lista tuturor componentelor conexe din graful retelei)
      */
     private @NotNull List<List<Long>> bfs() {
-        List<List<Long>> communities = new ArrayList<>();
+        int[] order = frontier;
+        int[] communityStarts = new int[16];
+        int numberOfCommunities = 0;
+        int end = 0;
 
-        visitedNodes = new boolean[size];
         initVisitedNodes();
 
         for(int i = 0; i < size; ++i) {
-            if(userExists((long)i) && !visitedNodes[i]) {
-                communities.add(bfsVisit(i));
+            if(!isVisited(i)) {
+                if(numberOfCommunities + 1 == communityStarts.length) {
+                    communityStarts = Arrays.copyOf(communityStarts, communityStarts.length * 2);
+                }
+                communityStarts[numberOfCommunities++] = end;
+                end = bfsVisit(i, order, end);
             }
         }
+        communityStarts[numberOfCommunities] = end;
+
+        long[] orderedUserIds = new long[end];
+        for(int position = 0; position < end; ++position) {
+            orderedUserIds[position] = userIds[order[position]];
+        }
+
+        List<List<Long>> communities = new ArrayList<>(numberOfCommunities);
+        for(int community = 0; community < numberOfCommunities; ++community) {
+            communities.add(new CommunityView(orderedUserIds, communityStarts[community], communityStarts[community + 1]));
+        }
 
         return communities;
     }
@@ -203,4 +263,32 @@ public class SocialNetworkGraph {
     public List<List<Long>> getAllCommunities() {
         return bfs();
     }
+
+    /**
+     * Clasa privata statica care reprezinta o comunitate ca vedere (view) nemodificabila asupra unei portiuni [from, to) dintr-un vector de id-uri
+     */
+    private static class CommunityView extends AbstractList<Long> {
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+
+        CommunityView(long[] userIds, int from, int to) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Long get(int index) {
+            if(index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("[!]Invalid index " + index + " (community size is " + (to - from) + ")!\n");
+            }
+            return userIds[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
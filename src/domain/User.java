@@ -101,7 +101,8 @@ public class User extends Entity<Long> {
     }
 
     /**
-     * Metoda publica de tip getter care intoarce lista de prieteni a unui utilizator (atributul/campul friendList)
+     * Metoda publica de tip getter care intoarce lista de prieteni a unui utilizator (atributul/campul friendList)<br>
+     * Pentru utilizatorii gestionati de service-uri lista este o vedere lenesa (read-only) asupra indexului de adiacenta (obiect de clasa AdjacencyIndex), nu o copie
      * @return componenta friendList (obiect de clasa List cu elemente care sunt instante ale clasei User (elementele reprezinta utilizatori din reteaua de socializare)) a unui utilizator (obiect de clasa User)
      */
     public List<User> getFriendList() {
@@ -132,6 +133,19 @@ public class User extends Entity<Long> {
         this.credential = credential;
     }
 
+    /**
+     * Metoda publica care returneaza o copie independenta a utilizatorului (adresa si credentialele sunt copiate, deci modificarea copiei nu afecteaza originalul)<br>
+     * Lista de prieteni nu face parte din starea persistata a utilizatorului (este o vedere asupra indexului de adiacenta, gestionata de service-uri), deci copia refera aceeasi lista
+     * @return obiect de clasa User cu aceleasi date ca utilizatorul curent
+     */
+    public User copy() {
+        User copy = new User(getId(), firstName, lastName, birthday, email,
+                address == null ? null : new Address(address.getHomeAddress(), address.getCountry(), address.getCounty(), address.getCity()),
+                credential == null ? null : new Credential(credential.getUsername(), credential.getPassword()));
+        copy.friendList = friendList;
+        return copy;
+    }
+
     /**
      * Metoda publica de tip String care intoarce/returneaza varianta textuala a unui obiect de clasa User (cum sa fie afisata pe ecran (in consola/terminal) instanta clasei User care apeleaza metoda)
      * @return obiect de clasa String ce reprezinta forma textuala (forma scrisa) pe care o are un obiect de clasa User (un utilizator din reteaua de socializare)
@@ -0,0 +1,261 @@
+package infrastructure;
+
+import domain.Entity;
+import exception.RepoException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class CachingRepository<ID, E extends Entity<ID>> implements IRepository<ID, E> {
+    private static final int UNKNOWN_LENGTH = -1;
+
+    private final IRepository<ID, E> repository;
+    private final int capacity;
+    private final UnaryOperator<E> copier;
+    private final LinkedHashMap<ID, E> entities;
+    private int cachedLength;
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor public al unui obiect de clasa CachingRepository (decorator care adauga un cache in memorie in fata oricarui repozitoriu, de exemplu al celor din baza de date)<br>
+     * Entitatile cautate dupa id sunt pastrate intr-un cache LRU (cea mai demult folosita entitate este eliminata cand cache-ul depaseste capacity entitati); numarul de entitati (len) este si el pastrat pana la prima adaugare sau stergere<br>
+     * Modificarile facute prin decorator sunt trimise intai repozitoriului decorat (write-through) si apoi reflectate in cache; modificarile facute direct in repozitoriul decorat (ocolind decoratorul) nu sunt vazute de cache<br>
+     * Cache-ul pastreaza copii private ale entitatilor (facute prin copier) si intoarce la fiecare cautare o copie noua, deci un apelant care modifica o entitate citita fara sa apeleze modify (sau inaintea unui modify esuat) nu afecteaza ce citesc ceilalti apelanti
+     * @param repository repozitoriul decorat
+     * @param capacity valoare numerica intreaga strict pozitiva reprezentand numarul maxim de entitati din cache
+     * @param copier functie care intoarce o copie independenta a unei entitati (de exemplu User::copy)
+     * @throws IllegalArgumentException daca repository sau copier este null sau capacity nu este strict pozitiv
+     */
+    public CachingRepository(IRepository<ID, E> repository, int capacity, UnaryOperator<E> copier) throws IllegalArgumentException {
+        if(repository == null) {
+            throw new IllegalArgumentException("[!]Invalid repository (repository must not be null)!\n");
+        }
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("[!]Invalid capacity (capacity must be a positive integer)!\n");
+        }
+        if(copier == null) {
+            throw new IllegalArgumentException("[!]Invalid copier (copier must not be null)!\n");
+        }
+
+        this.repository = repository;
+        this.capacity = capacity;
+        this.copier = copier;
+        this.entities = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ID, E> eldest) {
+                if(size() > CachingRepository.this.capacity) {
+                    ++evictionCount;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.cachedLength = UNKNOWN_LENGTH;
+    }
+
+    /**
+     * Metoda protejata care returneaza repozitoriul decorat (pentru clasele derivate care expun operatii suplimentare ale acestuia)
+     * @return repozitoriul decorat
+     */
+    protected IRepository<ID, E> getRepository() {
+        return repository;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care pune in cache o copie a entitatii entity, doar daca nicio scriere nu a inceput de la generatia expectedGeneration (altfel entitatea ar putea fi mai veche decat cea scrisa intre timp)
+     * @param entity entitatea pusa in cache
+     * @param expectedGeneration generatia citita inainte de obtinerea entitatii
+     */
+    private synchronized void cache(E entity, long expectedGeneration) {
+        if(entity != null && entity.getId() != null && generation == expectedGeneration) {
+            entities.put(entity.getId(), copier.apply(entity));
+        }
+    }
+
+    /**
+     * Metoda privata de tip long care marcheaza inceputul sau sfarsitul unei scrieri: invalideaza numarul de entitati memorat si entitatea cu id-ul id (daca nu este null) si incrementeaza generatia, astfel incat citirile (search, len) inceput inainte de scriere sa nu mai puna in cache rezultate vechi
+     * @param id id-ul entitatii scrise (null daca scrierea nu priveste o singura entitate)
+     * @return noua generatie
+     */
+    private synchronized long beginWrite(ID id) {
+        cachedLength = UNKNOWN_LENGTH;
+        if(id != null) {
+            entities.remove(id);
+        }
+        return ++generation;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care marcheaza inceputul sau sfarsitul unei stergeri in masa: elimina din cache entitatile cu id-urile ids (vezi beginWrite)
+     * @param ids id-urile entitatilor sterse (poate fi null, caz in care repozitoriul decorat raporteaza eroarea)
+     */
+    private synchronized void invalidate(Iterable<ID> ids) {
+        if(ids != null) {
+            for(ID id : ids) {
+                entities.remove(id);
+            }
+        }
+        beginWrite(null);
+    }
+
+    @Override
+    public void add(E entity) throws RepoException, IllegalArgumentException {
+        beginWrite(null);
+        boolean added = false;
+        try {
+            repository.add(entity);
+            added = true;
+        } finally {
+            long currentGeneration = beginWrite(null);
+            if(added) {
+                cache(entity, currentGeneration);
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        beginWrite(null);
+        boolean added = false;
+        try {
+            repository.addAll(entities);
+            added = true;
+        } finally {
+            long currentGeneration = beginWrite(null);
+            if(added) {
+                for(E entity : entities) {
+                    cache(entity, currentGeneration);
+                }
+            }
+        }
+    }
+
+    @Override
+    public E remove(ID id) throws RepoException, IllegalArgumentException {
+        beginWrite(id);
+        try {
+            return repository.remove(id);
+        } finally {
+            beginWrite(id);
+        }
+    }
+
+    @Override
+    public List<E> removeAll(Iterable<ID> ids) throws RepoException, IllegalArgumentException {
+        invalidate(ids);
+        try {
+            return repository.removeAll(ids);
+        } finally {
+            invalidate(ids);
+        }
+    }
+
+    /**
+     * Modifica entitatea in repozitoriul decorat si pune apoi in cache o copie a noii entitati; daca modificarea esueaza, entitatea ramane eliminata din cache (urmatoarea cautare o citeste din nou)
+     */
+    @Override
+    public E modify(E entity) throws RepoException, IllegalArgumentException {
+        ID id = entity == null ? null : entity.getId();
+        beginWrite(id);
+        boolean modified = false;
+        try {
+            E modifiedEntity = repository.modify(entity);
+            modified = true;
+            return modifiedEntity;
+        } finally {
+            long currentGeneration = beginWrite(id);
+            if(modified) {
+                cache(entity, currentGeneration);
+            }
+        }
+    }
+
+    /**
+     * Cauta entitatea intai in cache (hit) si doar apoi in repozitoriul decorat (miss), caz in care o copie a entitatii gasite este adaugata in cache; in ambele cazuri apelantul primeste o entitate pe care o poate modifica fara sa afecteze cache-ul
+     */
+    @Override
+    public E search(ID id) throws RepoException, IllegalArgumentException {
+        long expectedGeneration;
+        synchronized(this) {
+            E entity = id == null ? null : entities.get(id);
+            if(entity != null) {
+                ++hitCount;
+                return copier.apply(entity);
+            }
+            ++missCount;
+            expectedGeneration = generation;
+        }
+
+        E entity = repository.search(id);
+        cache(entity, expectedGeneration);
+        return entity;
+    }
+
+    /**
+     * Returneaza numarul de entitati memorat la apelul anterior sau, daca a existat intre timp o adaugare sau o stergere, il citeste din repozitoriul decorat (valoarea citita este memorata doar daca nicio scriere nu a inceput in timpul citirii)
+     */
+    @Override
+    public int len() {
+        long expectedGeneration;
+        synchronized(this) {
+            if(cachedLength != UNKNOWN_LENGTH) {
+                return cachedLength;
+            }
+            expectedGeneration = generation;
+        }
+
+        int length = repository.len();
+        synchronized(this) {
+            if(generation == expectedGeneration) {
+                cachedLength = length;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public Iterable<E> getAll() throws RepoException {
+        return repository.getAll();
+    }
+
+    @Override
+    public List<E> page(ID afterId, int limit) throws RepoException, IllegalArgumentException {
+        return repository.page(afterId, limit);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return repository.stream();
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care goleste cache-ul (de exemplu dupa modificari facute direct in repozitoriul decorat); contoarele nu sunt resetate
+     */
+    public synchronized void clear() {
+        entities.clear();
+        cachedLength = UNKNOWN_LENGTH;
+        ++generation;
+    }
+
+    public synchronized int size() {
+        return entities.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
@@ -0,0 +1,45 @@
+package infrastructure;
+
+import domain.User;
+import exception.RepoException;
+
+import java.util.List;
+
+public class CachingUserRepository extends CachingRepository<Long, User> implements IUserSearchRepository {
+    private final IUserSearchRepository searchRepository;
+
+    /**
+     * Constructor public al unui obiect de clasa CachingUserRepository (cache LRU in fata unui repozitoriu de utilizatori care stie sa caute dupa nume la sursa, de exemplu baza de date)<br>
+     * Cautarea dupa nume este executata tot de repozitoriul decorat, astfel incat service-ul de utilizatori nu construieste indexul de nume in memorie; pentru un repozitoriu care nu stie sa caute singur se foloseste metoda of, care pastreaza indexul de nume al service-ului
+     * @param repository repozitoriul de utilizatori decorat
+     * @param capacity valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori din cache
+     * @throws IllegalArgumentException daca repository este null sau capacity nu este strict pozitiv
+     */
+    public CachingUserRepository(IUserSearchRepository repository, int capacity) throws IllegalArgumentException {
+        super(repository, capacity, User::copy);
+        this.searchRepository = repository;
+    }
+
+    /**
+     * Metoda publica statica care pune un cache LRU in fata repozitoriului de utilizatori repository<br>
+     * Decoratorul intors implementeaza IUserSearchRepository doar daca repository o implementeaza; altfel este un CachingRepository simplu, iar service-ul de utilizatori isi pastreaza indexul de nume (cautarea nu ajunge la o parcurgere a tuturor utilizatorilor)
+     * @param repository repozitoriul de utilizatori decorat
+     * @param capacity valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori din cache
+     * @return repozitoriul cu cache
+     * @throws IllegalArgumentException daca repository este null sau capacity nu este strict pozitiv
+     */
+    public static CachingRepository<Long, User> of(IRepository<Long, User> repository, int capacity) throws IllegalArgumentException {
+        if(repository instanceof IUserSearchRepository searchRepository) {
+            return new CachingUserRepository(searchRepository, capacity);
+        }
+        return new CachingRepository<>(repository, capacity, User::copy);
+    }
+
+    /**
+     * Cauta utilizatorii dupa nume in repozitoriul decorat (rezultatele nu sunt pastrate in cache)
+     */
+    @Override
+    public List<User> searchByName(String name, int limit) throws RepoException {
+        return searchRepository.searchByName(name, limit);
+    }
+}
@@ -0,0 +1,31 @@
+package infrastructure;
+
+import exception.RepoException;
+
+public interface IIdGenerator {
+    /**
+     * Metoda publica abstracta (nedefinita) care rezerva count id-uri noi, distincte si nefolosite inca in reteaua de socializare<br>
+     * Implementarile sunt sigure la apeluri concurente (doua apeluri nu primesc niciodata acelasi id) si nu parcurg entitatile din repozitoriu
+     * @param count valoare numerica intreaga mai mare sau egala cu 0 reprezentand numarul de id-uri rezervate
+     * @return vector cu count id-uri, in ordine crescatoare (nu neaparat consecutive)
+     * @throws RepoException daca id-urile nu pot fi rezervate (de exemplu daca sursa persistenta a id-urilor nu poate fi actualizata)
+     * @throws IllegalArgumentException daca count este negativ
+     */
+    long[] nextIds(int count) throws RepoException, IllegalArgumentException;
+
+    /**
+     * Metoda publica de tip long care rezerva un singur id nou
+     * @return valoare numerica intreaga reprezentand id-ul rezervat
+     * @throws RepoException daca id-ul nu poate fi rezervat
+     */
+    default long nextId() throws RepoException {
+        return nextIds(1)[0];
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care incearca sa elibereze id-urile ids rezervate anterior (de exemplu daca entitatile carora le-au fost atribuite nu sunt valide)<br>
+     * Eliberarea este optionala: implementarea implicita nu face nimic (id-urile raman neutilizate), iar generatorii in memorie recupereaza id-urile doar daca nu s-a rezervat niciun alt id intre timp
+     * @param ids vectorul de id-uri intors de nextIds
+     */
+    default void release(long[] ids) {}
+}
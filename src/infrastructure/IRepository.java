@@ -2,6 +2,17 @@ package infrastructure;
 
 import domain.Entity;
 import exception.RepoException;
+import utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface IRepository<ID, E extends Entity<ID>> {
     /**
@@ -12,6 +23,23 @@ public interface IRepository<ID, E extends Entity<ID>> {
      */
     void add(E entity) throws RepoException, IllegalArgumentException;
 
+    /**
+     * Metoda publica de tip void care adauga in reteaua de socializare toate entitatile din colectia entities (incarcare in masa)<br>
+     * Implementarea implicita apeleaza metoda add pentru fiecare entitate; repozitoriile concrete o suprascriu cu variante eficiente si atomice (fie sunt adaugate toate entitatile, fie niciuna: o singura trecere prin indecsi in memorie, o singura scriere in fisier, inserari in loturi (batch) in baza de date intr-o singura tranzactie)
+     * @param entities obiect iterabil cu entitatile (de tipul E) pe care dorim sa le adaugam in retea
+     * @throws RepoException daca cel putin una dintre entitati exista deja in retea sau apare de doua ori in colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin una dintre entitati are o valoare nula (este null)
+     */
+    default void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        if(entities == null) {
+            throw new IllegalArgumentException("[!]Invalid entities (entities must not be null)!\n");
+        }
+
+        for(E entity : entities) {
+            add(entity);
+        }
+    }
+
     /**
      * Metoda publica abstracta (nedefinita) de tipul E (intoarce/returneaza un obiect de clasa/tipul E) care sterge un obiect cu identificatorul id din reteaua de socializare<br>
      * Metoda intoarce obiectul sters cu identificatorul unic egal cu parametrul de intrare id
@@ -22,6 +50,26 @@ public interface IRepository<ID, E extends Entity<ID>> {
      */
     E remove(ID id) throws RepoException, IllegalArgumentException;
 
+    /**
+     * Metoda publica de tip List cu elemente de tipul E care sterge din reteaua de socializare toate entitatile cu id-urile din colectia ids (stergere in masa)<br>
+     * Implementarea implicita apeleaza metoda remove pentru fiecare id; repozitoriile concrete o suprascriu cu variante care valideaza toate id-urile inainte de prima stergere si persista stergerile o singura data (o singura scriere in fisier, o singura instructiune in baza de date)
+     * @param ids obiect iterabil cu id-urile entitatilor pe care dorim sa le stergem (o colectie vida nu are niciun efect)
+     * @return lista entitatilor sterse, in ordinea id-urilor din colectie
+     * @throws RepoException daca cel putin un id nu corespunde niciunei entitati din retea sau apare de doua ori in colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin unul dintre id-uri are o valoare nula (este null)
+     */
+    default List<E> removeAll(Iterable<ID> ids) throws RepoException, IllegalArgumentException {
+        if(ids == null) {
+            throw new IllegalArgumentException("[!]Invalid ids (ids must not be null)!\n");
+        }
+
+        List<E> removedEntities = new ArrayList<>();
+        for(ID id : ids) {
+            removedEntities.add(remove(id));
+        }
+        return removedEntities;
+    }
+
     /**
      * Metoda publica abstracta (nedefinita) de tipul E (tip generic de date) care modifica/actualizeaza un obiect de tipul E (entitate) din reteaua de socializare
      * @param entity obiect de tipul E (tip generic de date) reprezentand entitatea pe care dorim sa o modificam/actualizam
@@ -52,4 +100,64 @@ public interface IRepository<ID, E extends Entity<ID>> {
      * @throws RepoException  daca nu exista entitati in retea
      */
     Iterable<E> getAll() throws RepoException;
+
+    /**
+     * Metoda publica de tip List cu elemente de tipul E care returneaza o pagina de entitati: cel mult limit entitati cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor (paginare dupa cheie / keyset pagination)<br>
+     * Pagina urmatoare se obtine apeland metoda cu id-ul ultimei entitati din pagina curenta; o pagina vida marcheaza sfarsitul colectiei<br>
+     * Implementarea implicita parcurge getAll() si pastreaza doar cele mai mici limit id-uri (memorie proportionala cu limit); doar un repozitoriu gol (len() == 0) produce o pagina vida fara apelul getAll(), orice alta eroare a lui getAll() fiind propagata; repozitoriile concrete o suprascriu cu parcurgeri in ordinea id-urilor (index sortat in memorie, interogare "WHERE id > ? ORDER BY id LIMIT ?" in baza de date)
+     * @param afterId id-ul dupa care incepe pagina (null pentru prima pagina); id-urile trebuie sa fie comparabile (Comparable)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de entitati din pagina
+     * @return lista (eventual vida) cu entitatile paginii, ordonate crescator dupa id
+     * @throws RepoException daca pagina nu poate fi citita (repozitoriul nu este gol, dar getAll() esueaza)
+     * @throws IllegalArgumentException daca limit nu este strict pozitiv
+     */
+    default List<E> page(ID afterId, int limit) throws RepoException, IllegalArgumentException {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+
+        if(len() == 0) {
+            return Collections.emptyList();
+        }
+
+        Comparator<E> byId = (first, second) -> compareIds(first.getId(), second.getId());
+        PriorityQueue<E> smallestEntities = new PriorityQueue<>(byId.reversed());
+        for(E entity : getAll()) {
+            if(afterId != null && compareIds(entity.getId(), afterId) <= 0) {
+                continue;
+            }
+            if(smallestEntities.size() < limit) {
+                smallestEntities.add(entity);
+            }
+            else if(byId.compare(entity, smallestEntities.peek()) < 0) {
+                smallestEntities.poll();
+                smallestEntities.add(entity);
+            }
+        }
+
+        List<E> page = new ArrayList<>(smallestEntities);
+        page.sort(byId);
+        return page;
+    }
+
+    /**
+     * Metoda publica care returneaza toate entitatile din repozitoriu sub forma unui flux (Stream) ordonat crescator dupa id<br>
+     * Fluxul este lenes: entitatile sunt citite pagina cu pagina (cate Constants.REPOSITORY_PAGE_SIZE) prin metoda page, deci parcurgerea unei retele mari foloseste memorie constanta; o eroare la citirea unei pagini este raportata ca IllegalStateException
+     * @return obiect de clasa Stream cu elemente de tipul E (flux vid daca repozitoriul nu contine entitati)
+     */
+    default Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PageIterator<>(this, Constants.REPOSITORY_PAGE_SIZE), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Metoda privata statica de tip int care compara doua id-uri dupa ordinea lor naturala
+     * @param firstId primul id (trebuie sa implementeze Comparable)
+     * @param secondId al doilea id
+     * @return valoare negativa, zero sau pozitiva dupa cum firstId este mai mic, egal sau mai mare decat secondId
+     * @throws ClassCastException daca id-urile nu sunt comparabile
+     */
+    @SuppressWarnings("unchecked")
+    private static <ID> int compareIds(ID firstId, ID secondId) throws ClassCastException {
+        return ((Comparable<ID>) firstId).compareTo(secondId);
+    }
 }
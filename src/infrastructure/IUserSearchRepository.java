@@ -0,0 +1,18 @@
+package infrastructure;
+
+import domain.User;
+import exception.RepoException;
+
+import java.util.List;
+
+public interface IUserSearchRepository extends IRepository<Long, User> {
+    /**
+     * Metoda publica abstracta (nedefinita) care cauta (fara a tine cont de majuscule) utilizatorii al caror prenume sau nume de familie contine sirul name<br>
+     * Repozitoriile care implementeaza aceasta interfata executa cautarea la sursa (de exemplu in baza de date), iar service-ul de utilizatori nu mai construieste indexul de nume in memorie
+     * @param name obiect de clasa String (nevid) reprezentand sirul cautat
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori intorsi
+     * @return lista cu cel mult limit utilizatori care contin sirul name in prenume sau in numele de familie
+     * @throws RepoException daca cautarea nu poate fi realizata
+     */
+    List<User> searchByName(String name, int limit) throws RepoException;
+}
@@ -0,0 +1,71 @@
+package infrastructure;
+
+import domain.Entity;
+import exception.RepoException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class PageIterator<ID, E extends Entity<ID>> implements Iterator<E> {
+    private final IRepository<ID, E> repository;
+    private final int pageSize;
+    private List<E> currentPage;
+    private int position;
+    private ID lastId;
+    private boolean exhausted;
+
+    /**
+     * Constructor package-private al unui obiect de clasa PageIterator (iterator care parcurge un repozitoriu pagina cu pagina, in ordinea crescatoare a id-urilor)
+     * @param repository repozitoriul parcurs
+     * @param pageSize valoare numerica intreaga strict pozitiva reprezentand numarul de entitati citite la o cerere
+     */
+    PageIterator(IRepository<ID, E> repository, int pageSize) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        this.currentPage = List.of();
+        this.position = 0;
+        this.lastId = null;
+        this.exhausted = false;
+    }
+
+    /**
+     * Metoda publica de tip boolean care verifica daca mai exista entitati de parcurs (la epuizarea paginii curente se citeste pagina urmatoare)
+     * @return true daca mai exista entitati, false in caz contrar
+     * @throws IllegalStateException daca pagina urmatoare nu poate fi citita din repozitoriu
+     */
+    @Override
+    public boolean hasNext() throws IllegalStateException {
+        if(position < currentPage.size()) {
+            return true;
+        }
+        if(exhausted) {
+            return false;
+        }
+
+        try {
+            currentPage = repository.page(lastId, pageSize);
+        } catch(RepoException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        position = 0;
+        exhausted = currentPage.size() < pageSize;
+        if(!currentPage.isEmpty()) {
+            lastId = currentPage.get(currentPage.size() - 1).getId();
+        }
+        return !currentPage.isEmpty();
+    }
+
+    /**
+     * Metoda publica de tip E care returneaza urmatoarea entitate (in ordinea crescatoare a id-urilor)
+     * @return urmatoarea entitate din repozitoriu
+     * @throws NoSuchElementException daca toate entitatile au fost parcurse
+     */
+    @Override
+    public E next() throws NoSuchElementException {
+        if(!hasNext()) {
+            throw new NoSuchElementException("[!]There are no more entities in the repository!\n");
+        }
+        return currentPage.get(position++);
+    }
+}
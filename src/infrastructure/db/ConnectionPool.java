@@ -0,0 +1,338 @@
+package infrastructure.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import utils.Constants;
+
+public class ConnectionPool implements AutoCloseable {
+    /**
+     * Interfata functionala care creeaza o conexiune fizica noua la baza de date (implicit prin DriverManager; in teste se poate folosi o conexiune falsa)
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection createConnection() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int maximumSize;
+    private final long idleTimeoutNanos;
+    private final long borrowTimeoutNanos;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idleConnections;
+    private volatile boolean closed;
+
+    private final AtomicLong numberOfBorrows;
+    private final AtomicLong numberOfCreatedConnections;
+    private final AtomicLong numberOfValidationFailures;
+    private final AtomicLong numberOfEvictedConnections;
+    private final AtomicLong numberOfBorrowTimeouts;
+    private final AtomicLong totalBorrowWaitNanos;
+    private final AtomicLong maximumBorrowWaitNanos;
+
+    /**
+     * Constructor public al unui obiect de clasa ConnectionPool care foloseste DriverManager si setarile implicite din clasa Constants
+     * @param url adresa (URL-ul) bazei de date
+     * @param username numele de utilizator folosit pentru conectarea la baza de date
+     * @param password parola folosita pentru conectarea la baza de date
+     */
+    public ConnectionPool(String url, String username, String password) {
+        this(() -> DriverManager.getConnection(url, username, password), Constants.DATABASE_POOL_SIZE, Constants.DATABASE_POOL_IDLE_TIMEOUT_MILLIS, Constants.DATABASE_POOL_BORROW_TIMEOUT_MILLIS, Constants.DATABASE_POOL_VALIDATION_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa ConnectionPool (bazin marginit de conexiuni la baza de date)<br>
+     * Cel mult maximumSize conexiuni pot fi imprumutate simultan; o conexiune inchisa de apelant nu se inchide fizic, ci se intoarce in bazin si este refolosita la urmatorul imprumut<br>
+     * La fiecare imprumut conexiunile care au stat nefolosite mai mult de idleTimeoutMillis sunt inchise (evacuate), iar conexiunea aleasa este validata (Connection.isValid) inainte de a fi data apelantului
+     * @param connectionFactory functia care creeaza o conexiune fizica noua
+     * @param maximumSize numarul maxim de conexiuni deschise (imprumutate sau libere)
+     * @param idleTimeoutMillis durata maxima (in milisecunde) pentru care o conexiune poate sa stea nefolosita in bazin
+     * @param borrowTimeoutMillis durata maxima (in milisecunde) de asteptare a unei conexiuni libere
+     * @param validationTimeoutSeconds durata maxima (in secunde) a validarii unei conexiuni la imprumut
+     * @throws IllegalArgumentException daca dimensiunea bazinului nu este strict pozitiva sau daca vreuna dintre durate este negativa
+     */
+    public ConnectionPool(ConnectionFactory connectionFactory, int maximumSize, long idleTimeoutMillis, long borrowTimeoutMillis, int validationTimeoutSeconds) throws IllegalArgumentException {
+        if(maximumSize <= 0) {
+            throw new IllegalArgumentException("[!]Connection pool size must be a positive integer!\n");
+        }
+        if(idleTimeoutMillis < 0L || borrowTimeoutMillis < 0L || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("[!]Connection pool timeouts must be non-negative!\n");
+        }
+
+        this.connectionFactory = connectionFactory;
+        this.maximumSize = maximumSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        permits = new Semaphore(maximumSize, true);
+        idleConnections = new ArrayDeque<>();
+        closed = false;
+
+        numberOfBorrows = new AtomicLong();
+        numberOfCreatedConnections = new AtomicLong();
+        numberOfValidationFailures = new AtomicLong();
+        numberOfEvictedConnections = new AtomicLong();
+        numberOfBorrowTimeouts = new AtomicLong();
+        totalBorrowWaitNanos = new AtomicLong();
+        maximumBorrowWaitNanos = new AtomicLong();
+    }
+
+    /**
+     * Metoda publica de tip Connection care imprumuta o conexiune din bazin<br>
+     * Conexiunea returnata trebuie inchisa de apelant (de preferat printr-un bloc try-with-resources), moment in care se intoarce in bazin
+     * @return o conexiune valida la baza de date
+     * @throws SQLException daca bazinul este inchis, daca nu s-a eliberat nicio conexiune in timpul maxim de asteptare sau daca nu s-a putut crea o conexiune noua
+     */
+    public Connection getConnection() throws SQLException {
+        if(closed) {
+            throw new SQLException("[!]Connection pool is closed!\n");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("[!]Interrupted while waiting for a database connection!\n", ex);
+        }
+        long waitNanos = System.nanoTime() - start;
+        totalBorrowWaitNanos.addAndGet(waitNanos);
+        maximumBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        if(!acquired) {
+            numberOfBorrowTimeouts.incrementAndGet();
+            throw new SQLException("[!]Timeout while waiting for a database connection (all " + maximumSize + " connections are in use)!\n");
+        }
+
+        try {
+            Connection physicalConnection = takeValidIdleConnection();
+            if(physicalConnection == null) {
+                physicalConnection = connectionFactory.createConnection();
+                numberOfCreatedConnections.incrementAndGet();
+            }
+            numberOfBorrows.incrementAndGet();
+            return wrap(physicalConnection);
+        } catch(SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Metoda privata de tip Connection care scoate din bazin cea mai recent folosita conexiune libera si valida<br>
+     * Conexiunile expirate (nefolosite de prea mult timp) sunt evacuate, iar cele care nu trec validarea sunt inchise
+     * @return o conexiune fizica valida sau null daca nu exista nicio conexiune libera valida
+     */
+    private Connection takeValidIdleConnection() {
+        evictIdleConnections();
+        while(true) {
+            IdleConnection idleConnection;
+            synchronized(idleConnections) {
+                idleConnection = idleConnections.pollFirst();
+            }
+            if(idleConnection == null) {
+                return null;
+            }
+
+            boolean valid;
+            try {
+                valid = idleConnection.connection.isValid(validationTimeoutSeconds);
+            } catch(SQLException ex) {
+                valid = false;
+            }
+            if(valid) {
+                return idleConnection.connection;
+            }
+            numberOfValidationFailures.incrementAndGet();
+            closeQuietly(idleConnection.connection);
+        }
+    }
+
+    /**
+     * Metoda publica de tip int care inchide conexiunile libere care au stat nefolosite mai mult decat durata maxima permisa
+     * @return numarul de conexiuni evacuate
+     */
+    public int evictIdleConnections() {
+        long now = System.nanoTime();
+        Deque<Connection> evictedConnections = new ArrayDeque<>();
+        synchronized(idleConnections) {
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+            while(iterator.hasNext()) {
+                IdleConnection idleConnection = iterator.next();
+                if(now - idleConnection.releasedAt < idleTimeoutNanos) {
+                    break;
+                }
+                iterator.remove();
+                evictedConnections.add(idleConnection.connection);
+            }
+        }
+        for(Connection connection : evictedConnections) {
+            closeQuietly(connection);
+        }
+        numberOfEvictedConnections.addAndGet(evictedConnections.size());
+        return evictedConnections.size();
+    }
+
+    /**
+     * Metoda privata de tip void care intoarce o conexiune fizica in bazin (apelata la inchiderea conexiunii imprumutate)<br>
+     * Daca apelantul a lasat o tranzactie deschisa, aceasta este anulata (rollback) si se revine la modul auto-commit; conexiunile stricate sunt inchise
+     * @param physicalConnection conexiunea fizica eliberata
+     */
+    private void release(Connection physicalConnection) {
+        try {
+            boolean reusable = !closed && !physicalConnection.isClosed();
+            if(reusable && !physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            if(reusable) {
+                synchronized(idleConnections) {
+                    idleConnections.addFirst(new IdleConnection(physicalConnection, System.nanoTime()));
+                }
+            }
+            else {
+                closeQuietly(physicalConnection);
+            }
+        } catch(SQLException ex) {
+            closeQuietly(physicalConnection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Metoda privata de tip Connection care imbraca o conexiune fizica intr-un proxy a carui metoda close intoarce conexiunea in bazin (o singura data)
+     * @param physicalConnection conexiunea fizica imprumutata
+     * @return conexiunea data apelantului
+     */
+    private Connection wrap(Connection physicalConnection) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean released = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+                switch(method.getName()) {
+                    case "close":
+                        if(!released) {
+                            released = true;
+                            release(physicalConnection);
+                        }
+                        return null;
+                    case "isClosed":
+                        return released || physicalConnection.isClosed();
+                    case "unwrap":
+                        if(arguments[0] == Connection.class) {
+                            return physicalConnection;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == arguments[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + physicalConnection + "]";
+                }
+                if(released) {
+                    throw new SQLException("[!]Connection has already been returned to the pool!\n");
+                }
+                try {
+                    return method.invoke(physicalConnection, arguments);
+                } catch(InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        };
+        return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch(SQLException ignored) {}
+    }
+
+    /**
+     * Metoda publica de tip void care inchide bazinul: conexiunile libere sunt inchise imediat, iar cele imprumutate sunt inchise cand sunt eliberate
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Deque<IdleConnection> closedConnections;
+        synchronized(idleConnections) {
+            closedConnections = new ArrayDeque<>(idleConnections);
+            idleConnections.clear();
+        }
+        for(IdleConnection idleConnection : closedConnections) {
+            closeQuietly(idleConnection.connection);
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int getNumberOfActiveConnections() {
+        return maximumSize - permits.availablePermits();
+    }
+
+    public int getNumberOfIdleConnections() {
+        synchronized(idleConnections) {
+            return idleConnections.size();
+        }
+    }
+
+    public long getNumberOfBorrows() {
+        return numberOfBorrows.get();
+    }
+
+    public long getNumberOfCreatedConnections() {
+        return numberOfCreatedConnections.get();
+    }
+
+    public long getNumberOfValidationFailures() {
+        return numberOfValidationFailures.get();
+    }
+
+    public long getNumberOfEvictedConnections() {
+        return numberOfEvictedConnections.get();
+    }
+
+    public long getNumberOfBorrowTimeouts() {
+        return numberOfBorrowTimeouts.get();
+    }
+
+    public long getTotalBorrowWaitNanos() {
+        return totalBorrowWaitNanos.get();
+    }
+
+    public long getMaximumBorrowWaitNanos() {
+        return maximumBorrowWaitNanos.get();
+    }
+
+    /**
+     * Conexiune fizica libera din bazin, impreuna cu momentul (System.nanoTime) la care a fost eliberata
+     */
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long releasedAt;
+
+        private IdleConnection(Connection connection, long releasedAt) {
+            this.connection = connection;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
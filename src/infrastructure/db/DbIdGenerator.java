@@ -0,0 +1,101 @@
+package infrastructure.db;
+
+import exception.RepoException;
+import infrastructure.IIdGenerator;
+import infrastructure.memory.AtomicIdGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+public class DbIdGenerator implements IIdGenerator {
+    private static final String IDENTIFIER_REGEX = "[a-z_][a-z0-9_]*";
+
+    private final ConnectionPool connectionPool;
+    private final String sequenceName;
+
+    /**
+     * Metoda privata statica de tip void care verifica daca name este un identificator SQL simplu (numele este concatenat in instructiuni, deci nu poate contine alte caractere)
+     * @param name obiect de clasa String reprezentand numele unei tabele sau al unei secvente
+     * @throws IllegalArgumentException daca name este null sau nu este un identificator simplu (litere mici, cifre si '_')
+     */
+    private static void validateIdentifier(String name) throws IllegalArgumentException {
+        if(name == null || !name.matches(IDENTIFIER_REGEX)) {
+            throw new IllegalArgumentException("[!]Invalid name (name must be a lowercase SQL identifier)!\n");
+        }
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa DbIdGenerator care rezerva id-urile din secventa (SEQUENCE) sequenceName a bazei de date<br>
+     * Secventa este sigura si intre mai multe procese care scriu in aceeasi baza de date; id-urile rezervate dar nefolosite (entitati invalide, tranzactii anulate) raman neutilizate, ca la orice secventa<br>
+     * Secventa trebuie sa existe si sa porneasca de la un id mai mare decat toate id-urile existente, de exemplu:
+     * CREATE SEQUENCE users_id_seq; SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+     * @param connectionPool bazinul de conexiuni la baza de date
+     * @param sequenceName numele secventei
+     * @throws IllegalArgumentException daca numele secventei nu este un identificator simplu
+     */
+    public DbIdGenerator(ConnectionPool connectionPool, String sequenceName) throws IllegalArgumentException {
+        validateIdentifier(sequenceName);
+        this.connectionPool = connectionPool;
+        this.sequenceName = sequenceName;
+    }
+
+    /**
+     * Metoda publica statica care construieste un generator de id-uri in memorie (contor atomic) care porneste dupa id-ul maxim din tabela tableName<br>
+     * Id-ul maxim este aflat printr-o singura interogare "SELECT COALESCE(MAX(id), 0)" (rezolvata din indexul cheii primare, fara citirea randurilor), deci crearea service-urilor nu mai parcurge tabela; generatorul este sigur la apeluri concurente din acelasi proces
+     * @param connectionPool bazinul de conexiuni la baza de date
+     * @param tableName numele tabelei (de exemplu "users" sau "friendships")
+     * @return generatorul de id-uri
+     * @throws RepoException daca id-ul maxim nu poate fi citit din baza de date
+     * @throws IllegalArgumentException daca numele tabelei nu este un identificator simplu
+     */
+    public static IIdGenerator startingAfterMaximumId(ConnectionPool connectionPool, String tableName) throws RepoException, IllegalArgumentException {
+        validateIdentifier(tableName);
+
+        String sqlCommand = "SELECT COALESCE(MAX(id), 0) FROM " + tableName;
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            ResultSet resultSet = statement.executeQuery();
+            if(resultSet.next()) {
+                return new AtomicIdGenerator(resultSet.getLong(1) + 1);
+            }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
+        }
+        throw new RepoException("[!]Error at reading the maximum id from the database!\n");
+    }
+
+    /**
+     * Rezerva count id-uri printr-o singura instructiune (nextval apelat de count ori prin generate_series); id-urile sunt distincte dar, la scrieri concurente, nu neaparat consecutive
+     */
+    @Override
+    public long[] nextIds(int count) throws RepoException, IllegalArgumentException {
+        if(count < 0) {
+            throw new IllegalArgumentException("[!]Invalid count (count must be greater or equal with 0)!\n");
+        }
+        if(count == 0) {
+            return new long[0];
+        }
+
+        String sqlCommand = "SELECT nextval('" + sequenceName + "') FROM generate_series(1, ?)";
+        long[] ids = new long[count];
+        int numberOfIds = 0;
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            statement.setInt(1, count);
+            ResultSet resultSet = statement.executeQuery();
+            while(resultSet.next() && numberOfIds < count) {
+                ids[numberOfIds++] = resultSet.getLong(1);
+            }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
+        }
+        if(numberOfIds != count) {
+            throw new RepoException("[!]Error at reserving ids from the database sequence!\n");
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+}
@@ -5,136 +5,288 @@ import domain.User;
 import domain.Friendship;
 import exception.RepoException;
 import infrastructure.IRepository;
+import utils.Constants;
 import utils.FriendshipStatusConverter;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
 
 public class FriendshipDbRepository implements IRepository<Long, Friendship> {
-    private final String url;
-    private final String username;
-    private final String password;
-    private final IRepository<Long, User> userRepo;
+    private static final List<String> USER_COLUMNS = Arrays.asList("id", "first_name", "last_name", "birthday", "email", "home_address", "country", "county", "city", "username", "password");
+    private static final String HYDRATED_FRIENDSHIP_COLUMNS = "f.id, f.friends_from, f.friendship_status, " + userColumns("u1", "first_friend_") + ", " + userColumns("u2", "second_friend_");
+    private static final String FRIENDS_JOIN = " JOIN users u1 ON u1.id = f.first_friend_id JOIN users u2 ON u2.id = f.second_friend_id";
+    private static final String HYDRATED_FRIENDSHIPS_QUERY = "SELECT " + HYDRATED_FRIENDSHIP_COLUMNS + " FROM friendships f" + FRIENDS_JOIN;
+    private static final String INSERT_FRIENDSHIP_COMMAND = "INSERT INTO friendships (id, first_friend_id, second_friend_id, friends_from, friendship_status) VALUES (?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
 
-    public FriendshipDbRepository(String url, String username, String password, IRepository<Long, User> userRepo) {
-        this.url = url;
-        this.username = username;
-        this.password = password;
-        this.userRepo = userRepo;
+    private final ConnectionPool connectionPool;
+    private final int fetchSize;
+
+    public FriendshipDbRepository(String url, String username, String password) {
+        this(new ConnectionPool(url, username, password));
+    }
+
+    public FriendshipDbRepository(ConnectionPool connectionPool) {
+        this(connectionPool, Constants.DATABASE_FETCH_SIZE);
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa FriendshipDbRepository<br>
+     * Repozitoriul nu depinde de repozitoriul de utilizatori: prietenii sunt cititi direct din tabela users, in aceeasi instructiune cu prietenia
+     * @param connectionPool bazinul de conexiuni (partajat cu repozitoriul de utilizatori)
+     * @param fetchSize numarul de randuri aduse de la server la un pas atunci cand getAll parcurge prieteniile (rezultatul nu este adus integral in memorie inainte de prelucrare)
+     * @throws IllegalArgumentException daca fetchSize nu este strict pozitiv
+     */
+    public FriendshipDbRepository(ConnectionPool connectionPool, int fetchSize) throws IllegalArgumentException {
+        if(fetchSize <= 0) {
+            throw new IllegalArgumentException("[!]Fetch size must be a positive integer!\n");
+        }
+        this.connectionPool = connectionPool;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Metoda privata statica de tip void care verifica id-ul dat ca parametru unei operatii (inainte de orice acces la baza de date)
+     * @param friendshipID id-ul verificat
+     * @throws IllegalArgumentException daca id-ul este null sau negativ
+     */
+    private static void validateId(Long friendshipID) throws IllegalArgumentException {
+        if(friendshipID == null) {
+            throw new IllegalArgumentException("[!]Id must not be null!\n");
+        }
+        else if(friendshipID < 0L) {
+            throw new IllegalArgumentException("[!]Id must be a non-negative integer!\n");
+        }
     }
 
+    /**
+     * Metoda privata statica de tip void care transforma incalcarea constrangerii de unicitate a tabelei friendships in mesajul RepoException al repozitoriului (celelalte erori SQL sunt doar afisate)
+     * @param ex exceptia aruncata de driverul JDBC
+     * @throws RepoException daca exista deja o prietenie intre cei doi utilizatori
+     */
+    private static void handleSQLException(SQLException ex) throws RepoException {
+        if(SqlStates.violatesUniqueConstraint(ex, "uq_friendships")) {
+            throw new RepoException("[!]Friendship already exists!\n");
+        }
+        else {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Adauga prietenia printr-o singura instructiune: un id duplicat este detectat prin ON CONFLICT (id) DO NOTHING (0 randuri inserate)
+     */
     @Override
     public void add(Friendship friendship) throws RepoException, IllegalArgumentException {
         if(friendship == null) {
             throw new RepoException("[!]Invalid friendships (friendship must not be null)!\n");
         }
 
-        boolean friendshipsAlreadyExists = false;
-        try {
-            search(friendship.getId());
-            friendshipsAlreadyExists = true;
-        } catch(RepoException ignored) {}
-        if(friendshipsAlreadyExists) {
-            throw new RepoException("[!]Friendship already exists in the social network (there is a friendship with the given id)!\n");
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(INSERT_FRIENDSHIP_COMMAND)) {
+            bindFriendship(statement, friendship);
+            if(statement.executeUpdate() == 0) {
+                throw new RepoException("[!]Friendship already exists in the social network (there is a friendship with the given id)!\n");
+            }
+        } catch(SQLException ex) {
+            handleSQLException(ex);
         }
+    }
 
-        String sqlCommand = "INSERT INTO friendships (id, first_friend_id, second_friend_id, friends_from, friendship_status) VALUES (?, ?, ?, ?, ?)";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
-            statement.setLong(1, friendship.getId());
-            statement.setLong(2, friendship.getFirstFriend().getId());
-            statement.setLong(3, friendship.getSecondFriend().getId());
-            statement.setTimestamp(4, Timestamp.valueOf(friendship.getFriendsFrom()));
-            statement.setString(5, FriendshipStatusConverter.convertStatusToString(friendship.getStatus()));
-            statement.executeUpdate();
-        } catch(SQLException ex) {
-            if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_friendships\"\n")) {
-                throw new RepoException("[!]Friendship already exists!\n");
+    /**
+     * Metoda privata statica de tip void care completeaza parametrii instructiunii INSERT_FRIENDSHIP_COMMAND cu atributele prieteniei friendship
+     * @param statement instructiunea pregatita
+     * @param friendship prietenia inserata
+     * @throws SQLException daca parametrii nu pot fi setati
+     */
+    private static void bindFriendship(PreparedStatement statement, Friendship friendship) throws SQLException {
+        statement.setLong(1, friendship.getId());
+        statement.setLong(2, friendship.getFirstFriendId());
+        statement.setLong(3, friendship.getSecondFriendId());
+        statement.setTimestamp(4, Timestamp.valueOf(friendship.getFriendsFrom()));
+        statement.setString(5, FriendshipStatusConverter.convertStatusToString(friendship.getStatus()));
+    }
+
+    /**
+     * Adauga prieteniile prin inserari JDBC in loturi (batch) de cate Constants.DATABASE_BATCH_SIZE, pe o singura conexiune si intr-o singura tranzactie<br>
+     * Daca un lot esueaza (id duplicat sau prietenie existenta), intreaga tranzactie este anulata (rollback): nu se adauga nicio prietenie, nici din loturile anterioare
+     */
+    @Override
+    public void addAll(Iterable<Friendship> friendships) throws RepoException, IllegalArgumentException {
+        if(friendships == null) {
+            throw new IllegalArgumentException("[!]Invalid friendships (friendships must not be null)!\n");
+        }
+
+        try(Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try(PreparedStatement statement = connection.prepareStatement(INSERT_FRIENDSHIP_COMMAND)) {
+                int batchSize = 0;
+                for(Friendship friendship : friendships) {
+                    if(friendship == null) {
+                        throw new RepoException("[!]Invalid friendships (friendship must not be null)!\n");
+                    }
+                    bindFriendship(statement, friendship);
+                    statement.addBatch();
+                    if(++batchSize == Constants.DATABASE_BATCH_SIZE) {
+                        executeBatch(statement);
+                        batchSize = 0;
+                    }
+                }
+                if(batchSize > 0) {
+                    executeBatch(statement);
+                }
+                connection.commit();
+            } catch(SQLException | RepoException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-            else {
-                ex.printStackTrace();
+        } catch(SQLException ex) {
+            handleSQLException(ex);
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void care executa lotul curent de inserari (fara commit, loturile fac parte din tranzactia intregii adaugari)
+     * @param statement instructiunea care contine lotul
+     * @throws SQLException daca lotul nu poate fi executat
+     * @throws RepoException daca cel putin o prietenie nu a fost inserata (exista deja o prietenie cu acelasi id)
+     */
+    private static void executeBatch(PreparedStatement statement) throws SQLException, RepoException {
+        for(int updateCount : statement.executeBatch()) {
+            if(updateCount == 0) {
+                throw new RepoException("[!]Friendship already exists in the social network (there is a friendship with the given id)!\n");
             }
         }
     }
 
+    /**
+     * Sterge prietenia printr-o singura instructiune: randul sters (DELETE ... RETURNING) este unit (JOIN) cu cei doi prieteni intr-o expresie WITH
+     */
     @Override
     public Friendship remove(Long friendshipID) throws RepoException, IllegalArgumentException {
-        Friendship deletedFriendships = search(friendshipID);
-        String sqlCommand = "DELETE FROM friendships WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        validateId(friendshipID);
+
+        String sqlCommand = "WITH f AS (DELETE FROM friendships WHERE id = ? RETURNING *) SELECT " + HYDRATED_FRIENDSHIP_COLUMNS + " FROM f" + FRIENDS_JOIN;
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             statement.setLong(1, friendshipID);
-            statement.executeUpdate();
+            ResultSet resultSet = statement.executeQuery();
+            if(!resultSet.next()) {
+                throw new RepoException("[!]There is no friendship with the given id in the social network!\n");
+            }
+            return assembleFriendship(resultSet, new HashMap<>());
         } catch(SQLException ex) {
             ex.printStackTrace();
         }
-        return deletedFriendships;
+        return null;
     }
 
+    /**
+     * Sterge prieteniile intr-o singura tranzactie: fiecare grup de cel mult Constants.DATABASE_BATCH_SIZE id-uri este sters printr-o singura instructiune (DELETE ... WHERE id IN (...) RETURNING, unita cu prietenii intr-o expresie WITH)<br>
+     * Daca cel putin un id nu exista in baza de date, tranzactia este anulata (rollback) si nu se sterge nicio prietenie
+     */
     @Override
-    public Friendship modify(Friendship friendship) throws RepoException, IllegalArgumentException {
-        if(friendship == null) {
-            throw new RepoException("[!]Invalid friendship (friendship must not be null)!\n");
+    public List<Friendship> removeAll(Iterable<Long> friendshipIDs) throws RepoException, IllegalArgumentException {
+        if(friendshipIDs == null) {
+            throw new IllegalArgumentException("[!]Invalid ids (ids must not be null)!\n");
         }
 
-        Friendship modifiedFriendship = search(friendship.getId());
-        String sqlCommand = "UPDATE friendships SET first_friend_id = ?, second_friend_id = ?, friends_from = ?, friendship_status = ? WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
-            statement.setLong(1, friendship.getFirstFriend().getId());
-            statement.setLong(2, friendship.getSecondFriend().getId());
-            statement.setTimestamp(3, Timestamp.valueOf(friendship.getFriendsFrom()));
-            statement.setString(4, FriendshipStatusConverter.convertStatusToString(friendship.getStatus()));
-            statement.setLong(5, friendship.getId());
-            statement.executeUpdate();
-        } catch(SQLException ex) {
-            if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_friendships\"\n")) {
-                throw new RepoException("[!]Friendship already exists!\n");
+        List<Long> removedIDs = new ArrayList<>();
+        Set<Long> distinctIDs = new HashSet<>();
+        for(Long friendshipID : friendshipIDs) {
+            validateId(friendshipID);
+            if(!distinctIDs.add(friendshipID)) {
+                throw new RepoException("[!]There is no friendship with the given id in the social network!\n");
             }
-            else {
-                ex.printStackTrace();
+            removedIDs.add(friendshipID);
+        }
+        List<Friendship> removedFriendships = new ArrayList<>(removedIDs.size());
+        if(removedIDs.isEmpty()) {
+            return removedFriendships;
+        }
+
+        try(Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Map<Long, User> hydratedUsers = new HashMap<>();
+                for(int first = 0; first < removedIDs.size(); first += Constants.DATABASE_BATCH_SIZE) {
+                    List<Long> batch = removedIDs.subList(first, Math.min(first + Constants.DATABASE_BATCH_SIZE, removedIDs.size()));
+                    String sqlCommand = "WITH f AS (DELETE FROM friendships WHERE id IN (" + String.join(", ", Collections.nCopies(batch.size(), "?")) + ") RETURNING *) SELECT " + HYDRATED_FRIENDSHIP_COLUMNS + " FROM f" + FRIENDS_JOIN;
+                    try(PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+                        for(int position = 0; position < batch.size(); ++position) {
+                            statement.setLong(position + 1, batch.get(position));
+                        }
+                        ResultSet resultSet = statement.executeQuery();
+                        while(resultSet.next()) {
+                            removedFriendships.add(assembleFriendship(resultSet, hydratedUsers));
+                        }
+                    }
+                }
+                if(removedFriendships.size() != removedIDs.size()) {
+                    throw new RepoException("[!]There is no friendship with the given id in the social network!\n");
+                }
+                connection.commit();
+            } catch(SQLException | RepoException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
         }
-        return modifiedFriendship;
+        return removedFriendships;
     }
 
+    /**
+     * Modifica prietenia printr-o singura instructiune: randul vechi (blocat cu FOR UPDATE) si prietenii lui sunt cititi in aceeasi expresie WITH care face actualizarea
+     */
     @Override
-    public Friendship search(Long friendshipID) throws RepoException, IllegalArgumentException {
-        if(friendshipID == null) {
-            throw new IllegalArgumentException("[!]Id must not be null!\n");
-        }
-        else if(friendshipID < 0L) {
-            throw new IllegalArgumentException("[!]Id must be a non-negative integer!\n");
+    public Friendship modify(Friendship friendship) throws RepoException, IllegalArgumentException {
+        if(friendship == null) {
+            throw new RepoException("[!]Invalid friendship (friendship must not be null)!\n");
         }
+        validateId(friendship.getId());
 
-        if(len() == 0) {
-            throw new RepoException("[!]There are no friendships in the social network!\n");
+        String sqlCommand = "WITH f AS (SELECT * FROM friendships WHERE id = ? FOR UPDATE), updated AS (UPDATE friendships SET first_friend_id = ?, second_friend_id = ?, friends_from = ?, friendship_status = ? FROM f WHERE friendships.id = f.id RETURNING friendships.id) SELECT " + HYDRATED_FRIENDSHIP_COLUMNS + " FROM f JOIN updated ON updated.id = f.id" + FRIENDS_JOIN;
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            statement.setLong(1, friendship.getId());
+            statement.setLong(2, friendship.getFirstFriendId());
+            statement.setLong(3, friendship.getSecondFriendId());
+            statement.setTimestamp(4, Timestamp.valueOf(friendship.getFriendsFrom()));
+            statement.setString(5, FriendshipStatusConverter.convertStatusToString(friendship.getStatus()));
+            ResultSet resultSet = statement.executeQuery();
+            if(!resultSet.next()) {
+                throw new RepoException("[!]There is no friendship with the given id in the social network!\n");
+            }
+            return assembleFriendship(resultSet, new HashMap<>());
+        } catch(SQLException ex) {
+            handleSQLException(ex);
         }
+        return null;
+    }
+
+    @Override
+    public Friendship search(Long friendshipID) throws RepoException, IllegalArgumentException {
+        validateId(friendshipID);
 
-        String sqlCommand = "SELECT * FROM friendships WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        String sqlCommand = HYDRATED_FRIENDSHIPS_QUERY + " WHERE f.id = ?";
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             statement.setLong(1, friendshipID);
             ResultSet resultSet = statement.executeQuery();
             if(resultSet.next()) {
-                Long firstFriendID = resultSet.getLong("first_friend_id");
-                Long secondFriendID = resultSet.getLong("second_friend_id");
-                LocalDateTime friendsFrom = resultSet.getTimestamp("friends_from").toLocalDateTime();
-                Friendship_Status status;
-                try {
-                    status = FriendshipStatusConverter.convertStringToStatus(resultSet.getString("friendship_status"));
-                } catch(Exception ex) {
-                    System.err.println("[!]Error at reading friendship status from database (invalid status)!");
-                    ex.printStackTrace();
-                    return null;
-                }
-
-                Friendship searchedFriendships = new Friendship(userRepo.search(firstFriendID), userRepo.search(secondFriendID), friendsFrom, status);
-                searchedFriendships.setId(friendshipID);
-
-                return searchedFriendships;
+                return assembleFriendship(resultSet, new HashMap<>());
             }
             else {
                 throw new RepoException("[!]There is no friendship with the given id in the social network!\n");
@@ -148,8 +300,8 @@ public class FriendshipDbRepository implements IRepository<Long, Friendship> {
     @Override
     public int len() {
         String sqlCommand = "SELECT COUNT(*) FROM friendships";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             ResultSet resultSet = statement.executeQuery();
             if(resultSet.next()) {
                 return resultSet.getInt(1);
@@ -162,36 +314,126 @@ public class FriendshipDbRepository implements IRepository<Long, Friendship> {
 
     @Override
     public Iterable<Friendship> getAll() throws RepoException {
-        if(len() == 0) {
+        Set<Friendship> friendships = new HashSet<>();
+        Map<Long, User> hydratedUsers = new HashMap<>();
+        try(Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try(PreparedStatement statement = connection.prepareStatement(HYDRATED_FRIENDSHIPS_QUERY)) {
+                statement.setFetchSize(fetchSize);
+                ResultSet resultSet = statement.executeQuery();
+                while(resultSet.next()) {
+                    Friendship friendship = assembleFriendship(resultSet, hydratedUsers);
+                    if(friendship == null) {
+                        return null;
+                    }
+                    friendships.add(friendship);
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
+        }
+        if(friendships.isEmpty()) {
             throw new RepoException("[!]There are no friendships in the social network!\n");
         }
+        return friendships;
+    }
 
-        Set<Friendship> friendships = new HashSet<>();
-        String sqlCommand = "SELECT * FROM friendships";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+    /**
+     * Metoda publica care returneaza cel mult limit prietenii cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor<br>
+     * Paginarea se face dupa cheie (keyset pagination) printr-o singura interogare (cu prietenii inclusi prin JOIN) "WHERE f.id > ? ORDER BY f.id LIMIT ?"; prietenii comuni ai prieteniilor din aceeasi pagina sunt acelasi obiect de clasa User
+     * @param afterId id-ul dupa care incepe pagina (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de prietenii din pagina
+     * @return lista (eventual vida) cu prieteniile paginii, ordonate crescator dupa id
+     * @throws IllegalArgumentException daca limit nu este strict pozitiv
+     */
+    @Override
+    public List<Friendship> page(Long afterId, int limit) throws IllegalArgumentException {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+
+        String sqlCommand = HYDRATED_FRIENDSHIPS_QUERY + " WHERE f.id > ? ORDER BY f.id LIMIT ?";
+        List<Friendship> friendships = new ArrayList<>();
+        Map<Long, User> hydratedUsers = new HashMap<>();
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            statement.setLong(1, afterId == null ? Long.MIN_VALUE : afterId);
+            statement.setInt(2, limit);
             ResultSet resultSet = statement.executeQuery();
             while(resultSet.next()) {
-                Long friendshipID = resultSet.getLong("id");
-                Long firstFriendID = resultSet.getLong("first_friend_id");
-                Long secondFriendID = resultSet.getLong("second_friend_id");
-                LocalDateTime friendsFrom = resultSet.getTimestamp("friends_from").toLocalDateTime();
-                Friendship_Status status;
-                try {
-                    status = FriendshipStatusConverter.convertStringToStatus(resultSet.getString("friendship_status"));
-                } catch(Exception ex) {
-                    System.err.println("[!]Error at reading friendship status from database (invalid status)!");
-                    ex.printStackTrace();
-                    return null;
+                Friendship friendship = assembleFriendship(resultSet, hydratedUsers);
+                if(friendship != null) {
+                    friendships.add(friendship);
                 }
-
-                Friendship friendship = new Friendship(userRepo.search(firstFriendID), userRepo.search(secondFriendID), friendsFrom, status);
-                friendship.setId(friendshipID);
-                friendships.add(friendship);
             }
         } catch(SQLException ex) {
             ex.printStackTrace();
         }
         return friendships;
     }
+
+    /**
+     * Metoda privata statica de tip Friendship care construieste prietenia din randul curent al unei interogari care contine coloanele HYDRATED_FRIENDSHIP_COLUMNS
+     * @param resultSet rezultatul interogarii, pozitionat pe randul curent
+     * @param hydratedUsers harta de identitate (id utilizator - utilizator) folosita pentru prieteni
+     * @return prietenia construita sau null daca statutul prieteniei din baza de date este invalid
+     * @throws SQLException daca vreuna dintre coloane nu poate fi citita
+     */
+    private static Friendship assembleFriendship(ResultSet resultSet, Map<Long, User> hydratedUsers) throws SQLException {
+        Long friendshipID = resultSet.getLong("id");
+        LocalDateTime friendsFrom = resultSet.getTimestamp("friends_from").toLocalDateTime();
+        Friendship_Status status;
+        try {
+            status = FriendshipStatusConverter.convertStringToStatus(resultSet.getString("friendship_status"));
+        } catch(Exception ex) {
+            System.err.println("[!]Error at reading friendship status from database (invalid status)!");
+            ex.printStackTrace();
+            return null;
+        }
+
+        User firstFriend = hydrateUser(resultSet, "first_friend_", hydratedUsers);
+        User secondFriend = hydrateUser(resultSet, "second_friend_", hydratedUsers);
+        Friendship friendship = new Friendship(firstFriend, secondFriend, friendsFrom, status);
+        friendship.setId(friendshipID);
+        return friendship;
+    }
+
+    /**
+     * Metoda privata statica de tip User care intoarce utilizatorul (prietenul) din randul curent al interogarii HYDRATED_FRIENDSHIPS_QUERY<br>
+     * Fiecare utilizator este construit o singura data (harta de identitate hydratedUsers), astfel incat toate prieteniile unui utilizator refera acelasi obiect
+     * @param resultSet rezultatul interogarii, pozitionat pe randul curent
+     * @param columnPrefix prefixul coloanelor prietenului ("first_friend_" sau "second_friend_")
+     * @param hydratedUsers harta de identitate (id utilizator - utilizator) completata pe parcursul citirii
+     * @return utilizatorul corespunzator coloanelor cu prefixul columnPrefix
+     * @throws SQLException daca vreuna dintre coloane nu poate fi citita
+     */
+    private static User hydrateUser(ResultSet resultSet, String columnPrefix, Map<Long, User> hydratedUsers) throws SQLException {
+        Long userID = resultSet.getLong(columnPrefix + "id");
+        User user = hydratedUsers.get(userID);
+        if(user == null) {
+            user = UserDbRepository.assembleUser(resultSet, columnPrefix, userID);
+            hydratedUsers.put(userID, user);
+        }
+        return user;
+    }
+
+    /**
+     * Metoda privata statica de tip String care intoarce lista coloanelor unui utilizator din JOIN, redenumite cu prefixul columnPrefix
+     * @param tableAlias alias-ul tabelei users in interogare
+     * @param columnPrefix prefixul adaugat numelor coloanelor
+     * @return lista coloanelor, separate prin virgula
+     */
+    private static String userColumns(String tableAlias, String columnPrefix) {
+        StringBuilder columns = new StringBuilder();
+        for(String column : USER_COLUMNS) {
+            if(columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(tableAlias).append('.').append(column).append(" AS ").append(columnPrefix).append(column);
+        }
+        return columns.toString();
+    }
 }
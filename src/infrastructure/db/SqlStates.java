@@ -0,0 +1,24 @@
+package infrastructure.db;
+
+import java.sql.SQLException;
+
+final class SqlStates {
+    static final String UNIQUE_VIOLATION = "23505";
+
+    private SqlStates() {}
+
+    /**
+     * Metoda statica (vizibila in pachet) de tip boolean care verifica daca o exceptie SQL provine din incalcarea unei constrangeri de unicitate
+     * @param ex exceptia aruncata de driverul JDBC
+     * @param constraintName numele constrangerii (de exemplu "uq_users_username")
+     * @return true daca exceptia (sau una dintre exceptiile inlantuite prin getNextException, cazul inserarilor in loturi) are starea SQL 23505 (unique_violation) si mentioneaza constrangerea constraintName, false in caz contrar
+     */
+    static boolean violatesUniqueConstraint(SQLException ex, String constraintName) {
+        for(SQLException current = ex; current != null; current = current.getNextException()) {
+            if(UNIQUE_VIOLATION.equals(current.getSQLState()) && current.getMessage() != null && current.getMessage().contains("\"" + constraintName + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,94 +4,222 @@ import domain.Address;
 import domain.Credential;
 import domain.User;
 import exception.RepoException;
-import infrastructure.IRepository;
+import infrastructure.IUserSearchRepository;
+import utils.Constants;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 
-public class UserDbRepository implements IRepository<Long, User> {
-    private final String url;
-    private final String username;
-    private final String password;
+public class UserDbRepository implements IUserSearchRepository {
+    private static final String INSERT_USER_COMMAND = "INSERT INTO users (id, first_name, last_name, birthday, email, home_address, country, county, city, username, password) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private final ConnectionPool connectionPool;
 
     public UserDbRepository(String url, String username, String password) {
-        this.url = url;
-        this.username = username;
-        this.password = password;
+        this(new ConnectionPool(url, username, password));
+    }
+
+    public UserDbRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Metoda statica (vizibila in pachet) de tip User care construieste un utilizator din randul curent al unui ResultSet<br>
+     * Coloanele utilizatorului sunt cautate cu prefixul columnPrefix (de exemplu "first_friend_" pentru coloanele redenumite intr-un JOIN)
+     * @param resultSet rezultatul interogarii, pozitionat pe randul care contine utilizatorul
+     * @param columnPrefix prefixul coloanelor utilizatorului ("" pentru interogari directe pe tabela users)
+     * @param userID id-ul utilizatorului
+     * @return utilizatorul construit
+     * @throws SQLException daca vreuna dintre coloane nu poate fi citita
+     */
+    static User assembleUser(ResultSet resultSet, String columnPrefix, Long userID) throws SQLException {
+        String firstName = resultSet.getString(columnPrefix + "first_name");
+        String lastName = resultSet.getString(columnPrefix + "last_name");
+        LocalDate birthday = resultSet.getDate(columnPrefix + "birthday").toLocalDate();
+        String email = resultSet.getString(columnPrefix + "email");
+
+        String homeAddress = resultSet.getString(columnPrefix + "home_address");
+        String country = resultSet.getString(columnPrefix + "country");
+        String county = resultSet.getString(columnPrefix + "county");
+        String city = resultSet.getString(columnPrefix + "city");
+        Address address = new Address(homeAddress, country, county, city);
+
+        String username = resultSet.getString(columnPrefix + "username");
+        String password = resultSet.getString(columnPrefix + "password");
+        Credential credential = new Credential(username, password);
+
+        User user = new User(firstName, lastName, birthday, email, address, credential);
+        user.setId(userID);
+        return user;
+    }
+
+    /**
+     * Metoda privata statica de tip void care verifica id-ul dat ca parametru unei operatii (inainte de orice acces la baza de date)
+     * @param userID id-ul verificat
+     * @throws IllegalArgumentException daca id-ul este null sau negativ
+     */
+    private static void validateId(Long userID) throws IllegalArgumentException {
+        if(userID == null) {
+            throw new IllegalArgumentException("[!]Id must not be null!\n");
+        }
+        else if(userID < 0L) {
+            throw new IllegalArgumentException("[!]Id must be a non-negative integer!\n");
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void care transforma incalcarea constrangerilor de unicitate ale tabelei users in mesajele RepoException ale repozitoriului (celelalte erori SQL sunt doar afisate)
+     * @param ex exceptia aruncata de driverul JDBC
+     * @throws RepoException daca exceptia provine dintr-o constrangere de unicitate (email, username sau parola)
+     */
+    private static void handleSQLException(SQLException ex) throws RepoException {
+        if(SqlStates.violatesUniqueConstraint(ex, "uq_users")) {
+            throw new RepoException("[!]There is already an user in the social network with the given email address!\n");
+        }
+        else if(SqlStates.violatesUniqueConstraint(ex, "uq_users_username")) {
+            throw new RepoException("[!]There is already an user in the social network with the given username!\n");
+        }
+        else if(SqlStates.violatesUniqueConstraint(ex, "uq_users_password")) {
+            throw new RepoException("[!]There is already an user in the social network with the given password!\n");
+        }
+        else {
+            ex.printStackTrace();
+        }
     }
 
+    /**
+     * Adauga utilizatorul printr-o singura instructiune: un id duplicat nu mai este cautat in prealabil, ci este detectat prin ON CONFLICT (id) DO NOTHING (0 randuri inserate)
+     */
     @Override
     public void add(User user) throws RepoException, IllegalArgumentException {
         if(user == null) {
             throw new RepoException("[!]Invalid user (user must not be null)!\n");
         }
 
-        boolean userAlreadyExists = false;
-        try {
-            search(user.getId());
-            userAlreadyExists = true;
-        } catch(RepoException ignored) {}
-        if(userAlreadyExists) {
-            throw new RepoException("[!]User already exists in the social network (there is an user with the given id)!\n");
-        }
-
-        String sqlCommand = "INSERT INTO users (id, first_name, last_name, birthday, email, home_address, country, county, city, username, password) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
-            statement.setLong(1, user.getId());
-            statement.setString(2, user.getFirstName());
-            statement.setString(3, user.getLastName());
-            statement.setDate(4, java.sql.Date.valueOf(user.getBirthday()));
-            statement.setString(5, user.getEmail());
-            statement.setString(6, user.getAddress().getHomeAddress());
-            statement.setString(7, user.getAddress().getCountry());
-            statement.setString(8, user.getAddress().getCounty());
-            statement.setString(9, user.getAddress().getCity());
-            statement.setString(10, user.getCredential().getUsername());
-            statement.setString(11, user.getCredential().getPassword());
-            statement.executeUpdate();
-        } catch(SQLException ex) {
-            if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_users\"\n")) {
-                throw new RepoException("[!]There is already an user in the social network with the given email address!\n");
-            }
-            else if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_users_username\"\n")) {
-                throw new RepoException("[!]There is already an user in the social network with the given username!\n");
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(INSERT_USER_COMMAND)) {
+            bindUser(statement, user);
+            if(statement.executeUpdate() == 0) {
+                throw new RepoException("[!]User already exists in the social network (there is an user with the given id)!\n");
             }
-            else if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_users_password\"\n")) {
-                throw new RepoException("[!]There is already an user in the social network with the given password!\n");
+        } catch(SQLException ex) {
+            handleSQLException(ex);
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void care completeaza parametrii instructiunii INSERT_USER_COMMAND cu atributele utilizatorului user
+     * @param statement instructiunea pregatita
+     * @param user utilizatorul inserat
+     * @throws SQLException daca parametrii nu pot fi setati
+     */
+    private static void bindUser(PreparedStatement statement, User user) throws SQLException {
+        statement.setLong(1, user.getId());
+        statement.setString(2, user.getFirstName());
+        statement.setString(3, user.getLastName());
+        statement.setDate(4, java.sql.Date.valueOf(user.getBirthday()));
+        statement.setString(5, user.getEmail());
+        statement.setString(6, user.getAddress().getHomeAddress());
+        statement.setString(7, user.getAddress().getCountry());
+        statement.setString(8, user.getAddress().getCounty());
+        statement.setString(9, user.getAddress().getCity());
+        statement.setString(10, user.getCredential().getUsername());
+        statement.setString(11, user.getCredential().getPassword());
+    }
+
+    /**
+     * Adauga utilizatorii prin inserari JDBC in loturi (batch) de cate Constants.DATABASE_BATCH_SIZE, pe o singura conexiune si intr-o singura tranzactie<br>
+     * Daca un lot esueaza (id sau cheie unica duplicata), intreaga tranzactie este anulata (rollback): nu se adauga niciun utilizator, nici din loturile anterioare
+     */
+    @Override
+    public void addAll(Iterable<User> users) throws RepoException, IllegalArgumentException {
+        if(users == null) {
+            throw new IllegalArgumentException("[!]Invalid users (users must not be null)!\n");
+        }
+
+        try(Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try(PreparedStatement statement = connection.prepareStatement(INSERT_USER_COMMAND)) {
+                int batchSize = 0;
+                for(User user : users) {
+                    if(user == null) {
+                        throw new RepoException("[!]Invalid user (user must not be null)!\n");
+                    }
+                    bindUser(statement, user);
+                    statement.addBatch();
+                    if(++batchSize == Constants.DATABASE_BATCH_SIZE) {
+                        executeBatch(statement);
+                        batchSize = 0;
+                    }
+                }
+                if(batchSize > 0) {
+                    executeBatch(statement);
+                }
+                connection.commit();
+            } catch(SQLException | RepoException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
-            else {
-                ex.printStackTrace();
+        } catch(SQLException ex) {
+            handleSQLException(ex);
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void care executa lotul curent de inserari (fara commit, loturile fac parte din tranzactia intregii adaugari)
+     * @param statement instructiunea care contine lotul
+     * @throws SQLException daca lotul nu poate fi executat
+     * @throws RepoException daca cel putin un utilizator nu a fost inserat (exista deja un utilizator cu acelasi id)
+     */
+    private static void executeBatch(PreparedStatement statement) throws SQLException, RepoException {
+        for(int updateCount : statement.executeBatch()) {
+            if(updateCount == 0) {
+                throw new RepoException("[!]User already exists in the social network (there is an user with the given id)!\n");
             }
         }
     }
 
+    /**
+     * Sterge utilizatorul printr-o singura instructiune (DELETE ... RETURNING intoarce randul sters)
+     */
     @Override
     public User remove(Long userID) throws RepoException, IllegalArgumentException {
-        User deletedUser = search(userID);
-        String sqlCommand = "DELETE FROM users WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        validateId(userID);
+
+        String sqlCommand = "DELETE FROM users WHERE id = ? RETURNING *";
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             statement.setLong(1, userID);
-            statement.executeUpdate();
+            ResultSet resultSet = statement.executeQuery();
+            if(!resultSet.next()) {
+                throw new RepoException("[!]There is no user with the given id in the social network!\n");
+            }
+            return assembleUser(resultSet, "", userID);
         } catch(SQLException ex) {
             ex.printStackTrace();
         }
-        return deletedUser;
+        return null;
     }
 
+    /**
+     * Modifica utilizatorul printr-o singura instructiune; randul vechi (intors de metoda) este citit in aceeasi instructiune prin UPDATE ... FROM (subinterogare FOR UPDATE) ... RETURNING
+     */
     @Override
     public User modify(User user) throws RepoException, IllegalArgumentException {
         if(user == null) {
             throw new RepoException("[!]Invalid user (user must not be null)!\n");
         }
+        validateId(user.getId());
 
-        User modifiedUser = search(user.getId());
-        String sqlCommand = "UPDATE users SET first_name = ?, last_name = ?, home_address = ?, country = ?, county = ?, city = ?, username = ?, password = ? WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        String sqlCommand = "UPDATE users SET first_name = ?, last_name = ?, home_address = ?, country = ?, county = ?, city = ?, username = ?, password = ? FROM (SELECT * FROM users WHERE id = ? FOR UPDATE) old_user WHERE users.id = old_user.id RETURNING old_user.*";
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             statement.setString(1, user.getFirstName());
             statement.setString(2, user.getLastName());
             statement.setString(3, user.getAddress().getHomeAddress());
@@ -101,59 +229,28 @@ public class UserDbRepository implements IRepository<Long, User> {
             statement.setString(7, user.getCredential().getUsername());
             statement.setString(8, user.getCredential().getPassword());
             statement.setLong(9, user.getId());
-            statement.executeUpdate();
-        } catch(SQLException ex) {
-            if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_users_username\"\n")) {
-                throw new RepoException("[!]There is already an user in the social network with the given username!\n");
-            }
-            else if(ex.getMessage().contains("ERROR: duplicate key value violates unique constraint \"uq_users_password\"\n")) {
-                throw new RepoException("[!]There is already an user in the social network with the given password!\n");
-            }
-            else {
-                ex.printStackTrace();
+            ResultSet resultSet = statement.executeQuery();
+            if(!resultSet.next()) {
+                throw new RepoException("[!]There is no user with the given id in the social network!\n");
             }
+            return assembleUser(resultSet, "", user.getId());
+        } catch(SQLException ex) {
+            handleSQLException(ex);
         }
-        return modifiedUser;
+        return null;
     }
 
     @Override
     public User search(Long userID) throws RepoException, IllegalArgumentException {
-        if(userID == null) {
-            throw new IllegalArgumentException("[!]Id must not be null!\n");
-        }
-        else if(userID < 0L) {
-            throw new IllegalArgumentException("[!]Id must be a non-negative integer!\n");
-        }
-
-        if(len() == 0) {
-            throw new RepoException("[!]There are no users in the social network!\n");
-        }
+        validateId(userID);
 
         String sqlCommand = "SELECT * FROM users WHERE id = ?";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             statement.setLong(1, userID);
             ResultSet resultSet = statement.executeQuery();
             if(resultSet.next()) {
-                String firstName = resultSet.getString("first_name");
-                String lastName = resultSet.getString("last_name");
-                LocalDate birthday = resultSet.getDate("birthday").toLocalDate();
-                String email = resultSet.getString("email");
-
-                String homeAddress = resultSet.getString("home_address");
-                String country = resultSet.getString("country");
-                String county = resultSet.getString("county");
-                String city = resultSet.getString("city");
-                Address address = new Address(homeAddress, country, county, city);
-
-                String username = resultSet.getString("username");
-                String password = resultSet.getString("password");
-                Credential credential = new Credential(username, password);
-
-                User searchedUser = new User(firstName, lastName, birthday, email, address, credential);
-                searchedUser.setId(userID);
-
-                return searchedUser;
+                return assembleUser(resultSet, "", userID);
             }
             else {
                 throw new RepoException("[!]There is no user with the given id in the social network!\n");
@@ -164,11 +261,35 @@ public class UserDbRepository implements IRepository<Long, User> {
         return null;
     }
 
+    /**
+     * Cauta utilizatorii in baza de date printr-o singura instructiune (first_name ILIKE ? OR last_name ILIKE ?), ordonati dupa id si limitati la limit randuri<br>
+     * Caracterele speciale ale sablonului LIKE (%, _ si backslash) din name sunt escapate; interogarea poate folosi indecsi trigram (extensia pg_trgm), de exemplu: CREATE INDEX idx_users_first_name_trgm ON users USING gin (first_name gin_trgm_ops) si analog pentru last_name
+     */
+    @Override
+    public List<User> searchByName(String name, int limit) throws RepoException {
+        String pattern = "%" + name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        String sqlCommand = "SELECT * FROM users WHERE first_name ILIKE ? OR last_name ILIKE ? ORDER BY id LIMIT ?";
+        List<User> users = new ArrayList<>();
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            statement.setString(1, pattern);
+            statement.setString(2, pattern);
+            statement.setInt(3, limit);
+            ResultSet resultSet = statement.executeQuery();
+            while(resultSet.next()) {
+                users.add(assembleUser(resultSet, "", resultSet.getLong("id")));
+            }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
+        }
+        return users;
+    }
+
     @Override
     public int len() {
         String sqlCommand = "SELECT COUNT(*) FROM users";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
             ResultSet resultSet = statement.executeQuery();
             if(resultSet.next()) {
                 return resultSet.getInt(1);
@@ -181,35 +302,46 @@ public class UserDbRepository implements IRepository<Long, User> {
 
     @Override
     public Iterable<User> getAll() throws RepoException {
-        if(len() == 0) {
+        Set<User> users = new HashSet<>();
+        String sqlCommand = "SELECT * FROM users";
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            ResultSet resultSet = statement.executeQuery();
+            while(resultSet.next()) {
+                users.add(assembleUser(resultSet, "", resultSet.getLong("id")));
+            }
+        } catch(SQLException ex) {
+            ex.printStackTrace();
+        }
+        if(users.isEmpty()) {
             throw new RepoException("[!]There are no users in the social network!\n");
         }
+        return users;
+    }
 
-        Set<User> users = new HashSet<>();
-        String sqlCommand = "SELECT * FROM users";
-        try(Connection connection = DriverManager.getConnection(url, username, password)) {
-            PreparedStatement statement = connection.prepareStatement(sqlCommand);
+    /**
+     * Metoda publica care returneaza cel mult limit utilizatori cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor<br>
+     * Paginarea se face dupa cheie (keyset pagination) printr-o singura interogare "WHERE id > ? ORDER BY id LIMIT ?", care foloseste cheia primara si nu parcurge randurile paginilor anterioare (spre deosebire de OFFSET)
+     * @param afterId id-ul dupa care incepe pagina (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de utilizatori din pagina
+     * @return lista (eventual vida) cu utilizatorii paginii, ordonati crescator dupa id
+     * @throws IllegalArgumentException daca limit nu este strict pozitiv
+     */
+    @Override
+    public List<User> page(Long afterId, int limit) throws IllegalArgumentException {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+
+        String sqlCommand = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        List<User> users = new ArrayList<>();
+        try(Connection connection = connectionPool.getConnection();
+            PreparedStatement statement = connection.prepareStatement(sqlCommand)) {
+            statement.setLong(1, afterId == null ? Long.MIN_VALUE : afterId);
+            statement.setInt(2, limit);
             ResultSet resultSet = statement.executeQuery();
             while(resultSet.next()) {
-                Long userID = resultSet.getLong("id");
-                String firstName = resultSet.getString("first_name");
-                String lastName = resultSet.getString("last_name");
-                LocalDate birthday = resultSet.getDate("birthday").toLocalDate();
-                String email = resultSet.getString("email");
-
-                String homeAddress = resultSet.getString("home_address");
-                String country = resultSet.getString("country");
-                String county = resultSet.getString("county");
-                String city = resultSet.getString("city");
-                Address address = new Address(homeAddress, country, county, city);
-
-                String username = resultSet.getString("username");
-                String password = resultSet.getString("password");
-                Credential credential = new Credential(username, password);
-
-                User user = new User(firstName, lastName, birthday, email, address, credential);
-                user.setId(userID);
-                users.add(user);
+                users.add(assembleUser(resultSet, "", resultSet.getLong("id")));
             }
         } catch(SQLException ex) {
             ex.printStackTrace();
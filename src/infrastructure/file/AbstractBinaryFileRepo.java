@@ -0,0 +1,310 @@
+package infrastructure.file;
+
+import domain.Entity;
+import exception.RepoException;
+import infrastructure.memory.InMemoryRepo;
+import utils.Constants;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public abstract class AbstractBinaryFileRepo<E extends Entity<Long>> extends InMemoryRepo<Long, E> {
+    private static final int MAGIC = 0x534E4246;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    protected static final int VARIABLE_RECORD_SIZE = 0;
+
+    private final String fileName;
+    private final int recordSize;
+    private final ByteArrayOutputStream recordBuffer;
+    private final DataOutputStream recordOutput;
+
+    /**
+     * Metoda protejata abstracta (nedefinita) care asambleaza o entitate din inregistrarea binara care incepe pe pozitia curenta a tamponului buffer
+     * @param buffer tampon (fereastra din fisierul mapat in memorie) pozitionat la inceputul datelor inregistrarii
+     * @return entitatea asamblata sau null daca inregistrarea nu poate fi asamblata (entitatea este ignorata)
+     */
+    protected abstract E readEntity(ByteBuffer buffer);
+
+    /**
+     * Metoda protejata abstracta (nedefinita) care scrie datele entitatii entity (fara prefixul de lungime, adaugat de clasa de baza pentru inregistrarile de lungime variabila)
+     * @param entity entitatea scrisa
+     * @param output fluxul de date binare in care se scrie inregistrarea
+     * @throws IOException daca scrierea esueaza
+     */
+    protected abstract void writeEntity(E entity, DataOutputStream output) throws IOException;
+
+    /**
+     * Metoda protejata statica de tip void (procedura) care scrie un sir de caractere prefixat de lungimea sa in octeti (UTF-8); sirul null este codificat prin lungimea -1
+     * @param output fluxul de date binare in care se scrie sirul
+     * @param value obiect de clasa String (poate fi null)
+     * @throws IOException daca scrierea esueaza
+     */
+    protected static void writeString(DataOutputStream output, String value) throws IOException {
+        if(value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Metoda protejata statica care citeste un sir de caractere scris prin metoda writeString
+     * @param buffer tampon pozitionat la inceputul prefixului de lungime al sirului
+     * @return obiect de clasa String (null daca lungimea memorata este -1)
+     */
+    protected static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if(length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Metoda privata statica care mapeaza in memorie (doar pentru citire) o fereastra a fisierului care incepe la pozitia position
+     * @param channel canalul fisierului mapat
+     * @param position pozitia (in octeti) de la care incepe fereastra
+     * @param fileSize dimensiunea fisierului in octeti
+     * @return tampon de octeti reprezentand fereastra (de cel mult Constants.BINARY_FILE_MAPPING_SIZE octeti)
+     * @throws IOException daca maparea esueaza
+     */
+    private static ByteBuffer mapWindow(FileChannel channel, long position, long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(fileSize - position, Constants.BINARY_FILE_MAPPING_SIZE));
+    }
+
+    /**
+     * Constructor protejat al unui repozitoriu de entitati persistate intr-un fisier binar citit prin mapare in memorie (FileChannel.map)<br>
+     * Fisierul incepe cu un antet (un numar magic si dimensiunea inregistrarilor) urmat de inregistrari: de lungime fixa (recordSize octeti) sau, daca recordSize este VARIABLE_RECORD_SIZE, prefixate de lungimea lor in octeti<br>
+     * Adaugarile sunt scrise la sfarsitul fisierului, iar stergerile si modificarile rescriu fisierul intr-un fisier temporar mutat apoi atomic peste cel vechi
+     * @param fileName numele (calea) fisierului binar
+     * @param recordSize dimensiunea (in octeti) a unei inregistrari de lungime fixa sau VARIABLE_RECORD_SIZE
+     * @param loadDataEnabled true daca datele se incarca imediat din fisier, false daca incarcarea este facuta ulterior de clasa derivata
+     * @param uniqueKeyExtractors lista de functii care extrag cheile unice ale unei entitati
+     * @throws IOException daca fisierul exista dar nu poate sa fie citit
+     * @throws RepoException daca fisierul nu are formatul asteptat sau este corupt (o inregistrare incompleta la sfarsitul fisierului este eliminata, vezi loadData)
+     */
+    protected AbstractBinaryFileRepo(String fileName, int recordSize, boolean loadDataEnabled, List<? extends Function<E, ?>> uniqueKeyExtractors) throws IOException, RepoException {
+        super(uniqueKeyExtractors);
+        this.fileName = fileName;
+        this.recordSize = recordSize;
+        this.recordBuffer = new ByteArrayOutputStream();
+        this.recordOutput = new DataOutputStream(recordBuffer);
+        if(loadDataEnabled) {
+            loadData();
+        }
+    }
+
+    /**
+     * Metoda protejata de tip void (procedura) care incarca entitatile din fisierul binar (daca fisierul nu exista sau este vid repozitoriul ramane gol)<br>
+     * Fisierul este parcurs prin ferestre mapate in memorie, fara conversii de text: fiecare inregistrare este decodificata direct din tampon<br>
+     * O ultima inregistrare incompleta (sau un antet incomplet), ramasa dupa o cadere in timpul unei adaugari, este eliminata din fisier (vezi truncateTornTail) si raportata, astfel incat repozitoriul poate porni in continuare
+     * @throws IOException daca fisierul nu poate sa fie citit sau trunchiat
+     * @throws RepoException daca antetul nu este valid, daca o inregistrare are o lungime negativa (fisier corupt) sau daca o entitate nu poate fi adaugata
+     */
+    protected void loadData() throws IOException, RepoException {
+        Path path = Paths.get(fileName);
+        if(!Files.exists(path)) {
+            return;
+        }
+
+        long fileSize;
+        long position;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            if(fileSize == 0L) {
+                return;
+            }
+            if(fileSize < HEADER_SIZE) {
+                truncateTornTail(path, 0L, fileSize);
+                return;
+            }
+
+            ByteBuffer window = mapWindow(channel, 0L, fileSize);
+            if(window.getInt() != MAGIC || window.getInt() != recordSize) {
+                throw new RepoException("[!]Invalid binary file " + fileName + " (unknown format)!\n");
+            }
+
+            int prefixSize = recordSize == VARIABLE_RECORD_SIZE ? Integer.BYTES : 0;
+            long windowStart = 0L;
+            position = HEADER_SIZE;
+            while(position < fileSize) {
+                if(position + prefixSize > fileSize) {
+                    break;
+                }
+                if(position + prefixSize - windowStart > window.limit()) {
+                    windowStart = position;
+                    window = mapWindow(channel, windowStart, fileSize);
+                }
+
+                int length = prefixSize == 0 ? recordSize : window.getInt((int) (position - windowStart));
+                if(length < 0) {
+                    throw new RepoException("[!]Corrupted binary file " + fileName + " (invalid record length at byte " + position + ")!\n");
+                }
+                if(position + prefixSize + length > fileSize) {
+                    break;
+                }
+                if(position + prefixSize + length - windowStart > window.limit()) {
+                    windowStart = position;
+                    window = mapWindow(channel, windowStart, fileSize);
+                }
+
+                window.position((int) (position + prefixSize - windowStart));
+                E entity = readEntity(window);
+                if(entity != null) {
+                    super.add(entity);
+                }
+                position += prefixSize + length;
+            }
+        }
+        if(position < fileSize) {
+            truncateTornTail(path, position, fileSize);
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care elimina sfarsitul incomplet al fisierului binar (octetii de la pozitia validLength pana la sfarsit, ramasi dupa o adaugare intrerupta de o cadere) si raporteaza eliminarea
+     * @param path calea fisierului binar
+     * @param validLength numarul de octeti de la inceputul fisierului care formeaza inregistrari complete (0 daca nici antetul nu este complet)
+     * @param fileSize dimensiunea fisierului in octeti
+     * @throws IOException daca fisierul nu poate sa fie trunchiat
+     */
+    private void truncateTornTail(Path path, long validLength, long fileSize) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        System.err.println("[!]Recovered " + fileName + ": incomplete last record at byte " + validLength + " (" + (fileSize - validLength) + " bytes) was removed!");
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care scrie antetul fisierului binar (numarul magic si dimensiunea inregistrarilor)
+     * @param output fluxul de date binare in care se scrie antetul
+     * @throws IOException daca scrierea esueaza
+     */
+    private void writeHeader(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(recordSize);
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care scrie inregistrarile entitatilor entities (inregistrarile de lungime variabila sunt construite intr-un tampon refolosit si prefixate de lungimea lor)
+     * @param output fluxul de date binare in care se scriu inregistrarile
+     * @param entities entitatile scrise
+     * @throws IOException daca scrierea esueaza
+     */
+    private void writeRecords(DataOutputStream output, Iterable<E> entities) throws IOException {
+        for(E entity : entities) {
+            if(recordSize == VARIABLE_RECORD_SIZE) {
+                recordBuffer.reset();
+                writeEntity(entity, recordOutput);
+                output.writeInt(recordBuffer.size());
+                recordBuffer.writeTo(output);
+            }
+            else {
+                writeEntity(entity, output);
+            }
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care adauga inregistrarile entitatilor entities la sfarsitul fisierului binar (scriind antetul daca fisierul este vid) si sincronizeaza fisierul pe disc (fsync) inainte de a reveni
+     * @param entities entitatile adaugate
+     */
+    private void appendToFile(Iterable<E> entities) {
+        Path path = Paths.get(fileName);
+        try {
+            boolean emptyFile = !Files.exists(path) || Files.size(path) == 0L;
+            try(FileOutputStream fileOutput = new FileOutputStream(fileName, true);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+                if(emptyFile) {
+                    writeHeader(output);
+                }
+                writeRecords(output, entities);
+                output.flush();
+                fileOutput.getChannel().force(false);
+            }
+        } catch(IOException ex) {
+            System.err.println("[!]Error at appending data to binary file!");
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care rescrie fisierul binar cu toate entitatile din memorie: fisierul temporar (fileName + ".tmp") este sincronizat pe disc (fsync) si apoi mutat atomic peste cel vechi
+     */
+    private void storeToFile() {
+        Path temporaryPath = Paths.get(fileName + ".tmp");
+        try {
+            try(FileOutputStream fileOutput = new FileOutputStream(temporaryPath.toFile());
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+                writeHeader(output);
+                writeRecords(output, len() == 0 ? new ArrayList<>() : super.getAll());
+                output.flush();
+                fileOutput.getChannel().force(false);
+            }
+            Files.move(temporaryPath, Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException ex) {
+            System.err.println("[!]Error at writing data to binary file!");
+            ex.printStackTrace();
+        } catch(RepoException ignored) {}
+    }
+
+    @Override
+    public void add(E entity) throws RepoException, IllegalArgumentException {
+        super.add(entity);
+        appendToFile(List.of(entity));
+    }
+
+    /**
+     * Adauga entitatile in memorie (atomic, vezi InMemoryRepo.addAll) si apoi le scrie pe toate printr-o singura adaugare tamponata la sfarsitul fisierului binar
+     */
+    @Override
+    public void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        super.addAll(entities);
+        appendToFile(entities);
+    }
+
+    @Override
+    public E remove(Long id) throws RepoException, IllegalArgumentException {
+        E deletedEntity = super.remove(id);
+        storeToFile();
+        return deletedEntity;
+    }
+
+    /**
+     * Sterge entitatile din memorie (atomic) si persista toate stergerile printr-o singura rescriere a fisierului binar
+     */
+    @Override
+    public List<E> removeAll(Iterable<Long> ids) throws RepoException, IllegalArgumentException {
+        List<E> deletedEntities = super.removeAll(ids);
+        if(!deletedEntities.isEmpty()) {
+            storeToFile();
+        }
+        return deletedEntities;
+    }
+
+    @Override
+    public E modify(E entity) throws RepoException, IllegalArgumentException {
+        E modifiedEntity = super.modify(entity);
+        storeToFile();
+        return modifiedEntity;
+    }
+}
@@ -3,30 +3,203 @@ package infrastructure.file;
 import domain.Entity;
 import exception.RepoException;
 import infrastructure.memory.InMemoryRepo;
+import utils.Constants;
 
-import java.io.File;
 import java.io.FileWriter;
 import java.io.BufferedWriter;
-import java.util.Scanner;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+public abstract class AbstractFileRepo<ID, E extends Entity<ID>> extends InMemoryRepo<ID, E> implements AutoCloseable {
+    private static final String ADD_RECORD = "A";
+    private static final String MODIFY_RECORD = "M";
+    private static final String REMOVE_RECORD = "R";
 
-public abstract class AbstractFileRepo<ID, E extends Entity<ID>> extends InMemoryRepo<ID, E> {
     private final String fileName;
+    private final boolean logStructured;
+    private final String logFileName;
+    private final String compactingLogFileName;
+    private final WriteBehindPolicy writeBehindPolicy;
+    private int numberOfLogRecords;
+    private volatile Thread compactionThread;
+    private WriteBehindWriter writer;
 
     protected abstract E assembleEntity(List<String> attributes);
 
+    protected abstract ID assembleId(String attribute);
+
     protected abstract String convertEntityToString(E entity);
 
-    protected void loadData() {
+    /**
+     * Metoda privata de tip List&lt;String&gt; care citeste toate liniile unui fisier (lista vida daca fisierul nu exista)
+     * @param name numele (calea) fisierului citit
+     * @return lista de linii (siruri de caractere) din fisier
+     * @throws IOException daca fisierul exista dar nu poate sa fie citit
+     */
+    private static List<String> readLines(String name) throws IOException {
+        Path path = Paths.get(name);
+        if(!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        return Files.readAllLines(path);
+    }
+
+    /**
+     * Metoda privata statica care returneaza id-urile (sub forma de sir de caractere) entitatilor a caror ultima inregistrare din jurnalul de operatii este o stergere
+     * @param records lista de inregistrari (linii) din jurnal, in ordinea in care au fost scrise
+     * @return multimea id-urilor entitatilor sterse definitiv
+     */
+    private static Set<String> removedIdsOf(List<String> records) {
+        Set<String> removedIds = new HashSet<>();
+        for(String record : records) {
+            String[] tokens = record.split(";", 3);
+            if(tokens.length >= 2) {
+                if(tokens[0].equals(REMOVE_RECORD)) {
+                    removedIds.add(tokens[1]);
+                }
+                else {
+                    removedIds.remove(tokens[1]);
+                }
+            }
+        }
+        return removedIds;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care reaplica (replay) inregistrarile din jurnalul de operatii (log) peste entitatile incarcate din fisierul snapshot<br>
+     * Entitatile sterse definitiv (removedIds) sunt eliminate, iar inregistrarile lor anterioare sunt ignorate (nu se mai asambleaza entitati care oricum nu mai exista, de exemplu prietenii ale unor utilizatori stersi); celelalte inregistrari se aplica in ordine, iar fiecare inregistrare care nu poate fi citita sau aplicata (de exemplu din cauza unei chei unice duplicate) este raportata<br>
+     * Reaplicarea este idempotenta fata de un snapshot care contine deja efectul jurnalului (cazul in care aplicatia s-a oprit dupa scrierea snapshot-ului compactat, dar inainte de stergerea jurnalului vechi)
+     * @param records lista de inregistrari (linii) din jurnal
+     * @param removedIds multimea id-urilor entitatilor sterse definitiv (intoarsa de metoda removedIdsOf)
+     */
+    private void replayLog(List<String> records, Set<String> removedIds) {
+        for(String removedId : removedIds) {
+            try {
+                super.remove(assembleId(removedId));
+            } catch(RepoException ignored) {}
+        }
+
+        for(String record : records) {
+            String[] tokens = record.split(";", 2);
+            if(tokens.length < 2) {
+                System.err.println("[!]Skipped unreadable operation log record of " + fileName + ": " + record);
+                continue;
+            }
+            if(tokens[0].equals(REMOVE_RECORD) || removedIds.contains(tokens[1].split(";", 2)[0])) {
+                continue;
+            }
+
+            E entity = null;
+            try {
+                entity = assembleEntity(Arrays.asList(tokens[1].split(";")));
+            } catch(RuntimeException ignored) {}
+            if(entity == null) {
+                System.err.println("[!]Skipped unreadable operation log record of " + fileName + ": " + record);
+                continue;
+            }
+            try {
+                replayRecord(entity);
+            } catch(RepoException ex) {
+                System.err.println("[!]Skipped operation log record of " + fileName + " which could not be applied (" + ex.getMessage().strip() + "): " + record);
+            }
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care aplica o inregistrare de adaugare sau modificare din jurnal: entitatea este modificata daca exista deja in memorie (snapshot-ul sau o inregistrare anterioara), altfel este adaugata
+     * @param entity entitatea asamblata din inregistrare
+     * @throws RepoException daca entitatea nu poate fi adaugata sau modificata (de exemplu are o cheie unica comuna cu o alta entitate)
+     */
+    private void replayRecord(E entity) throws RepoException {
+        boolean existingEntity = true;
+        try {
+            super.search(entity.getId());
+        } catch(RepoException ex) {
+            existingEntity = false;
+        }
+        if(existingEntity) {
+            super.modify(entity);
+        }
+        else {
+            super.add(entity);
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care ruleaza pasul de recuperare la pornire: verifica fisierul snapshot (vezi SnapshotFile.recover) si elimina ultima inregistrare incompleta a jurnalelor de operatii; fiecare problema reparata este raportata
+     * @throws RepoException daca fisierul snapshot este corupt
+     */
+    private void recoverFiles() throws RepoException {
+        try {
+            List<String> problems = SnapshotFile.recover(fileName);
+            if(logStructured) {
+                for(String logName : List.of(compactingLogFileName, logFileName)) {
+                    String tornTail = SnapshotFile.truncateTornTail(logName, 0L);
+                    if(tornTail != null) {
+                        problems.add(tornTail);
+                    }
+                }
+            }
+            for(String problem : problems) {
+                System.err.println("[!]Recovered " + fileName + ": " + problem + "!");
+            }
+        } catch(IOException ex) {
+            System.err.println("[!]Error at recovering data files!");
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Metoda protejata de tip void (procedura) care incarca entitatile din fisierul snapshot (si reaplica jurnalul de operatii, daca repozitoriul este structurat pe jurnal)<br>
+     * Inainte de citire ruleaza pasul de recuperare (recoverFiles); fisierul este interpretat in paralel, pe bucati aliniate la sfarsitul liniilor (vezi ParallelCsvLoader), deci assembleEntity trebuie sa poata fi apelata concurent; entitatile sunt adaugate apoi secvential, in ordinea din fisier, iar liniile care nu pot fi asamblate sunt ignorate si raportate
+     * @throws RepoException daca fisierul snapshot este corupt (vezi SnapshotFile.recover)
+     */
+    protected void loadData() throws RepoException {
+        recoverFiles();
+
+        List<String> records = new ArrayList<>();
+        if(logStructured) {
+            try {
+                records.addAll(readLines(compactingLogFileName));
+                records.addAll(readLines(logFileName));
+            } catch(IOException ex) {
+                System.err.println("[!]Error at reading operation log from file!");
+                ex.printStackTrace();
+            }
+        }
+        Set<String> removedIds = removedIdsOf(records);
+
         try {
-            File file = new File(fileName);
-            Scanner scanner = new Scanner(file);
-            while(scanner.hasNextLine()) {
-                String data = scanner.nextLine();
-                String[] dataTokens = data.split(";");
-                E entity = assembleEntity(Arrays.asList(dataTokens));
+            Queue<String> unreadableLines = new ConcurrentLinkedQueue<>();
+            List<E> loadedEntities = ParallelCsvLoader.load(fileName, attributes -> {
+                if(removedIds.contains(attributes.get(0))) {
+                    return null;
+                }
+                E entity = null;
+                try {
+                    entity = assembleEntity(attributes);
+                } catch(RuntimeException ignored) {}
+                if(entity == null) {
+                    unreadableLines.add(String.join(";", attributes));
+                }
+                return entity;
+            });
+            for(String unreadableLine : unreadableLines) {
+                System.err.println("[!]Skipped unreadable line of " + fileName + ": " + unreadableLine);
+            }
+            for(E entity : loadedEntities) {
                 super.add(entity);
             }
         } catch(IOException ex) {
@@ -36,33 +209,255 @@ public abstract class AbstractFileRepo<ID, E extends Entity<ID>> extends InMemor
             System.err.println("[!]Error at adding entity to repository!");
             ex.printStackTrace();
         }
+
+        if(logStructured) {
+            replayLog(records, removedIds);
+            numberOfLogRecords = records.size();
+        }
     }
 
-    private void appendToFile(E entity) {
+    /**
+     * Metoda privata care returneaza firul de scriere asincrona al repozitoriului (il porneste la prima modificare, astfel incat repozitoriile doar citite nu creeaza fire de executie)
+     * @return obiect de clasa WriteBehindWriter
+     */
+    private WriteBehindWriter writer() {
+        if(writer == null) {
+            writer = new WriteBehindWriter(writeBehindPolicy, "file-repo-writer");
+        }
+        return writer;
+    }
+
+    /**
+     * Metoda privata care copiaza referintele entitatilor din repozitoriu (nu si continutul lor), in O(n) si fara conversii in text; copia este transformata in linii CSV de firul de scriere
+     * @return lista cu entitatile existente in momentul apelului
+     */
+    private List<E> entitiesSnapshot() {
+        List<E> snapshot = new ArrayList<>(len());
+        if(len() != 0) {
+            try {
+                for(E entity : super.getAll()) {
+                    snapshot.add(entity);
+                }
+            } catch(RepoException ignored) {}
+        }
+        return snapshot;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care scrie atomic si sigur la caderi (vezi SnapshotFile.write) entitatile entities in fisierul snapshot
+     * @param entities entitatile scrise
+     * @throws IOException daca scrierea, sincronizarea pe disc sau mutarea esueaza
+     */
+    private void writeSnapshot(List<E> entities) throws IOException {
+        SnapshotFile.write(fileName, entities, this::convertEntityToString);
+    }
+
+    private void appendToFile(Iterable<E> entities) throws RepoException {
+        if(writeBehindPolicy != null) {
+            List<String> lines = new ArrayList<>();
+            for(E entity : entities) {
+                lines.add(convertEntityToString(entity));
+            }
+            writer().append(fileName, lines);
+            return;
+        }
+
         try(BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(fileName, true))) {
-            bufferedWriter.write(convertEntityToString(entity));
-            bufferedWriter.newLine();
+            for(E entity : entities) {
+                bufferedWriter.write(convertEntityToString(entity));
+                bufferedWriter.newLine();
+            }
         } catch(IOException ex) {
             System.err.println("[!]Error at appending data to file!");
             ex.printStackTrace();
         }
     }
 
-    private void storeToFile() {
-        try(BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(fileName, false))) {
-            Iterable<E> entities = super.getAll();
-            for(E entity : entities) {
-                bufferedWriter.write(convertEntityToString(entity));
-                bufferedWriter.newLine();
+    /**
+     * Metoda privata de tip void (procedura) care adauga inregistrari la sfarsitul jurnalului de operatii (o singura deschidere a fisierului si o singura scriere tamponata, indiferent de numarul de entitati din repozitoriu)<br>
+     * Daca jurnalul a depasit de Constants.FILE_LOG_COMPACTION_RATIO ori numarul de entitati din repozitoriu, se porneste compactarea lui
+     * @param records inregistrarile adaugate (tipul operatiei urmat de ';' si de datele entitatii)
+     * @throws RepoException daca firul curent este intrerupt in timp ce asteapta un loc in coada firului de scriere asincrona
+     */
+    private void appendToLog(List<String> records) throws RepoException {
+        if(writeBehindPolicy != null) {
+            writer().append(logFileName, records);
+        }
+        else {
+            try(BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(logFileName, true))) {
+                for(String record : records) {
+                    bufferedWriter.write(record);
+                    bufferedWriter.newLine();
+                }
+            } catch(IOException ex) {
+                System.err.println("[!]Error at appending operation to log file!");
+                ex.printStackTrace();
             }
+        }
+
+        numberOfLogRecords += records.size();
+        if(numberOfLogRecords > Math.max(Constants.FILE_LOG_MINIMUM_COMPACTION_SIZE, Constants.FILE_LOG_COMPACTION_RATIO * len())) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care porneste compactarea jurnalului de operatii intr-un fir de executie separat (daca nu exista deja o compactare in desfasurare)<br>
+     * Starea curenta a repozitoriului este copiata (in memorie) si jurnalul curent este redenumit in jurnalul "in compactare" (sau adaugat la sfarsitul acestuia, daca a ramas unul de la o compactare intrerupta), astfel incat operatiile noi sa fie scrise intr-un jurnal nou; firul de executie separat scrie copia intr-un fisier temporar, il muta atomic peste fisierul snapshot si sterge apoi jurnalul vechi<br>
+     * In modul de scriere asincrona compactarea este programata ca operatie de inlocuire si este executata integral (scrierea snapshot-ului si stergerea jurnalelor) de firul de scriere: adaugarile din acelasi lot programate inaintea ei sunt ignorate, deci snapshot-ul trebuie sa fie pe disc inainte ca lotul (si orice bariera de flush/close) sa se termine
+     */
+    private void startCompaction() throws RepoException {
+        if(writeBehindPolicy != null) {
+            List<E> snapshot = entitiesSnapshot();
+            numberOfLogRecords = 0;
+            writer().replace(() -> {
+                writeSnapshot(snapshot);
+                Files.deleteIfExists(Paths.get(compactingLogFileName));
+                Files.deleteIfExists(Paths.get(logFileName));
+            });
+            return;
+        }
+
+        if(compactionThread != null && compactionThread.isAlive()) {
+            return;
+        }
+
+        List<String> snapshot = new ArrayList<>(len());
+        try {
+            for(E entity : super.getAll()) {
+                snapshot.add(convertEntityToString(entity));
+            }
+        } catch(RepoException ignored) {}
+
+        try {
+            rotateLog();
+        } catch(IOException ex) {
+            System.err.println("[!]Error at rotating operation log file!");
+            ex.printStackTrace();
+            return;
+        }
+        numberOfLogRecords = 0;
+
+        startCompactionThread(() -> SnapshotFile.write(fileName, snapshot, Function.identity()));
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care redenumeste jurnalul curent in jurnalul "in compactare" (sau il adauga la sfarsitul acestuia, daca a ramas unul de la o compactare intrerupta)
+     * @throws IOException daca jurnalul nu poate fi mutat
+     */
+    private void rotateLog() throws IOException {
+        Path compactingLogPath = Paths.get(compactingLogFileName);
+        if(Files.exists(compactingLogPath)) {
+            Files.write(compactingLogPath, readLines(logFileName), StandardOpenOption.APPEND);
+            Files.deleteIfExists(Paths.get(logFileName));
+        }
+        else if(Files.exists(Paths.get(logFileName))) {
+            Files.move(Paths.get(logFileName), compactingLogPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care porneste firul de executie de compactare: acesta scrie fisierul snapshot (prin writeSnapshotAction) si sterge apoi jurnalul "in compactare"
+     * @param writeSnapshotAction operatia care scrie atomic fisierul snapshot
+     */
+    private void startCompactionThread(WriteBehindWriter.FileAction writeSnapshotAction) {
+        Thread thread = new Thread(() -> {
+            try {
+                writeSnapshotAction.run();
+                Files.deleteIfExists(Paths.get(compactingLogFileName));
+            } catch(IOException ex) {
+                System.err.println("[!]Error at compacting operation log file!");
+                ex.printStackTrace();
+            }
+        }, "file-repo-compaction");
+        compactionThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care asteapta terminarea compactarii jurnalului de operatii aflate in desfasurare (daca exista)
+     * @throws InterruptedException daca firul de executie curent este intrerupt in timpul asteptarii
+     */
+    public void awaitCompaction() throws InterruptedException {
+        Thread thread = compactionThread;
+        if(thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Metoda publica de tip void (procedura) care garanteaza ca toate modificarile facute pana la apel sunt scrise pe disc<br>
+     * In modul de scriere asincrona asteapta firul de scriere sa persiste coada si sincronizeaza fisierele pe disc (fsync); in modul sincron modificarile sunt deja scrise, deci metoda nu are niciun efect
+     * @throws RepoException daca o scriere asincrona a esuat de la ultimul apel sau daca asteptarea este intrerupta
+     */
+    public void flush() throws RepoException {
+        if(writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Scrie pe disc toate modificarile (vezi flush), opreste firul de scriere asincrona si asteapta terminarea compactarii in desfasurare (daca exista); o modificare ulterioara porneste un nou fir de scriere
+     * @throws RepoException daca o scriere asincrona a esuat de la ultimul apel sau daca asteptarea este intrerupta
+     */
+    @Override
+    public void close() throws RepoException {
+        if(writer != null) {
+            WriteBehindWriter closingWriter = writer;
+            writer = null;
+            closingWriter.close();
+        }
+        try {
+            awaitCompaction();
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RepoException("[!]Interrupted while waiting for the log compaction!\n");
+        }
+    }
+
+    private void storeToFile() throws RepoException {
+        if(writeBehindPolicy != null) {
+            List<E> snapshot = entitiesSnapshot();
+            writer().replace(() -> writeSnapshot(snapshot));
+            return;
+        }
+
+        try {
+            writeSnapshot(entitiesSnapshot());
         } catch(IOException ex) {
             System.err.println("[!]Error at writing data to file!");
             ex.printStackTrace();
-        } catch(RepoException ignored) {}
+        }
+    }
+
+    /**
+     * Constructor public al unui repozitoriu de entitati persistate in fisier text (CSV)
+     * @param fileName numele (calea) fisierului snapshot
+     * @param loadDataEnabled true daca datele se incarca imediat din fisier, false daca incarcarea este facuta ulterior de clasa derivata
+     * @param uniqueKeyExtractors lista de functii care extrag cheile unice ale unei entitati
+     * @param logStructured true daca modificarile sunt adaugate intr-un jurnal de operatii (fileName + ".log") compactat periodic, false daca fiecare stergere/modificare rescrie intregul fisier
+     */
+    public AbstractFileRepo(String fileName, boolean loadDataEnabled, List<? extends Function<E, ?>> uniqueKeyExtractors, boolean logStructured) throws IOException, RepoException {
+        this(fileName, loadDataEnabled, uniqueKeyExtractors, logStructured, null);
     }
 
-    public AbstractFileRepo(String fileName, boolean loadDataEnabled) throws IOException, RepoException {
+    /**
+     * Constructor public al unui repozitoriu de entitati persistate in fisier text (CSV), cu scriere sincrona sau asincrona (write-behind)<br>
+     * In modul asincron modificarile sunt aplicate imediat in memorie, iar scrierea lor (adaugari in fisier/jurnal, rescrieri si compactari) este facuta de un fir de executie separat, in loturi, dupa politica writeBehindPolicy; rescrierile complete nu mai blocheaza apelantul (acesta copiaza doar referintele entitatilor), iar rescrierile succesive din acelasi lot sunt unite intr-una singura<br>
+     * Metodele flush si close garanteaza ca modificarile sunt scrise pe disc
+     * @param fileName numele (calea) fisierului snapshot
+     * @param loadDataEnabled true daca datele se incarca imediat din fisier, false daca incarcarea este facuta ulterior de clasa derivata
+     * @param uniqueKeyExtractors lista de functii care extrag cheile unice ale unei entitati
+     * @param logStructured true daca modificarile sunt adaugate intr-un jurnal de operatii (fileName + ".log") compactat periodic, false daca fiecare stergere/modificare rescrie intregul fisier
+     * @param writeBehindPolicy configuratia scrierii asincrone sau null pentru scriere sincrona (pe firul apelantului)
+     */
+    public AbstractFileRepo(String fileName, boolean loadDataEnabled, List<? extends Function<E, ?>> uniqueKeyExtractors, boolean logStructured, WriteBehindPolicy writeBehindPolicy) throws IOException, RepoException {
+        super(uniqueKeyExtractors);
         this.fileName = fileName;
+        this.logStructured = logStructured;
+        this.writeBehindPolicy = writeBehindPolicy;
+        this.logFileName = fileName + ".log";
+        this.compactingLogFileName = fileName + ".log.compacting";
         if(loadDataEnabled) {
             loadData();
         }
@@ -71,20 +466,76 @@ public abstract class AbstractFileRepo<ID, E extends Entity<ID>> extends InMemor
     @Override
     public void add(E entity) throws RepoException, IllegalArgumentException {
         super.add(entity);
-        appendToFile(entity);
+        if(logStructured) {
+            appendToLog(List.of(ADD_RECORD + ";" + convertEntityToString(entity)));
+        }
+        else {
+            appendToFile(List.of(entity));
+        }
+    }
+
+    /**
+     * Adauga entitatile in memorie (atomic, vezi InMemoryRepo.addAll) si apoi le scrie pe toate printr-o singura adaugare tamponata la sfarsitul jurnalului (sau al fisierului CSV)
+     */
+    @Override
+    public void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        super.addAll(entities);
+        if(logStructured) {
+            List<String> records = new ArrayList<>();
+            for(E entity : entities) {
+                records.add(ADD_RECORD + ";" + convertEntityToString(entity));
+            }
+            appendToLog(records);
+        }
+        else {
+            appendToFile(entities);
+        }
     }
 
     @Override
     public E remove(ID id) throws RepoException, IllegalArgumentException {
         E deletedEntity = super.remove(id);
-        storeToFile();
+        if(logStructured) {
+            appendToLog(List.of(REMOVE_RECORD + ";" + id));
+        }
+        else {
+            storeToFile();
+        }
         return deletedEntity;
     }
 
+    /**
+     * Sterge entitatile din memorie (atomic) si persista toate stergerile dintr-o singura data: o singura adaugare in jurnal (cate o inregistrare de stergere pentru fiecare id) sau o singura rescriere a fisierului CSV
+     */
+    @Override
+    public List<E> removeAll(Iterable<ID> ids) throws RepoException, IllegalArgumentException {
+        List<E> deletedEntities = super.removeAll(ids);
+        if(deletedEntities.isEmpty()) {
+            return deletedEntities;
+        }
+
+        if(logStructured) {
+            List<String> records = new ArrayList<>();
+            for(E entity : deletedEntities) {
+                records.add(REMOVE_RECORD + ";" + entity.getId());
+            }
+            appendToLog(records);
+        }
+        else {
+            storeToFile();
+        }
+        return deletedEntities;
+    }
+
     @Override
     public E modify(E entity) throws RepoException, IllegalArgumentException {
         E modifiedEntity = super.modify(entity);
-        storeToFile();
+        if(logStructured) {
+            appendToLog(List.of(MODIFY_RECORD + ";" + convertEntityToString(entity)));
+        }
+        else {
+            storeToFile();
+        }
         return modifiedEntity;
     }
 
@@ -102,4 +553,9 @@ public abstract class AbstractFileRepo<ID, E extends Entity<ID>> extends InMemor
     public Iterable<E> getAll() throws RepoException {
         return super.getAll();
     }
+
+    @Override
+    public List<E> page(ID afterId, int limit) throws IllegalArgumentException {
+        return super.page(afterId, limit);
+    }
 }
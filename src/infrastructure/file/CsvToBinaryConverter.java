@@ -0,0 +1,60 @@
+package infrastructure.file;
+
+import exception.RepoException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class CsvToBinaryConverter {
+    private static final String CONVERSION_SUFFIX = ".conversion";
+
+    /**
+     * Metoda publica statica de tip void (procedura) care converteste fisierele CSV (text) de utilizatori si prietenii in fisierele binare citite de UserBinaryFileRepo si FriendshipBinaryFileRepo<br>
+     * Fisierele CSV sunt incarcate prin repozitoriile text (inclusiv jurnalul de operatii, daca exista); fiecare fisier binar este scris printr-o singura adaugare tamponata intr-un fisier temporar (numele fisierului binar + ".conversion")<br>
+     * Fisierele temporare sunt apoi mutate atomic peste fisierele binare, intai cel de prietenii si la final cel de utilizatori, deci existenta fisierului binar de utilizatori garanteaza ca si fisierul de prietenii a fost convertit complet (o conversie intrerupta de o cadere este reluata de la inceput)
+     * @param userCsvFileName numele (calea) fisierului CSV de utilizatori
+     * @param friendshipCsvFileName numele (calea) fisierului CSV de prietenii
+     * @param userBinaryFileName numele (calea) fisierului binar de utilizatori
+     * @param friendshipBinaryFileName numele (calea) fisierului binar de prietenii
+     * @throws IOException daca un fisier nu poate sa fie citit, sters sau mutat
+     * @throws RepoException daca datele din fisierele CSV nu pot fi incarcate sau scrise in repozitoriile binare
+     */
+    public static void convert(String userCsvFileName, String friendshipCsvFileName, String userBinaryFileName, String friendshipBinaryFileName) throws IOException, RepoException {
+        UserFileRepo userCsvRepo = new UserFileRepo(userCsvFileName);
+        FriendshipFileRepo friendshipCsvRepo = new FriendshipFileRepo(friendshipCsvFileName, userCsvRepo);
+
+        Path temporaryUserPath = Paths.get(userBinaryFileName + CONVERSION_SUFFIX);
+        Path temporaryFriendshipPath = Paths.get(friendshipBinaryFileName + CONVERSION_SUFFIX);
+        Files.deleteIfExists(temporaryUserPath);
+        Files.deleteIfExists(temporaryFriendshipPath);
+        UserBinaryFileRepo userBinaryRepo = new UserBinaryFileRepo(temporaryUserPath.toString());
+        FriendshipBinaryFileRepo friendshipBinaryRepo = new FriendshipBinaryFileRepo(temporaryFriendshipPath.toString(), userBinaryRepo);
+        if(userCsvRepo.len() > 0) {
+            userBinaryRepo.addAll(userCsvRepo.getAll());
+        }
+        if(friendshipCsvRepo.len() > 0) {
+            friendshipBinaryRepo.addAll(friendshipCsvRepo.getAll());
+        }
+
+        moveConvertedFile(temporaryFriendshipPath, Paths.get(friendshipBinaryFileName));
+        moveConvertedFile(temporaryUserPath, Paths.get(userBinaryFileName));
+    }
+
+    /**
+     * Metoda privata statica de tip void (procedura) care muta atomic fisierul binar convertit peste fisierul final; daca nu s-a scris nicio inregistrare (fisierul temporar nu exista), fisierul final este sters
+     * @param temporaryPath calea fisierului temporar scris de conversie
+     * @param path calea fisierului binar final
+     * @throws IOException daca fisierul nu poate sa fie mutat sau sters
+     */
+    private static void moveConvertedFile(Path temporaryPath, Path path) throws IOException {
+        if(Files.exists(temporaryPath)) {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        else {
+            Files.deleteIfExists(path);
+        }
+    }
+}
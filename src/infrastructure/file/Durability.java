@@ -0,0 +1,7 @@
+package infrastructure.file;
+
+public enum Durability {
+    NONE,
+    FLUSH,
+    FSYNC
+}
@@ -0,0 +1,123 @@
+package infrastructure.file;
+
+import domain.Entity;
+import exception.RepoException;
+import infrastructure.IIdGenerator;
+import infrastructure.IRepository;
+import utils.Constants;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+public class FileIdGenerator implements IIdGenerator {
+    private final Path idFilePath;
+    private final int blockSize;
+    private long availableId;
+    private long reservedUpTo;
+
+    /**
+     * Metoda privata statica care citeste din fisierul auxiliar limita id-urilor rezervate
+     * @param idFilePath calea fisierului auxiliar
+     * @return limita (primul id nerezervat) sau -1 daca fisierul nu exista sau nu contine un numar valid
+     */
+    private static long readReservedUpTo(Path idFilePath) {
+        try {
+            if(!Files.exists(idFilePath)) {
+                return -1L;
+            }
+            List<String> lines = Files.readAllLines(idFilePath);
+            return lines.isEmpty() ? -1L : Long.parseLong(lines.get(0).trim());
+        } catch(IOException | NumberFormatException ex) {
+            System.err.println("[!]Error at reading the id file (the ids are recovered from the repository)!");
+            return -1L;
+        }
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa FileIdGenerator care foloseste blocuri de Constants.FILE_ID_BLOCK_SIZE id-uri
+     * @param idFileName numele fisierului auxiliar (sidecar) in care se pastreaza limita id-urilor rezervate
+     * @param repository repozitoriul ale carui entitati primesc id-urile (consultat doar pentru verificarea fisierului auxiliar)
+     * @throws RepoException daca fisierul auxiliar nu poate fi scris
+     */
+    public FileIdGenerator(String idFileName, IRepository<Long, ? extends Entity<Long>> repository) throws RepoException {
+        this(idFileName, repository, Constants.FILE_ID_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa FileIdGenerator (generator de id-uri care persista intr-un fisier auxiliar al fisierului CSV limita id-urilor rezervate)<br>
+     * Id-urile sunt rezervate in blocuri de blockSize: fisierul auxiliar este rescris (atomic) doar la epuizarea unui bloc, iar dupa o repornire (sau o oprire neasteptata) numerotarea continua de la limita salvata, deci id-urile entitatilor sterse nu sunt refolosite<br>
+     * La pornire nu se parcurg entitatile: limita este citita din fisier si verificata printr-o singura cautare in indexul sortat de id-uri (page); entitatile sunt parcurse o singura data doar daca fisierul lipseste, este corupt sau este mai vechi decat datele (de exemplu la prima pornire)
+     * @param idFileName numele fisierului auxiliar (sidecar) in care se pastreaza limita id-urilor rezervate
+     * @param repository repozitoriul ale carui entitati primesc id-urile
+     * @param blockSize valoare numerica intreaga strict pozitiva reprezentand numarul de id-uri rezervate la o scriere in fisier
+     * @throws RepoException daca fisierul auxiliar nu poate fi scris
+     * @throws IllegalArgumentException daca blockSize nu este strict pozitiv
+     */
+    public FileIdGenerator(String idFileName, IRepository<Long, ? extends Entity<Long>> repository, int blockSize) throws RepoException, IllegalArgumentException {
+        if(blockSize <= 0) {
+            throw new IllegalArgumentException("[!]Invalid block size (block size must be a positive integer)!\n");
+        }
+
+        this.idFilePath = Paths.get(idFileName);
+        this.blockSize = blockSize;
+        long savedReservedUpTo = readReservedUpTo(idFilePath);
+        if(savedReservedUpTo > 0L && repository.page(savedReservedUpTo - 1, 1).isEmpty()) {
+            this.availableId = savedReservedUpTo;
+            this.reservedUpTo = savedReservedUpTo;
+        }
+        else {
+            this.availableId = repository.stream().mapToLong(Entity::getId).max().orElse(0L) + 1;
+            this.reservedUpTo = availableId;
+            storeReservedUpTo(availableId);
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care scrie atomic (fisier temporar urmat de redenumire) limita id-urilor rezervate in fisierul auxiliar
+     * @param newReservedUpTo noua limita (primul id nerezervat)
+     * @throws RepoException daca fisierul auxiliar nu poate fi scris (caz in care limita din memorie ramane neschimbata)
+     */
+    private void storeReservedUpTo(long newReservedUpTo) throws RepoException {
+        Path temporaryPath = Paths.get(idFilePath + ".tmp");
+        try {
+            Files.write(temporaryPath, List.of(Long.toString(newReservedUpTo)));
+            Files.move(temporaryPath, idFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException ex) {
+            throw new RepoException("[!]Error at reserving ids in the id file!\n");
+        }
+        reservedUpTo = newReservedUpTo;
+    }
+
+    /**
+     * Rezerva count id-uri consecutive; fisierul auxiliar este rescris doar daca id-urile depasesc blocul rezervat deja
+     */
+    @Override
+    public synchronized long[] nextIds(int count) throws RepoException, IllegalArgumentException {
+        if(count < 0) {
+            throw new IllegalArgumentException("[!]Invalid count (count must be greater or equal with 0)!\n");
+        }
+
+        if(availableId + count > reservedUpTo) {
+            storeReservedUpTo(availableId + count + blockSize);
+        }
+        long[] ids = new long[count];
+        for(int position = 0; position < count; ++position) {
+            ids[position] = availableId++;
+        }
+        return ids;
+    }
+
+    /**
+     * Elibereaza id-urile ids doar daca ele sunt ultimele rezervate (raman in blocul rezervat, deci fisierul auxiliar nu este rescris)
+     */
+    @Override
+    public synchronized void release(long[] ids) {
+        if(ids.length > 0 && ids[ids.length - 1] + 1 == availableId) {
+            availableId = ids[0];
+        }
+    }
+}
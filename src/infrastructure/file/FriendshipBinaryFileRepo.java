@@ -0,0 +1,67 @@
+package infrastructure.file;
+
+import domain.Friendship;
+import domain.Friendship_Status;
+import domain.User;
+import exception.RepoException;
+import infrastructure.IRepository;
+import infrastructure.memory.UniqueKeys;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.jetbrains.annotations.NotNull;
+
+public class FriendshipBinaryFileRepo extends AbstractBinaryFileRepo<Friendship> {
+    private static final int RECORD_SIZE = 4 * Long.BYTES + Byte.BYTES;
+    private static final Friendship_Status[] STATUSES = Friendship_Status.values();
+
+    private final IRepository<Long, User> userRepo;
+
+    /**
+     * Constructor public al unui repozitoriu de prietenii persistate in fisier binar<br>
+     * Inregistrarile au lungime fixa (33 de octeti): id-ul prieteniei, id-urile celor doi prieteni, momentul crearii prieteniei in secunde de la 1970-01-01T00:00:00 (UTC) si statusul (un octet)
+     * @param fileName numele (calea) fisierului binar
+     * @param userRepo repozitoriul de utilizatori din care sunt rezolvati prietenii
+     * @throws IOException daca fisierul exista dar nu poate sa fie citit
+     * @throws RepoException daca fisierul nu are formatul asteptat sau contine o inregistrare incompleta
+     */
+    public FriendshipBinaryFileRepo(String fileName, IRepository<Long, User> userRepo) throws IOException, RepoException {
+        super(fileName, RECORD_SIZE, false, UniqueKeys.forFriendships());
+        this.userRepo = userRepo;
+        super.loadData();
+    }
+
+    @Override
+    protected Friendship readEntity(@NotNull ByteBuffer buffer) {
+        Long id = buffer.getLong();
+        Long firstFriendId = buffer.getLong();
+        Long secondFriendId = buffer.getLong();
+        LocalDateTime friendsFrom = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        int status = buffer.get();
+        if(status < 0 || status >= STATUSES.length) {
+            System.err.println("[!]Error at reading friendship status from binary file (invalid status)!");
+            return null;
+        }
+
+        try {
+            return new Friendship(id, userRepo.search(firstFriendId), userRepo.search(secondFriendId), friendsFrom, STATUSES[status]);
+        } catch(RepoException ex) {
+            System.err.println("[!]Error at searching friends in user repository (there is no user with " + firstFriendId + " id or there is no user with " + secondFriendId + " id)!");
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    protected void writeEntity(@NotNull Friendship friendship, @NotNull DataOutputStream output) throws IOException {
+        output.writeLong(friendship.getId());
+        output.writeLong(friendship.getFirstFriendId());
+        output.writeLong(friendship.getSecondFriendId());
+        output.writeLong(friendship.getFriendsFrom().toEpochSecond(ZoneOffset.UTC));
+        output.writeByte(friendship.getStatus().ordinal());
+    }
+}
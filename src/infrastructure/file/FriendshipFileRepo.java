@@ -4,12 +4,12 @@ import domain.User;
 import domain.Friendship_Status;
 import domain.Friendship;
 import exception.RepoException;
+import infrastructure.memory.UniqueKeys;
 import infrastructure.IRepository;
 import utils.FriendshipStatusConverter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.jetbrains.annotations.NotNull;
@@ -18,30 +18,23 @@ import utils.Constants;
 public class FriendshipFileRepo extends AbstractFileRepo<Long, Friendship> {
     private final IRepository<Long, User> userRepo;
 
-    private void addFriendToUser(@NotNull User firstUser, @NotNull User secondUser) {
-        List<User> firstUserFriendList = firstUser.getFriendList();
-        List<User> firstUserFriendListUpdated = new ArrayList<>(firstUserFriendList);
-        firstUserFriendListUpdated.add(secondUser);
-        firstUser.setFriendList(firstUserFriendListUpdated);
+    public FriendshipFileRepo(String fileName, IRepository<Long, User> userRepo) throws IOException, RepoException {
+        this(fileName, userRepo, Constants.FILE_REPO_LOG_STRUCTURED, Constants.FILE_WRITE_BEHIND_ENABLED ? WriteBehindPolicy.fromConstants() : null);
+    }
 
-        List<User> secondUserFriendList = secondUser.getFriendList();
-        List<User> secondUserFriendListUpdated = new ArrayList<>(secondUserFriendList);
-        secondUserFriendListUpdated.add(firstUser);
-        secondUser.setFriendList(secondUserFriendListUpdated);
+    public FriendshipFileRepo(String fileName, IRepository<Long, User> userRepo, boolean logStructured) throws IOException, RepoException {
+        this(fileName, userRepo, logStructured, null);
     }
 
-    public FriendshipFileRepo(String fileName, IRepository<Long, User> userRepo) throws IOException, RepoException {
-        super(fileName, false);
+    public FriendshipFileRepo(String fileName, IRepository<Long, User> userRepo, boolean logStructured, WriteBehindPolicy writeBehindPolicy) throws IOException, RepoException {
+        super(fileName, false, UniqueKeys.forFriendships(), logStructured, writeBehindPolicy);
         this.userRepo = userRepo;
         super.loadData();
-        try {
-            Iterable<Friendship> friendships = super.getAll();
-            for(Friendship friendship : friendships) {
-                User firstFriend = friendship.getFirstFriend();
-                User secondFriend = friendship.getSecondFriend();
-                addFriendToUser(firstFriend, secondFriend);
-            }
-        } catch(RepoException ignored) {}
+    }
+
+    @Override
+    protected Long assembleId(String attribute) {
+        return Long.parseLong(attribute);
     }
 
     @Override
@@ -70,6 +63,6 @@ public class FriendshipFileRepo extends AbstractFileRepo<Long, Friendship> {
 
     @Override
     protected String convertEntityToString(@NotNull Friendship friendship) {
-        return friendship.getId().toString() + ";" + friendship.getFirstFriend().getId().toString() + ";" + friendship.getSecondFriend().getId().toString() + ";" + friendship.getFriendsFrom().format(Constants.DATE_TIME_FORMATTER) + ";" + FriendshipStatusConverter.convertStatusToString(friendship.getStatus());
+        return friendship.getId().toString() + ";" + friendship.getFirstFriendId().toString() + ";" + friendship.getSecondFriendId().toString() + ";" + friendship.getFriendsFrom().format(Constants.DATE_TIME_FORMATTER) + ";" + FriendshipStatusConverter.convertStatusToString(friendship.getStatus());
     }
 }
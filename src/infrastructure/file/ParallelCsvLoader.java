@@ -0,0 +1,239 @@
+package infrastructure.file;
+
+import utils.Constants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+public class ParallelCsvLoader {
+    private static final int NEWLINE_SEARCH_BUFFER_SIZE = 4096;
+
+    /**
+     * Clasa privata (interna) care reprezinta campurile liniei curente ca o lista refolosita de la o linie la alta (fara vectorul intermediar si fara expresia regulata din String.split)<br>
+     * Lista este valabila doar pe durata apelului functiei de asamblare; campurile (obiecte de clasa String) sunt create direct din octetii fisierului
+     */
+    private static final class FieldList extends AbstractList<String> {
+        private String[] fields = new String[16];
+        private int size;
+
+        private void reset() {
+            size = 0;
+        }
+
+        private void addField(String field) {
+            if(size == fields.length) {
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            fields[size++] = field;
+        }
+
+        @Override
+        public String get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("[!]Invalid field (the line has " + size + " fields)!\n");
+            }
+            return fields[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Clasa privata (interna) care reprezinta o sarcina ForkJoin pentru un interval de bucati [from, to) ale fisierului<br>
+     * Intervalul este injumatatit recursiv pana la o singura bucata, care este citita si interpretata de firul de executie curent; rezultatul fiecarei bucati este scris pe pozitia ei, deci ordinea liniilor din fisier se pastreaza<br>
+     * Sarcina nu este niciodata serializata (RecursiveAction este Serializable doar prin mostenire), deci campurile care nu pot fi serializate sunt marcate transient
+     */
+    private static final class ChunkTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] boundaries;
+        private final transient List<List<E>> results;
+        private final transient Function<List<String>, E> lineParser;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(FileChannel channel, long[] boundaries, List<List<E>> results, Function<List<String>, E> lineParser, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.results = results;
+            this.lineParser = lineParser;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask<>(channel, boundaries, results, lineParser, from, middle),
+                          new ChunkTask<>(channel, boundaries, results, lineParser, middle, to));
+                return;
+            }
+
+            try {
+                results.set(from, parseChunk(readChunk(channel, boundaries[from], boundaries[from + 1]), lineParser));
+            } catch(IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Metoda privata statica care citeste octetii din intervalul [start, end) al fisierului (citiri pozitionale, sigure intre fire de executie)
+     * @param channel canalul fisierului citit
+     * @param start pozitia primului octet citit
+     * @param end pozitia de dupa ultimul octet citit
+     * @return vector cu octetii bucatii
+     * @throws IOException daca citirea esueaza
+     */
+    private static byte[] readChunk(FileChannel channel, long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("[!]Unexpected end of file at byte " + (start + buffer.position()) + "!\n");
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Metoda privata statica care imparte liniile unei bucati in campuri separate prin ';' si le asambleaza prin lineParser<br>
+     * Liniile vide sunt ignorate, iar terminatorul '\r' (fisiere scrise pe Windows) este eliminat
+     * @param bytes octetii bucatii (incepe la inceputul unei linii si se termina la sfarsitul unei linii)
+     * @param lineParser functie care primeste campurile unei linii si intoarce entitatea asamblata (sau null daca linia este ignorata)
+     * @return lista entitatilor asamblate, in ordinea liniilor
+     */
+    private static <E> List<E> parseChunk(byte[] bytes, Function<List<String>, E> lineParser) {
+        List<E> entities = new ArrayList<>();
+        FieldList fields = new FieldList();
+        int lineStart = 0;
+        while(lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while(lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                ++lineEnd;
+            }
+            int contentEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            if(contentEnd > lineStart) {
+                fields.reset();
+                int fieldStart = lineStart;
+                for(int position = lineStart; position <= contentEnd; ++position) {
+                    if(position == contentEnd || bytes[position] == ';') {
+                        fields.addField(new String(bytes, fieldStart, position - fieldStart, StandardCharsets.UTF_8));
+                        fieldStart = position + 1;
+                    }
+                }
+                E entity = lineParser.apply(fields);
+                if(entity != null) {
+                    entities.add(entity);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return entities;
+    }
+
+    /**
+     * Metoda privata statica de tip long care returneaza pozitia de dupa primul caracter '\n' aflat la sau dupa pozitia position
+     * @param channel canalul fisierului
+     * @param position pozitia de la care incepe cautarea
+     * @param fileSize dimensiunea fisierului in octeti
+     * @return pozitia de inceput a liniei urmatoare (fileSize daca nu mai exista niciun '\n')
+     * @throws IOException daca citirea esueaza
+     */
+    private static long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(NEWLINE_SEARCH_BUFFER_SIZE);
+        while(position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if(read <= 0) {
+                break;
+            }
+            for(int index = 0; index < read; ++index) {
+                if(buffer.get(index) == '\n') {
+                    return position + index + 1;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Metoda publica statica care incarca un fisier CSV folosind bucati de Constants.CSV_LOAD_CHUNK_SIZE octeti
+     * @param fileName numele (calea) fisierului CSV
+     * @param lineParser functie (apelata concurent din mai multe fire de executie) care primeste campurile unei linii si intoarce entitatea asamblata (sau null daca linia este ignorata)
+     * @return lista entitatilor asamblate, in ordinea liniilor din fisier
+     * @throws IOException daca fisierul nu exista sau nu poate sa fie citit
+     */
+    public static <E> List<E> load(String fileName, Function<List<String>, E> lineParser) throws IOException {
+        return load(fileName, lineParser, Constants.CSV_LOAD_CHUNK_SIZE);
+    }
+
+    /**
+     * Metoda publica statica care incarca in paralel (pe ForkJoinPool.commonPool()) un fisier CSV<br>
+     * Fisierul este impartit in bucati de aproximativ chunkSize octeti, aliniate la sfarsitul liniilor (o linie nu este niciodata impartita intre doua bucati); fiecare bucata este citita si interpretata independent, iar rezultatele sunt concatenate in ordinea bucatilor<br>
+     * Functia lineParser trebuie sa poata fi apelata concurent si sa nu pastreze lista de campuri primita (lista este refolosita pentru linia urmatoare)
+     * @param fileName numele (calea) fisierului CSV
+     * @param lineParser functie care primeste campurile unei linii si intoarce entitatea asamblata (sau null daca linia este ignorata)
+     * @param chunkSize valoare numerica intreaga strict pozitiva reprezentand dimensiunea aproximativa (in octeti) a unei bucati
+     * @return lista entitatilor asamblate, in ordinea liniilor din fisier
+     * @throws IOException daca fisierul nu exista sau nu poate sa fie citit
+     * @throws IllegalArgumentException daca chunkSize nu este strict pozitiv
+     */
+    public static <E> List<E> load(String fileName, Function<List<String>, E> lineParser, int chunkSize) throws IOException, IllegalArgumentException {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("[!]Invalid chunk size (chunk size must be a positive integer)!\n");
+        }
+
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            List<Long> boundaryList = new ArrayList<>();
+            boundaryList.add(0L);
+            long chunkStart = 0L;
+            while(chunkStart < fileSize) {
+                chunkStart = chunkStart + chunkSize >= fileSize ? fileSize : nextLineStart(channel, chunkStart + chunkSize - 1, fileSize);
+                boundaryList.add(chunkStart);
+            }
+
+            int numberOfChunks = boundaryList.size() - 1;
+            if(numberOfChunks == 0) {
+                return new ArrayList<>();
+            }
+            long[] boundaries = boundaryList.stream().mapToLong(Long::longValue).toArray();
+            List<List<E>> results = new ArrayList<>(numberOfChunks);
+            for(int chunk = 0; chunk < numberOfChunks; ++chunk) {
+                results.add(null);
+            }
+
+            try {
+                ForkJoinPool.commonPool().invoke(new ChunkTask<>(channel, boundaries, results, lineParser, 0, numberOfChunks));
+            } catch(UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            List<E> entities = new ArrayList<>();
+            for(List<E> chunkEntities : results) {
+                entities.addAll(chunkEntities);
+            }
+            return entities;
+        }
+    }
+}
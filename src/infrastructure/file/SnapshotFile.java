@@ -0,0 +1,287 @@
+package infrastructure.file;
+
+import exception.RepoException;
+import utils.Constants;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+public class SnapshotFile {
+    private static final String CHECKSUM_ALGORITHM = "CRC32C";
+    private static final String CHECKSUM_SUFFIX = ".crc";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Clasa privata (interna) care reprezinta un flux de iesire care calculeaza suma de control CRC32C a fiecarui bloc de blockSize octeti scris prin el
+     */
+    private static final class ChecksummedOutputStream extends FilterOutputStream {
+        private final int blockSize;
+        private final CRC32C checksum = new CRC32C();
+        private final List<Long> blockChecksums = new ArrayList<>();
+        private long length;
+
+        private ChecksummedOutputStream(OutputStream output, int blockSize) {
+            super(output);
+            this.blockSize = blockSize;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            out.write(bytes, offset, count);
+            while(count > 0) {
+                int blockRemaining = blockSize - (int) (length % blockSize);
+                int chunk = Math.min(count, blockRemaining);
+                checksum.update(bytes, offset, chunk);
+                length += chunk;
+                offset += chunk;
+                count -= chunk;
+                if(chunk == blockRemaining) {
+                    blockChecksums.add(checksum.getValue());
+                    checksum.reset();
+                }
+            }
+        }
+
+        private List<Long> finish() {
+            if(length % blockSize != 0) {
+                blockChecksums.add(checksum.getValue());
+            }
+            return blockChecksums;
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip void (procedura) care sincronizeaza pe disc directorul fisierului path (astfel incat redenumirile sa supravietuiasca unei caderi); pe sistemele care nu permit deschiderea directoarelor metoda nu are niciun efect
+     * @param path calea unui fisier din director
+     */
+    private static void syncDirectory(Path path) {
+        Path directory = path.toAbsolutePath().getParent();
+        if(directory == null) {
+            return;
+        }
+        try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch(IOException ignored) {}
+    }
+
+    /**
+     * Metoda publica statica de tip void (procedura) care scrie atomic si sigur la caderi (crash-safe) un fisier snapshot CSV<br>
+     * Liniile sunt scrise intr-un fisier temporar (fileName + ".tmp"), iar pentru fiecare bloc de Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE octeti se calculeaza suma de control CRC32C; sumele sunt scrise in fisierul auxiliar temporar (fileName + ".crc.tmp"); ambele fisiere temporare sunt sincronizate pe disc (fsync) si apoi redenumite atomic, intai fisierul de date si apoi cel de sume de control<br>
+     * La orice cadere fisierul vechi ramane intreg sau fisierul nou este complet; starea intermediara (date noi, sume de control vechi) este rezolvata de metoda recover
+     * @param fileName numele (calea) fisierului snapshot
+     * @param items elementele scrise (cate o linie pentru fiecare element)
+     * @param formatter functie care transforma un element in linia CSV corespunzatoare
+     * @throws IOException daca scrierea, sincronizarea sau redenumirea esueaza (fisierul snapshot existent nu este modificat daca esecul apare inaintea redenumirii)
+     */
+    public static <T> void write(String fileName, Iterable<T> items, Function<T, String> formatter) throws IOException {
+        Path path = Paths.get(fileName);
+        Path temporaryPath = Paths.get(fileName + TEMPORARY_SUFFIX);
+        Path checksumPath = Paths.get(fileName + CHECKSUM_SUFFIX);
+        Path temporaryChecksumPath = Paths.get(fileName + CHECKSUM_SUFFIX + TEMPORARY_SUFFIX);
+
+        List<Long> blockChecksums;
+        long length;
+        try(FileOutputStream fileOutput = new FileOutputStream(temporaryPath.toFile())) {
+            ChecksummedOutputStream checksummedOutput = new ChecksummedOutputStream(fileOutput, Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE);
+            BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(checksummedOutput, StandardCharsets.UTF_8));
+            for(T item : items) {
+                bufferedWriter.write(formatter.apply(item));
+                bufferedWriter.newLine();
+            }
+            bufferedWriter.flush();
+            fileOutput.getChannel().force(true);
+            blockChecksums = checksummedOutput.finish();
+            length = checksummedOutput.length;
+        }
+
+        List<String> checksumLines = new ArrayList<>(blockChecksums.size() + 1);
+        checksumLines.add(CHECKSUM_ALGORITHM + ";" + Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE + ";" + length);
+        for(long blockChecksum : blockChecksums) {
+            checksumLines.add(String.format("%08x", blockChecksum));
+        }
+        Files.write(temporaryChecksumPath, checksumLines);
+        try(FileChannel channel = FileChannel.open(temporaryChecksumPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(temporaryChecksumPath, checksumPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(path);
+    }
+
+    /**
+     * Metoda privata statica care verifica fisierul de date path cu sumele de control din fisierul checksumPath
+     * @param path calea fisierului de date
+     * @param checksumPath calea fisierului de sume de control
+     * @return descrierea primei probleme gasite (bloc corupt, fisier trunchiat, fisier de sume de control invalid) sau null daca fisierul este intact
+     * @throws IOException daca unul dintre fisiere nu poate sa fie citit
+     */
+    private static String verify(Path path, Path checksumPath) throws IOException {
+        List<String> checksumLines = Files.readAllLines(checksumPath);
+        int blockSize;
+        long length;
+        List<Long> blockChecksums = new ArrayList<>();
+        try {
+            String[] header = checksumLines.isEmpty() ? new String[0] : checksumLines.get(0).split(";");
+            if(header.length != 3 || !header[0].equals(CHECKSUM_ALGORITHM)) {
+                return "invalid checksum file " + checksumPath;
+            }
+            blockSize = Integer.parseInt(header[1]);
+            length = Long.parseLong(header[2]);
+            for(String line : checksumLines.subList(1, checksumLines.size())) {
+                blockChecksums.add(Long.parseLong(line.trim(), 16));
+            }
+        } catch(NumberFormatException ex) {
+            return "invalid checksum file " + checksumPath;
+        }
+        if(blockSize <= 0 || length < 0L || blockChecksums.size() != (int) ((length + blockSize - 1) / blockSize)) {
+            return "invalid checksum file " + checksumPath;
+        }
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < length) {
+                return "the file has " + channel.size() + " bytes, but " + length + " bytes were written";
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(blockSize);
+            CRC32C checksum = new CRC32C();
+            for(int block = 0; block < blockChecksums.size(); ++block) {
+                long blockStart = (long) block * blockSize;
+                int blockLength = (int) Math.min(blockSize, length - blockStart);
+                buffer.clear().limit(blockLength);
+                while(buffer.hasRemaining()) {
+                    if(channel.read(buffer, blockStart + buffer.position()) < 0) {
+                        return "unexpected end of file at byte " + (blockStart + buffer.position());
+                    }
+                }
+                buffer.flip();
+                checksum.reset();
+                checksum.update(buffer);
+                if(checksum.getValue() != blockChecksums.get(block)) {
+                    return "checksum mismatch in block " + block + " (bytes " + blockStart + "-" + (blockStart + blockLength - 1) + ")";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Metoda privata statica de tip long care returneaza numarul de octeti verificati prin sume de control ai fisierului path (0 daca fisierul de sume de control lipseste sau este invalid)
+     * @param checksumPath calea fisierului de sume de control
+     * @return lungimea (in octeti) acoperita de sumele de control
+     */
+    private static long checksummedLength(Path checksumPath) {
+        try {
+            List<String> checksumLines = Files.readAllLines(checksumPath);
+            return checksumLines.isEmpty() ? 0L : Long.parseLong(checksumLines.get(0).split(";")[2]);
+        } catch(IOException | RuntimeException ex) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Metoda publica statica care elimina ultima linie incompleta (fara terminatorul '\n') a unui fisier la care se adauga linii, ramasa dupa o cadere in timpul unei adaugari
+     * @param fileName numele (calea) fisierului (daca fisierul nu exista metoda nu are niciun efect)
+     * @param protectedLength numarul de octeti de la inceputul fisierului care nu sunt trunchiati (partea verificata prin sume de control)
+     * @return descrierea liniei eliminate sau null daca fisierul se termina cu o linie completa
+     * @throws IOException daca fisierul nu poate sa fie citit sau trunchiat
+     */
+    public static String truncateTornTail(String fileName, long protectedLength) throws IOException {
+        Path path = Paths.get(fileName);
+        if(!Files.exists(path)) {
+            return null;
+        }
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if(size <= protectedLength) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            long position = size - 1;
+            channel.read(buffer, position);
+            if(buffer.get(0) == '\n') {
+                return null;
+            }
+
+            while(position > protectedLength) {
+                buffer.clear();
+                channel.read(buffer, position - 1);
+                if(buffer.get(0) == '\n') {
+                    break;
+                }
+                --position;
+            }
+            channel.truncate(position);
+            channel.force(true);
+            return "incomplete last line of " + fileName + " at byte " + position + " (" + (size - position) + " bytes) was removed";
+        }
+    }
+
+    /**
+     * Metoda publica statica care ruleaza pasul de recuperare (recovery) al unui fisier snapshot, la pornire, inainte de citirea lui<br>
+     * Fisierele temporare ramase de la o scriere intrerupta sunt sterse (fisierul vechi a ramas intreg); daca scrierea s-a intrerupt intre cele doua redenumiri, sumele de control noi (din fisierul temporar) sunt promovate; fisierul este apoi verificat bloc cu bloc, iar o linie incompleta adaugata dupa snapshot (adaugare intrerupta) este eliminata<br>
+     * Fisierele fara sume de control (scrise de versiuni anterioare sau de mana) nu sunt verificate si nu sunt trunchiate
+     * @param fileName numele (calea) fisierului snapshot
+     * @return lista de descrieri ale problemelor gasite si reparate (lista vida daca fisierul era intact)
+     * @throws IOException daca fisierele nu pot sa fie citite sau reparate
+     * @throws RepoException daca fisierul snapshot este corupt (suma de control a unui bloc nu corespunde sau fisierul a fost trunchiat); mesajul precizeaza blocul si octetii afectati
+     */
+    public static List<String> recover(String fileName) throws IOException, RepoException {
+        Path path = Paths.get(fileName);
+        Path temporaryPath = Paths.get(fileName + TEMPORARY_SUFFIX);
+        Path checksumPath = Paths.get(fileName + CHECKSUM_SUFFIX);
+        Path temporaryChecksumPath = Paths.get(fileName + CHECKSUM_SUFFIX + TEMPORARY_SUFFIX);
+        List<String> problems = new ArrayList<>();
+
+        if(Files.deleteIfExists(temporaryPath)) {
+            problems.add("an unfinished snapshot (" + temporaryPath + ") was discarded");
+        }
+        if(Files.exists(temporaryChecksumPath)) {
+            if(Files.exists(path) && verify(path, temporaryChecksumPath) == null) {
+                Files.move(temporaryChecksumPath, checksumPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                problems.add("the checksums of the last snapshot were restored from " + temporaryChecksumPath);
+            }
+            else {
+                Files.delete(temporaryChecksumPath);
+                problems.add("unfinished checksums (" + temporaryChecksumPath + ") were discarded");
+            }
+        }
+
+        if(!Files.exists(path) || !Files.exists(checksumPath)) {
+            return problems;
+        }
+
+        String corruption = verify(path, checksumPath);
+        if(corruption != null) {
+            throw new RepoException("[!]Corrupted file " + fileName + " (" + corruption + ")!\n");
+        }
+        String tornTail = truncateTornTail(fileName, checksummedLength(checksumPath));
+        if(tornTail != null) {
+            problems.add(tornTail);
+        }
+        return problems;
+    }
+}
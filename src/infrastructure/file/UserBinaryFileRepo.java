@@ -0,0 +1,73 @@
+package infrastructure.file;
+
+import domain.Address;
+import domain.Credential;
+import domain.User;
+import exception.RepoException;
+import infrastructure.memory.UniqueKeys;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import org.jetbrains.annotations.NotNull;
+
+public class UserBinaryFileRepo extends AbstractBinaryFileRepo<User> {
+    /**
+     * Constructor public al unui repozitoriu de utilizatori persistati in fisier binar<br>
+     * Inregistrarile au lungime variabila: id-ul (8 octeti), data nasterii ca numar de zile de la 1970-01-01 (4 octeti), prenumele, numele de familie si email-ul, apoi adresa si credentialele (fiecare precedate de un octet care indica daca exista), sirurile fiind prefixate de lungimea lor in octeti (UTF-8)
+     * @param fileName numele (calea) fisierului binar
+     * @throws IOException daca fisierul exista dar nu poate sa fie citit
+     * @throws RepoException daca fisierul nu are formatul asteptat sau contine o inregistrare incompleta
+     */
+    public UserBinaryFileRepo(String fileName) throws IOException, RepoException {
+        super(fileName, VARIABLE_RECORD_SIZE, true, UniqueKeys.forUsers());
+    }
+
+    @Override
+    protected User readEntity(@NotNull ByteBuffer buffer) {
+        Long id = buffer.getLong();
+        LocalDate birthday = LocalDate.ofEpochDay(buffer.getInt());
+        String firstName = readString(buffer);
+        String lastName = readString(buffer);
+        String email = readString(buffer);
+
+        Address address = null;
+        if(buffer.get() != 0) {
+            address = new Address(readString(buffer), readString(buffer), readString(buffer), readString(buffer));
+        }
+
+        Credential credential = null;
+        if(buffer.get() != 0) {
+            credential = new Credential(readString(buffer), readString(buffer));
+        }
+
+        return new User(id, firstName, lastName, birthday, email, address, credential);
+    }
+
+    @Override
+    protected void writeEntity(@NotNull User user, @NotNull DataOutputStream output) throws IOException {
+        output.writeLong(user.getId());
+        output.writeInt((int) user.getBirthday().toEpochDay());
+        writeString(output, user.getFirstName());
+        writeString(output, user.getLastName());
+        writeString(output, user.getEmail());
+
+        Address address = user.getAddress();
+        output.writeByte(address == null ? 0 : 1);
+        if(address != null) {
+            writeString(output, address.getHomeAddress());
+            writeString(output, address.getCountry());
+            writeString(output, address.getCounty());
+            writeString(output, address.getCity());
+        }
+
+        Credential credential = user.getCredential();
+        output.writeByte(credential == null ? 0 : 1);
+        if(credential != null) {
+            writeString(output, credential.getUsername());
+            writeString(output, credential.getPassword());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import domain.Address;
 import domain.Credential;
 import domain.User;
 import exception.RepoException;
+import infrastructure.memory.UniqueKeys;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -15,7 +16,20 @@ import utils.Constants;
 
 public class UserFileRepo extends AbstractFileRepo<Long, User> {
     public UserFileRepo(String fileName) throws IOException, RepoException {
-        super(fileName, true);
+        this(fileName, Constants.FILE_REPO_LOG_STRUCTURED, Constants.FILE_WRITE_BEHIND_ENABLED ? WriteBehindPolicy.fromConstants() : null);
+    }
+
+    public UserFileRepo(String fileName, boolean logStructured) throws IOException, RepoException {
+        this(fileName, logStructured, null);
+    }
+
+    public UserFileRepo(String fileName, boolean logStructured, WriteBehindPolicy writeBehindPolicy) throws IOException, RepoException {
+        super(fileName, true, UniqueKeys.forUsers(), logStructured, writeBehindPolicy);
+    }
+
+    @Override
+    protected Long assembleId(String attribute) {
+        return Long.parseLong(attribute);
     }
 
     @Override
@@ -0,0 +1,54 @@
+package infrastructure.file;
+
+import utils.Constants;
+
+public class WriteBehindPolicy {
+    private static final Durability DEFAULT_DURABILITY = Durability.FLUSH;
+
+    private final long flushIntervalMillis;
+    private final int queueCapacity;
+    private final Durability durability;
+
+    /**
+     * Constructor public al unui obiect de clasa WriteBehindPolicy (configuratia scrierii asincrone a unui repozitoriu de entitati persistate in fisier)
+     * @param flushIntervalMillis valoare numerica intreaga nenegativa reprezentand timpul (in milisecunde) in care firul de scriere aduna modificari intr-un lot (group commit) dupa prima modificare din lot
+     * @param queueCapacity valoare numerica intreaga strict pozitiva reprezentand numarul maxim de modificari nepersistate din coada (cand coada este plina, apelantul asteapta)
+     * @param durability garantia oferita la sfarsitul fiecarui lot: NONE (datele pot ramane in tamponul aplicatiei pana la flush/close), FLUSH (datele sunt predate sistemului de operare) sau FSYNC (datele sunt scrise pe disc)
+     * @throws IllegalArgumentException daca intervalul este negativ, capacitatea nu este strict pozitiva sau durability este null
+     */
+    public WriteBehindPolicy(long flushIntervalMillis, int queueCapacity, Durability durability) throws IllegalArgumentException {
+        if(flushIntervalMillis < 0L) {
+            throw new IllegalArgumentException("[!]Invalid flush interval (flush interval must not be negative)!\n");
+        }
+        if(queueCapacity <= 0) {
+            throw new IllegalArgumentException("[!]Invalid queue capacity (queue capacity must be a positive integer)!\n");
+        }
+        if(durability == null) {
+            throw new IllegalArgumentException("[!]Invalid durability (durability must not be null)!\n");
+        }
+
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queueCapacity = queueCapacity;
+        this.durability = durability;
+    }
+
+    /**
+     * Metoda publica statica care returneaza configuratia implicita a scrierii asincrone (intervalul si capacitatea din clasa Constants, cu garantia FLUSH)
+     * @return obiect de clasa WriteBehindPolicy
+     */
+    public static WriteBehindPolicy fromConstants() {
+        return new WriteBehindPolicy(Constants.FILE_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS, Constants.FILE_WRITE_BEHIND_QUEUE_CAPACITY, DEFAULT_DURABILITY);
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+}
@@ -0,0 +1,282 @@
+package infrastructure.file;
+
+import exception.RepoException;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class WriteBehindWriter {
+    /**
+     * Interfata functionala interna care reprezinta o operatie asupra fisierelor executata de firul de scriere
+     */
+    interface FileAction {
+        void run() throws IOException;
+    }
+
+    private static class Operation {}
+
+    private static final class Append extends Operation {
+        private final String fileName;
+        private final List<String> lines;
+
+        private Append(String fileName, List<String> lines) {
+            this.fileName = fileName;
+            this.lines = lines;
+        }
+    }
+
+    private static final class Replace extends Operation {
+        private final FileAction action;
+
+        private Replace(FileAction action) {
+            this.action = action;
+        }
+    }
+
+    private static final class Barrier extends Operation {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final boolean closing;
+
+        private Barrier(boolean closing) {
+            this.closing = closing;
+        }
+    }
+
+    /**
+     * Clasa privata (interna) care reprezinta un fisier deschis pentru adaugare (pastrat deschis intre loturi)
+     */
+    private static final class AppendHandle {
+        private final FileOutputStream stream;
+        private final BufferedWriter writer;
+
+        private AppendHandle(String fileName) throws IOException {
+            this.stream = new FileOutputStream(fileName, true);
+            this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+    }
+
+    private final WriteBehindPolicy policy;
+    private final BlockingQueue<Operation> queue;
+    private final Map<String, AppendHandle> handles;
+    private final Thread thread;
+    private IOException failure;
+
+    /**
+     * Constructor al unui fir de scriere asincrona (write-behind) pentru un repozitoriu de entitati persistate in fisier<br>
+     * Modificarile sunt puse intr-o coada marginita; firul de scriere le aduna in loturi (group commit) timp de policy.getFlushIntervalMillis() milisecunde dupa prima modificare din lot, le scrie cu o singura deschidere a fiecarui fisier si aplica la sfarsitul lotului garantia policy.getDurability()
+     * @param policy configuratia scrierii asincrone
+     * @param threadName numele firului de scriere
+     */
+    WriteBehindWriter(WriteBehindPolicy policy, String threadName) {
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(policy.getQueueCapacity());
+        this.handles = new LinkedHashMap<>();
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care pune o operatie in coada (daca coada este plina, apelantul asteapta eliberarea unui loc)
+     * @param operation operatia adaugata in coada
+     * @throws RepoException daca firul curent este intrerupt in timpul asteptarii
+     */
+    private void enqueue(Operation operation) throws RepoException {
+        try {
+            queue.put(operation);
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RepoException("[!]Interrupted while waiting for the file writer!\n");
+        }
+    }
+
+    /**
+     * Metoda de tip void (procedura) care programeaza adaugarea liniilor lines la sfarsitul fisierului fileName
+     * @param fileName numele (calea) fisierului
+     * @param lines liniile adaugate
+     * @throws RepoException daca firul curent este intrerupt in timp ce asteapta un loc in coada
+     */
+    void append(String fileName, List<String> lines) throws RepoException {
+        enqueue(new Append(fileName, lines));
+    }
+
+    /**
+     * Metoda de tip void (procedura) care programeaza o operatie care inlocuieste continutul fisierelor (rescrierea fisierului snapshot sau compactarea jurnalului)<br>
+     * Operatia reflecta starea completa a repozitoriului, deci toate operatiile din acelasi lot programate inaintea ei sunt ignorate (coalescing)
+     * @param action operatia executata de firul de scriere
+     * @throws RepoException daca firul curent este intrerupt in timp ce asteapta un loc in coada
+     */
+    void replace(FileAction action) throws RepoException {
+        enqueue(new Replace(action));
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care pune in coada o bariera si asteapta ca firul de scriere sa o atinga
+     * @param closing true daca firul de scriere se opreste dupa bariera
+     * @throws RepoException daca asteptarea este intrerupta sau daca o scriere anterioara a esuat
+     */
+    private void awaitBarrier(boolean closing) throws RepoException {
+        if(!thread.isAlive()) {
+            return;
+        }
+
+        Barrier barrier = new Barrier(closing);
+        enqueue(barrier);
+        try {
+            barrier.done.await();
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RepoException("[!]Interrupted while waiting for the file writer!\n");
+        }
+
+        IOException lastFailure;
+        synchronized(this) {
+            lastFailure = failure;
+            failure = null;
+        }
+        if(lastFailure != null) {
+            throw new RepoException("[!]Error at writing data to file (" + lastFailure.getMessage() + ")!\n");
+        }
+    }
+
+    /**
+     * Metoda de tip void (procedura) care asteapta ca toate operatiile programate pana la apel sa fie scrise si sincronizate pe disc (fsync), indiferent de garantia configurata
+     * @throws RepoException daca asteptarea este intrerupta sau daca o scriere a esuat de la ultimul apel
+     */
+    void flush() throws RepoException {
+        awaitBarrier(false);
+    }
+
+    /**
+     * Metoda de tip void (procedura) care scrie pe disc toate operatiile programate, inchide fisierele deschise si opreste firul de scriere
+     * @throws RepoException daca asteptarea este intrerupta sau daca o scriere a esuat de la ultimul apel
+     */
+    void close() throws RepoException {
+        awaitBarrier(true);
+    }
+
+    private void run() {
+        List<Operation> batch = new ArrayList<>();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(policy.getFlushIntervalMillis());
+        while(true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while(!(batch.get(batch.size() - 1) instanceof Barrier)) {
+                    Operation next = queue.poll(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if(next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch(InterruptedException ex) {
+                closeHandles();
+                return;
+            }
+
+            boolean closing = process(batch);
+            batch.clear();
+            if(closing) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Metoda privata de tip boolean care scrie un lot de operatii<br>
+     * Operatiile anterioare ultimei operatii de inlocuire sunt ignorate, adaugarile consecutive in acelasi fisier folosesc acelasi fisier deschis, iar la sfarsitul lotului se aplica garantia configurata (sau fsync, daca lotul se termina cu o bariera)
+     * @param batch lotul de operatii, in ordinea programarii (o bariera poate fi doar ultima operatie)
+     * @return true daca lotul se termina cu bariera de inchidere
+     */
+    private boolean process(List<Operation> batch) {
+        int first = 0;
+        for(int index = 0; index < batch.size(); ++index) {
+            if(batch.get(index) instanceof Replace) {
+                first = index;
+            }
+        }
+
+        for(Operation operation : batch.subList(first, batch.size())) {
+            try {
+                if(operation instanceof Append append) {
+                    AppendHandle handle = handles.get(append.fileName);
+                    if(handle == null) {
+                        handle = new AppendHandle(append.fileName);
+                        handles.put(append.fileName, handle);
+                    }
+                    for(String line : append.lines) {
+                        handle.writer.write(line);
+                        handle.writer.newLine();
+                    }
+                }
+                else if(operation instanceof Replace replace) {
+                    closeHandles();
+                    replace.action.run();
+                }
+            } catch(IOException ex) {
+                reportFailure(ex);
+            }
+        }
+
+        Operation last = batch.get(batch.size() - 1);
+        if(last instanceof Barrier barrier) {
+            syncHandles(true);
+            if(barrier.closing) {
+                closeHandles();
+            }
+            barrier.done.countDown();
+            return barrier.closing;
+        }
+        if(policy.getDurability() != Durability.NONE) {
+            syncHandles(policy.getDurability() == Durability.FSYNC);
+        }
+        return false;
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care preda sistemului de operare datele tamponate ale fisierelor deschise si, daca force este true, le sincronizeaza pe disc
+     * @param force true daca datele sunt sincronizate pe disc (fsync)
+     */
+    private void syncHandles(boolean force) {
+        for(AppendHandle handle : handles.values()) {
+            try {
+                handle.writer.flush();
+                if(force) {
+                    handle.stream.getChannel().force(false);
+                }
+            } catch(IOException ex) {
+                reportFailure(ex);
+            }
+        }
+    }
+
+    private void closeHandles() {
+        for(AppendHandle handle : handles.values()) {
+            try {
+                handle.writer.close();
+            } catch(IOException ex) {
+                reportFailure(ex);
+            }
+        }
+        handles.clear();
+    }
+
+    private synchronized void reportFailure(IOException ex) {
+        System.err.println("[!]Error at writing data to file in the background!");
+        ex.printStackTrace();
+        if(failure == null) {
+            failure = ex;
+        }
+    }
+}
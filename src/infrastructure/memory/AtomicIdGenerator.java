@@ -0,0 +1,52 @@
+package infrastructure.memory;
+
+import infrastructure.IIdGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AtomicIdGenerator implements IIdGenerator {
+    private final AtomicLong availableId;
+
+    /**
+     * Constructor public al unui obiect de clasa AtomicIdGenerator (generator de id-uri consecutive bazat pe un contor atomic)
+     * @param firstAvailableId valoare numerica intreaga reprezentand primul id care va fi rezervat
+     */
+    public AtomicIdGenerator(long firstAvailableId) {
+        availableId = new AtomicLong(firstAvailableId);
+    }
+
+    /**
+     * Rezerva count id-uri consecutive printr-o singura operatie atomica (getAndAdd), fara blocari
+     */
+    @Override
+    public long[] nextIds(int count) throws IllegalArgumentException {
+        if(count < 0) {
+            throw new IllegalArgumentException("[!]Invalid count (count must be greater or equal with 0)!\n");
+        }
+
+        long firstId = availableId.getAndAdd(count);
+        long[] ids = new long[count];
+        for(int position = 0; position < count; ++position) {
+            ids[position] = firstId + position;
+        }
+        return ids;
+    }
+
+    /**
+     * Elibereaza id-urile ids doar daca ele sunt ultimele rezervate (contorul este readus atomic la primul dintre ele prin compareAndSet)
+     */
+    @Override
+    public void release(long[] ids) {
+        if(ids.length > 0) {
+            availableId.compareAndSet(ids[ids.length - 1] + 1, ids[0]);
+        }
+    }
+
+    /**
+     * Metoda publica de tip long care returneaza urmatorul id care va fi rezervat (fara a-l rezerva)
+     * @return valoare numerica intreaga reprezentand urmatorul id disponibil
+     */
+    public long peekNextId() {
+        return availableId.get();
+    }
+}
@@ -0,0 +1,469 @@
+package infrastructure.memory;
+
+import domain.Entity;
+import exception.RepoException;
+import infrastructure.IRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public class ConcurrentInMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E> {
+    private static final int NUMBER_OF_STRIPES = 64;
+
+    private final Map<ID, E> entities;
+    private final NavigableSet<ID> sortedIds;
+    private final List<UniqueIndex<ID, E>> uniqueIndexes;
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Constructor public al unui obiect de clasa ConcurrentInMemoryRepo (repozitoriu in memorie care poate sa fie folosit simultan de mai multe fire de executie)<br>
+     * Entitatile sunt memorate intr-un ConcurrentHashMap, deci citirile (search, len, getAll) nu folosesc blocari; scrierile (add, modify, remove) blocheaza doar benzile (stripes) corespunzatoare id-ului si cheilor unice vechi si noi ale entitatii, astfel incat verificarea unicitatii si inserarea sunt atomice<br>
+     * Garantia priveste doar repozitoriul: service-urile (UserService, FriendshipService) actualizeaza dupa fiecare scriere indecsi in memorie nesincronizati (CommunityIndex, AdjacencyIndex, NameIndex), deci apelurile concurente ale service-urilor trebuie sincronizate de apelant
+     * @param uniqueKeyExtractors lista de functii care extrag cheile unice ale unei entitati (vezi clasa UniqueKeys)
+     */
+    public ConcurrentInMemoryRepo(List<? extends Function<E, ?>> uniqueKeyExtractors) {
+        entities = new ConcurrentHashMap<>();
+        sortedIds = new ConcurrentSkipListSet<>();
+        uniqueIndexes = new ArrayList<>();
+        for(Function<E, ?> uniqueKeyExtractor : uniqueKeyExtractors) {
+            uniqueIndexes.add(new UniqueIndex<>(uniqueKeyExtractor));
+        }
+        stripes = new ReentrantLock[NUMBER_OF_STRIPES];
+        for(int stripe = 0; stripe < NUMBER_OF_STRIPES; ++stripe) {
+            stripes[stripe] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Metoda privata statica de tip int care returneaza banda (stripe-ul) corespunzatoare unui obiect (id sau cheie unica)
+     * @param object obiectul pentru care se calculeaza banda
+     * @return valoare numerica intreaga intre 0 si NUMBER_OF_STRIPES - 1
+     */
+    private static int stripeOf(Object object) {
+        int hash = object.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (NUMBER_OF_STRIPES - 1);
+    }
+
+    /**
+     * Metoda privata care returneaza cheile unice indexate in prezent pentru entitatea cu id-ul id (cate una pentru fiecare index, null daca entitatea nu are cheie in acel index sau nu exista)
+     * @param id id-ul entitatii
+     * @return lista cheilor unice ale entitatii, in ordinea indecsilor
+     */
+    private List<Object> indexedKeysOf(ID id) {
+        List<Object> keys = new ArrayList<>(uniqueIndexes.size());
+        for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+            keys.add(uniqueIndex.indexedKeyOf(id));
+        }
+        return keys;
+    }
+
+    /**
+     * Metoda privata de tip int[] care blocheaza benzile corespunzatoare id-ului, cheilor unice indexate in prezent pentru id (cheile vechi) si cheilor unice ale entitatii entity (cheile noi)<br>
+     * Benzile sunt blocate in ordine crescatoare (si fiecare o singura data), astfel incat doua scrieri concurente nu se pot bloca reciproc (deadlock)<br>
+     * Cheile vechi sunt citite inainte de blocare; deoarece orice scriere a entitatii tine banda id-ului, ele sunt verificate din nou dupa blocare, iar daca s-au schimbat intre timp benzile sunt eliberate si blocarea este reluata
+     * @param entity entitatea pentru care se blocheaza benzile (daca este null se blocheaza doar benzile id-ului si ale cheilor vechi)
+     * @param id id-ul entitatii
+     * @return vectorul (sortat) de benzi blocate, care trebuie dat ulterior metodei unlock
+     */
+    private int[] lock(E entity, ID id) {
+        while(true) {
+            List<Object> oldKeys = indexedKeysOf(id);
+            int[] lockedStripes = new int[2 * uniqueIndexes.size() + 1];
+            int numberOfStripes = 0;
+            lockedStripes[numberOfStripes++] = stripeOf(id);
+            for(Object key : oldKeys) {
+                if(key != null) {
+                    lockedStripes[numberOfStripes++] = stripeOf(key);
+                }
+            }
+            if(entity != null) {
+                for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                    Object key = uniqueIndex.keyOf(entity);
+                    if(key != null) {
+                        lockedStripes[numberOfStripes++] = stripeOf(key);
+                    }
+                }
+            }
+
+            Arrays.sort(lockedStripes, 0, numberOfStripes);
+            int numberOfDistinctStripes = 0;
+            for(int position = 0; position < numberOfStripes; ++position) {
+                if(numberOfDistinctStripes == 0 || lockedStripes[numberOfDistinctStripes - 1] != lockedStripes[position]) {
+                    lockedStripes[numberOfDistinctStripes++] = lockedStripes[position];
+                }
+            }
+
+            lockedStripes = Arrays.copyOf(lockedStripes, numberOfDistinctStripes);
+            for(int stripe : lockedStripes) {
+                stripes[stripe].lock();
+            }
+            if(oldKeys.equals(indexedKeysOf(id))) {
+                return lockedStripes;
+            }
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Metoda privata de tip void (procedura) care deblocheaza (in ordine inversa) benzile blocate anterior de metoda lock
+     * @param lockedStripes vectorul de benzi intors de metoda lock
+     */
+    private void unlock(int[] lockedStripes) {
+        for(int position = lockedStripes.length - 1; position >= 0; --position) {
+            stripes[lockedStripes[position]].unlock();
+        }
+    }
+
+    /**
+     * Metoda privata de tip boolean care verifica daca entitatea entity are o cheie unica comuna cu o alta entitate din repozitoriu (o entitate cu alt id decat entity)<br>
+     * Metoda se apeleaza doar cu benzile cheilor entitatii blocate, deci rezultatul nu se poate schimba pana la inserarea entitatii
+     * @param entity obiect de tipul E reprezentand entitatea verificata
+     * @return true daca exista o alta entitate cu o cheie unica egala, false in caz contrar
+     */
+    private boolean hasConflictingKey(E entity) {
+        for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+            ID ownerId = uniqueIndex.ownerOf(entity);
+            if(ownerId != null && !ownerId.equals(entity.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metoda publica de tip void care adauga atomic o entitate in repozitoriu (verificarea id-ului si a cheilor unice si inserarea se fac sub blocarea benzilor corespunzatoare)
+     * @param entity obiect de tipul/clasa E (tip generic de date) pe care dorim sa il adaugam in retea
+     * @throws RepoException daca exista deja o entitate cu acelasi id sau cu o cheie unica egala
+     * @throws IllegalArgumentException daca parametrul de intrare entity are o valoare nula (entitatea entity este egala cu null)
+     */
+    @Override
+    public void add(E entity) throws RepoException, IllegalArgumentException {
+        if(entity == null) {
+            throw new IllegalArgumentException("[!]Invalid entity (entity must not be null)!\n");
+        }
+
+        int[] lockedStripes = lock(entity, entity.getId());
+        try {
+            if(entities.containsKey(entity.getId())) {
+                throw new RepoException("[!]Entity already exists (there is an entity with the given id)!\n");
+            }
+            if(hasConflictingKey(entity)) {
+                throw new RepoException("[!]Entity already exists!\n");
+            }
+
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.put(entity);
+            }
+            entities.put(entity.getId(), entity);
+            sortedIds.add(entity.getId());
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Metoda publica de tip void care adauga atomic toate entitatile din colectia entities (fie sunt adaugate toate, fie niciuna)<br>
+     * Pe durata adaugarii sunt blocate toate benzile (in ordine crescatoare, ca in metoda lock), deci scrierile concurente asteapta terminarea incarcarii in masa, iar citirile continua fara blocare
+     * @param entities obiect iterabil cu entitatile (de tipul E) pe care dorim sa le adaugam
+     * @throws RepoException daca o entitate are acelasi id sau o cheie unica comuna cu o entitate din repozitoriu sau cu o alta entitate din colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin una dintre entitati este null
+     */
+    @Override
+    public void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        if(entities == null) {
+            throw new IllegalArgumentException("[!]Invalid entities (entities must not be null)!\n");
+        }
+
+        for(ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            List<E> newEntities = new ArrayList<>();
+            Map<ID, E> newEntitiesById = new HashMap<>();
+            List<Map<Object, ID>> newKeys = new ArrayList<>();
+            for(int index = 0; index < uniqueIndexes.size(); ++index) {
+                newKeys.add(new HashMap<>());
+            }
+
+            for(E entity : entities) {
+                if(entity == null) {
+                    throw new IllegalArgumentException("[!]Invalid entity (entity must not be null)!\n");
+                }
+                if(this.entities.containsKey(entity.getId()) || newEntitiesById.putIfAbsent(entity.getId(), entity) != null) {
+                    throw new RepoException("[!]Entity already exists (there is an entity with the given id)!\n");
+                }
+                if(hasConflictingKey(entity)) {
+                    throw new RepoException("[!]Entity already exists!\n");
+                }
+                for(int index = 0; index < uniqueIndexes.size(); ++index) {
+                    Object key = uniqueIndexes.get(index).keyOf(entity);
+                    if(key != null && newKeys.get(index).putIfAbsent(key, entity.getId()) != null) {
+                        throw new RepoException("[!]Entity already exists!\n");
+                    }
+                }
+                newEntities.add(entity);
+            }
+
+            for(E entity : newEntities) {
+                for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                    uniqueIndex.put(entity);
+                }
+                this.entities.put(entity.getId(), entity);
+                sortedIds.add(entity.getId());
+            }
+        } finally {
+            for(int stripe = NUMBER_OF_STRIPES - 1; stripe >= 0; --stripe) {
+                stripes[stripe].unlock();
+            }
+        }
+    }
+
+    /**
+     * Metoda publica de tip E care sterge atomic entitatea cu identificatorul id din repozitoriu (impreuna cu cheile ei unice)
+     * @param id obiect de tipul ID reprezentand identificatorul unic al entitatii pe care dorim sa o stergem/eliminam din retea
+     * @return obiect de tipul E reprezentand entitatea stearsa
+     * @throws RepoException daca nu exista entitati in retea sau daca nu exista nicio entitate care sa aiba identificatorul egal cu id
+     * @throws IllegalArgumentException daca parametrul de intrare id are valoarea egala cu null
+     */
+    @Override
+    public E remove(ID id) throws RepoException, IllegalArgumentException {
+        if(id == null) {
+            throw new IllegalArgumentException("[!]Invalid id (id must not be null)!\n");
+        }
+
+        if(entities.isEmpty()) {
+            throw new RepoException("[!]There are no entities in the repository!\n");
+        }
+
+        int[] lockedStripes = lock(null, id);
+        try {
+            E removedEntity = entities.remove(id);
+            sortedIds.remove(id);
+            if(removedEntity == null) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.remove(id);
+            }
+            return removedEntity;
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Metoda publica care sterge atomic toate entitatile cu id-urile din colectia ids (fie sunt sterse toate, fie niciuna)<br>
+     * Pe durata stergerii sunt blocate toate benzile (in ordine crescatoare, ca in metoda addAll)
+     * @param ids obiect iterabil cu id-urile entitatilor pe care dorim sa le stergem
+     * @return lista entitatilor sterse, in ordinea id-urilor din colectie
+     * @throws RepoException daca un id nu corespunde niciunei entitati din repozitoriu sau apare de doua ori in colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin unul dintre id-uri este null
+     */
+    @Override
+    public List<E> removeAll(Iterable<ID> ids) throws RepoException, IllegalArgumentException {
+        if(ids == null) {
+            throw new IllegalArgumentException("[!]Invalid ids (ids must not be null)!\n");
+        }
+
+        for(ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            List<ID> removedIds = new ArrayList<>();
+            Set<ID> distinctIds = new HashSet<>();
+            for(ID id : ids) {
+                if(id == null) {
+                    throw new IllegalArgumentException("[!]Invalid id (id must not be null)!\n");
+                }
+                if(!entities.containsKey(id) || !distinctIds.add(id)) {
+                    throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+                }
+                removedIds.add(id);
+            }
+
+            List<E> removedEntities = new ArrayList<>(removedIds.size());
+            for(ID id : removedIds) {
+                removedEntities.add(entities.remove(id));
+                sortedIds.remove(id);
+                for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                    uniqueIndex.remove(id);
+                }
+            }
+            return removedEntities;
+        } finally {
+            for(int stripe = NUMBER_OF_STRIPES - 1; stripe >= 0; --stripe) {
+                stripes[stripe].unlock();
+            }
+        }
+    }
+
+    /**
+     * Metoda publica de tip E care modifica atomic o entitate existenta din repozitoriu (cheile unice vechi sunt inlocuite cu cele noi)
+     * @param entity obiect de tipul E (tip generic de date) pe care dorim sa il modificam/actualizam in reteaua de socializare
+     * @return obiect de tipul/clasa E care reprezinta entitatea dinaintea modificarii
+     * @throws RepoException daca nu exista entitati in retea, daca nu exista o entitate cu acelasi identificator ca si entity sau daca o alta entitate are o cheie unica egala cu una dintre cheile lui entity
+     * @throws IllegalArgumentException daca parametrul formal/simbolic de intrare entity are valoarea egala cu null
+     */
+    @Override
+    public E modify(E entity) throws RepoException, IllegalArgumentException {
+        if(entity == null) {
+            throw new IllegalArgumentException("[!]Invalid entity (entity must not be null)!\n");
+        }
+
+        if(entities.isEmpty()) {
+            throw new RepoException("[!]There are no entities in the repository!\n");
+        }
+
+        int[] lockedStripes = lock(entity, entity.getId());
+        try {
+            if(hasConflictingKey(entity)) {
+                throw new RepoException("[!]There is a similar entity in the repository!\n");
+            }
+
+            E modifiedEntity = entities.get(entity.getId());
+            if(modifiedEntity == null) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.remove(entity.getId());
+                uniqueIndex.put(entity);
+            }
+            entities.put(entity.getId(), entity);
+            return modifiedEntity;
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Metoda publica de tip E care cauta (fara blocari) o entitate dupa id in repozitoriu
+     * @param id obiect de tipul ID care reprezinta identificatorul unic al entitatii cautate
+     * @return obiect de tipul E reprezentand entitatea cu identificatorul id
+     * @throws RepoException daca nu exista entitati in retea sau daca nu exista nicio entitate cu identificatorul id
+     * @throws IllegalArgumentException daca parametrul formal/simbolic de intrare id are valoarea nula (egala cu null)
+     */
+    @Override
+    public E search(ID id) throws RepoException, IllegalArgumentException {
+        if(id == null) {
+            throw new IllegalArgumentException("[!]Invalid id (id must not be null)!\n");
+        }
+
+        E searchedEntity = entities.get(id);
+        if(searchedEntity == null) {
+            if(entities.isEmpty()) {
+                throw new RepoException("[!]There are no entities in the repository!\n");
+            }
+            throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+        }
+
+        return searchedEntity;
+    }
+
+    /**
+     * Metoda publica care returneaza (fara blocari) numarul de entitati din repozitoriu
+     * @return numar intreg non-negativ reprezentand numarul total de entitati din repozitoriu
+     */
+    @Override
+    public int len() {
+        return entities.size();
+    }
+
+    /**
+     * Metoda publica care returneaza toate entitatile din repozitoriu<br>
+     * Colectia intoarsa este o vedere slab consistenta (weakly consistent) asupra repozitoriului: poate sa fie parcursa in timp ce alte fire de executie modifica repozitoriul, fara ConcurrentModificationException
+     * @return obiect iterabil care contine toate entitatile din repozitoriu
+     * @throws RepoException daca nu exista entitati in repozitoriu
+     */
+    @Override
+    public Iterable<E> getAll() throws RepoException {
+        if(entities.isEmpty()) {
+            throw new RepoException("[!]There are no entities in the repository!\n");
+        }
+
+        return entities.values();
+    }
+
+    /**
+     * Metoda publica care returneaza cel mult limit entitati cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor<br>
+     * Id-urile sunt memorate si intr-o lista de salt (ConcurrentSkipListSet), deci pagina porneste direct de la afterId in O(log n), fara blocari si fara copierea repozitoriului; entitatile sterse in timpul citirii paginii sunt omise
+     * @param afterId id-ul dupa care incepe pagina (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de entitati din pagina
+     * @return lista (eventual vida) cu entitatile paginii, ordonate crescator dupa id
+     * @throws IllegalArgumentException daca limit nu este strict pozitiv
+     */
+    @Override
+    public List<E> page(ID afterId, int limit) throws IllegalArgumentException {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+
+        List<E> page = new ArrayList<>();
+        for(ID id : afterId == null ? sortedIds : sortedIds.tailSet(afterId, false)) {
+            if(page.size() == limit) {
+                break;
+            }
+            E entity = entities.get(id);
+            if(entity != null) {
+                page.add(entity);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Clasa privata statica care reprezinta un index concurent de chei unice: asociaza fiecarei chei id-ul entitatii care o detine<br>
+     * Modificarile unei chei se fac doar cu banda cheii blocata (si cu banda id-ului entitatii blocata), deci verificarea si inserarea sunt atomice
+     */
+    private static class UniqueIndex<ID, E extends Entity<ID>> {
+        private final Function<E, ?> keyExtractor;
+        private final Map<Object, ID> ownerIds;
+        private final Map<ID, Object> indexedKeys;
+
+        UniqueIndex(Function<E, ?> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            this.ownerIds = new ConcurrentHashMap<>();
+            this.indexedKeys = new ConcurrentHashMap<>();
+        }
+
+        Object keyOf(E entity) {
+            return keyExtractor.apply(entity);
+        }
+
+        Object indexedKeyOf(ID id) {
+            return indexedKeys.get(id);
+        }
+
+        ID ownerOf(E entity) {
+            Object key = keyOf(entity);
+            return key == null ? null : ownerIds.get(key);
+        }
+
+        void put(E entity) {
+            Object key = keyOf(entity);
+            if(key != null) {
+                ownerIds.put(key, entity.getId());
+                indexedKeys.put(entity.getId(), key);
+            }
+        }
+
+        void remove(ID id) {
+            Object key = indexedKeys.remove(id);
+            if(key != null) {
+                ownerIds.remove(key, id);
+            }
+        }
+    }
+}
@@ -4,14 +4,58 @@ import domain.Entity;
 import exception.RepoException;
 import infrastructure.IRepository;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E> {
     private Map<ID, E> entities;
+    private final NavigableSet<ID> sortedIds;
+    private final List<UniqueIndex<ID, E>> uniqueIndexes;
 
+    /**
+     * Constructor public si default (implicit) al unui obiect de clasa InMemoryRepo fara indecsi de chei unice<br>
+     * Unicitatea entitatilor este verificata (ca si pana acum) comparand entitatea adaugata/modificata cu toate entitatile din repozitoriu prin metoda equals (O(n) pentru fiecare adaugare/modificare)
+     */
     public InMemoryRepo() {
         entities = new HashMap<>();
+        sortedIds = new TreeSet<>();
+        uniqueIndexes = null;
+    }
+
+    /**
+     * Constructor public al unui obiect de clasa InMemoryRepo care verifica unicitatea entitatilor prin indecsi de chei unice (O(1) pentru fiecare adaugare/modificare)<br>
+     * Fiecare extractor primeste o entitate si intoarce o cheie care trebuie sa fie unica in repozitoriu (de exemplu email-ul unui utilizator); cheile nule nu sunt indexate
+     * @param uniqueKeyExtractors lista de functii care extrag cheile unice ale unei entitati (vezi clasa UniqueKeys)
+     */
+    public InMemoryRepo(List<? extends Function<E, ?>> uniqueKeyExtractors) {
+        entities = new HashMap<>();
+        sortedIds = new TreeSet<>();
+        uniqueIndexes = new ArrayList<>();
+        for(Function<E, ?> uniqueKeyExtractor : uniqueKeyExtractors) {
+            uniqueIndexes.add(new UniqueIndex<>(uniqueKeyExtractor));
+        }
+    }
+
+    /**
+     * Metoda privata de tip boolean care verifica daca entitatea entity are o cheie unica (dupa cel putin unul dintre indecsi) comuna cu o alta entitate din repozitoriu (o entitate cu alt id decat entity)
+     * @param entity obiect de tipul E reprezentand entitatea verificata
+     * @return true daca exista o alta entitate cu o cheie unica egala, false in caz contrar
+     */
+    private boolean hasConflictingKey(E entity) {
+        for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+            ID ownerId = uniqueIndex.ownerOf(entity);
+            if(ownerId != null && !ownerId.equals(entity.getId())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -30,7 +74,12 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
             throw new RepoException("[!]Entity already exists (there is an entity with the given id)!\n");
         }
 
-        if(len() != 0) {
+        if(uniqueIndexes != null) {
+            if(hasConflictingKey(entity)) {
+                throw new RepoException("[!]Entity already exists!\n");
+            }
+        }
+        else if(len() != 0) {
             Iterable<E> allEntities = getAll();
             for(E existingEntity : allEntities) {
                 if(entity.equals(existingEntity)) {
@@ -40,6 +89,79 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
         }
 
         entities.put(entity.getId(), entity);
+        sortedIds.add(entity.getId());
+        if(uniqueIndexes != null) {
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.put(entity);
+            }
+        }
+    }
+
+    /**
+     * Metoda publica de tip void care adauga toate entitatile din colectia entities intr-o singura trecere<br>
+     * Toate entitatile sunt verificate inainte de prima inserare (id-uri si chei unice fata de repozitoriu si fata de celelalte entitati din colectie), deci adaugarea este atomica: fie sunt adaugate toate entitatile, fie niciuna; indecsii de chei unice sunt actualizati o singura data pentru fiecare entitate
+     * @param entities obiect iterabil cu entitatile (de tipul E) pe care dorim sa le adaugam
+     * @throws RepoException daca o entitate are acelasi id sau o cheie unica comuna cu o entitate din repozitoriu sau cu o alta entitate din colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin una dintre entitati este null
+     */
+    @Override
+    public void addAll(Iterable<E> entities) throws RepoException, IllegalArgumentException {
+        if(entities == null) {
+            throw new IllegalArgumentException("[!]Invalid entities (entities must not be null)!\n");
+        }
+
+        List<E> newEntities = new ArrayList<>();
+        Map<ID, E> newEntitiesById = new HashMap<>();
+        List<Map<Object, ID>> newKeys = new ArrayList<>();
+        if(uniqueIndexes != null) {
+            for(int index = 0; index < uniqueIndexes.size(); ++index) {
+                newKeys.add(new HashMap<>());
+            }
+        }
+
+        for(E entity : entities) {
+            if(entity == null) {
+                throw new IllegalArgumentException("[!]Invalid entity (entity must not be null)!\n");
+            }
+            if(this.entities.get(entity.getId()) != null || newEntitiesById.putIfAbsent(entity.getId(), entity) != null) {
+                throw new RepoException("[!]Entity already exists (there is an entity with the given id)!\n");
+            }
+
+            if(uniqueIndexes != null) {
+                if(hasConflictingKey(entity)) {
+                    throw new RepoException("[!]Entity already exists!\n");
+                }
+                for(int index = 0; index < uniqueIndexes.size(); ++index) {
+                    Object key = uniqueIndexes.get(index).keyOf(entity);
+                    if(key != null && newKeys.get(index).putIfAbsent(key, entity.getId()) != null) {
+                        throw new RepoException("[!]Entity already exists!\n");
+                    }
+                }
+            }
+            else {
+                for(E existingEntity : this.entities.values()) {
+                    if(entity.equals(existingEntity)) {
+                        throw new RepoException("[!]Entity already exists!\n");
+                    }
+                }
+                for(E newEntity : newEntities) {
+                    if(entity.equals(newEntity)) {
+                        throw new RepoException("[!]Entity already exists!\n");
+                    }
+                }
+            }
+            newEntities.add(entity);
+        }
+
+        for(E entity : newEntities) {
+            this.entities.put(entity.getId(), entity);
+            sortedIds.add(entity.getId());
+            if(uniqueIndexes != null) {
+                for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                    uniqueIndex.put(entity);
+                }
+            }
+        }
     }
 
     /**
@@ -60,13 +182,58 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
         }
 
         E removedEntity = entities.remove(id);
+        sortedIds.remove(id);
         if(removedEntity == null) {
             throw new RepoException("[!]There is no entity in the repository with the given id!\n");
         }
+        if(uniqueIndexes != null) {
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.remove(id);
+            }
+        }
 
         return removedEntity;
     }
 
+    /**
+     * Metoda publica care sterge atomic toate entitatile cu id-urile din colectia ids<br>
+     * Toate id-urile sunt verificate inainte de prima stergere, deci fie sunt sterse toate entitatile, fie niciuna
+     * @param ids obiect iterabil cu id-urile entitatilor pe care dorim sa le stergem
+     * @return lista entitatilor sterse, in ordinea id-urilor din colectie
+     * @throws RepoException daca un id nu corespunde niciunei entitati din repozitoriu sau apare de doua ori in colectie
+     * @throws IllegalArgumentException daca colectia sau cel putin unul dintre id-uri este null
+     */
+    @Override
+    public List<E> removeAll(Iterable<ID> ids) throws RepoException, IllegalArgumentException {
+        if(ids == null) {
+            throw new IllegalArgumentException("[!]Invalid ids (ids must not be null)!\n");
+        }
+
+        List<ID> removedIds = new ArrayList<>();
+        Set<ID> distinctIds = new HashSet<>();
+        for(ID id : ids) {
+            if(id == null) {
+                throw new IllegalArgumentException("[!]Invalid id (id must not be null)!\n");
+            }
+            if(!entities.containsKey(id) || !distinctIds.add(id)) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+            removedIds.add(id);
+        }
+
+        List<E> removedEntities = new ArrayList<>(removedIds.size());
+        for(ID id : removedIds) {
+            removedEntities.add(entities.remove(id));
+            sortedIds.remove(id);
+            if(uniqueIndexes != null) {
+                for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                    uniqueIndex.remove(id);
+                }
+            }
+        }
+        return removedEntities;
+    }
+
     /**
      * Metoda publica definita de tipul E (returneaza/intoarce un obiect de clasa E) care modifica un obiect entity (o entitate) din reteaua de socializare (daca acesta exista) sau arunca exceptie in cazul in care nu exista
      * @param entity obiect de tipul E (tip generic de date) pe care dorim sa il modificam/actualizam in reteaua de socializare
@@ -84,10 +251,15 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
             throw new RepoException("[!]There are no entities in the repository!\n");
         }
 
-        if(len() != 0) {
+        if(uniqueIndexes != null) {
+            if(hasConflictingKey(entity)) {
+                throw new RepoException("[!]There is a similar entity in the repository!\n");
+            }
+        }
+        else if(len() != 0) {
             Iterable<E> allEntities = getAll();
             for(E existingEntity : allEntities) {
-                if(entity.equals(existingEntity) && existingEntity.getId() != entity.getId()) {
+                if(entity.equals(existingEntity) && !existingEntity.getId().equals(entity.getId())) {
                     throw new RepoException("[!]There is a similar entity in the repository!\n");
                 }
             }
@@ -99,6 +271,12 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
         }
 
         entities.put(entity.getId(), entity);
+        if(uniqueIndexes != null) {
+            for(UniqueIndex<ID, E> uniqueIndex : uniqueIndexes) {
+                uniqueIndex.remove(entity.getId());
+                uniqueIndex.put(entity);
+            }
+        }
         return modifiedEntity;
     }
 
@@ -149,4 +327,68 @@ public class InMemoryRepo<ID, E extends Entity<ID>> implements IRepository<ID, E
 
         return entities.values();
     }
+
+    /**
+     * Metoda publica care returneaza cel mult limit entitati cu id-ul strict mai mare decat afterId, in ordinea crescatoare a id-urilor<br>
+     * Id-urile sunt memorate si intr-un arbore sortat (TreeSet), deci pagina porneste direct de la afterId in O(log n) si nu copiaza repozitoriul
+     * @param afterId id-ul dupa care incepe pagina (null pentru prima pagina)
+     * @param limit valoare numerica intreaga strict pozitiva reprezentand numarul maxim de entitati din pagina
+     * @return lista (eventual vida) cu entitatile paginii, ordonate crescator dupa id
+     * @throws IllegalArgumentException daca limit nu este strict pozitiv
+     */
+    @Override
+    public List<E> page(ID afterId, int limit) throws IllegalArgumentException {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("[!]Invalid limit (limit must be a positive integer)!\n");
+        }
+
+        List<E> page = new ArrayList<>(Math.min(limit, sortedIds.size()));
+        for(ID id : afterId == null ? sortedIds : sortedIds.tailSet(afterId, false)) {
+            if(page.size() == limit) {
+                break;
+            }
+            page.add(entities.get(id));
+        }
+        return page;
+    }
+
+    /**
+     * Clasa privata statica care reprezinta un index de chei unice: asociaza fiecarei chei id-ul entitatii care o detine<br>
+     * Pentru fiecare entitate se memoreaza si cheia cu care a fost indexata, astfel incat stergerea/reindexarea sa fie corecta chiar daca entitatea a fost modificata intre timp (in memorie) fara a trece prin repozitoriu
+     */
+    private static class UniqueIndex<ID, E extends Entity<ID>> {
+        private final Function<E, ?> keyExtractor;
+        private final Map<Object, ID> ownerIds;
+        private final Map<ID, Object> indexedKeys;
+
+        UniqueIndex(Function<E, ?> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            this.ownerIds = new HashMap<>();
+            this.indexedKeys = new HashMap<>();
+        }
+
+        Object keyOf(E entity) {
+            return keyExtractor.apply(entity);
+        }
+
+        ID ownerOf(E entity) {
+            Object key = keyExtractor.apply(entity);
+            return key == null ? null : ownerIds.get(key);
+        }
+
+        void put(E entity) {
+            Object key = keyExtractor.apply(entity);
+            if(key != null) {
+                ownerIds.put(key, entity.getId());
+                indexedKeys.put(entity.getId(), key);
+            }
+        }
+
+        void remove(ID id) {
+            Object key = indexedKeys.remove(id);
+            if(key != null) {
+                ownerIds.remove(key);
+            }
+        }
+    }
 }
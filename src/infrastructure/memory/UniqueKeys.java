@@ -0,0 +1,32 @@
+package infrastructure.memory;
+
+import domain.Friendship;
+import domain.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class UniqueKeys {
+    /**
+     * Metoda publica statica care returneaza extractorii de chei unice pentru utilizatori (obiecte de clasa User)<br>
+     * Cheile sunt email-ul, username-ul si parola, exact campurile comparate de metoda equals din clasa User (doi utilizatori cu id-uri diferite nu pot avea acelasi email, acelasi username sau aceeasi parola)
+     * @return lista de functii care primesc un utilizator si intorc cate o cheie unica a acestuia
+     */
+    public static List<Function<User, ?>> forUsers() {
+        return Arrays.asList(User::getEmail, user -> user.getCredential().getUsername(), user -> user.getCredential().getPassword());
+    }
+
+    /**
+     * Metoda publica statica care returneaza extractorii de chei unice pentru prietenii (obiecte de clasa Friendship)<br>
+     * Singura cheie este perechea neordonata de id-uri ale celor doi prieteni (cel mai mic id primul), exact relatia verificata de metoda equals din clasa Friendship
+     * @return lista de functii care primesc o prietenie si intorc cheia unica a acesteia
+     */
+    public static List<Function<Friendship, ?>> forFriendships() {
+        return List.of(friendship -> {
+            Long firstFriendId = friendship.getFirstFriendId();
+            Long secondFriendId = friendship.getSecondFriendId();
+            return firstFriendId <= secondFriendId ? Arrays.asList(firstFriendId, secondFriendId) : Arrays.asList(secondFriendId, firstFriendId);
+        });
+    }
+}
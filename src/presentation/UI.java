@@ -190,19 +190,21 @@ public class UI {
     }
 
     private void getAllUsersUI() {
-        try {
-            Iterable<User> users = superService.getAllUsers();
-
-            int numberOfUsers = superService.numberOfUsers();
-            if(numberOfUsers == 1) {
-                printSuccessMessage("[*]The only user from the social network is:");
-            }
-            else{
-                printSuccessMessage("[*]The " + numberOfUsers + " users from the social network are:");
-            }
+        int numberOfUsers = superService.numberOfUsers();
+        if(numberOfUsers == 0) {
+            printException("[!]There are no users in the social network!\n");
+            return;
+        }
+        else if(numberOfUsers == 1) {
+            printSuccessMessage("[*]The only user from the social network is:");
+        }
+        else{
+            printSuccessMessage("[*]The " + numberOfUsers + " users from the social network are:");
+        }
 
-            users.forEach(user -> printSuccessMessage(user.toString()));
-        } catch(RepoException ex) {
+        try {
+            superService.streamUsers().forEach(user -> printSuccessMessage(user.toString()));
+        } catch(IllegalStateException ex) {
             printException(ex.getMessage());
         }
     }
@@ -314,6 +316,7 @@ public class UI {
         System.out.println("[7] - print the number of communities");
         System.out.println("[8] - print the most sociable community");
         System.out.println("[9] - get all communities from the social network");
+        System.out.println("[10] - recommend new friends for a given user");
         System.out.println("*type \"menu\" to display the friendships menu");
         System.out.println("**type \"exit\" to exit the application");
     }
@@ -402,26 +405,28 @@ public class UI {
     }
 
     private void getAllFriendshipsUI() {
-        try {
-            Iterable<Friendship> friendships = superService.getAllFriendships();
-
-            int numberOfFriendships = superService.numberOfFriendships();
-            if(numberOfFriendships == 1) {
-                printSuccessMessage("[*]The only friendship from the social network is:");
-            }
-            else{
-                printSuccessMessage("[*]The " + numberOfFriendships + " friendships from the social network are:");
-            }
+        int numberOfFriendships = superService.numberOfFriendships();
+        if(numberOfFriendships == 0) {
+            printException("[!]There are no friendships in the social network!\n");
+            return;
+        }
+        else if(numberOfFriendships == 1) {
+            printSuccessMessage("[*]The only friendship from the social network is:");
+        }
+        else{
+            printSuccessMessage("[*]The " + numberOfFriendships + " friendships from the social network are:");
+        }
 
+        try {
             AtomicInteger numberOfDisplayedFriendships = new AtomicInteger();
-            friendships.forEach(friendship -> {
+            superService.streamFriendships().forEach(friendship -> {
                 if(numberOfDisplayedFriendships.getAndIncrement() > 0) {
                     System.out.println();
                 }
 
                 printSuccessMessage(friendship.toString());
             });
-        } catch(RepoException ex) {
+        } catch(IllegalStateException ex) {
             printException(ex.getMessage());
         }
     }
@@ -488,6 +493,30 @@ public class UI {
         }
     }
 
+    private void recommendFriendsUI(@NotNull Scanner scanner) {
+        try {
+            System.out.print("Introduce the id of the user: ");
+            Long userId = Long.parseLong(scanner.nextLine());
+
+            System.out.print("Prefer users from the same city/county? (y/n): ");
+            boolean weightByLocation = scanner.nextLine().trim().equalsIgnoreCase("y");
+
+            List<User> recommendations = superService.recommendFriends(userId, Constants.DEFAULT_NUMBER_OF_RECOMMENDATIONS, weightByLocation);
+            if(recommendations.isEmpty()) {
+                printSuccessMessage("[?]There are no friend recommendations for user \"" + superService.searchUser(userId).toString() + "\"!");
+            }
+            else {
+                printSuccessMessage("[?]People that user \"" + superService.searchUser(userId).toString() + "\" may know:");
+            }
+
+            recommendations.forEach(user -> printSuccessMessage(user.toString()));
+        } catch(RepoException | ServiceException ex) {
+            printException(ex.getMessage());
+        } catch(NumberFormatException ex) {
+            printException("[!]Invalid id (id must be a non negative number)!\n");
+        }
+    }
+
     private void runFriendshipsMenu() {
         System.out.println();
         printFriendshipsMenu();
@@ -528,6 +557,9 @@ public class UI {
                 case "9":
                     getAllCommunitiesUI();
                     break;
+                case "10":
+                    recommendFriendsUI(scanner);
+                    break;
                 case "menu":
                     System.out.println();
                     printFriendshipsMenu();
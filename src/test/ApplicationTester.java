@@ -1,11 +1,65 @@
 package test;
 
 import domain.*;
+import exception.RepoException;
+import exception.ServiceException;
+import exception.ValidationException;
 import validation.*;
 import infrastructure.*;
+import infrastructure.memory.InMemoryRepo;
+import infrastructure.memory.ConcurrentInMemoryRepo;
+import infrastructure.memory.AtomicIdGenerator;
+import infrastructure.file.UserFileRepo;
+import infrastructure.file.FriendshipFileRepo;
+import infrastructure.file.FileIdGenerator;
+import infrastructure.file.UserBinaryFileRepo;
+import infrastructure.file.FriendshipBinaryFileRepo;
+import infrastructure.file.CsvToBinaryConverter;
+import infrastructure.file.ParallelCsvLoader;
+import infrastructure.file.WriteBehindPolicy;
+import infrastructure.file.Durability;
+import infrastructure.file.SnapshotFile;
+import infrastructure.memory.UniqueKeys;
+import infrastructure.db.ConnectionPool;
+import infrastructure.db.UserDbRepository;
+import infrastructure.db.FriendshipDbRepository;
+import infrastructure.db.DbIdGenerator;
 import business.*;
+import utils.Constants;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Collections;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -173,7 +227,205 @@ public class ApplicationTester {
 
     @Test
     public void runTestsSocialNetworkGraph() {
+        CountingUserRepo userRepo = new CountingUserRepo();
+        user1.setId(3L);
+        user2.setId(7L);
+        user3.setId(1_000_000_000L);
+        user4.setId(42L);
+        user5.setId(5L);
+        assertDoesNotThrow(() -> {
+            userRepo.add(user1);
+            userRepo.add(user2);
+            userRepo.add(user3);
+            userRepo.add(user4);
+            userRepo.add(user5);
+        });
 
+        List<Friendship> friendships = Arrays.asList(new Friendship(1L, user1, user3, LocalDateTime.now()), new Friendship(2L, user3, user2, LocalDateTime.now()), new Friendship(3L, user4, user5, LocalDateTime.now()));
+        Iterable<User> users = assertDoesNotThrowAndReturn(userRepo::getAll);
+        int repositoryCallsBeforeQueries = userRepo.getNumberOfCalls();
+        SocialNetworkGraph graph = new SocialNetworkGraph(users, friendships);
+        assertEquals(graph.numberOfCommunities(), 2);
+
+        List<List<Long>> communities = graph.getAllCommunities();
+        assertEquals(communities.size(), 2);
+        assertEquals(communities.get(0), Arrays.asList(3L, 1_000_000_000L, 7L));
+        assertEquals(communities.get(1), Arrays.asList(5L, 42L));
+        assertEquals(userRepo.getNumberOfCalls(), repositoryCallsBeforeQueries);
+
+        SocialNetworkGraph graphWithoutFriendships = new SocialNetworkGraph(Arrays.asList(user1, user2, user3, user4, user5), new ArrayList<>());
+        assertEquals(graphWithoutFriendships.numberOfCommunities(), 5);
+        assertEquals(graphWithoutFriendships.getAllCommunities().size(), 5);
+
+        setUp();
+    }
+
+    @Test
+    public void runTestsCommunityIndex() {
+        AdjacencyIndex adjacencyIndex = new AdjacencyIndex();
+        CommunityIndex communityIndex = new CommunityIndex(adjacencyIndex);
+        for(long userId = 1L; userId <= 6L; ++userId) {
+            communityIndex.addUser(userId);
+        }
+        assertEquals(communityIndex.numberOfCommunities(), 6);
+
+        adjacencyIndex.addFriendship(1L, 2L, 1L);
+        communityIndex.addFriendship(1L, 2L);
+        adjacencyIndex.addFriendship(2L, 3L, 2L);
+        communityIndex.addFriendship(2L, 3L);
+        adjacencyIndex.addFriendship(4L, 5L, 3L);
+        communityIndex.addFriendship(4L, 5L);
+        assertEquals(communityIndex.numberOfCommunities(), 3);
+        assertTrue(communityIndex.sameCommunity(1L, 3L));
+        assertFalse(communityIndex.sameCommunity(1L, 4L));
+        assertEquals(communityIndex.communityOf(1L), communityIndex.communityOf(3L));
+
+        adjacencyIndex.removeFriendship(2L, 3L, 2L);
+        communityIndex.removeFriendship(2L, 3L);
+        assertEquals(communityIndex.numberOfCommunities(), 4);
+        assertFalse(communityIndex.sameCommunity(1L, 3L));
+
+        adjacencyIndex.addFriendship(3L, 4L, 4L);
+        communityIndex.addFriendship(3L, 4L);
+        adjacencyIndex.addFriendship(1L, 6L, 5L);
+        communityIndex.addFriendship(1L, 6L);
+        assertEquals(communityIndex.numberOfCommunities(), 2);
+
+        adjacencyIndex.removeUser(4L);
+        communityIndex.removeUser(4L);
+        assertEquals(communityIndex.numberOfCommunities(), 3);
+        assertNull(communityIndex.communityOf(4L));
+        assertFalse(communityIndex.sameCommunity(3L, 5L));
+
+        communityIndex.addUser(7L);
+        adjacencyIndex.addFriendship(7L, 5L, 6L);
+        communityIndex.addFriendship(7L, 5L);
+        assertEquals(communityIndex.numberOfCommunities(), 3);
+        assertEquals(communityIndex.getAllCommunities().size(), 3);
+    }
+
+    @Test
+    public void runTestsAdjacencyIndex() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(5L));
+        assertFalse(set.add(5L));
+        assertTrue(set.add(-7L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertEquals(set.size(), 3);
+        assertTrue(set.contains(-7L));
+        assertFalse(set.contains(6L));
+        assertTrue(set.remove(5L));
+        assertFalse(set.remove(5L));
+        assertEquals(set.size(), 2);
+        assertFalse(set.contains(5L));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(2));
+
+        Map<Long, User> users = new HashMap<>();
+        for(long userId = 1L; userId <= 4L; ++userId) {
+            users.put(userId, new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId)));
+        }
+        AdjacencyIndex adjacencyIndex = new AdjacencyIndex();
+        for(User user : users.values()) {
+            adjacencyIndex.bind(user, users::get);
+        }
+        List<User> friendListOfFirstUser = users.get(1L).getFriendList();
+        adjacencyIndex.bind(users.get(1L), users::get);
+        assertSame(users.get(1L).getFriendList(), friendListOfFirstUser);
+        assertEquals(friendListOfFirstUser.size(), 0);
+
+        adjacencyIndex.addFriendship(1L, 2L, 10L);
+        adjacencyIndex.addFriendship(1L, 3L, 11L);
+        adjacencyIndex.addFriendship(1L, 3L, 11L);
+        adjacencyIndex.addFriendship(3L, 4L, 12L);
+        assertEquals(adjacencyIndex.degree(1L), 2);
+        assertEquals(adjacencyIndex.degree(3L), 2);
+        assertTrue(adjacencyIndex.areFriends(2L, 1L));
+        assertFalse(adjacencyIndex.areFriends(2L, 3L));
+        assertEquals(Arrays.stream(adjacencyIndex.friendshipIdsOf(3L)).sorted().boxed().toList(), Arrays.asList(11L, 12L));
+        assertEquals(friendListOfFirstUser.stream().map(User::getId).sorted().toList(), Arrays.asList(2L, 3L));
+        assertTrue(friendListOfFirstUser.contains(users.get(3L)));
+        assertFalse(friendListOfFirstUser.contains(users.get(4L)));
+        assertThrows(UnsupportedOperationException.class, () -> friendListOfFirstUser.add(users.get(4L)));
+
+        User modifiedUser = new User(2L, "Modified", "Last", LocalDate.of(2000, 1, 1), "user2@domain.com", null, new Credential("user2", "pass2"));
+        users.put(2L, modifiedUser);
+        assertSame(friendListOfFirstUser.stream().filter(friend -> friend.getId() == 2L).findFirst().orElseThrow(), modifiedUser);
+
+        adjacencyIndex.removeFriendship(3L, 1L, 11L);
+        assertEquals(Arrays.stream(adjacencyIndex.friendshipIdsOf(1L)).boxed().toList(), List.of(10L));
+        assertEquals(Arrays.stream(adjacencyIndex.friendshipIdsOf(3L)).boxed().toList(), List.of(12L));
+        assertEquals(friendListOfFirstUser.stream().map(User::getId).toList(), List.of(2L));
+        long[] formerFriends = adjacencyIndex.removeUser(3L);
+        assertEquals(formerFriends.length, 1);
+        assertEquals(formerFriends[0], 4L);
+        assertEquals(users.get(4L).getFriendList().size(), 0);
+        assertEquals(adjacencyIndex.removeUser(3L).length, 0);
+        assertEquals(adjacencyIndex.friendIdsOf(3L).length, 0);
+        assertEquals(adjacencyIndex.friendshipIdsOf(3L).length, 0);
+
+        AdjacencyIndex chainIndex = new AdjacencyIndex();
+        for(long userId = 0L; userId + 1 < 100L; ++userId) {
+            chainIndex.addFriendship(userId, userId + 1, userId);
+        }
+        assertEquals(chainIndex.shortestPath(0L, 99L, 100).size(), 100);
+        assertEquals(chainIndex.shortestPath(53L, 50L, 3), Arrays.asList(53L, 52L, 51L, 50L));
+        assertTrue(chainIndex.shortestPath(0L, 99L, 10).isEmpty());
+        assertEquals(chainIndex.shortestPath(42L, 42L, 0), List.of(42L));
+        assertTrue(chainIndex.shortestPath(42L, 43L, -1).isEmpty());
+        assertTrue(chainIndex.shortestPath(42L, 20_000L, 10).isEmpty());
+        assertEquals(chainIndex.recommendFriends(50L, 3, null), Arrays.asList(48L, 52L));
+        assertEquals(chainIndex.recommendFriends(50L, 1, candidateId -> candidateId > 50L ? 1.0 : 0.0), List.of(52L));
+        assertTrue(chainIndex.recommendFriends(20_000L, 3, null).isEmpty());
+        assertTrue(chainIndex.recommendFriends(50L, 0, null).isEmpty());
+
+        AdjacencyIndex sparseIndex = new AdjacencyIndex();
+        sparseIndex.addFriendship(3L, 1_000_000_000L, 1L);
+        sparseIndex.addFriendship(1_000_000_000L, 7L, 2L);
+        sparseIndex.addFriendship(42L, 5L, 3L);
+        assertEquals(sparseIndex.shortestPath(3L, 7L, 10), Arrays.asList(3L, 1_000_000_000L, 7L));
+        assertEquals(sparseIndex.shortestPath(7L, 3L, 10), Arrays.asList(7L, 1_000_000_000L, 3L));
+        assertTrue(sparseIndex.shortestPath(3L, 7L, 1).isEmpty());
+        assertTrue(sparseIndex.shortestPath(3L, 5L, 10).isEmpty());
+        assertEquals(sparseIndex.recommendFriends(3L, 5, null), List.of(7L));
+        assertEquals(sparseIndex.recommendFriends(1_000_000_000L, 5, null), List.of());
+        assertEquals(sparseIndex.recommendFriends(42L, 5, null), List.of());
+        assertEquals(sparseIndex.recommendFriends(7L, 5, candidateId -> 0.5), List.of(3L));
+        sparseIndex.removeFriendship(42L, 5L, 3L);
+        sparseIndex.addFriendship(8L, 9L, 4L);
+        sparseIndex.addFriendship(9L, 3L, 5L);
+        assertEquals(sparseIndex.shortestPath(8L, 7L, 10), Arrays.asList(8L, 9L, 3L, 1_000_000_000L, 7L));
+        assertEquals(sparseIndex.recommendFriends(3L, 5, null), Arrays.asList(7L, 8L));
+    }
+
+    @Test
+    public void runTestsNameIndex() {
+        NameIndex nameIndex = new NameIndex();
+        nameIndex.addUser(1L, "Abdul", "Fountain");
+        nameIndex.addUser(2L, "Donna", "Meyer");
+        nameIndex.addUser(3L, "Tania", "Whiteley");
+        nameIndex.addUser(4L, "Nathan", "Browne");
+        assertEquals(nameIndex.size(), 4);
+        assertEquals(nameIndex.search("EYE", 10), List.of(2L));
+        assertEquals(nameIndex.search("fOuNt", 10), List.of(1L));
+        assertEquals(nameIndex.search("an", 10).stream().sorted().toList(), Arrays.asList(3L, 4L));
+        assertEquals(nameIndex.search("ania", 10), List.of(3L));
+        assertEquals(nameIndex.search("n", 10).stream().sorted().toList(), Arrays.asList(1L, 2L, 3L, 4L));
+        assertEquals(nameIndex.search("n", 2).size(), 2);
+        assertTrue(nameIndex.search("nnat", 10).isEmpty());
+        assertTrue(nameIndex.search("donnameyer", 10).isEmpty());
+        assertTrue(nameIndex.search("xyz", 10).isEmpty());
+
+        nameIndex.addUser(2L, "Donna", "Hartley");
+        assertEquals(nameIndex.size(), 4);
+        assertTrue(nameIndex.search("meyer", 10).isEmpty());
+        assertEquals(nameIndex.search("ley", 10).stream().sorted().toList(), Arrays.asList(2L, 3L));
+        nameIndex.removeUser(3L);
+        nameIndex.removeUser(3L);
+        assertEquals(nameIndex.size(), 3);
+        assertEquals(nameIndex.search("ley", 10), List.of(2L));
+        assertTrue(nameIndex.search("tania", 10).isEmpty());
     }
 
     @Test
@@ -182,6 +434,9 @@ public class ApplicationTester {
         runTestsUser();
         runTestsFriendship();
         runTestsSocialNetworkGraph();
+        runTestsCommunityIndex();
+        runTestsAdjacencyIndex();
+        runTestsNameIndex();
     }
 
     @Test
@@ -190,13 +445,1399 @@ public class ApplicationTester {
     }
 
     @Test
-    public void runTestsInfrastructure() {
+    public void runTestsInMemoryRepo() {
+        for(IRepository<Long, User> userRepo : Arrays.asList(new InMemoryRepo<Long, User>(), new InMemoryRepo<>(UniqueKeys.forUsers()), new ConcurrentInMemoryRepo<>(UniqueKeys.forUsers()))) {
+            User firstUser = new User(1_000L, "First", "User", LocalDate.of(2000, 1, 1), "first@domain.com", null, new Credential("first", "pass1"));
+            User secondUser = new User(2_000L, "Second", "User", LocalDate.of(2000, 1, 1), "second@domain.com", null, new Credential("second", "pass2"));
+            assertDoesNotThrow(() -> {
+                userRepo.add(firstUser);
+                userRepo.add(secondUser);
+            });
+            assertThrows(RepoException.class, () -> userRepo.add(new User(3_000L, "Third", "User", LocalDate.of(2000, 1, 1), "first@domain.com", null, new Credential("third", "pass3"))));
+            assertThrows(RepoException.class, () -> userRepo.add(new User(3_000L, "Third", "User", LocalDate.of(2000, 1, 1), "third@domain.com", null, new Credential("second", "pass3"))));
+            assertThrows(RepoException.class, () -> userRepo.add(new User(3_000L, "Third", "User", LocalDate.of(2000, 1, 1), "third@domain.com", null, new Credential("third", "pass1"))));
+            assertEquals(userRepo.len(), 2);
+
+            assertThrows(RepoException.class, () -> userRepo.modify(new User(2_000L, "Second", "User", LocalDate.of(2000, 1, 1), "first@domain.com", null, new Credential("second", "pass2"))));
+            assertDoesNotThrow(() -> userRepo.modify(new User(2_000L, "Second", "Modified", LocalDate.of(2000, 1, 1), "second@domain.com", null, new Credential("second", "pass2"))));
+            assertDoesNotThrow(() -> userRepo.modify(new User(2_000L, "Second", "Modified", LocalDate.of(2000, 1, 1), "new@domain.com", null, new Credential("second", "pass2"))));
+            assertDoesNotThrow(() -> userRepo.add(new User(3_000L, "Third", "User", LocalDate.of(2000, 1, 1), "second@domain.com", null, new Credential("third", "pass3"))));
+
+            assertDoesNotThrow(() -> userRepo.remove(1_000L));
+            assertDoesNotThrow(() -> userRepo.add(new User(4_000L, "Fourth", "User", LocalDate.of(2000, 1, 1), "first@domain.com", null, new Credential("first", "pass1"))));
+            assertEquals(userRepo.len(), 3);
+
+            User fifthUser = new User(5_000L, "Fifth", "User", LocalDate.of(2000, 1, 1), "fifth@domain.com", null, new Credential("fifth", "pass5"));
+            User sixthUser = new User(6_000L, "Sixth", "User", LocalDate.of(2000, 1, 1), "sixth@domain.com", null, new Credential("sixth", "pass6"));
+            assertThrows(IllegalArgumentException.class, () -> userRepo.addAll(null));
+            assertThrows(RepoException.class, () -> userRepo.addAll(Arrays.asList(fifthUser, new User(4_000L, "Other", "User", LocalDate.of(2000, 1, 1), "other@domain.com", null, new Credential("other", "other")))));
+            assertThrows(RepoException.class, () -> userRepo.addAll(Arrays.asList(fifthUser, new User(7_000L, "Other", "User", LocalDate.of(2000, 1, 1), "first@domain.com", null, new Credential("other", "other")))));
+            assertThrows(RepoException.class, () -> userRepo.addAll(Arrays.asList(fifthUser, sixthUser, new User(7_000L, "Other", "User", LocalDate.of(2000, 1, 1), "other@domain.com", null, new Credential("sixth", "other")))));
+            assertEquals(userRepo.len(), 3);
+            assertThrows(RepoException.class, () -> userRepo.search(5_000L));
+            assertDoesNotThrow(() -> userRepo.addAll(Arrays.asList(fifthUser, sixthUser)));
+            assertEquals(userRepo.len(), 5);
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(6_000L)).getFirstName(), "Sixth");
+
+            assertThrows(IllegalArgumentException.class, () -> userRepo.removeAll(null));
+            assertThrows(IllegalArgumentException.class, () -> userRepo.removeAll(Arrays.asList(5_000L, null)));
+            assertThrows(RepoException.class, () -> userRepo.removeAll(Arrays.asList(5_000L, 99L)));
+            assertThrows(RepoException.class, () -> userRepo.removeAll(Arrays.asList(5_000L, 5_000L)));
+            assertEquals(userRepo.len(), 5);
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.removeAll(List.of())).size(), 0);
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.removeAll(Arrays.asList(6_000L, 5_000L))), Arrays.asList(sixthUser, fifthUser));
+            assertEquals(userRepo.len(), 3);
+            assertThrows(RepoException.class, () -> userRepo.search(5_000L));
+            assertDoesNotThrow(() -> userRepo.add(new User(7_000L, "Seventh", "User", LocalDate.of(2000, 1, 1), "fifth@domain.com", null, new Credential("sixth", "pass7"))));
+
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.page(null, 2)).stream().map(User::getId).toList(), Arrays.asList(2_000L, 3_000L));
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.page(3_000L, 10)).stream().map(User::getId).toList(), Arrays.asList(4_000L, 7_000L));
+            assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.page(2_500L, 1)).stream().map(User::getId).toList(), List.of(3_000L));
+            assertTrue(assertDoesNotThrowAndReturn(() -> userRepo.page(7_000L, 10)).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> userRepo.page(null, 0));
+            assertEquals(userRepo.stream().map(User::getId).toList(), Arrays.asList(2_000L, 3_000L, 4_000L, 7_000L));
+        }
+        assertTrue(assertDoesNotThrowAndReturn(() -> new InMemoryRepo<Long, User>().page(null, 10)).isEmpty());
+        assertEquals(new ConcurrentInMemoryRepo<Long, User>(UniqueKeys.forUsers()).stream().count(), 0L);
+
+        CountingUserRepo scanningUserRepo = new CountingUserRepo();
+        assertTrue(assertDoesNotThrowAndReturn(() -> scanningUserRepo.page(null, 10)).isEmpty());
+        for(long userId : new long[]{30L, 10L, 40L, 20L}) {
+            scanningUserRepo.put(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId)));
+        }
+        assertEquals(assertDoesNotThrowAndReturn(() -> scanningUserRepo.page(null, 2)).stream().map(User::getId).toList(), Arrays.asList(10L, 20L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> scanningUserRepo.page(20L, 5)).stream().map(User::getId).toList(), Arrays.asList(30L, 40L));
+        assertEquals(scanningUserRepo.stream().map(User::getId).toList(), Arrays.asList(10L, 20L, 30L, 40L));
+        CountingUserRepo failingUserRepo = new CountingUserRepo() {
+            @Override
+            public Iterable<User> getAll() throws RepoException {
+                throw new RepoException("[!]The users could not be read!\n");
+            }
+        };
+        assertTrue(assertDoesNotThrowAndReturn(() -> failingUserRepo.page(null, 10)).isEmpty());
+        failingUserRepo.put(new User(10L, "First", "Last", LocalDate.of(2000, 1, 1), "user10@domain.com", null, new Credential("user10", "pass10")));
+        assertThrows(RepoException.class, () -> failingUserRepo.page(null, 10));
+        assertThrows(IllegalStateException.class, () -> failingUserRepo.stream().count());
+
+        user1.setId(1L);
+        user2.setId(2L);
+        user3.setId(3L);
+        for(IRepository<Long, Friendship> friendshipRepo : Arrays.asList(new InMemoryRepo<Long, Friendship>(), new InMemoryRepo<>(UniqueKeys.forFriendships()), new ConcurrentInMemoryRepo<>(UniqueKeys.forFriendships()))) {
+            assertDoesNotThrow(() -> friendshipRepo.add(new Friendship(1L, user1, user2, LocalDateTime.now())));
+            assertThrows(RepoException.class, () -> friendshipRepo.add(new Friendship(2L, user2, user1, LocalDateTime.now())));
+            assertDoesNotThrow(() -> friendshipRepo.add(new Friendship(2L, user1, user3, LocalDateTime.now())));
+            assertThrows(RepoException.class, () -> friendshipRepo.modify(new Friendship(2L, user2, user1, LocalDateTime.now())));
+            assertDoesNotThrow(() -> friendshipRepo.modify(new Friendship(2L, user3, user1, LocalDateTime.now())));
+            assertDoesNotThrow(() -> friendshipRepo.remove(1L));
+            assertDoesNotThrow(() -> friendshipRepo.add(new Friendship(3L, user2, user1, LocalDateTime.now())));
+        }
+
+        setUp();
+    }
+
+    @Test
+    public void runTestsConcurrentInMemoryRepo() {
+        final int numberOfThreads = 8;
+        final int operationsPerThread = 5_000;
+
+        IRepository<Long, User> userRepo = new ConcurrentInMemoryRepo<>(UniqueKeys.forUsers());
+        AtomicInteger successfulAdds = new AtomicInteger();
+        AtomicInteger successfulRemoves = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for(int thread = 0; thread < numberOfThreads; ++thread) {
+            Random random = new Random(thread);
+            threads.add(new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for(int operation = 0; operation < operationsPerThread; ++operation) {
+                        long userId = random.nextInt(400);
+                        int email = random.nextInt(200);
+                        User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + email + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+                        try {
+                            switch(random.nextInt(4)) {
+                                case 0, 1 -> {
+                                    userRepo.add(user);
+                                    successfulAdds.incrementAndGet();
+                                }
+                                case 2 -> userRepo.modify(user);
+                                default -> {
+                                    userRepo.remove(userId);
+                                    successfulRemoves.incrementAndGet();
+                                }
+                            }
+                        } catch(RepoException ignored) {}
+                    }
+                } catch(Throwable ex) {
+                    failures.add(ex);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        startLatch.countDown();
+        threads.forEach(thread -> assertDoesNotThrow(() -> thread.join()));
+
+        assertTrue(failures.isEmpty());
+        assertEquals(userRepo.len(), successfulAdds.get() - successfulRemoves.get());
+        Set<String> emails = new HashSet<>();
+        List<User> storedUsers = new ArrayList<>();
+        if(userRepo.len() > 0) {
+            assertDoesNotThrowAndReturn(userRepo::getAll).forEach(storedUsers::add);
+        }
+        assertEquals(userRepo.stream().map(User::getId).toList(), storedUsers.stream().map(User::getId).sorted().toList());
+        for(User user : storedUsers) {
+            assertTrue(emails.add(user.getEmail()));
+            assertThrows(RepoException.class, () -> userRepo.add(new User(1_000L + user.getId(), "Copy", "User", LocalDate.of(2000, 1, 1), user.getEmail(), null, new Credential("copy" + user.getId(), "copy" + user.getId()))));
+        }
+        for(User user : storedUsers) {
+            assertDoesNotThrow(() -> userRepo.remove(user.getId()));
+        }
+        assertEquals(userRepo.len(), 0);
+        for(int email = 0; email < 200; ++email) {
+            long userId = email;
+            User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + email + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+            assertDoesNotThrow(() -> userRepo.add(user));
+        }
+
+        User movedUser = new User(0L, "First", "Last", LocalDate.of(2000, 1, 1), "moved@domain.com", null, new Credential("user0", "pass0"));
+        assertDoesNotThrow(() -> userRepo.modify(movedUser));
+        assertDoesNotThrow(() -> userRepo.add(new User(500L, "First", "Last", LocalDate.of(2000, 1, 1), "user0@domain.com", null, new Credential("user500", "pass500"))));
+        assertThrows(RepoException.class, () -> userRepo.add(new User(501L, "First", "Last", LocalDate.of(2000, 1, 1), "moved@domain.com", null, new Credential("user501", "pass501"))));
+        assertDoesNotThrow(() -> userRepo.remove(0L));
+        assertDoesNotThrow(() -> userRepo.add(new User(501L, "First", "Last", LocalDate.of(2000, 1, 1), "moved@domain.com", null, new Credential("user501", "pass501"))));
+    }
+
+    @Test
+    public void runTestsFileRepo() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network"));
+        String userFileName = directory.resolve("users.csv").toString();
+        String friendshipFileName = directory.resolve("friendships.csv").toString();
+        assertDoesNotThrow(() -> {
+            Files.write(Paths.get(userFileName), Arrays.asList("1;Abdul;Fountain;1997-05-26;abdul_fountain@emvil.com;Strada Fabrica de Chibrituri 2;Romania;Cluj;Cluj-Napoca;abc;123", "2;Donna;Meyer;1999-08-10;donna_meyer@mailcuk.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45", "3;Tania;Whiteley;1991-01-15;tania_whiteley@nbobd.com;Strada Pascani 8;Romania;Suceava;Suceava;fgh;6789"));
+            Files.write(Paths.get(friendshipFileName), List.of("1;1;2;2015-10-25 13:30:30;ACCEPTED"));
+        });
+
+        UserFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        FriendshipFileRepo friendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipFileRepo(friendshipFileName, userRepo, true));
+        assertEquals(userRepo.len(), 3);
+        assertEquals(friendshipRepo.len(), 1);
+        assertDoesNotThrow(() -> {
+            userRepo.add(new User(4L, "Kyla", "Mcgee", LocalDate.of(1995, 3, 2), "kyla_mcgee@emvil.com", new Address("Strada Horea 12", "Romania", "Cluj", "Cluj-Napoca"), new Credential("kyla", "111")));
+            userRepo.modify(new User(2L, "Donna", "Modified", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", new Address("Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures"), new Credential("de", "45")));
+            friendshipRepo.add(new Friendship(2L, userRepo.search(3L), userRepo.search(4L), LocalDateTime.of(2020, 1, 1, 10, 0, 0)));
+            friendshipRepo.remove(1L);
+            userRepo.remove(1L);
+        });
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 3);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), 3);
+
+        UserFileRepo reloadedUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        FriendshipFileRepo reloadedFriendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipFileRepo(friendshipFileName, reloadedUserRepo, true));
+        assertEquals(reloadedUserRepo.len(), 3);
+        assertThrows(RepoException.class, () -> reloadedUserRepo.search(1L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedUserRepo.search(2L)).getLastName(), "Modified");
+        assertEquals(reloadedFriendshipRepo.len(), 1);
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedFriendshipRepo.search(2L)).getSecondFriend().getId(), 4L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedUserRepo.page(null, 2)).stream().map(User::getId).toList(), Arrays.asList(2L, 3L));
+        assertEquals(reloadedUserRepo.stream().map(User::getId).toList(), Arrays.asList(2L, 3L, 4L));
+
+        for(int modification = 0; modification < 1_500; ++modification) {
+            String lastName = "Modified" + (char)('a' + modification % 26);
+            assertDoesNotThrow(() -> reloadedUserRepo.modify(new User(3L, "Tania", lastName, LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", new Address("Strada Pascani 8", "Romania", "Suceava", "Suceava"), new Credential("fgh", "6789"))));
+        }
+        assertDoesNotThrow(reloadedUserRepo::awaitCompaction);
+        assertFalse(Files.exists(Paths.get(userFileName + ".log.compacting")));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 3);
+        assertTrue(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size() < 1_000);
+
+        UserFileRepo compactedUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        assertEquals(compactedUserRepo.len(), 3);
+        assertEquals(assertDoesNotThrowAndReturn(() -> compactedUserRepo.search(3L)).getLastName(), "Modified" + (char)('a' + 1_499 % 26));
+
+        UserFileRepo rewritingUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, false));
+        assertDoesNotThrow(() -> rewritingUserRepo.remove(4L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 2);
+        assertDoesNotThrow(() -> rewritingUserRepo.addAll(Arrays.asList(
+                new User(10L, "Bulk", "First", LocalDate.of(2000, 1, 1), "bulk_first@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk10", "pass10")),
+                new User(11L, "Bulk", "Second", LocalDate.of(2000, 1, 1), "bulk_second@domain.com", new Address("Strada Horea 2", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk11", "pass11")))));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 4);
+
+        UserFileRepo bulkUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        assertEquals(bulkUserRepo.len(), 4);
+        int numberOfLogRecords = assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size();
+        assertThrows(RepoException.class, () -> bulkUserRepo.addAll(Arrays.asList(
+                new User(12L, "Bulk", "Third", LocalDate.of(2000, 1, 1), "bulk_third@domain.com", new Address("Strada Horea 3", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk12", "pass12")),
+                new User(13L, "Bulk", "Fourth", LocalDate.of(2000, 1, 1), "bulk_third@domain.com", new Address("Strada Horea 4", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk13", "pass13")))));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), numberOfLogRecords);
+        assertDoesNotThrow(() -> bulkUserRepo.addAll(Arrays.asList(
+                new User(12L, "Bulk", "Third", LocalDate.of(2000, 1, 1), "bulk_third@domain.com", new Address("Strada Horea 3", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk12", "pass12")),
+                new User(13L, "Bulk", "Fourth", LocalDate.of(2000, 1, 1), "bulk_fourth@domain.com", new Address("Strada Horea 4", "Romania", "Cluj", "Cluj-Napoca"), new Credential("bulk13", "pass13")))));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), numberOfLogRecords + 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true)).len(), 6);
+
+        assertThrows(RepoException.class, () -> bulkUserRepo.removeAll(Arrays.asList(12L, 99L)));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), numberOfLogRecords + 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> bulkUserRepo.removeAll(Arrays.asList(12L, 13L))).size(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), numberOfLogRecords + 4);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true)).len(), 4);
+        UserFileRepo rewritingBulkUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, false));
+        assertDoesNotThrow(() -> rewritingBulkUserRepo.removeAll(Arrays.asList(10L, 11L)));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 2);
+    }
+
+    @Test
+    public void runTestsWriteBehindFileRepo() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindPolicy(-1L, 10, Durability.FLUSH));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindPolicy(10L, 0, Durability.FLUSH));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindPolicy(10L, 10, null));
+
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-write-behind"));
+        String userFileName = directory.resolve("users.csv").toString();
+        String friendshipFileName = directory.resolve("friendships.csv").toString();
+        assertDoesNotThrow(() -> {
+            Files.createFile(Paths.get(userFileName));
+            Files.createFile(Paths.get(friendshipFileName));
+        });
+        WriteBehindPolicy slowPolicy = new WriteBehindPolicy(60_000L, 16, Durability.FSYNC);
+        UserFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true, slowPolicy));
+        FriendshipFileRepo friendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipFileRepo(friendshipFileName, userRepo, true, slowPolicy));
+        assertDoesNotThrow(() -> {
+            for(long userId = 1L; userId <= 3L; ++userId) {
+                userRepo.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user" + userId, "pass" + userId)));
+            }
+            friendshipRepo.add(new Friendship(1L, userRepo.search(1L), userRepo.search(2L), LocalDateTime.of(2020, 1, 1, 10, 0, 0)));
+            userRepo.remove(3L);
+        });
+        assertEquals(userRepo.len(), 2);
+        assertFalse(Files.exists(Paths.get(userFileName + ".log")));
+
+        assertDoesNotThrow(userRepo::flush);
+        assertDoesNotThrow(friendshipRepo::flush);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), 4);
+        UserFileRepo reloadedUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        assertEquals(reloadedUserRepo.len(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FriendshipFileRepo(friendshipFileName, reloadedUserRepo, true)).len(), 1);
+
+        WriteBehindPolicy fastPolicy = new WriteBehindPolicy(0L, 4, Durability.FLUSH);
+        UserFileRepo compactingUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true, fastPolicy));
+        for(int modification = 0; modification < 1_500; ++modification) {
+            String lastName = "Modified" + modification;
+            assertDoesNotThrow(() -> compactingUserRepo.modify(new User(2L, "First", lastName, LocalDate.of(2000, 1, 1), "user2@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user2", "pass2"))));
+        }
+        assertDoesNotThrow(compactingUserRepo::flush);
+        assertDoesNotThrow(compactingUserRepo::awaitCompaction);
+        assertTrue(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size() < 1_000);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true).search(2L)).getLastName(), "Modified1499");
+
+        UserFileRepo rewritingUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, false, new WriteBehindPolicy(0L, 4, Durability.NONE)));
+        assertDoesNotThrow(() -> {
+            rewritingUserRepo.add(new User(4L, "First", "Last", LocalDate.of(2000, 1, 1), "user4@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user4", "pass4")));
+            for(int modification = 0; modification < 100; ++modification) {
+                rewritingUserRepo.modify(new User(4L, "First", "Rewritten" + modification, LocalDate.of(2000, 1, 1), "user4@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user4", "pass4")));
+            }
+            rewritingUserRepo.remove(1L);
+            rewritingUserRepo.close();
+        });
+        assertFalse(Files.exists(Paths.get(userFileName + ".tmp")));
+        List<String> rewrittenLines = assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName)));
+        assertEquals(rewrittenLines.size(), 2);
+        assertTrue(rewrittenLines.stream().anyMatch(line -> line.contains("Rewritten99")));
+
+        assertDoesNotThrow(() -> rewritingUserRepo.remove(4L));
+        assertDoesNotThrow(rewritingUserRepo::close);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), 1);
+
+        String batchedFileName = directory.resolve("batched-users.csv").toString();
+        assertDoesNotThrow(() -> Files.createFile(Paths.get(batchedFileName)));
+        UserFileRepo batchedUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(batchedFileName, true, new WriteBehindPolicy(2_000L, 100_000, Durability.FSYNC)));
+        assertDoesNotThrow(() -> {
+            for(long userId = 1L; userId <= 300L; ++userId) {
+                batchedUserRepo.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user" + userId, "pass" + userId)));
+            }
+            for(int modification = 0; modification < 900; ++modification) {
+                long userId = 1L + modification % 300;
+                batchedUserRepo.modify(new User(userId, "First", "Modified" + modification, LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user" + userId, "pass" + userId)));
+            }
+            for(long userId = 301L; userId <= 310L; ++userId) {
+                batchedUserRepo.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user" + userId, "pass" + userId)));
+            }
+            batchedUserRepo.close();
+        });
+        assertFalse(Files.exists(Paths.get(batchedFileName + ".tmp")));
+        UserFileRepo reopenedUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(batchedFileName, true));
+        assertEquals(reopenedUserRepo.len(), 310);
+        assertEquals(assertDoesNotThrowAndReturn(() -> reopenedUserRepo.search(300L)).getLastName(), "Modified899");
+        assertEquals(assertDoesNotThrowAndReturn(() -> reopenedUserRepo.search(1L)).getLastName(), "Modified600");
+    }
+
+    @Test
+    public void runTestsSnapshotFile() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-snapshot"));
+        String fileName = directory.resolve("lines.csv").toString();
+        List<Integer> items = new ArrayList<>();
+        for(int item = 0; item < 5_000; ++item) {
+            items.add(item);
+        }
+        assertDoesNotThrow(() -> SnapshotFile.write(fileName, items, item -> item + ";First;Last;2000-01-01;user" + item));
+        long snapshotLength = assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(fileName)));
+        assertTrue(snapshotLength > 2L * Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(fileName + ".crc"))).size(), 1 + (int) ((snapshotLength + Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE - 1) / Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE));
+        assertFalse(Files.exists(Paths.get(fileName + ".tmp")));
+        assertEquals(assertDoesNotThrowAndReturn(() -> SnapshotFile.recover(fileName)).size(), 0);
+
+        assertDoesNotThrow(() -> Files.write(Paths.get(fileName), "5000;First;Last;2000-01-01;user5000\n5001;Fir".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND));
+        List<String> tornTailProblems = assertDoesNotThrowAndReturn(() -> SnapshotFile.recover(fileName));
+        assertEquals(tornTailProblems.size(), 1);
+        long appendedLength = snapshotLength + "5000;First;Last;2000-01-01;user5000\n".length();
+        assertTrue(tornTailProblems.get(0).contains("at byte " + appendedLength + " (8 bytes)"));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(fileName))), appendedLength);
+        assertEquals(assertDoesNotThrowAndReturn(() -> SnapshotFile.recover(fileName)).size(), 0);
+
+        assertDoesNotThrow(() -> {
+            byte[] bytes = Files.readAllBytes(Paths.get(fileName));
+            bytes[Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE + 10] ^= 1;
+            Files.write(Paths.get(fileName), bytes);
+        });
+        String corruption = assertThrows(RepoException.class, () -> SnapshotFile.recover(fileName)).getMessage();
+        assertTrue(corruption.contains("checksum mismatch in block 1 (bytes " + Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE + "-" + (2 * Constants.SNAPSHOT_CHECKSUM_BLOCK_SIZE - 1) + ")"));
+        assertDoesNotThrow(() -> Files.write(Paths.get(fileName), Arrays.copyOf(Files.readAllBytes(Paths.get(fileName)), 100)));
+        assertTrue(assertThrows(RepoException.class, () -> SnapshotFile.recover(fileName)).getMessage().contains("the file has 100 bytes, but " + snapshotLength + " bytes were written"));
+
+        String otherFileName = directory.resolve("other.csv").toString();
+        assertDoesNotThrow(() -> {
+            SnapshotFile.write(fileName, items.subList(0, 10), item -> item + ";old");
+            SnapshotFile.write(otherFileName, items.subList(0, 20), item -> item + ";new");
+            Files.move(Paths.get(otherFileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(Paths.get(otherFileName + ".crc"), Paths.get(fileName + ".crc.tmp"));
+            Files.write(Paths.get(fileName + ".tmp"), List.of("0;unfinished"));
+        });
+        List<String> interruptedWriteProblems = assertDoesNotThrowAndReturn(() -> SnapshotFile.recover(fileName));
+        assertEquals(interruptedWriteProblems.size(), 2);
+        assertTrue(interruptedWriteProblems.get(1).contains("restored"));
+        assertFalse(Files.exists(Paths.get(fileName + ".tmp")));
+        assertFalse(Files.exists(Paths.get(fileName + ".crc.tmp")));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(fileName))).size(), 20);
+        assertEquals(assertDoesNotThrowAndReturn(() -> SnapshotFile.recover(fileName)).size(), 0);
+
+        String userFileName = directory.resolve("users.csv").toString();
+        assertDoesNotThrow(() -> Files.write(Paths.get(userFileName), Arrays.asList("1;Abdul;Fountain;1997-05-26;abdul_fountain@emvil.com;Strada Fabrica de Chibrituri 2;Romania;Cluj;Cluj-Napoca;abc;123", "2;Donna;Meyer;not-a-date;donna_meyer@mailcuk.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45")));
+        UserFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        assertEquals(userRepo.len(), 1);
+        assertDoesNotThrow(() -> {
+            userRepo.add(new User(3L, "Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", new Address("Strada Pascani 8", "Romania", "Suceava", "Suceava"), new Credential("fgh", "6789")));
+            Files.write(Paths.get(userFileName + ".log"), "A;4;Kyla".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        });
+        UserFileRepo recoveredUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        assertEquals(recoveredUserRepo.len(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName + ".log"))).size(), 1);
 
+        UserFileRepo rewritingUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, false));
+        assertDoesNotThrow(() -> rewritingUserRepo.modify(new User(1L, "Abdul", "Modified", LocalDate.of(1997, 5, 26), "abdul_fountain@emvil.com", new Address("Strada Fabrica de Chibrituri 2", "Romania", "Cluj", "Cluj-Napoca"), new Credential("abc", "123"))));
+        assertTrue(Files.exists(Paths.get(userFileName + ".crc")));
+        assertDoesNotThrow(() -> Files.write(Paths.get(userFileName), "0".getBytes(StandardCharsets.UTF_8), StandardOpenOption.WRITE));
+        assertThrows(RepoException.class, () -> new UserFileRepo(userFileName, false));
+    }
+
+    @Test
+    public void runTestsParallelCsvLoader() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-loader"));
+        String fileName = directory.resolve("lines.csv").toString();
+        assertDoesNotThrow(() -> Files.write(Paths.get(fileName), "1;Abdul;Fountain\n2;\u0218tefan;Mure\u0219an\r\n\n3;Donna;;Meyer\n4;Tania;Whiteley".getBytes(StandardCharsets.UTF_8)));
+
+        List<String> expectedLines = Arrays.asList("1|Abdul|Fountain", "2|\u0218tefan|Mure\u0219an", "3|Donna||Meyer", "4|Tania|Whiteley");
+        for(int chunkSize : new int[]{1, 7, 20, 1_000}) {
+            assertEquals(assertDoesNotThrowAndReturn(() -> ParallelCsvLoader.load(fileName, fields -> String.join("|", fields), chunkSize)), expectedLines);
+        }
+        assertEquals(assertDoesNotThrowAndReturn(() -> ParallelCsvLoader.load(fileName, fields -> fields.get(0).equals("2") ? null : fields.get(0))), Arrays.asList("1", "3", "4"));
+        assertThrows(IllegalArgumentException.class, () -> ParallelCsvLoader.load(fileName, fields -> fields, 0));
+        assertThrows(IOException.class, () -> ParallelCsvLoader.load(directory.resolve("missing.csv").toString(), fields -> fields));
+
+        assertDoesNotThrow(() -> Files.write(Paths.get(fileName), new byte[0]));
+        assertEquals(assertDoesNotThrowAndReturn(() -> ParallelCsvLoader.load(fileName, fields -> fields)).size(), 0);
+    }
+
+    @Test
+    public void runTestsBinaryFileRepo() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-binary"));
+        String userCsvFileName = directory.resolve("users.csv").toString();
+        String friendshipCsvFileName = directory.resolve("friendships.csv").toString();
+        String userFileName = directory.resolve("users.bin").toString();
+        String friendshipFileName = directory.resolve("friendships.bin").toString();
+        assertDoesNotThrow(() -> {
+            Files.write(Paths.get(userCsvFileName), Arrays.asList("1;Abdul;Fountain;1997-05-26;abdul_fountain@emvil.com;Strada Fabrica de Chibrituri 2;Romania;Cluj;Cluj-Napoca;abc;123", "2;Donna;Meyer;1999-08-10;donna_meyer@mailcuk.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45", "3;Tania;Whiteley;1991-01-15;tania_whiteley@nbobd.com;Strada Pascani 8;Romania;Suceava;Suceava;fgh;6789"));
+            Files.write(Paths.get(friendshipCsvFileName), Arrays.asList("1;1;2;2015-10-25 13:30:30;ACCEPTED", "2;2;3;2018-02-01 08:00:00;PENDING"));
+            CsvToBinaryConverter.convert(userCsvFileName, friendshipCsvFileName, userFileName, friendshipFileName);
+        });
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(friendshipFileName))), 8L + 2 * 33L);
+
+        UserBinaryFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName));
+        FriendshipBinaryFileRepo friendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, userRepo));
+        assertEquals(userRepo.len(), 3);
+        assertEquals(friendshipRepo.len(), 2);
+        User convertedUser = assertDoesNotThrowAndReturn(() -> userRepo.search(2L));
+        assertEquals(convertedUser.getLastName(), "Meyer");
+        assertEquals(convertedUser.getBirthday(), LocalDate.of(1999, 8, 10));
+        assertEquals(convertedUser.getAddress(), new Address("Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures"));
+        assertEquals(convertedUser.getCredential().getUsername(), "de");
+        Friendship convertedFriendship = assertDoesNotThrowAndReturn(() -> friendshipRepo.search(2L));
+        assertEquals(convertedFriendship.getFriendsFrom(), LocalDateTime.of(2018, 2, 1, 8, 0, 0));
+        assertEquals(convertedFriendship.getStatus(), Friendship_Status.PENDING);
+        assertSame(convertedFriendship.getSecondFriend(), assertDoesNotThrowAndReturn(() -> userRepo.search(3L)));
+
+        assertDoesNotThrow(() -> {
+            userRepo.add(new User(4L, "\u0218tefan", "Mure\u0219an", LocalDate.of(1890, 3, 2), "stefan_muresan@emvil.com", null, new Credential("stefan", "111")));
+            userRepo.modify(new User(2L, "Donna", "Modified", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", new Address("Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures"), new Credential("de", "45")));
+            friendshipRepo.add(new Friendship(3L, userRepo.search(3L), userRepo.search(4L), LocalDateTime.of(2020, 1, 1, 10, 0, 0), Friendship_Status.DECLINED));
+            friendshipRepo.remove(1L);
+            userRepo.remove(1L);
+        });
+
+        UserBinaryFileRepo reloadedUserRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName));
+        FriendshipBinaryFileRepo reloadedFriendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, reloadedUserRepo));
+        assertEquals(reloadedUserRepo.len(), 3);
+        assertThrows(RepoException.class, () -> reloadedUserRepo.search(1L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedUserRepo.search(2L)).getLastName(), "Modified");
+        User addedUser = assertDoesNotThrowAndReturn(() -> reloadedUserRepo.search(4L));
+        assertEquals(addedUser.getFirstName(), "\u0218tefan");
+        assertEquals(addedUser.getBirthday(), LocalDate.of(1890, 3, 2));
+        assertNull(addedUser.getAddress());
+        assertEquals(reloadedFriendshipRepo.len(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedFriendshipRepo.search(3L)).getStatus(), Friendship_Status.DECLINED);
+        assertEquals(reloadedUserRepo.stream().map(User::getId).toList(), Arrays.asList(2L, 3L, 4L));
+
+        assertEquals(assertDoesNotThrowAndReturn(() -> reloadedFriendshipRepo.removeAll(Arrays.asList(2L, 3L))).size(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(friendshipFileName))), 8L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, reloadedUserRepo)).len(), 0);
+
+        assertFalse(Files.exists(Paths.get(userFileName + ".conversion")));
+        assertFalse(Files.exists(Paths.get(friendshipFileName + ".conversion")));
+        assertThrows(RepoException.class, () -> new UserBinaryFileRepo(userCsvFileName));
+        assertThrows(RepoException.class, () -> new FriendshipBinaryFileRepo(userFileName, reloadedUserRepo));
+    }
+
+    @Test
+    public void runTestsIdGenerators() {
+        AtomicIdGenerator atomicIdGenerator = new AtomicIdGenerator(1L);
+        assertDoesNotThrow(() -> {
+            assertArrayEquals(atomicIdGenerator.nextIds(3), new long[]{1L, 2L, 3L});
+            assertEquals(atomicIdGenerator.nextIds(0).length, 0);
+            atomicIdGenerator.release(new long[]{1L, 2L});
+            assertEquals(atomicIdGenerator.nextId(), 4L);
+            atomicIdGenerator.release(new long[]{4L});
+            assertEquals(atomicIdGenerator.nextId(), 4L);
+        });
+        assertThrows(IllegalArgumentException.class, () -> atomicIdGenerator.nextIds(-1));
+
+        final int numberOfThreads = 8;
+        final int idsPerThread = 1_000;
+        Set<Long> concurrentIds = Collections.synchronizedSet(new HashSet<>());
+        List<Thread> threads = new ArrayList<>();
+        for(int thread = 0; thread < numberOfThreads; ++thread) {
+            threads.add(new Thread(() -> {
+                for(int id = 0; id < idsPerThread; ++id) {
+                    concurrentIds.add(assertDoesNotThrowAndReturn(atomicIdGenerator::nextId));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        threads.forEach(thread -> assertDoesNotThrow(() -> thread.join()));
+        assertEquals(concurrentIds.size(), numberOfThreads * idsPerThread);
+        assertEquals(atomicIdGenerator.peekNextId(), 5L + numberOfThreads * idsPerThread);
+
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-ids"));
+        String idFileName = directory.resolve("users.csv.id").toString();
+        IRepository<Long, User> userRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        for(long userId : new long[]{5L, 9L}) {
+            assertDoesNotThrow(() -> userRepo.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId))));
+        }
+        FileIdGenerator fileIdGenerator = assertDoesNotThrowAndReturn(() -> new FileIdGenerator(idFileName, userRepo, 10));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(idFileName))), List.of("10"));
+        assertEquals(assertDoesNotThrowAndReturn(fileIdGenerator::nextId), 10L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(idFileName))), List.of("21"));
+        assertArrayEquals(assertDoesNotThrowAndReturn(() -> fileIdGenerator.nextIds(3)), new long[]{11L, 12L, 13L});
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(idFileName))), List.of("21"));
+        fileIdGenerator.release(new long[]{12L, 13L});
+        assertEquals(assertDoesNotThrowAndReturn(fileIdGenerator::nextId), 12L);
+        assertThrows(IllegalArgumentException.class, () -> fileIdGenerator.nextIds(-1));
+        assertThrows(IllegalArgumentException.class, () -> new FileIdGenerator(idFileName, userRepo, 0));
+
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FileIdGenerator(idFileName, userRepo, 10).nextId()), 21L);
+        assertDoesNotThrow(() -> userRepo.add(new User(50L, "First", "Last", LocalDate.of(2000, 1, 1), "user50@domain.com", null, new Credential("user50", "pass50"))));
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FileIdGenerator(idFileName, userRepo, 10).nextId()), 51L);
+    }
+
+    @Test
+    public void runTestsCorruptedIdFile() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-corrupted-ids"));
+        String idFileName = directory.resolve("users.csv.id").toString();
+        IRepository<Long, User> userRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        assertDoesNotThrow(() -> userRepo.add(new User(50L, "First", "Last", LocalDate.of(2000, 1, 1), "user50@domain.com", null, new Credential("user50", "pass50"))));
+        assertDoesNotThrow(() -> Files.write(Paths.get(idFileName), List.of("corrupted")));
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FileIdGenerator(idFileName, userRepo, 10).nextId()), 51L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FileIdGenerator(idFileName, userRepo, 10).nextId()), 62L);
+    }
+
+    @Test
+    public void runTestsConnectionPool() {
+        FakeDatabase database = new FakeDatabase();
+        ConnectionPool connectionPool = new ConnectionPool(database::connect, 2, 60_000L, 50L, 1);
+
+        Connection firstConnection = assertDoesNotThrowAndReturn(connectionPool::getConnection);
+        Connection secondConnection = assertDoesNotThrowAndReturn(connectionPool::getConnection);
+        assertEquals(connectionPool.getNumberOfActiveConnections(), 2);
+        assertEquals(database.getNumberOfOpenConnections(), 2);
+        assertThrows(SQLException.class, connectionPool::getConnection);
+        assertEquals(connectionPool.getNumberOfBorrowTimeouts(), 1L);
+        assertTrue(connectionPool.getMaximumBorrowWaitNanos() >= 50_000_000L);
+
+        assertDoesNotThrow(firstConnection::close);
+        assertDoesNotThrow(firstConnection::close);
+        assertTrue(assertDoesNotThrowAndReturn(firstConnection::isClosed));
+        assertThrows(SQLException.class, () -> firstConnection.prepareStatement("SELECT COUNT(*) FROM users"));
+        assertEquals(connectionPool.getNumberOfIdleConnections(), 1);
+        assertEquals(connectionPool.getNumberOfActiveConnections(), 1);
+
+        Connection reusedConnection = assertDoesNotThrowAndReturn(connectionPool::getConnection);
+        assertEquals(connectionPool.getNumberOfCreatedConnections(), 2L);
+        assertEquals(connectionPool.getNumberOfBorrows(), 3L);
+        assertDoesNotThrow(() -> reusedConnection.setAutoCommit(false));
+        assertDoesNotThrow(reusedConnection::close);
+        assertEquals(database.getNumberOfRollbacks(), 1);
+        assertDoesNotThrow(secondConnection::close);
+
+        database.breakOpenConnections();
+        Connection freshConnection = assertDoesNotThrowAndReturn(connectionPool::getConnection);
+        assertTrue(assertDoesNotThrowAndReturn(() -> freshConnection.isValid(1)));
+        assertTrue(assertDoesNotThrowAndReturn(() -> freshConnection.getAutoCommit()));
+        assertEquals(connectionPool.getNumberOfValidationFailures(), 2L);
+        assertEquals(connectionPool.getNumberOfCreatedConnections(), 3L);
+        assertEquals(database.getNumberOfOpenConnections(), 1);
+        assertDoesNotThrow(freshConnection::close);
+        connectionPool.close();
+        assertEquals(database.getNumberOfOpenConnections(), 0);
+
+        ConnectionPool evictingConnectionPool = new ConnectionPool(database::connect, 4, 0L, 50L, 1);
+        Connection evictedConnection = assertDoesNotThrowAndReturn(evictingConnectionPool::getConnection);
+        assertDoesNotThrow(evictedConnection::close);
+        assertEquals(evictingConnectionPool.evictIdleConnections(), 1);
+        assertEquals(evictingConnectionPool.getNumberOfIdleConnections(), 0);
+        assertEquals(evictingConnectionPool.getNumberOfEvictedConnections(), 1L);
+        evictingConnectionPool.close();
+        assertThrows(SQLException.class, evictingConnectionPool::getConnection);
+
+        ConnectionPool sharedConnectionPool = new ConnectionPool(database::connect, 3, 60_000L, 5_000L, 1);
+        UserDbRepository userRepo = new UserDbRepository(sharedConnectionPool);
+        FriendshipDbRepository friendshipRepo = new FriendshipDbRepository(sharedConnectionPool);
+        database.setCount(7);
+        assertEquals(userRepo.len(), 7);
+        assertEquals(friendshipRepo.len(), 7);
+        assertEquals(sharedConnectionPool.getNumberOfBorrows(), 2L);
+        assertEquals(sharedConnectionPool.getNumberOfCreatedConnections(), 1L);
+        assertEquals(database.getNumberOfOpenStatements(), 0);
+
+        List<Thread> threads = new ArrayList<>();
+        for(int thread = 0; thread < 8; ++thread) {
+            threads.add(new Thread(() -> {
+                for(int borrow = 0; borrow < 1_000; ++borrow) {
+                    assertEquals(userRepo.len(), 7);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        threads.forEach(thread -> assertDoesNotThrow(() -> thread.join()));
+        assertEquals(sharedConnectionPool.getNumberOfBorrows(), 8_002L);
+        assertEquals(sharedConnectionPool.getNumberOfActiveConnections(), 0);
+        assertTrue(sharedConnectionPool.getNumberOfCreatedConnections() <= 3L);
+        assertEquals(sharedConnectionPool.getNumberOfBorrowTimeouts(), 0L);
+        sharedConnectionPool.close();
+        assertEquals(sharedConnectionPool.getNumberOfIdleConnections(), 0);
+        assertEquals(database.getNumberOfOpenConnections(), 0);
+    }
+
+    @Test
+    public void runTestsFriendshipDbRepository() {
+        user1.setId(1L);
+        user2.setId(2L);
+        user3.setId(3L);
+        List<Friendship> friendships = new ArrayList<>();
+        friendships.add(new Friendship(1L, user1, user2, LocalDateTime.of(2022, 11, 1, 10, 0), Friendship_Status.ACCEPTED));
+        friendships.add(new Friendship(2L, user1, user3, LocalDateTime.of(2022, 11, 2, 10, 0), Friendship_Status.PENDING));
+        friendships.add(new Friendship(3L, user3, user2, LocalDateTime.of(2022, 11, 3, 10, 0), Friendship_Status.DECLINED));
+
+        FakeDatabase database = new FakeDatabase();
+        database.setHandler((sqlCommand, parameters) -> {
+            if(sqlCommand.contains("COUNT(*)")) {
+                return List.of(Map.of("count", friendships.size()));
+            }
+            assertTrue(sqlCommand.contains("JOIN users"));
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for(Friendship friendship : friendships) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", friendship.getId());
+                row.put("friends_from", friendship.getFriendsFrom());
+                row.put("friendship_status", friendship.getStatus().toString());
+                putUserColumns(row, "first_friend_", friendship.getFirstFriend());
+                putUserColumns(row, "second_friend_", friendship.getSecondFriend());
+                rows.add(row);
+            }
+            return rows;
+        });
+        ConnectionPool connectionPool = new ConnectionPool(database::connect, 2, 60_000L, 5_000L, 1);
+        assertThrows(IllegalArgumentException.class, () -> new FriendshipDbRepository(connectionPool, 0));
+        FriendshipDbRepository friendshipRepo = new FriendshipDbRepository(connectionPool, 2);
+
+        List<Friendship> hydratedFriendships = new ArrayList<>();
+        assertDoesNotThrowAndReturn(friendshipRepo::getAll).forEach(hydratedFriendships::add);
+        hydratedFriendships.sort((first, second) -> first.getId().compareTo(second.getId()));
+        assertEquals(hydratedFriendships, friendships);
+        assertEquals(database.getExecutedStatements().size(), 1);
+        assertEquals(database.getLastFetchSize(), 2);
+        assertEquals(connectionPool.getNumberOfCreatedConnections(), 1L);
+        assertEquals(database.getNumberOfOpenStatements(), 0);
+
+        assertSame(hydratedFriendships.get(0).getFirstFriend(), hydratedFriendships.get(1).getFirstFriend());
+        assertSame(hydratedFriendships.get(0).getSecondFriend(), hydratedFriendships.get(2).getSecondFriend());
+        assertSame(hydratedFriendships.get(1).getSecondFriend(), hydratedFriendships.get(2).getFirstFriend());
+        assertEquals(hydratedFriendships.get(2).getFirstFriend(), user3);
+        assertEquals(hydratedFriendships.get(2).getFirstFriend().getCredential().getUsername(), "fgh");
+        assertEquals(hydratedFriendships.get(1).getStatus(), Friendship_Status.PENDING);
+        connectionPool.close();
+        setUp();
+    }
+
+    @Test
+    public void runTestsDbRepositoryStatements() {
+        user1.setId(1L);
+        user2.setId(2L);
+        user3.setId(3L);
+        FakeDatabase database = new FakeDatabase();
+        database.setHandler(new FakeSocialNetworkTables());
+        ConnectionPool connectionPool = new ConnectionPool(database::connect, 2, 60_000L, 5_000L, 1);
+        UserDbRepository userRepo = new UserDbRepository(connectionPool);
+        FriendshipDbRepository friendshipRepo = new FriendshipDbRepository(connectionPool);
+
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, userRepo::getAll)).getMessage(), "[!]There are no users in the social network!\n");
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, friendshipRepo::getAll)).getMessage(), "[!]There are no friendships in the social network!\n");
+        for(User user : Arrays.asList(user1, user2, user3)) {
+            assertDoesNotThrow(() -> runSingleStatement(database, () -> {
+                userRepo.add(user);
+                return null;
+            }));
+        }
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> {
+            userRepo.add(user1);
+            return null;
+        })).getMessage(), "[!]User already exists in the social network (there is an user with the given id)!\n");
+        User duplicateUsernameUser = new User(4L, "Other", "User", LocalDate.of(2000, 1, 1), "other_user@domain.com", new Address("Strada 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("abc", "secret"));
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> {
+            userRepo.add(duplicateUsernameUser);
+            return null;
+        })).getMessage(), "[!]There is already an user in the social network with the given username!\n");
+
+        database.clearExecutedStatements();
+        assertThrows(IllegalArgumentException.class, () -> userRepo.search(null));
+        assertThrows(IllegalArgumentException.class, () -> friendshipRepo.remove(-1L));
+        assertEquals(database.getExecutedStatements().size(), 0);
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> userRepo.search(1L))).getEmail(), user1.getEmail());
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> userRepo.search(99L))).getMessage(), "[!]There is no user with the given id in the social network!\n");
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, userRepo::len)), 3);
+
+        User modifiedUser = new User(2L, "Donna", "Modified", user2.getBirthday(), user2.getEmail(), user2.getAddress(), new Credential("de", "45"));
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> userRepo.modify(modifiedUser))).getLastName(), "Meyer");
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(2L)).getLastName(), "Modified");
+        User missingUser = new User(99L, "Missing", "User", LocalDate.of(2000, 1, 1), "missing@domain.com", user1.getAddress(), new Credential("missing", "missing"));
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> userRepo.modify(missingUser))).getMessage(), "[!]There is no user with the given id in the social network!\n");
+        database.clearExecutedStatements();
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.searchByName("MODIF", 10)).stream().map(User::getId).toList(), List.of(2L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.searchByName("a", 10)).stream().map(User::getId).toList(), Arrays.asList(1L, 2L, 3L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.searchByName("a", 2)).stream().map(User::getId).toList(), Arrays.asList(1L, 2L));
+        assertTrue(assertDoesNotThrowAndReturn(() -> userRepo.searchByName("%", 10)).isEmpty());
+        assertEquals(database.getExecutedStatements().size(), 4);
+        User conflictingUser = new User(2L, "Donna", "Meyer", user2.getBirthday(), user2.getEmail(), user2.getAddress(), new Credential("fgh", "45"));
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> userRepo.modify(conflictingUser))).getMessage(), "[!]There is already an user in the social network with the given username!\n");
+
+        Friendship firstFriendship = new Friendship(1L, user1, user2, LocalDateTime.of(2022, 11, 1, 10, 0), Friendship_Status.PENDING);
+        Friendship secondFriendship = new Friendship(2L, user2, user3, LocalDateTime.of(2022, 11, 2, 10, 0), Friendship_Status.ACCEPTED);
+        for(Friendship friendship : Arrays.asList(firstFriendship, secondFriendship)) {
+            assertDoesNotThrow(() -> runSingleStatement(database, () -> {
+                friendshipRepo.add(friendship);
+                return null;
+            }));
+        }
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> {
+            friendshipRepo.add(firstFriendship);
+            return null;
+        })).getMessage(), "[!]Friendship already exists in the social network (there is a friendship with the given id)!\n");
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> {
+            friendshipRepo.add(new Friendship(3L, user2, user1, LocalDateTime.of(2022, 11, 3, 10, 0), Friendship_Status.PENDING));
+            return null;
+        })).getMessage(), "[!]Friendship already exists!\n");
+
+        Friendship searchedFriendship = assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> friendshipRepo.search(1L)));
+        assertEquals(searchedFriendship, firstFriendship);
+        assertEquals(searchedFriendship.getSecondFriend().getLastName(), "Modified");
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> friendshipRepo.search(99L))).getMessage(), "[!]There is no friendship with the given id in the social network!\n");
+        Friendship acceptedFriendship = new Friendship(1L, user1, user2, firstFriendship.getFriendsFrom(), Friendship_Status.ACCEPTED);
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> friendshipRepo.modify(acceptedFriendship))).getStatus(), Friendship_Status.PENDING);
+        assertEquals(assertDoesNotThrowAndReturn(() -> friendshipRepo.search(1L)).getStatus(), Friendship_Status.ACCEPTED);
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> friendshipRepo.modify(new Friendship(99L, user1, user3, LocalDateTime.of(2022, 11, 3, 10, 0), Friendship_Status.PENDING)))).getMessage(), "[!]There is no friendship with the given id in the social network!\n");
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> friendshipRepo.modify(new Friendship(2L, user1, user2, LocalDateTime.of(2022, 11, 3, 10, 0), Friendship_Status.PENDING)))).getMessage(), "[!]Friendship already exists!\n");
+
+        List<Friendship> friendships = new ArrayList<>();
+        assertDoesNotThrowAndReturn(() -> runSingleStatement(database, friendshipRepo::getAll)).forEach(friendships::add);
+        assertEquals(friendships.size(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> friendshipRepo.remove(2L))), secondFriendship);
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> friendshipRepo.remove(2L))).getMessage(), "[!]There is no friendship with the given id in the social network!\n");
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> userRepo.remove(3L))).getEmail(), user3.getEmail());
+        assertEquals(assertThrows(RepoException.class, () -> runSingleStatement(database, () -> userRepo.remove(3L))).getMessage(), "[!]There is no user with the given id in the social network!\n");
+        List<User> users = new ArrayList<>();
+        assertDoesNotThrowAndReturn(() -> runSingleStatement(database, userRepo::getAll)).forEach(users::add);
+        assertEquals(users.size(), 2);
+
+        List<User> bulkUsers = new ArrayList<>();
+        for(long userId = 100L; userId < 100L + 2 * Constants.DATABASE_BATCH_SIZE + 500; ++userId) {
+            bulkUsers.add(new User(userId, "Bulk", "User", LocalDate.of(2000, 1, 1), "bulk" + userId + "@domain.com", user1.getAddress(), new Credential("bulk" + userId, "pass" + userId)));
+        }
+        int numberOfCommits = database.getNumberOfCommits();
+        assertDoesNotThrow(() -> userRepo.addAll(bulkUsers));
+        assertEquals(database.getNumberOfBatches(), 3);
+        assertEquals(database.getNumberOfCommits(), numberOfCommits + 1);
+        assertEquals(assertDoesNotThrowAndReturn(userRepo::len), 2 + bulkUsers.size());
+        List<User> failingBulkUsers = new ArrayList<>();
+        for(long userId = 10_000L; userId < 10_000L + 2 * Constants.DATABASE_BATCH_SIZE; ++userId) {
+            failingBulkUsers.add(new User(userId, "Bulk", "User", LocalDate.of(2000, 1, 1), "bulk" + userId + "@domain.com", user1.getAddress(), new Credential("bulk" + userId, "pass" + userId)));
+        }
+        failingBulkUsers.add(new User(1L, "Other", "User", LocalDate.of(2000, 1, 1), "other@domain.com", user1.getAddress(), new Credential("other", "other")));
+        FakeDatabase bulkDatabase = new FakeDatabase();
+        bulkDatabase.setHandler(new FakeSocialNetworkTables());
+        UserDbRepository bulkUserRepo = new UserDbRepository(new ConnectionPool(bulkDatabase::connect, 1, 60_000L, 5_000L, 1));
+        assertDoesNotThrow(() -> bulkUserRepo.add(user1));
+        int numberOfBulkCommits = bulkDatabase.getNumberOfCommits();
+        assertThrows(RepoException.class, () -> bulkUserRepo.addAll(failingBulkUsers));
+        assertEquals(bulkDatabase.getNumberOfBatches(), 3);
+        assertEquals(bulkDatabase.getNumberOfCommits(), numberOfBulkCommits);
+        assertEquals(bulkDatabase.getNumberOfRollbacks(), 1);
+        List<Friendship> bulkFriendships = new ArrayList<>();
+        for(int position = 1; position < bulkUsers.size(); ++position) {
+            bulkFriendships.add(new Friendship(100L + position, bulkUsers.get(position - 1), bulkUsers.get(position), LocalDateTime.of(2022, 11, 1, 10, 0), Friendship_Status.ACCEPTED));
+        }
+        assertDoesNotThrow(() -> friendshipRepo.addAll(bulkFriendships));
+        assertEquals(database.getNumberOfBatches(), 6);
+        assertEquals(assertDoesNotThrowAndReturn(friendshipRepo::len), 1 + bulkFriendships.size());
+        int numberOfRollbacks = database.getNumberOfRollbacks();
+        assertEquals(assertThrows(RepoException.class, () -> userRepo.addAll(List.of(new User(1L, "Other", "User", LocalDate.of(2000, 1, 1), "other@domain.com", user1.getAddress(), new Credential("other", "other"))))).getMessage(), "[!]User already exists in the social network (there is an user with the given id)!\n");
+        assertEquals(assertThrows(RepoException.class, () -> friendshipRepo.addAll(List.of(new Friendship(1L, user2, user1, LocalDateTime.of(2022, 11, 1, 10, 0), Friendship_Status.ACCEPTED)))).getMessage(), "[!]Friendship already exists in the social network (there is a friendship with the given id)!\n");
+        assertEquals(assertThrows(RepoException.class, () -> friendshipRepo.addAll(List.of(new Friendship(5_000L, user2, user1, LocalDateTime.of(2022, 11, 1, 10, 0), Friendship_Status.ACCEPTED)))).getMessage(), "[!]Friendship already exists!\n");
+        assertEquals(database.getNumberOfRollbacks(), numberOfRollbacks + 3);
+        List<Friendship> removedFriendships = assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> friendshipRepo.removeAll(Arrays.asList(101L, 102L, 103L))));
+        assertEquals(removedFriendships.stream().map(Friendship::getId).toList(), Arrays.asList(101L, 102L, 103L));
+        assertSame(removedFriendships.get(0).getSecondFriend(), removedFriendships.get(1).getFirstFriend());
+        assertEquals(assertDoesNotThrowAndReturn(friendshipRepo::len), bulkFriendships.size() - 2);
+        assertEquals(assertThrows(RepoException.class, () -> friendshipRepo.removeAll(List.of(99_999L))).getMessage(), "[!]There is no friendship with the given id in the social network!\n");
+        assertThrows(RepoException.class, () -> friendshipRepo.removeAll(Arrays.asList(104L, 104L)));
+        assertThrows(IllegalArgumentException.class, () -> friendshipRepo.removeAll(Arrays.asList(104L, -1L)));
+        assertEquals(database.getNumberOfRollbacks(), numberOfRollbacks + 4);
+        assertEquals(assertDoesNotThrowAndReturn(() -> friendshipRepo.removeAll(List.of())).size(), 0);
+
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> userRepo.page(null, 3))).stream().map(User::getId).toList(), Arrays.asList(1L, 2L, 100L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> userRepo.page(101L, 2))).stream().map(User::getId).toList(), Arrays.asList(102L, 103L));
+        List<Friendship> friendshipsPage = assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> friendshipRepo.page(null, 3)));
+        assertEquals(friendshipsPage.stream().map(Friendship::getId).toList(), Arrays.asList(1L, 104L, 105L));
+        assertSame(friendshipsPage.get(1).getSecondFriend(), friendshipsPage.get(2).getFirstFriend());
+        assertThrows(IllegalArgumentException.class, () -> userRepo.page(null, 0));
+        database.clearExecutedStatements();
+        long numberOfStreamedUsers = userRepo.stream().count();
+        assertEquals(database.getExecutedStatements().size(), (2 + bulkUsers.size()) / Constants.REPOSITORY_PAGE_SIZE + 1);
+        assertEquals(numberOfStreamedUsers, (long)assertDoesNotThrowAndReturn(userRepo::len));
+        IIdGenerator userIdGenerator = assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> DbIdGenerator.startingAfterMaximumId(connectionPool, "users")));
+        assertEquals(assertDoesNotThrowAndReturn(userIdGenerator::nextId), 100L + bulkUsers.size());
+        IIdGenerator friendshipIdGenerator = assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> DbIdGenerator.startingAfterMaximumId(connectionPool, "friendships")));
+        assertEquals(assertDoesNotThrowAndReturn(friendshipIdGenerator::nextId), 101L + bulkFriendships.size());
+        assertThrows(IllegalArgumentException.class, () -> DbIdGenerator.startingAfterMaximumId(connectionPool, "users; DROP TABLE users"));
+        DbIdGenerator sequenceIdGenerator = new DbIdGenerator(connectionPool, "users_id_seq");
+        assertArrayEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, () -> sequenceIdGenerator.nextIds(3))), new long[]{1L, 2L, 3L});
+        assertEquals(assertDoesNotThrowAndReturn(() -> runSingleStatement(database, sequenceIdGenerator::nextId)), 4L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> sequenceIdGenerator.nextIds(0)).length, 0);
+        assertThrows(IllegalArgumentException.class, () -> new DbIdGenerator(connectionPool, "Users_Seq'"));
+        assertEquals(friendshipRepo.stream().map(Friendship::getId).reduce(0L, (previousId, friendshipId) -> {
+            assertTrue(friendshipId > previousId);
+            return friendshipId;
+        }), 100L + bulkFriendships.size());
+        Connection returnedConnection = assertDoesNotThrowAndReturn(connectionPool::getConnection);
+        assertTrue(assertDoesNotThrowAndReturn(returnedConnection::getAutoCommit));
+        assertDoesNotThrow(returnedConnection::close);
+        assertEquals(connectionPool.getNumberOfCreatedConnections(), 1L);
+        assertEquals(database.getNumberOfOpenStatements(), 0);
+        connectionPool.close();
+        setUp();
+    }
+
+    @Test
+    public void runTestsCachingRepository() {
+        user1.setId(1L);
+        user2.setId(2L);
+        user3.setId(3L);
+        CountingUserRepo countingUserRepo = new CountingUserRepo();
+        countingUserRepo.put(user1);
+        countingUserRepo.put(user2);
+        assertThrows(IllegalArgumentException.class, () -> new CachingRepository<>(null, 2, User::copy));
+        assertThrows(IllegalArgumentException.class, () -> new CachingRepository<>(countingUserRepo, 2, null));
+        assertEquals(assertThrows(IllegalArgumentException.class, () -> new CachingRepository<>(countingUserRepo, 0, User::copy)).getMessage(), "[!]Invalid capacity (capacity must be a positive integer)!\n");
+        CachingRepository<Long, User> userRepo = new CachingRepository<>(countingUserRepo, 2, User::copy);
+
+        assertSame(assertDoesNotThrowAndReturn(() -> userRepo.search(1L)), user1);
+        User cachedUser = assertDoesNotThrowAndReturn(() -> userRepo.search(1L));
+        assertNotSame(cachedUser, user1);
+        assertEquals(cachedUser.getLastName(), user1.getLastName());
+        assertNotSame(cachedUser.getAddress(), user1.getAddress());
+        cachedUser.setLastName("Corrupted");
+        cachedUser.getCredential().setPassword("corrupted");
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(1L)).getLastName(), user1.getLastName());
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(1L)).getCredential().getPassword(), user1.getCredential().getPassword());
+        assertEquals(countingUserRepo.getNumberOfCalls(), 1);
+        assertEquals(userRepo.getHitCount(), 3L);
+        assertEquals(userRepo.getMissCount(), 1L);
+        assertEquals(assertThrows(RepoException.class, () -> userRepo.search(99L)).getMessage(), "[!]There is no entity in the repository with the given id!\n");
+        assertEquals(userRepo.getMissCount(), 2L);
+        assertEquals(userRepo.size(), 1);
+
+        assertEquals(userRepo.len(), 2);
+        assertEquals(userRepo.len(), 2);
+        assertEquals(countingUserRepo.getNumberOfCalls(), 3);
+        assertDoesNotThrow(() -> userRepo.add(user3));
+        assertThrows(RepoException.class, () -> userRepo.add(new User(3L, "Duplicate", "User", user3.getBirthday(), user3.getEmail(), user3.getAddress(), user3.getCredential())));
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(3L)).getFirstName(), user3.getFirstName());
+        assertEquals(userRepo.len(), 3);
+        assertEquals(countingUserRepo.getNumberOfCalls(), 6);
+        assertEquals(userRepo.size(), 2);
+
+        assertDoesNotThrow(() -> userRepo.search(2L));
+        assertEquals(userRepo.getEvictionCount(), 1L);
+        assertEquals(userRepo.size(), 2);
+        assertDoesNotThrow(() -> userRepo.search(3L));
+        assertEquals(userRepo.getHitCount(), 5L);
+        assertDoesNotThrow(() -> userRepo.search(1L));
+        assertEquals(userRepo.getMissCount(), 4L);
+        assertEquals(userRepo.getEvictionCount(), 2L);
+
+        User modifiedUser = new User(1L, "Modified", "User", user1.getBirthday(), user1.getEmail(), new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user1", "pass1"));
+        assertSame(assertDoesNotThrowAndReturn(() -> userRepo.modify(modifiedUser)), user1);
+        modifiedUser.getAddress().setCity("Changed");
+        int numberOfCalls = countingUserRepo.getNumberOfCalls();
+        User searchedUser = assertDoesNotThrowAndReturn(() -> userRepo.search(1L));
+        assertNotSame(searchedUser, modifiedUser);
+        assertEquals(searchedUser.getFirstName(), "Modified");
+        assertEquals(searchedUser.getAddress().getCity(), "Cluj-Napoca");
+        assertEquals(countingUserRepo.getNumberOfCalls(), numberOfCalls);
+        User missingUser = new User(99L, "Missing", "User", user1.getBirthday(), user1.getEmail(), user1.getAddress(), user1.getCredential());
+        assertThrows(RepoException.class, () -> userRepo.modify(missingUser));
+
+        assertSame(assertDoesNotThrowAndReturn(() -> userRepo.remove(1L)), modifiedUser);
+        assertEquals(assertThrows(RepoException.class, () -> userRepo.search(1L)).getMessage(), "[!]There is no entity in the repository with the given id!\n");
+        assertEquals(userRepo.len(), 2);
+        assertDoesNotThrow(() -> userRepo.search(3L));
+        assertDoesNotThrow(() -> userRepo.removeAll(List.of(3L)));
+        assertThrows(RepoException.class, () -> userRepo.search(3L));
+        assertEquals(userRepo.len(), 1);
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.page(null, 10)), List.of(user2));
+        userRepo.clear();
+        assertEquals(userRepo.size(), 0);
+
+        List<CachingRepository<Long, User>> racingRepoHolder = new ArrayList<>();
+        CountingUserRepo racingUserRepo = new CountingUserRepo() {
+            private boolean racedLength, racedSearch;
+
+            @Override
+            public int len() {
+                int length = super.len();
+                if(!racedLength) {
+                    racedLength = true;
+                    assertDoesNotThrow(() -> racingRepoHolder.get(0).add(user3));
+                }
+                return length;
+            }
+
+            @Override
+            public User search(Long id) throws RepoException {
+                User searchedUser = super.search(id);
+                if(!racedSearch) {
+                    racedSearch = true;
+                    assertDoesNotThrow(() -> racingRepoHolder.get(0).modify(new User(id, "Raced", "User", searchedUser.getBirthday(), searchedUser.getEmail(), searchedUser.getAddress(), searchedUser.getCredential())));
+                }
+                return searchedUser;
+            }
+        };
+        racingUserRepo.put(user2);
+        CachingRepository<Long, User> racingRepo = new CachingRepository<>(racingUserRepo, 10, User::copy);
+        racingRepoHolder.add(racingRepo);
+        assertEquals(racingRepo.len(), 1);
+        assertEquals(racingRepo.len(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> racingRepo.search(2L)).getFirstName(), user2.getFirstName());
+        assertEquals(assertDoesNotThrowAndReturn(() -> racingRepo.search(2L)).getFirstName(), "Raced");
+
+        CachingRepository<Long, User> cachingMemoryRepo = CachingUserRepository.of(new InMemoryRepo<>(UniqueKeys.forUsers()), 10);
+        assertFalse(cachingMemoryRepo instanceof IUserSearchRepository);
+        AdjacencyIndex cachingAdjacencyIndex = new AdjacencyIndex();
+        UserService cachingUserService = new UserService(new UserValidator(new AddressValidator(), new CredentialValidator()), cachingMemoryRepo, new InMemoryRepo<>(UniqueKeys.forFriendships()), new CommunityIndex(cachingAdjacencyIndex), cachingAdjacencyIndex, new AtomicIdGenerator(1L));
+        assertDoesNotThrow(() -> cachingUserService.add("Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", "Strada Pascani 8", "Romania", "Suceava", "Suceava", "fgh", "6789"));
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachingUserService.searchUserAfterName("ITEL", 10)).stream().map(User::getId).toList(), List.of(1L));
+        setUp();
+    }
+
+    @Test
+    public void runTestsInfrastructure() {
+        runTestsInMemoryRepo();
+        runTestsCachingRepository();
     }
 
     @Test
     public void runTestsBusiness() {
+        IRepository<Long, User> userRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        IRepository<Long, Friendship> friendshipRepo = new InMemoryRepo<>(UniqueKeys.forFriendships());
+        AdjacencyIndex adjacencyIndex = new AdjacencyIndex();
+        CommunityIndex communityIndex = new CommunityIndex(adjacencyIndex);
+        UserService userService = new UserService(new UserValidator(new AddressValidator(), new CredentialValidator()), userRepo, friendshipRepo, communityIndex, adjacencyIndex, new AtomicIdGenerator(1L));
+        FriendshipService friendshipService = new FriendshipService(new FriendshipValidator(), friendshipRepo, userRepo, communityIndex, adjacencyIndex, new AtomicIdGenerator(1L));
+        SuperService superService = new SuperService(userService, friendshipService);
+
+        assertDoesNotThrow(() -> {
+            superService.addUser("Abdul", "Fountain", LocalDate.of(1997, 5, 26), "abdul_fountain@emvil.com", "Strada Fabrica de Chibrituri 2", "Romania", "Cluj", "Cluj-Napoca", "abc", "123");
+            superService.addUser("Donna", "Meyer", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", "Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures", "de", "45");
+            superService.addUser("Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", "Strada Pascani 8", "Romania", "Suceava", "Suceava", "fgh", "6789");
+        });
+        assertEquals(superService.numberOfCommunities(), 3);
+
+        assertDoesNotThrow(() -> {
+            superService.addFriendship(1L, 2L);
+            superService.addFriendship(2L, 3L);
+        });
+        assertEquals(superService.numberOfCommunities(), 1);
+        assertDoesNotThrow(() -> assertTrue(superService.sameCommunity(1L, 3L)));
+
+        assertDoesNotThrow(() -> {
+            assertEquals(superService.shortestPath(1L, 3L, 5), Arrays.asList(1L, 2L, 3L));
+            assertTrue(superService.shortestPath(1L, 3L, 1).isEmpty());
+        });
+        assertThrows(ServiceException.class, () -> superService.shortestPath(1L, 3L, -1));
+        assertThrows(ServiceException.class, () -> superService.shortestPath(null, 3L, 5));
+        assertThrows(RepoException.class, () -> superService.shortestPath(1L, 99L, 5));
+
+        assertDoesNotThrow(() -> superService.removeFriendship(2L));
+        assertEquals(superService.numberOfCommunities(), 2);
+        assertDoesNotThrow(() -> assertTrue(superService.shortestPath(1L, 3L, 5).isEmpty()));
+        assertDoesNotThrow(() -> superService.addFriendship(1L, 3L));
+        assertDoesNotThrow(() -> assertEquals(superService.shortestPath(3L, 2L, 5), Arrays.asList(3L, 1L, 2L)));
+        assertDoesNotThrow(() -> superService.removeFriendship(3L));
+
+        assertDoesNotThrow(() -> superService.removeUser(2L));
+        assertEquals(superService.numberOfCommunities(), 2);
+        assertDoesNotThrow(() -> assertEquals(superService.getAllCommunities().size(), 2));
+
+        assertDoesNotThrow(() -> {
+            superService.addUser("Kyla", "Mcgee", LocalDate.of(1995, 3, 2), "kyla_mcgee@emvil.com", "Strada Horea 12", "Romania", "Cluj", "Cluj-Napoca", "kyla", "111");
+            superService.addUser("Ollie", "Rowe", LocalDate.of(1993, 7, 21), "ollie_rowe@emvil.com", "Strada Libertatii 3", "Romania", "Cluj", "Dej", "ollie", "222");
+            superService.addUser("Jamie", "Parks", LocalDate.of(1990, 11, 30), "jamie_parks@emvil.com", "Strada Unirii 5", "Romania", "Iasi", "Iasi", "jamie", "333");
+            superService.addUser("Robin", "Lane", LocalDate.of(1998, 4, 14), "robin_lane@emvil.com", "Strada Motilor 7", "Romania", "Cluj", "Cluj-Napoca", "robin", "444");
+            superService.addFriendship(1L, 4L);
+            superService.addFriendship(1L, 5L);
+            superService.addFriendship(1L, 6L);
+            superService.addFriendship(3L, 4L);
+            superService.addFriendship(3L, 5L);
+            superService.addFriendship(7L, 4L);
+            superService.addFriendship(7L, 6L);
+        });
+        assertDoesNotThrow(() -> {
+            assertEquals(superService.recommendFriends(1L, 5, false).stream().map(User::getId).toList(), Arrays.asList(3L, 7L));
+            assertEquals(superService.recommendFriends(1L, 5, true).stream().map(User::getId).toList(), Arrays.asList(7L, 3L));
+            superService.modifyUser(7L, "Robin", "Moved", "Strada Unirii 9", "Romania", "Iasi", "Iasi", "robin", "444");
+            assertEquals(superService.recommendFriends(1L, 5, true).stream().map(User::getId).toList(), Arrays.asList(3L, 7L));
+            assertEquals(superService.recommendFriends(1L, 5, false).get(1).getLastName(), "Moved");
+            superService.modifyUser(7L, "Robin", "Lane", "Strada Motilor 7", "Romania", "Cluj", "Cluj-Napoca", "robin", "444");
+            assertEquals(superService.recommendFriends(1L, 5, true).stream().map(User::getId).toList(), Arrays.asList(7L, 3L));
+            assertEquals(superService.recommendFriends(1L, 1, false).stream().map(User::getId).toList(), List.of(3L));
+            assertEquals(superService.recommendFriends(3L, 5, false).stream().map(User::getId).toList(), Arrays.asList(1L, 7L));
+            assertEquals(superService.recommendFriends(4L, 5, false).stream().map(User::getId).toList(), Arrays.asList(5L, 6L));
+            assertEquals(superService.recommendFriends(6L, 5, false).stream().map(User::getId).toList(), Arrays.asList(4L, 5L));
+
+            superService.addFriendship(1L, 3L);
+            assertEquals(superService.recommendFriends(1L, 5, false).stream().map(User::getId).toList(), List.of(7L));
+            assertEquals(superService.recommendFriends(3L, 5, false).stream().map(User::getId).toList(), Arrays.asList(6L, 7L));
+            assertEquals(superService.recommendFriends(4L, 5, false).stream().map(User::getId).toList(), Arrays.asList(5L, 6L));
+            assertEquals(superService.recommendFriends(6L, 5, false).stream().map(User::getId).toList(), Arrays.asList(4L, 3L, 5L));
+
+            superService.removeUser(7L);
+            assertTrue(superService.recommendFriends(1L, 5, false).isEmpty());
+        });
+        assertThrows(ServiceException.class, () -> superService.recommendFriends(1L, 0, false));
+        assertThrows(RepoException.class, () -> superService.recommendFriends(99L, 5, false));
+
+        assertThrows(ValidationException.class, () -> superService.addAllUsers(Arrays.asList(
+                new User("Casey", "Hart", LocalDate.of(1994, 2, 3), "casey_hart@emvil.com", new Address("Strada Avram Iancu 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("casey", "555")),
+                new User("Drew", "Holt", LocalDate.of(1996, 6, 9), "invalid email", new Address("Strada Avram Iancu 2", "Romania", "Cluj", "Cluj-Napoca"), new Credential("drew", "666")))));
+        assertEquals(superService.numberOfUsers(), 5);
+        assertDoesNotThrow(() -> superService.addAllUsers(Arrays.asList(
+                new User("Casey", "Hart", LocalDate.of(1994, 2, 3), "casey_hart@emvil.com", new Address("Strada Avram Iancu 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("casey", "555")),
+                new User("Drew", "Holt", LocalDate.of(1996, 6, 9), "drew_holt@emvil.com", new Address("Strada Avram Iancu 2", "Romania", "Cluj", "Cluj-Napoca"), new Credential("drew", "666")))));
+        assertEquals(superService.numberOfUsers(), 7);
+        assertEquals(assertDoesNotThrowAndReturn(() -> superService.searchUser(8L)).getFirstName(), "Casey");
+        assertEquals(assertDoesNotThrowAndReturn(() -> superService.searchUser(9L)).getFirstName(), "Drew");
+        assertEquals(superService.numberOfCommunities(), 3);
+
+        int numberOfFriendships = superService.numberOfFriendships();
+        assertThrows(ServiceException.class, () -> superService.addAllFriendships(List.of(Arrays.asList(8L, 8L))));
+        assertThrows(ServiceException.class, () -> superService.addAllFriendships(List.of(List.of(8L))));
+        assertThrows(RepoException.class, () -> superService.addAllFriendships(Arrays.asList(Arrays.asList(8L, 9L), Arrays.asList(8L, 99L))));
+        assertThrows(RepoException.class, () -> superService.addAllFriendships(Arrays.asList(Arrays.asList(8L, 9L), Arrays.asList(9L, 8L))));
+        assertThrows(RepoException.class, () -> superService.addAllFriendships(Arrays.asList(Arrays.asList(8L, 9L), Arrays.asList(1L, 4L))));
+        assertEquals(superService.numberOfFriendships(), numberOfFriendships);
+        assertDoesNotThrow(() -> superService.addAllFriendships(Arrays.asList(Arrays.asList(8L, 9L), Arrays.asList(9L, 1L))));
+        assertEquals(superService.numberOfFriendships(), numberOfFriendships + 2);
+        assertEquals(superService.numberOfCommunities(), 1);
+        assertDoesNotThrow(() -> {
+            assertEquals(superService.getFriendsOfUser(9L).stream().map(User::getId).sorted().toList(), Arrays.asList(1L, 8L));
+            assertEquals(superService.shortestPath(8L, 4L, 5), Arrays.asList(8L, 9L, 1L, 4L));
+            assertEquals(superService.recommendFriends(8L, 5, false).stream().map(User::getId).toList(), List.of(1L));
+        });
+
+        List<User> friendsOfDrew = assertDoesNotThrowAndReturn(() -> superService.getFriendsOfUser(9L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> superService.searchUser(9L)).getFriendList().size(), 2);
+        assertDoesNotThrow(() -> superService.modifyUser(8L, "Casey", "Hartley", "Strada Avram Iancu 1", "Romania", "Cluj", "Cluj-Napoca", "casey", "555"));
+        assertEquals(friendsOfDrew.stream().filter(friend -> friend.getId() == 8L).findFirst().orElseThrow().getLastName(), "Hartley");
+        assertEquals(assertDoesNotThrowAndReturn(() -> superService.searchUser(8L)).getFriendList().size(), 1);
+        int numberOfFriendshipsBeforeRemove = superService.numberOfFriendships();
+        assertDoesNotThrow(() -> superService.removeUser(8L));
+        assertEquals(superService.numberOfFriendships(), numberOfFriendshipsBeforeRemove - 1);
+        assertEquals(friendsOfDrew.stream().map(User::getId).toList(), List.of(1L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> superService.searchUser(9L)).getFriendList().size(), 1);
+        assertDoesNotThrow(() -> superService.removeUser(9L));
+        assertEquals(superService.numberOfFriendships(), numberOfFriendshipsBeforeRemove - 2);
+        assertDoesNotThrow(() -> assertFalse(superService.getFriendsOfUser(1L).stream().anyMatch(friend -> friend.getId() == 9L)));
+        assertThrows(RepoException.class, () -> superService.removeUser(9L));
+
+        AtomicInteger numberOfScans = new AtomicInteger();
+        AtomicInteger numberOfUserReads = new AtomicInteger();
+        IRepository<Long, User> scanningUserRepo = new InMemoryRepo<>(UniqueKeys.forUsers()) {
+            @Override
+            public Iterable<User> getAll() throws RepoException {
+                numberOfScans.incrementAndGet();
+                return super.getAll();
+            }
+
+            @Override
+            public User search(Long id) throws RepoException, IllegalArgumentException {
+                numberOfUserReads.incrementAndGet();
+                return super.search(id);
+            }
+        };
+        AtomicInteger numberOfFriendshipReads = new AtomicInteger();
+        IRepository<Long, Friendship> scanningFriendshipRepo = new InMemoryRepo<>(UniqueKeys.forFriendships()) {
+            @Override
+            public Iterable<Friendship> getAll() throws RepoException {
+                numberOfScans.incrementAndGet();
+                return super.getAll();
+            }
+
+            @Override
+            public Friendship search(Long id) throws RepoException, IllegalArgumentException {
+                numberOfFriendshipReads.incrementAndGet();
+                return super.search(id);
+            }
+        };
+        AdjacencyIndex scanningAdjacencyIndex = new AdjacencyIndex();
+        CommunityIndex scanningCommunityIndex = new CommunityIndex(scanningAdjacencyIndex);
+        UserService scanningUserService = new UserService(new UserValidator(new AddressValidator(), new CredentialValidator()), scanningUserRepo, scanningFriendshipRepo, scanningCommunityIndex, scanningAdjacencyIndex, new AtomicIdGenerator(1L));
+        FriendshipService scanningFriendshipService = new FriendshipService(new FriendshipValidator(), scanningFriendshipRepo, scanningUserRepo, scanningCommunityIndex, scanningAdjacencyIndex, new AtomicIdGenerator(1L));
+        assertDoesNotThrow(() -> {
+            scanningUserService.add("Abdul", "Fountain", LocalDate.of(1997, 5, 26), "abdul_fountain@emvil.com", "Strada Fabrica de Chibrituri 2", "Romania", "Cluj", "Cluj-Napoca", "abc", "123");
+            scanningUserService.add("Donna", "Meyer", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", "Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures", "de", "45");
+            scanningUserService.add("Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", "Strada Pascani 8", "Romania", "Suceava", "Suceava", "fgh", "6789");
+            scanningUserService.add("Nathan", "Browne", LocalDate.of(2001, 5, 30), "nathan_browne@pow-pows.com", "Strada Avram Iancu 3", "Romania", "Cluj", "Cluj-Napoca", "ij", "01");
+            scanningFriendshipService.add(1L, 2L);
+            scanningFriendshipService.add(3L, 4L);
+        });
+        Friendship unrelatedFriendship = assertDoesNotThrowAndReturn(() -> scanningFriendshipService.search(2L));
+        User unrelatedFriend = unrelatedFriendship.getFirstFriend();
+        Friendship relatedFriendship = assertDoesNotThrowAndReturn(() -> scanningFriendshipService.search(1L));
+        numberOfScans.set(0);
+        numberOfFriendshipReads.set(0);
+        User oldUser = assertDoesNotThrowAndReturn(() -> scanningUserService.modify(2L, "Donna", "Meyers", "Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures", "de", "45"));
+        assertEquals(numberOfScans.get(), 0);
+        assertEquals(numberOfFriendshipReads.get(), 0);
+        numberOfUserReads.set(0);
+        assertEquals(relatedFriendship.getSecondFriend().getLastName(), "Meyers");
+        assertEquals(relatedFriendship.getFirstFriend().getLastName(), "Fountain");
+        assertEquals(numberOfUserReads.get(), 2);
+        assertDoesNotThrow(() -> {
+            assertEquals(scanningFriendshipService.page(null, 10).get(0).getSecondFriend().getLastName(), "Meyers");
+            scanningFriendshipService.stream().forEach(friendship -> assertTrue(friendship.getFirstFriend() != null));
+        });
+        assertEquals(numberOfUserReads.get(), 4);
+        assertEquals(oldUser.getLastName(), "Meyer");
+        User newUser = assertDoesNotThrowAndReturn(() -> scanningUserService.search(2L));
+        assertSame(assertDoesNotThrowAndReturn(() -> scanningFriendshipService.search(1L)).getSecondFriend(), newUser);
+        assertSame(unrelatedFriendship.getFirstFriend(), unrelatedFriend);
+        assertSame(assertDoesNotThrowAndReturn(() -> scanningUserService.search(1L)).getFriendList().get(0), newUser);
+        assertDoesNotThrow(() -> scanningUserService.remove(1L));
+        assertEquals(relatedFriendship.getFirstFriend().getLastName(), "Fountain");
+        assertEquals(numberOfScans.get(), 0);
+        assertEquals(scanningFriendshipService.len(), 1);
+
+        assertDoesNotThrow(() -> {
+            assertEquals(scanningUserService.searchUserAfterName("MEYER").stream().map(User::getId).toList(), List.of(2L));
+            assertEquals(scanningUserService.searchUserAfterName("an", 10).stream().map(User::getId).sorted().toList(), Arrays.asList(3L, 4L));
+            assertEquals(scanningUserService.searchUserAfterName("an", 1).size(), 1);
+            assertTrue(scanningUserService.searchUserAfterName("Fountain", 10).isEmpty());
+        });
+        assertEquals(numberOfScans.get(), 0);
+        assertThrows(ServiceException.class, () -> scanningUserService.searchUserAfterName("an", 0));
+        assertThrows(ServiceException.class, () -> scanningUserService.searchUserAfterName("", 10));
+        assertThrows(ServiceException.class, () -> scanningUserService.searchUserAfterName(null, 10));
+
+        IRepository<Long, User> cachedUserRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        CachingRepository<Long, Friendship> cachedFriendshipRepo = new CachingRepository<>(new InMemoryRepo<>(UniqueKeys.forFriendships()), 10, Friendship::copy);
+        AdjacencyIndex cachedAdjacencyIndex = new AdjacencyIndex();
+        CommunityIndex cachedCommunityIndex = new CommunityIndex(cachedAdjacencyIndex);
+        UserService cachedUserService = new UserService(new UserValidator(new AddressValidator(), new CredentialValidator()), cachedUserRepo, cachedFriendshipRepo, cachedCommunityIndex, cachedAdjacencyIndex, new AtomicIdGenerator(1L));
+        FriendshipService cachedFriendshipService = new FriendshipService(new FriendshipValidator(), cachedFriendshipRepo, cachedUserRepo, cachedCommunityIndex, cachedAdjacencyIndex, new AtomicIdGenerator(1L));
+        assertDoesNotThrow(() -> {
+            cachedUserService.add("Abdul", "Fountain", LocalDate.of(1997, 5, 26), "abdul_fountain@emvil.com", "Strada Fabrica de Chibrituri 2", "Romania", "Cluj", "Cluj-Napoca", "abc", "123");
+            cachedUserService.add("Donna", "Meyer", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", "Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures", "de", "45");
+            cachedFriendshipService.add(1L, 2L);
+        });
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachedFriendshipService.search(1L)).getSecondFriend().getLastName(), "Meyer");
+        assertDoesNotThrow(() -> cachedUserService.modify(2L, "Donna", "Meyers", "Bulevardul Expozitiei 9", "Romania", "Mures", "Targu Mures", "de", "45"));
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachedFriendshipService.search(1L)).getSecondFriend().getLastName(), "Meyers");
+        assertEquals(cachedFriendshipRepo.getMissCount(), 0L);
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachedFriendshipService.page(null, 10)).get(0).getSecondFriend().getLastName(), "Meyers");
+    }
+
+    @Test
+    public void benchmarkCommunityQueries() {
+        final int numberOfUsers = 200_000;
+        final int friendsPerUser = 50;
+
+        CountingUserRepo userRepo = new CountingUserRepo();
+        Random random = new Random(42);
+        List<Friendship> friendships = new ArrayList<>();
+        for(long userId = 0L; userId < numberOfUsers; ++userId) {
+            userRepo.put(new User(userId * 1_000L, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId)));
+        }
+        List<User> allUsers = new ArrayList<>();
+        assertDoesNotThrowAndReturn(userRepo::getAll).forEach(allUsers::add);
+        for(User user : allUsers) {
+            for(int friend = 0; friend < friendsPerUser / 2; ++friend) {
+                friendships.add(new Friendship((long)friendships.size(), user, allUsers.get(random.nextInt(numberOfUsers)), LocalDateTime.now()));
+            }
+        }
+
+        int repositoryCallsBeforeQueries = userRepo.getNumberOfCalls();
+        long start = System.nanoTime();
+        SocialNetworkGraph graph = new SocialNetworkGraph(allUsers, friendships);
+        long built = System.nanoTime();
+        int numberOfCommunities = graph.numberOfCommunities();
+        long counted = System.nanoTime();
+        List<List<Long>> communities = graph.getAllCommunities();
+        long listed = System.nanoTime();
+
+        assertEquals(communities.size(), numberOfCommunities);
+        assertEquals(userRepo.getNumberOfCalls(), repositoryCallsBeforeQueries);
+        System.out.println("[benchmark] " + numberOfUsers + " users, " + friendships.size() + " friendships: build " + (built - start) / 1_000_000 + " ms, numberOfCommunities " + (counted - built) / 1_000_000 + " ms, getAllCommunities " + (listed - counted) / 1_000_000 + " ms, repository calls during queries: " + (userRepo.getNumberOfCalls() - repositoryCallsBeforeQueries));
+
+        AdjacencyIndex adjacencyIndex = new AdjacencyIndex();
+        for(Friendship friendship : friendships) {
+            if(!friendship.getFirstFriendId().equals(friendship.getSecondFriendId()) && !adjacencyIndex.areFriends(friendship.getFirstFriendId(), friendship.getSecondFriendId())) {
+                adjacencyIndex.addFriendship(friendship.getFirstFriendId(), friendship.getSecondFriendId(), friendship.getId());
+            }
+        }
+        long pathStart = System.nanoTime();
+        for(int query = 0; query < 1_000; ++query) {
+            List<Long> path = adjacencyIndex.shortestPath(allUsers.get(random.nextInt(numberOfUsers)).getId(), allUsers.get(random.nextInt(numberOfUsers)).getId(), 6);
+            assertTrue(path.size() <= 7);
+        }
+        long pathEnd = System.nanoTime();
+        System.out.println("[benchmark] 1000 shortestPath queries (bidirectional BFS, maxDepth 6): " + (pathEnd - pathStart) / 1_000 / 1_000 + " us/query on average");
+        long recommendationStart = System.nanoTime();
+        for(int query = 0; query < 1_000; ++query) {
+            assertTrue(adjacencyIndex.recommendFriends(allUsers.get(random.nextInt(numberOfUsers)).getId(), 10, null).size() <= 10);
+        }
+        long recommendationEnd = System.nanoTime();
+        System.out.println("[benchmark] 1000 recommendFriends queries (top 10): " + (recommendationEnd - recommendationStart) / 1_000 / 1_000 + " us/query on average");
+    }
+
+    @Test
+    public void benchmarkInMemoryRepoBulkLoad() {
+        final int numberOfUsers = 100_000;
+
+        IRepository<Long, User> userRepo = new InMemoryRepo<>(UniqueKeys.forUsers());
+        long start = System.nanoTime();
+        for(long userId = 0L; userId < numberOfUsers; ++userId) {
+            User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+            assertDoesNotThrow(() -> userRepo.add(user));
+        }
+        long end = System.nanoTime();
+
+        assertEquals(userRepo.len(), numberOfUsers);
+        System.out.println("[benchmark] " + numberOfUsers + " users added to an indexed InMemoryRepo in " + (end - start) / 1_000_000 + " ms");
+    }
+
+    @Test
+    public void benchmarkParallelCsvLoader() {
+        final int numberOfLines = 1_000_000;
+
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-benchmark"));
+        String fileName = directory.resolve("friendships.csv").toString();
+        Random random = new Random(13);
+        List<String> lines = new ArrayList<>();
+        for(int line = 1; line <= numberOfLines; ++line) {
+            lines.add(line + ";" + (1 + random.nextInt(100_000)) + ";" + (1 + random.nextInt(100_000)) + ";2015-10-25 13:30:30;ACCEPTED");
+        }
+        assertDoesNotThrow(() -> Files.write(Paths.get(fileName), lines));
+
+        Function<List<String>, long[]> lineParser = fields -> new long[]{Long.parseLong(fields.get(0)), Long.parseLong(fields.get(1)), Long.parseLong(fields.get(2)), LocalDateTime.parse(fields.get(3), Constants.DATE_TIME_FORMATTER).getYear()};
+        for(int round = 0; round < 3; ++round) {
+            long scannerStart = System.nanoTime();
+            List<long[]> scannerRows = new ArrayList<>();
+            assertDoesNotThrow(() -> {
+                Scanner scanner = new Scanner(new File(fileName));
+                while(scanner.hasNextLine()) {
+                    scannerRows.add(lineParser.apply(Arrays.asList(scanner.nextLine().split(";"))));
+                }
+                scanner.close();
+            });
+            long scannerEnd = System.nanoTime();
+            List<long[]> parallelRows = assertDoesNotThrowAndReturn(() -> ParallelCsvLoader.load(fileName, lineParser));
+            long parallelEnd = System.nanoTime();
 
+            assertEquals(scannerRows.size(), numberOfLines);
+            assertEquals(parallelRows.size(), numberOfLines);
+            System.out.println("[benchmark] round " + (round + 1) + ": " + numberOfLines + " CSV lines parsed with Scanner + String.split in " + (scannerEnd - scannerStart) / 1_000_000 + " ms, with ParallelCsvLoader (" + ForkJoinPool.getCommonPoolParallelism() + " workers) in " + (parallelEnd - scannerEnd) / 1_000_000 + " ms");
+        }
+    }
+
+    @Test
+    public void benchmarkBinaryFileRepoLoad() {
+        final int numberOfUsers = 10_000;
+        final int numberOfFriendships = 1_000_000;
+
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-benchmark"));
+        String userCsvFileName = directory.resolve("users.csv").toString();
+        String friendshipCsvFileName = directory.resolve("friendships.csv").toString();
+        Random random = new Random(11);
+        List<String> userLines = new ArrayList<>();
+        for(int userId = 1; userId <= numberOfUsers; ++userId) {
+            userLines.add(userId + ";First;Last;2000-01-01;user" + userId + "@domain.com;Strada Horea 1;Romania;Cluj;Cluj-Napoca;user" + userId + ";pass" + userId);
+        }
+        List<String> friendshipLines = new ArrayList<>();
+        Set<Long> pairs = new HashSet<>();
+        while(friendshipLines.size() < numberOfFriendships) {
+            int firstFriendId = 1 + random.nextInt(numberOfUsers);
+            int secondFriendId = 1 + random.nextInt(numberOfUsers);
+            if(firstFriendId < secondFriendId && pairs.add((long) firstFriendId * numberOfUsers + secondFriendId)) {
+                friendshipLines.add((friendshipLines.size() + 1) + ";" + firstFriendId + ";" + secondFriendId + ";2015-10-25 13:30:30;ACCEPTED");
+            }
+        }
+        assertDoesNotThrow(() -> {
+            Files.write(Paths.get(userCsvFileName), userLines);
+            Files.write(Paths.get(friendshipCsvFileName), friendshipLines);
+            CsvToBinaryConverter.convert(userCsvFileName, friendshipCsvFileName, directory.resolve("users.bin").toString(), directory.resolve("friendships.bin").toString());
+        });
+
+        long csvStart = System.nanoTime();
+        UserFileRepo csvUserRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userCsvFileName, false));
+        FriendshipFileRepo csvFriendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipFileRepo(friendshipCsvFileName, csvUserRepo, false));
+        long csvEnd = System.nanoTime();
+        UserBinaryFileRepo binaryUserRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(directory.resolve("users.bin").toString()));
+        FriendshipBinaryFileRepo binaryFriendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(directory.resolve("friendships.bin").toString(), binaryUserRepo));
+        long binaryEnd = System.nanoTime();
+
+        assertEquals(csvFriendshipRepo.len(), numberOfFriendships);
+        assertEquals(binaryFriendshipRepo.len(), numberOfFriendships);
+        System.out.println("[benchmark] " + numberOfUsers + " users and " + numberOfFriendships + " friendships loaded from CSV in " + (csvEnd - csvStart) / 1_000_000 + " ms, from memory-mapped binary files in " + (binaryEnd - csvEnd) / 1_000_000 + " ms");
+    }
+
+    @Test
+    public void benchmarkWriteBehindFileRepo() {
+        final int numberOfUsers = 100_000;
+        final int numberOfModifications = 20;
+
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-benchmark"));
+        List<User> users = new ArrayList<>();
+        for(long userId = 1L; userId <= numberOfUsers; ++userId) {
+            users.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", new Address("Strada Horea 1", "Romania", "Cluj", "Cluj-Napoca"), new Credential("user" + userId, "pass" + userId)));
+        }
+
+        for(WriteBehindPolicy policy : Arrays.asList(null, new WriteBehindPolicy(Constants.FILE_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS, Constants.FILE_WRITE_BEHIND_QUEUE_CAPACITY, Durability.FLUSH))) {
+            String userFileName = directory.resolve(policy == null ? "sync.csv" : "write-behind.csv").toString();
+            assertDoesNotThrow(() -> Files.createFile(Paths.get(userFileName)));
+            UserFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, false, policy));
+            long start = System.nanoTime();
+            assertDoesNotThrow(() -> userRepo.addAll(users));
+            for(int modification = 0; modification < numberOfModifications; ++modification) {
+                User user = users.get(modification);
+                assertDoesNotThrow(() -> userRepo.modify(new User(user.getId(), "First", "Modified", user.getBirthday(), user.getEmail(), user.getAddress(), user.getCredential())));
+            }
+            long returned = System.nanoTime();
+            assertDoesNotThrow(userRepo::close);
+            long persisted = System.nanoTime();
+
+            assertEquals(assertDoesNotThrowAndReturn(() -> Files.readAllLines(Paths.get(userFileName))).size(), numberOfUsers);
+            System.out.println("[benchmark] " + (policy == null ? "synchronous" : "write-behind") + " rewriting file repo: addAll(" + numberOfUsers + ") + " + numberOfModifications + " modify calls returned to the caller in " + (returned - start) / 1_000_000 + " ms, everything on disk after " + (persisted - start) / 1_000_000 + " ms");
+        }
+    }
+
+    @Test
+    public void benchmarkNameSearch() {
+        final int numberOfUsers = 200_000;
+        final int numberOfQueries = 1_000;
+        final String[] syllables = {"an", "ber", "cor", "dan", "el", "fin", "gor", "hal", "ion", "jul", "kar", "lis", "mar", "nor", "ost", "pet", "ran", "sil", "tom", "val"};
+
+        Random random = new Random(7);
+        NameIndex nameIndex = new NameIndex();
+        long start = System.nanoTime();
+        for(long userId = 0L; userId < numberOfUsers; ++userId) {
+            String firstName = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)];
+            String lastName = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] + "escu";
+            nameIndex.addUser(userId, firstName, lastName);
+        }
+        long built = System.nanoTime();
+        int numberOfResults = 0;
+        for(int query = 0; query < numberOfQueries; ++query) {
+            numberOfResults += nameIndex.search(syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)], 20).size();
+        }
+        long searched = System.nanoTime();
+
+        assertEquals(nameIndex.size(), numberOfUsers);
+        System.out.println("[benchmark] " + numberOfUsers + " names indexed in " + (built - start) / 1_000_000 + " ms, " + numberOfQueries + " substring queries (limit 20, " + numberOfResults + " results): " + (searched - built) / 1_000 / numberOfQueries + " us/query on average");
+    }
+
+    @Test
+    public void benchmarkConcurrentInMemoryRepoReads() {
+        final int numberOfUsers = 100_000;
+        final int searchesPerThread = 2_000_000;
+
+        IRepository<Long, User> userRepo = new ConcurrentInMemoryRepo<>(UniqueKeys.forUsers());
+        for(long userId = 0L; userId < numberOfUsers; ++userId) {
+            User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+            assertDoesNotThrow(() -> userRepo.add(user));
+        }
+
+        for(int numberOfThreads = 1; numberOfThreads <= Runtime.getRuntime().availableProcessors(); numberOfThreads *= 2) {
+            List<Thread> threads = new ArrayList<>();
+            for(int thread = 0; thread < numberOfThreads; ++thread) {
+                Random random = new Random(thread);
+                threads.add(new Thread(() -> {
+                    for(int search = 0; search < searchesPerThread; ++search) {
+                        assertDoesNotThrow(() -> userRepo.search((long)random.nextInt(numberOfUsers)));
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            threads.forEach(Thread::start);
+            threads.forEach(thread -> assertDoesNotThrow(() -> thread.join()));
+            long end = System.nanoTime();
+            System.out.println("[benchmark] " + numberOfThreads + " reader threads: " + (long)numberOfThreads * searchesPerThread * 1_000L / Math.max(1L, (end - start) / 1_000_000) + " searches/s");
+        }
     }
 
     @Test
@@ -206,4 +1847,795 @@ public class ApplicationTester {
         runTestsInfrastructure();
         runTestsBusiness();
     }
+
+    /**
+     * Testele lente nu fac parte din runAllTests, care este rulat la fiecare pornire a aplicatiei: verificarile pe structuri mari sau generate aleator (comparate cu implementari directe), testele concurente (mai multe fire de executie), cele care scriu si citesc fisiere pe disc, cele care asteapta expirarea conexiunilor din pool si cele care numara instructiunile trimise bazei de date false
+     */
+    @Test
+    public void runSlowTests() {
+        runTestsSocialNetworkGraphChain();
+        runTestsCommunityIndexRandomized();
+        runTestsAdjacencyIndexRandomized();
+        runTestsConcurrentInMemoryRepo();
+        runTestsIdGenerators();
+        runTestsFileRepo();
+        runTestsParallelCsvLoader();
+        runTestsBinaryFileRepo();
+        runTestsConnectionPool();
+        runTestsFriendshipDbRepository();
+        runTestsDbRepositoryStatements();
+        runTestsCachingDbRepository();
+    }
+
+    private void runTestsCachingDbRepository() {
+        user1.setId(1L);
+        user2.setId(2L);
+        user3.setId(3L);
+        FakeDatabase database = new FakeDatabase();
+        database.setHandler(new FakeSocialNetworkTables());
+        ConnectionPool connectionPool = new ConnectionPool(database::connect, 2, 60_000L, 5_000L, 1);
+        CachingUserRepository cachingUserRepo = new CachingUserRepository(new UserDbRepository(connectionPool), 10);
+        for(User user : Arrays.asList(user1, user2, user3)) {
+            assertDoesNotThrow(() -> runSingleStatement(database, () -> {
+                cachingUserRepo.add(user);
+                return null;
+            }));
+        }
+        database.clearExecutedStatements();
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachingUserRepo.search(2L)).getEmail(), user2.getEmail());
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachingUserRepo.search(3L)).getEmail(), user3.getEmail());
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachingUserRepo.len()), 3);
+        assertEquals(assertDoesNotThrowAndReturn(() -> cachingUserRepo.len()), 3);
+        assertEquals(database.getExecutedStatements().size(), 1);
+        assertEquals(cachingUserRepo.getHitCount(), 2L);
+        assertEquals(cachingUserRepo.getMissCount(), 0L);
+        assertTrue(cachingUserRepo instanceof IUserSearchRepository);
+        assertTrue(CachingUserRepository.of(new UserDbRepository(connectionPool), 10) instanceof IUserSearchRepository);
+        connectionPool.close();
+        setUp();
+    }
+
+    private void runTestsSocialNetworkGraphChain() {
+        List<User> chainUsers = new ArrayList<>();
+        List<Friendship> chainFriendships = new ArrayList<>();
+        for(long userId = 0L; userId < 10_000L; ++userId) {
+            User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+            chainUsers.add(user);
+            if(userId > 0L) {
+                chainFriendships.add(new Friendship(userId, chainUsers.get((int)userId - 1), user, LocalDateTime.now()));
+            }
+        }
+        SocialNetworkGraph chainGraph = new SocialNetworkGraph(chainUsers, chainFriendships);
+        int[] chainResults = new int[2];
+        Thread smallStackThread = new Thread(null, () -> {
+            chainResults[0] = chainGraph.numberOfCommunities();
+            chainResults[1] = chainGraph.getAllCommunities().get(0).size();
+        }, "small-stack-traversal", 32 * 1024);
+        smallStackThread.start();
+        assertDoesNotThrow(() -> smallStackThread.join());
+        assertEquals(chainResults[0], 1);
+        assertEquals(chainResults[1], 10_000);
+        assertEquals(chainGraph.numberOfCommunities(), 1);
+        assertEquals(chainGraph.getAllCommunities().get(0).size(), 10_000);
+    }
+
+    private void runTestsCommunityIndexRandomized() {
+        Random random = new Random(17);
+        AdjacencyIndex randomAdjacencyIndex = new AdjacencyIndex();
+        CommunityIndex randomIndex = new CommunityIndex(randomAdjacencyIndex);
+        List<User> users = new ArrayList<>();
+        List<Friendship> friendships = new ArrayList<>();
+        for(long userId = 0L; userId < 200L; ++userId) {
+            User user = new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId));
+            users.add(user);
+            randomIndex.addUser(userId);
+        }
+        for(int step = 0; step < 2000; ++step) {
+            if(friendships.isEmpty() || random.nextInt(3) != 0) {
+                User firstUser = users.get(random.nextInt(users.size()));
+                User secondUser = users.get(random.nextInt(users.size()));
+                if(!firstUser.equals(secondUser) && !randomAdjacencyIndex.areFriends(firstUser.getId(), secondUser.getId())) {
+                    friendships.add(new Friendship((long)step, firstUser, secondUser, LocalDateTime.now()));
+                    randomAdjacencyIndex.addFriendship(firstUser.getId(), secondUser.getId(), step);
+                    randomIndex.addFriendship(firstUser.getId(), secondUser.getId());
+                }
+            }
+            else {
+                Friendship removedFriendship = friendships.remove(random.nextInt(friendships.size()));
+                randomAdjacencyIndex.removeFriendship(removedFriendship.getFirstFriend().getId(), removedFriendship.getSecondFriend().getId(), removedFriendship.getId());
+                randomIndex.removeFriendship(removedFriendship.getFirstFriend().getId(), removedFriendship.getSecondFriend().getId());
+            }
+
+            if(step % 100 == 0) {
+                SocialNetworkGraph randomGraph = new SocialNetworkGraph(users, friendships);
+                assertEquals(randomGraph.numberOfCommunities(), randomIndex.numberOfCommunities());
+                assertEquals(randomGraph.getAllCommunities().size(), randomIndex.getAllCommunities().size());
+            }
+        }
+    }
+
+    private void runTestsAdjacencyIndexRandomized() {
+        Random random = new Random(23);
+        LongHashSet randomSet = new LongHashSet();
+        Set<Long> expectedSet = new HashSet<>();
+        for(int step = 0; step < 20_000; ++step) {
+            long value = random.nextInt(512) * 1024L;
+            if(random.nextBoolean()) {
+                assertEquals(randomSet.add(value), expectedSet.add(value));
+            }
+            else {
+                assertEquals(randomSet.remove(value), expectedSet.remove(value));
+            }
+            assertEquals(randomSet.size(), expectedSet.size());
+        }
+        Set<Long> actualSet = new HashSet<>();
+        for(long value : randomSet.toArray()) {
+            actualSet.add(value);
+        }
+        assertEquals(actualSet, expectedSet);
+
+        Random pathRandom = new Random(29);
+        AdjacencyIndex randomIndex = new AdjacencyIndex();
+        List<User> randomUsers = new ArrayList<>();
+        List<Friendship> randomFriendships = new ArrayList<>();
+        for(long userId = 0L; userId < 200L; ++userId) {
+            randomUsers.add(new User(userId, "First", "Last", LocalDate.of(2000, 1, 1), "user" + userId + "@domain.com", null, new Credential("user" + userId, "pass" + userId)));
+        }
+        for(int step = 0; step < 2000; ++step) {
+            if(randomFriendships.isEmpty() || pathRandom.nextInt(3) != 0) {
+                User firstUser = randomUsers.get(pathRandom.nextInt(randomUsers.size()));
+                User secondUser = randomUsers.get(pathRandom.nextInt(randomUsers.size()));
+                if(!firstUser.equals(secondUser) && !randomIndex.areFriends(firstUser.getId(), secondUser.getId())) {
+                    randomFriendships.add(new Friendship((long)step, firstUser, secondUser, LocalDateTime.now()));
+                    randomIndex.addFriendship(firstUser.getId(), secondUser.getId(), step);
+                }
+            }
+            else {
+                Friendship removedFriendship = randomFriendships.remove(pathRandom.nextInt(randomFriendships.size()));
+                randomIndex.removeFriendship(removedFriendship.getFirstFriend().getId(), removedFriendship.getSecondFriend().getId(), removedFriendship.getId());
+            }
+
+            if(step % 100 == 0) {
+                for(int query = 0; query < 20; ++query) {
+                    long sourceId = pathRandom.nextInt(randomUsers.size());
+                    long destinationId = pathRandom.nextInt(randomUsers.size());
+                    List<Long> path = randomIndex.shortestPath(sourceId, destinationId, Integer.MAX_VALUE);
+                    assertEquals(path.size() - 1, breadthFirstDistance(randomFriendships, sourceId, destinationId));
+                    for(int position = 0; position + 1 < path.size(); ++position) {
+                        assertTrue(randomIndex.areFriends(path.get(position), path.get(position + 1)));
+                    }
+                }
+                for(int query = 0; query < 20; ++query) {
+                    long userId = pathRandom.nextInt(randomUsers.size());
+                    assertEquals(randomIndex.recommendFriends(userId, 5, null), bruteForceRecommendations(randomFriendships, userId, 5, candidateId -> 0.0));
+                    assertEquals(randomIndex.recommendFriends(userId, 3, candidateId -> candidateId % 3 == 0 ? 0.5 : 0.0), bruteForceRecommendations(randomFriendships, userId, 3, candidateId -> candidateId % 3 == 0 ? 0.5 : 0.0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Testele de durabilitate (scriere asincrona cu fsync, fisiere snapshot corupte sau trunchiate, fisier de id-uri corupt, fisiere binare cu ultima inregistrare incompleta, inregistrari din jurnal care nu pot fi aplicate) nu fac parte din runAllTests, care este rulat la fiecare pornire a aplicatiei: sunt lente (sincronizari pe disc) si provoaca mesajele de recuperare ale repozitoriilor, care nu trebuie sa apara in consola utilizatorului
+     */
+    @Test
+    public void runDurabilityTests() {
+        runTestsWriteBehindFileRepo();
+        runTestsSnapshotFile();
+        runTestsCorruptedIdFile();
+        runTestsTornBinaryFile();
+        runTestsUnappliedLogRecords();
+    }
+
+    private void runTestsUnappliedLogRecords() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-replay"));
+        String userFileName = directory.resolve("users.csv").toString();
+        String conflictingRecord = "M;2;Donna;Meyer;1999-08-10;abdul_fountain@emvil.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45";
+        assertDoesNotThrow(() -> {
+            Files.write(Paths.get(userFileName), Arrays.asList("1;Abdul;Fountain;1997-05-26;abdul_fountain@emvil.com;Strada Fabrica de Chibrituri 2;Romania;Cluj;Cluj-Napoca;abc;123", "2;Donna;Meyer;1999-08-10;donna_meyer@mailcuk.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45"));
+            Files.write(Paths.get(userFileName + ".log"), Arrays.asList(conflictingRecord, "A;3;Tania;Whiteley;1991-01-15;tania_whiteley@nbobd.com;Strada Pascani 8;Romania;Suceava;Suceava;fgh;6789", "X", "A;4;Nathan"));
+        });
+
+        PrintStream standardError = System.err;
+        ByteArrayOutputStream errorOutput = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errorOutput, true));
+        UserFileRepo userRepo;
+        try {
+            userRepo = assertDoesNotThrowAndReturn(() -> new UserFileRepo(userFileName, true));
+        } finally {
+            System.setErr(standardError);
+        }
+        List<String> reports = errorOutput.toString().lines().toList();
+        assertEquals(userRepo.len(), 3);
+        assertEquals(assertDoesNotThrowAndReturn(() -> userRepo.search(2L)).getEmail(), "donna_meyer@mailcuk.com");
+        assertEquals(reports.size(), 3);
+        assertTrue(reports.get(0).startsWith("[!]Skipped operation log record of " + userFileName + " which could not be applied ("));
+        assertTrue(reports.get(0).endsWith("): " + conflictingRecord));
+        assertEquals(reports.get(1), "[!]Skipped unreadable operation log record of " + userFileName + ": X");
+        assertEquals(reports.get(2), "[!]Skipped unreadable operation log record of " + userFileName + ": A;4;Nathan");
+    }
+
+    private void runTestsTornBinaryFile() {
+        Path directory = assertDoesNotThrowAndReturn(() -> Files.createTempDirectory("social-network-torn-binary"));
+        String userFileName = directory.resolve("users.bin").toString();
+        String friendshipFileName = directory.resolve("friendships.bin").toString();
+        UserBinaryFileRepo userRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName));
+        FriendshipBinaryFileRepo friendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, userRepo));
+        assertDoesNotThrow(() -> {
+            userRepo.add(new User(1L, "Abdul", "Fountain", LocalDate.of(1997, 5, 26), "abdul_fountain@emvil.com", null, new Credential("abc", "123")));
+            userRepo.add(new User(2L, "Donna", "Meyer", LocalDate.of(1999, 8, 10), "donna_meyer@mailcuk.com", null, new Credential("de", "45")));
+            friendshipRepo.add(new Friendship(1L, userRepo.search(1L), userRepo.search(2L), LocalDateTime.of(2015, 10, 25, 13, 30, 30), Friendship_Status.ACCEPTED));
+        });
+        long userFileSize = assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(userFileName)));
+        long friendshipFileSize = assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(friendshipFileName)));
+        assertDoesNotThrow(() -> {
+            userRepo.add(new User(3L, "Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", null, new Credential("fgh", "6789")));
+            friendshipRepo.add(new Friendship(2L, userRepo.search(2L), userRepo.search(3L), LocalDateTime.of(2018, 2, 1, 8, 0, 0), Friendship_Status.PENDING));
+            for(String fileName : List.of(userFileName, friendshipFileName)) {
+                byte[] bytes = Files.readAllBytes(Paths.get(fileName));
+                Files.write(Paths.get(fileName), Arrays.copyOf(bytes, bytes.length - 3));
+            }
+        });
+
+        UserBinaryFileRepo recoveredUserRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName));
+        FriendshipBinaryFileRepo recoveredFriendshipRepo = assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, recoveredUserRepo));
+        assertEquals(recoveredUserRepo.stream().map(User::getId).toList(), Arrays.asList(1L, 2L));
+        assertEquals(recoveredFriendshipRepo.stream().map(Friendship::getId).toList(), List.of(1L));
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(userFileName))), userFileSize);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(friendshipFileName))), friendshipFileSize);
+        assertDoesNotThrow(() -> recoveredUserRepo.add(new User(3L, "Tania", "Whiteley", LocalDate.of(1991, 1, 15), "tania_whiteley@nbobd.com", null, new Credential("fgh", "6789"))));
+        assertEquals(assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName)).len(), 3);
+
+        assertDoesNotThrow(() -> Files.write(Paths.get(friendshipFileName), new byte[]{0x53, 0x4E, 0x42}));
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, recoveredUserRepo)).len(), 0);
+        assertEquals(assertDoesNotThrowAndReturn(() -> Files.size(Paths.get(friendshipFileName))), 0L);
+
+        String userCsvFileName = directory.resolve("users.csv").toString();
+        String friendshipCsvFileName = directory.resolve("friendships.csv").toString();
+        assertDoesNotThrow(() -> {
+            Files.write(Paths.get(userCsvFileName), Arrays.asList("1;Abdul;Fountain;1997-05-26;abdul_fountain@emvil.com;Strada Fabrica de Chibrituri 2;Romania;Cluj;Cluj-Napoca;abc;123", "2;Donna;Meyer;1999-08-10;donna_meyer@mailcuk.com;Bulevardul Expozitiei 9;Romania;Mures;Targu Mures;de;45"));
+            Files.write(Paths.get(friendshipCsvFileName), List.of("1;1;2;2015-10-25 13:30:30;ACCEPTED"));
+            Files.delete(Paths.get(userFileName));
+            Files.delete(Paths.get(friendshipFileName));
+            Files.write(Paths.get(userFileName + ".conversion"), new byte[]{1, 2, 3});
+            Files.write(Paths.get(friendshipFileName + ".conversion"), new byte[]{1, 2, 3});
+            CsvToBinaryConverter.convert(userCsvFileName, friendshipCsvFileName, userFileName, friendshipFileName);
+        });
+        assertFalse(Files.exists(Paths.get(userFileName + ".conversion")));
+        assertFalse(Files.exists(Paths.get(friendshipFileName + ".conversion")));
+        UserBinaryFileRepo convertedUserRepo = assertDoesNotThrowAndReturn(() -> new UserBinaryFileRepo(userFileName));
+        assertEquals(convertedUserRepo.len(), 2);
+        assertEquals(assertDoesNotThrowAndReturn(() -> new FriendshipBinaryFileRepo(friendshipFileName, convertedUserRepo)).len(), 1);
+    }
+
+    private static int breadthFirstDistance(List<Friendship> friendships, long sourceUserId, long destinationUserId) {
+        Map<Long, List<Long>> friendsOf = new HashMap<>();
+        for(Friendship friendship : friendships) {
+            friendsOf.computeIfAbsent(friendship.getFirstFriend().getId(), id -> new ArrayList<>()).add(friendship.getSecondFriend().getId());
+            friendsOf.computeIfAbsent(friendship.getSecondFriend().getId(), id -> new ArrayList<>()).add(friendship.getFirstFriend().getId());
+        }
+        Map<Long, Integer> distances = new HashMap<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        distances.put(sourceUserId, 0);
+        queue.add(sourceUserId);
+        while(!queue.isEmpty()) {
+            Long userId = queue.poll();
+            if(userId == destinationUserId) {
+                return distances.get(userId);
+            }
+            for(Long friendId : friendsOf.getOrDefault(userId, List.of())) {
+                if(!distances.containsKey(friendId)) {
+                    distances.put(friendId, distances.get(userId) + 1);
+                    queue.add(friendId);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculeaza recomandarile de prietenie prin numararea directa a prietenilor comuni (implementarea de referinta pentru AdjacencyIndex.recommendFriends)
+     */
+    private static List<Long> bruteForceRecommendations(List<Friendship> friendships, long userId, int k, Function<Long, Double> locationBonus) {
+        Map<Long, Set<Long>> friendsOf = new HashMap<>();
+        for(Friendship friendship : friendships) {
+            friendsOf.computeIfAbsent(friendship.getFirstFriendId(), id -> new HashSet<>()).add(friendship.getSecondFriendId());
+            friendsOf.computeIfAbsent(friendship.getSecondFriendId(), id -> new HashSet<>()).add(friendship.getFirstFriendId());
+        }
+        Set<Long> friends = friendsOf.getOrDefault(userId, Set.of());
+        Map<Long, Double> scores = new HashMap<>();
+        for(Long friendId : friends) {
+            for(Long candidateId : friendsOf.get(friendId)) {
+                if(candidateId != userId && !friends.contains(candidateId)) {
+                    scores.merge(candidateId, 1.0, Double::sum);
+                }
+            }
+        }
+        scores.replaceAll((candidateId, score) -> score + locationBonus.apply(candidateId));
+        return scores.keySet().stream().sorted((first, second) -> !scores.get(first).equals(scores.get(second)) ? Double.compare(scores.get(second), scores.get(first)) : Long.compare(first, second)).limit(k).toList();
+    }
+
+    /**
+     * Executa o operatie a unui repozitoriu bazat pe FakeDatabase si verifica faptul ca aceasta a trimis cel mult o instructiune SQL (o singura calatorie dus-intors pana la baza de date)
+     */
+    private static <T> T runSingleStatement(FakeDatabase database, ThrowingSupplier<T> operation) throws Exception {
+        database.clearExecutedStatements();
+        try {
+            return operation.get();
+        } finally {
+            assertTrue(database.getExecutedStatements().size() <= 1);
+        }
+    }
+
+    private static void putUserColumns(Map<String, Object> row, String columnPrefix, User user) {
+        row.put(columnPrefix + "id", user.getId());
+        row.put(columnPrefix + "first_name", user.getFirstName());
+        row.put(columnPrefix + "last_name", user.getLastName());
+        row.put(columnPrefix + "birthday", user.getBirthday());
+        row.put(columnPrefix + "email", user.getEmail());
+        row.put(columnPrefix + "home_address", user.getAddress().getHomeAddress());
+        row.put(columnPrefix + "country", user.getAddress().getCountry());
+        row.put(columnPrefix + "county", user.getAddress().getCounty());
+        row.put(columnPrefix + "city", user.getAddress().getCity());
+        row.put(columnPrefix + "username", user.getCredential().getUsername());
+        row.put(columnPrefix + "password", user.getCredential().getPassword());
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    private static <T> T assertDoesNotThrowAndReturn(ThrowingSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch(Exception ex) {
+            throw new AssertionError("[!]Unexpected exception: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Repozitoriu de utilizatori folosit in teste care numara toate apelurile primite (pentru a verifica ca anumite operatii nu acceseaza repozitoriul)
+     */
+    private static class CountingUserRepo implements IRepository<Long, User> {
+        private final Map<Long, User> users = new LinkedHashMap<>();
+        private int numberOfCalls = 0;
+
+        public void put(User user) {
+            users.put(user.getId(), user);
+        }
+
+        public int getNumberOfCalls() {
+            return numberOfCalls;
+        }
+
+        @Override
+        public void add(User user) throws RepoException {
+            ++numberOfCalls;
+            if(users.containsKey(user.getId())) {
+                throw new RepoException("[!]Entity already exists (there is an entity with the given id)!\n");
+            }
+            users.put(user.getId(), user);
+        }
+
+        @Override
+        public User remove(Long id) throws RepoException {
+            ++numberOfCalls;
+            User removedUser = users.remove(id);
+            if(removedUser == null) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+            return removedUser;
+        }
+
+        @Override
+        public User modify(User user) throws RepoException {
+            ++numberOfCalls;
+            User modifiedUser = users.get(user.getId());
+            if(modifiedUser == null) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+            users.put(user.getId(), user);
+            return modifiedUser;
+        }
+
+        @Override
+        public User search(Long id) throws RepoException {
+            ++numberOfCalls;
+            User searchedUser = users.get(id);
+            if(searchedUser == null) {
+                throw new RepoException("[!]There is no entity in the repository with the given id!\n");
+            }
+            return searchedUser;
+        }
+
+        @Override
+        public int len() {
+            ++numberOfCalls;
+            return users.size();
+        }
+
+        @Override
+        public Iterable<User> getAll() throws RepoException {
+            ++numberOfCalls;
+            if(users.isEmpty()) {
+                throw new RepoException("[!]There are no entities in the repository!\n");
+            }
+            return users.values();
+        }
+    }
+
+    /**
+     * Baza de date falsa (fara server) folosita in teste in locul unei baze de date reale<br>
+     * Conexiunile, instructiunile si rezultatele sunt proxy-uri JDBC; fiecare instructiune executata este inregistrata (text SQL, parametri, fetch size), iar randurile intoarse sunt date de handler-ul setat prin setHandler (implicit interogarile COUNT intorc valoarea setata prin setCount)
+     */
+    private static class FakeDatabase {
+        /**
+         * Functie care raspunde la o instructiune SQL cu lista de randuri (coloana - valoare) intoarse
+         */
+        private interface StatementHandler {
+            List<Map<String, Object>> execute(String sqlCommand, List<Object> parameters) throws SQLException;
+        }
+
+        private final Set<FakeConnectionState> openConnections = Collections.synchronizedSet(new HashSet<>());
+        private final List<String> executedStatements = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger numberOfOpenStatements = new AtomicInteger();
+        private final AtomicInteger numberOfRollbacks = new AtomicInteger();
+        private final AtomicInteger numberOfCommits = new AtomicInteger();
+        private final AtomicInteger numberOfBatches = new AtomicInteger();
+        private volatile int count = 0;
+        private volatile int lastFetchSize = 0;
+        private volatile StatementHandler handler = (sqlCommand, parameters) -> List.of(Map.of("count", count));
+
+        public Connection connect() {
+            FakeConnectionState state = new FakeConnectionState();
+            openConnections.add(state);
+            return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, arguments) -> switch(method.getName()) {
+                case "isValid" -> !state.closed && !state.broken;
+                case "isClosed" -> state.closed;
+                case "close" -> {
+                    state.closed = true;
+                    openConnections.remove(state);
+                    yield null;
+                }
+                case "getAutoCommit" -> state.autoCommit;
+                case "setAutoCommit" -> {
+                    state.autoCommit = (Boolean)arguments[0];
+                    yield null;
+                }
+                case "commit" -> {
+                    numberOfCommits.incrementAndGet();
+                    yield null;
+                }
+                case "rollback" -> {
+                    numberOfRollbacks.incrementAndGet();
+                    yield null;
+                }
+                case "prepareStatement" -> prepareStatement((String)arguments[0]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        private PreparedStatement prepareStatement(String sqlCommand) {
+            numberOfOpenStatements.incrementAndGet();
+            List<Object> parameters = new ArrayList<>();
+            List<List<Object>> batch = new ArrayList<>();
+            return (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, arguments) -> {
+                if(method.getName().startsWith("set") && arguments != null && arguments.length == 2 && arguments[0] instanceof Integer index) {
+                    while(parameters.size() < index) {
+                        parameters.add(null);
+                    }
+                    parameters.set(index - 1, arguments[1]);
+                    return null;
+                }
+                return switch(method.getName()) {
+                    case "close" -> {
+                        numberOfOpenStatements.decrementAndGet();
+                        yield null;
+                    }
+                    case "setFetchSize" -> {
+                        lastFetchSize = (Integer)arguments[0];
+                        yield null;
+                    }
+                    case "executeQuery" -> resultSetOf(execute(sqlCommand, parameters));
+                    case "executeUpdate" -> execute(sqlCommand, parameters).size();
+                    case "addBatch" -> {
+                        batch.add(new ArrayList<>(parameters));
+                        yield null;
+                    }
+                    case "executeBatch" -> {
+                        numberOfBatches.incrementAndGet();
+                        int[] updateCounts = new int[batch.size()];
+                        try {
+                            for(int position = 0; position < batch.size(); ++position) {
+                                updateCounts[position] = execute(sqlCommand, batch.get(position)).size();
+                            }
+                        } finally {
+                            batch.clear();
+                        }
+                        yield updateCounts;
+                    }
+                    default -> null;
+                };
+            });
+        }
+
+        private List<Map<String, Object>> execute(String sqlCommand, List<Object> parameters) throws SQLException {
+            executedStatements.add(sqlCommand);
+            return handler.execute(sqlCommand, new ArrayList<>(parameters));
+        }
+
+        private static ResultSet resultSetOf(List<Map<String, Object>> rows) {
+            int[] currentRow = {-1};
+            return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, arguments) -> {
+                if(method.getName().equals("next")) {
+                    return ++currentRow[0] < rows.size();
+                }
+                if(method.getName().equals("close")) {
+                    return null;
+                }
+                Map<String, Object> row = rows.get(currentRow[0]);
+                Object value = arguments[0] instanceof Integer index ? new ArrayList<>(row.values()).get(index - 1) : row.get((String)arguments[0]);
+                return switch(method.getName()) {
+                    case "getLong" -> ((Number)value).longValue();
+                    case "getInt" -> ((Number)value).intValue();
+                    case "getDate" -> java.sql.Date.valueOf((LocalDate)value);
+                    case "getTimestamp" -> java.sql.Timestamp.valueOf((LocalDateTime)value);
+                    default -> value;
+                };
+            });
+        }
+
+        public void setHandler(StatementHandler handler) {
+            this.handler = handler;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void breakOpenConnections() {
+            synchronized(openConnections) {
+                openConnections.forEach(state -> state.broken = true);
+            }
+        }
+
+        public List<String> getExecutedStatements() {
+            synchronized(executedStatements) {
+                return new ArrayList<>(executedStatements);
+            }
+        }
+
+        public void clearExecutedStatements() {
+            executedStatements.clear();
+        }
+
+        public int getLastFetchSize() {
+            return lastFetchSize;
+        }
+
+        public int getNumberOfOpenConnections() {
+            return openConnections.size();
+        }
+
+        public int getNumberOfOpenStatements() {
+            return numberOfOpenStatements.get();
+        }
+
+        public int getNumberOfRollbacks() {
+            return numberOfRollbacks.get();
+        }
+
+        public int getNumberOfCommits() {
+            return numberOfCommits.get();
+        }
+
+        public int getNumberOfBatches() {
+            return numberOfBatches.get();
+        }
+
+        private static class FakeConnectionState {
+            private volatile boolean closed = false;
+            private volatile boolean broken = false;
+            private volatile boolean autoCommit = true;
+        }
+    }
+
+    /**
+     * Tabelele users si friendships ale bazei de date false, care interpreteaza (dupa forma lor) instructiunile trimise de UserDbRepository si FriendshipDbRepository<br>
+     * Sunt emulate constrangerile de unicitate (uq_users, uq_users_username, uq_users_password, uq_friendships), ON CONFLICT (id) DO NOTHING si clauzele RETURNING
+     */
+    private static class FakeSocialNetworkTables implements FakeDatabase.StatementHandler {
+        private final Map<Long, Map<String, Object>> users = new LinkedHashMap<>();
+        private final Map<Long, Map<String, Object>> friendships = new LinkedHashMap<>();
+        private final Map<String, Long> sequences = new HashMap<>();
+
+        @Override
+        public synchronized List<Map<String, Object>> execute(String sqlCommand, List<Object> parameters) throws SQLException {
+            if(sqlCommand.startsWith("INSERT INTO users")) {
+                Map<String, Object> user = userRow((Long)parameters.get(0), parameters.subList(1, 11));
+                if(users.containsKey(user.get("id"))) {
+                    return List.of();
+                }
+                checkUniqueUserColumns(user);
+                users.put((Long)user.get("id"), user);
+                return List.of(user);
+            }
+            if(sqlCommand.startsWith("DELETE FROM users")) {
+                Map<String, Object> user = users.remove((Long)parameters.get(0));
+                return user == null ? List.of() : List.of(user);
+            }
+            if(sqlCommand.startsWith("UPDATE users")) {
+                Map<String, Object> oldUser = users.get((Long)parameters.get(8));
+                if(oldUser == null) {
+                    return List.of();
+                }
+                Map<String, Object> user = new LinkedHashMap<>(oldUser);
+                String[] columns = {"first_name", "last_name", "home_address", "country", "county", "city", "username", "password"};
+                for(int column = 0; column < columns.length; ++column) {
+                    user.put(columns[column], parameters.get(column));
+                }
+                checkUniqueUserColumns(user);
+                users.put((Long)user.get("id"), user);
+                return List.of(oldUser);
+            }
+            if(sqlCommand.equals("SELECT * FROM users WHERE id = ?")) {
+                Map<String, Object> user = users.get((Long)parameters.get(0));
+                return user == null ? List.of() : List.of(user);
+            }
+            if(sqlCommand.equals("SELECT * FROM users")) {
+                return new ArrayList<>(users.values());
+            }
+            if(sqlCommand.startsWith("SELECT * FROM users WHERE first_name ILIKE ?")) {
+                String pattern = (String)parameters.get(0);
+                String substring = pattern.substring(1, pattern.length() - 1).replace("\\%", "%").replace("\\_", "_").replace("\\\\", "\\").toLowerCase();
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for(Map<String, Object> user : users.values()) {
+                    if(rows.size() < (Integer)parameters.get(2) && (((String)user.get("first_name")).toLowerCase().contains(substring) || ((String)user.get("last_name")).toLowerCase().contains(substring))) {
+                        rows.add(user);
+                    }
+                }
+                return rows;
+            }
+            if(sqlCommand.equals("SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?")) {
+                return keysetPage(users, parameters);
+            }
+            if(sqlCommand.startsWith("SELECT COALESCE(MAX(id), 0) FROM ")) {
+                Map<Long, Map<String, Object>> rows = sqlCommand.endsWith("users") ? users : friendships;
+                return List.of(Map.of("coalesce", rows.keySet().stream().mapToLong(Long::longValue).max().orElse(0L)));
+            }
+            if(sqlCommand.startsWith("SELECT nextval('")) {
+                String sequenceName = sqlCommand.substring("SELECT nextval('".length(), sqlCommand.indexOf("')"));
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for(int row = 0; row < (Integer)parameters.get(0); ++row) {
+                    rows.add(Map.of("nextval", sequences.merge(sequenceName, 1L, Long::sum)));
+                }
+                return rows;
+            }
+            if(sqlCommand.equals("SELECT COUNT(*) FROM users")) {
+                return List.of(Map.of("count", users.size()));
+            }
+            if(sqlCommand.equals("SELECT COUNT(*) FROM friendships")) {
+                return List.of(Map.of("count", friendships.size()));
+            }
+            if(sqlCommand.startsWith("INSERT INTO friendships")) {
+                Map<String, Object> friendship = friendshipRow((Long)parameters.get(0), parameters.subList(1, 5));
+                if(friendships.containsKey(friendship.get("id"))) {
+                    return List.of();
+                }
+                checkUniqueFriendship(friendship);
+                friendships.put((Long)friendship.get("id"), friendship);
+                return List.of(friendship);
+            }
+            if(sqlCommand.startsWith("WITH f AS (DELETE FROM friendships")) {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for(Object friendshipId : parameters) {
+                    Map<String, Object> friendship = friendships.remove((Long)friendshipId);
+                    if(friendship != null) {
+                        rows.add(hydrate(friendship));
+                    }
+                }
+                return rows;
+            }
+            if(sqlCommand.startsWith("WITH f AS (SELECT * FROM friendships")) {
+                Map<String, Object> oldFriendship = friendships.get((Long)parameters.get(0));
+                if(oldFriendship == null) {
+                    return List.of();
+                }
+                Map<String, Object> friendship = friendshipRow((Long)parameters.get(0), parameters.subList(1, 5));
+                checkUniqueFriendship(friendship);
+                Map<String, Object> hydratedOldFriendship = hydrate(oldFriendship);
+                friendships.put((Long)friendship.get("id"), friendship);
+                return List.of(hydratedOldFriendship);
+            }
+            if(sqlCommand.startsWith("SELECT f.id") && sqlCommand.endsWith("WHERE f.id > ? ORDER BY f.id LIMIT ?")) {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for(Map<String, Object> friendship : keysetPage(friendships, parameters)) {
+                    rows.add(hydrate(friendship));
+                }
+                return rows;
+            }
+            if(sqlCommand.startsWith("SELECT f.id") && sqlCommand.endsWith("WHERE f.id = ?")) {
+                Map<String, Object> friendship = friendships.get((Long)parameters.get(0));
+                return friendship == null ? List.of() : List.of(hydrate(friendship));
+            }
+            if(sqlCommand.startsWith("SELECT f.id")) {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for(Map<String, Object> friendship : friendships.values()) {
+                    rows.add(hydrate(friendship));
+                }
+                return rows;
+            }
+            throw new SQLException("Unsupported statement: " + sqlCommand);
+        }
+
+        private static List<Map<String, Object>> keysetPage(Map<Long, Map<String, Object>> rowsById, List<Object> parameters) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            rowsById.keySet().stream().filter(id -> id > (Long)parameters.get(0)).sorted().limit((Integer)parameters.get(1)).forEach(id -> rows.add(rowsById.get(id)));
+            return rows;
+        }
+
+        private static Map<String, Object> userRow(Long id, List<Object> values) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("id", id);
+            String[] columns = {"first_name", "last_name", "birthday", "email", "home_address", "country", "county", "city", "username", "password"};
+            for(int column = 0; column < columns.length; ++column) {
+                Object value = values.get(column);
+                user.put(columns[column], value instanceof java.sql.Date date ? date.toLocalDate() : value);
+            }
+            return user;
+        }
+
+        private static Map<String, Object> friendshipRow(Long id, List<Object> values) {
+            Map<String, Object> friendship = new LinkedHashMap<>();
+            friendship.put("id", id);
+            friendship.put("first_friend_id", values.get(0));
+            friendship.put("second_friend_id", values.get(1));
+            friendship.put("friends_from", ((java.sql.Timestamp)values.get(2)).toLocalDateTime());
+            friendship.put("friendship_status", values.get(3));
+            return friendship;
+        }
+
+        private Map<String, Object> hydrate(Map<String, Object> friendship) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", friendship.get("id"));
+            row.put("friends_from", friendship.get("friends_from"));
+            row.put("friendship_status", friendship.get("friendship_status"));
+            for(Map.Entry<String, Object> column : users.get((Long)friendship.get("first_friend_id")).entrySet()) {
+                row.put("first_friend_" + column.getKey(), column.getValue());
+            }
+            for(Map.Entry<String, Object> column : users.get((Long)friendship.get("second_friend_id")).entrySet()) {
+                row.put("second_friend_" + column.getKey(), column.getValue());
+            }
+            return row;
+        }
+
+        private void checkUniqueUserColumns(Map<String, Object> user) throws SQLException {
+            for(Map<String, Object> otherUser : users.values()) {
+                if(otherUser.get("id").equals(user.get("id"))) {
+                    continue;
+                }
+                if(otherUser.get("email").equals(user.get("email"))) {
+                    throw uniqueViolation("uq_users");
+                }
+                if(otherUser.get("username").equals(user.get("username"))) {
+                    throw uniqueViolation("uq_users_username");
+                }
+                if(otherUser.get("password").equals(user.get("password"))) {
+                    throw uniqueViolation("uq_users_password");
+                }
+            }
+        }
+
+        private void checkUniqueFriendship(Map<String, Object> friendship) throws SQLException {
+            Set<Object> friends = Set.of(friendship.get("first_friend_id"), friendship.get("second_friend_id"));
+            for(Map<String, Object> otherFriendship : friendships.values()) {
+                if(!otherFriendship.get("id").equals(friendship.get("id")) && friends.equals(Set.of(otherFriendship.get("first_friend_id"), otherFriendship.get("second_friend_id")))) {
+                    throw uniqueViolation("uq_friendships");
+                }
+            }
+        }
+
+        private static SQLException uniqueViolation(String constraintName) {
+            return new SQLException("ERROR: duplicate key value violates unique constraint \"" + constraintName + "\"", "23505");
+        }
+    }
 }
@@ -13,7 +13,34 @@ public class Constants {
             + "[^-][A-Za-z0-9\\+-]+(\\.[A-Za-z0-9\\+-]+)*(\\.[A-Za-z]{2,})$";
     public static final String USER_TEXT_FILE_PATH = "./src/data/users.csv";
     public static final String FRIENDSHIP_TEXT_FILE_PATH = "./src/data/friendships.csv";
+    public static final String USER_ID_FILE_PATH = "./src/data/users.csv.id";
+    public static final String FRIENDSHIP_ID_FILE_PATH = "./src/data/friendships.csv.id";
+    public static final String USER_BINARY_FILE_PATH = "./src/data/users.bin";
+    public static final String FRIENDSHIP_BINARY_FILE_PATH = "./src/data/friendships.bin";
+    public static final String USER_BINARY_ID_FILE_PATH = "./src/data/users.bin.id";
+    public static final String FRIENDSHIP_BINARY_ID_FILE_PATH = "./src/data/friendships.bin.id";
+    public static final int FILE_ID_BLOCK_SIZE = 1_000;
+    public static final long BINARY_FILE_MAPPING_SIZE = 1L << 30;
+    public static final boolean FILE_REPO_LOG_STRUCTURED = true;
+    public static final int FILE_LOG_COMPACTION_RATIO = 2;
+    public static final int FILE_LOG_MINIMUM_COMPACTION_SIZE = 1_000;
+    public static final int CSV_LOAD_CHUNK_SIZE = 8 * 1024 * 1024;
+    public static final int SNAPSHOT_CHECKSUM_BLOCK_SIZE = 64 * 1024;
+    public static final boolean FILE_WRITE_BEHIND_ENABLED = false;
+    public static final long FILE_WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = 50L;
+    public static final int FILE_WRITE_BEHIND_QUEUE_CAPACITY = 10_000;
     public static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/social_network";
     public static final String DATABASE_USER = "postgres";
     public static final String DATABASE_PASSWORD = "postgres";
+    public static final int DATABASE_POOL_SIZE = 8;
+    public static final long DATABASE_POOL_IDLE_TIMEOUT_MILLIS = 300_000L;
+    public static final long DATABASE_POOL_BORROW_TIMEOUT_MILLIS = 5_000L;
+    public static final int REPOSITORY_CACHE_SIZE = 10_000;
+    public static final int DATABASE_POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final int DATABASE_FETCH_SIZE = 1_000;
+    public static final int DATABASE_BATCH_SIZE = 1_000;
+    public static final int REPOSITORY_PAGE_SIZE = 1_000;
+    public static final double RECOMMENDATION_SAME_CITY_BONUS = 1.0;
+    public static final double RECOMMENDATION_SAME_COUNTY_BONUS = 0.5;
+    public static final int DEFAULT_NUMBER_OF_RECOMMENDATIONS = 10;
 }